@@ -28,10 +28,35 @@ public abstract class CommonDecoderImpl
 {
     public static final int INCORRECT_DATA_FORMAT_FOR_VALUE = 6;
 
+    /**
+     * Generation stamp of an optional field that isn't present, never used as a generation.
+     */
+    public static final int MISSING_GENERATION = 0;
+
+    public static final int FIRST_GENERATION = 1;
+
     protected int invalidTagId = Decoder.NO_ERROR;
     protected int rejectReason = Decoder.NO_ERROR;
     protected AsciiBuffer buffer;
 
+    /**
+     * Optional fields are stamped with the generation that decoded them and are only present whilst their stamp
+     * matches it, so resetting them all is a single increment.
+     */
+    protected int generation = FIRST_GENERATION;
+
+    /**
+     * Moves onto a new generation. When the counter wraps around back to {@link #FIRST_GENERATION} old stamps could
+     * match it again, so generated decoders then clear their stamps explicitly.
+     */
+    protected void nextGeneration()
+    {
+        if (++generation == MISSING_GENERATION)
+        {
+            generation = FIRST_GENERATION;
+        }
+    }
+
     public int invalidTagId()
     {
         return invalidTagId;
@@ -171,6 +171,34 @@ public interface SessionHeaderEncoder
 
     long startMessage(MutableAsciiBuffer buffer, int offset);
 
+    /**
+     * Check whether this encoder can splice a pre-rendered header template into the messages it encodes.
+     *
+     * @return true if {@link #headerTemplate(byte[], int)} is supported, false otherwise.
+     */
+    boolean supportsHeaderTemplate();
+
+    /**
+     * Encode the session identity fields that have been set on this encoder: SenderCompID, TargetCompID and their
+     * sub and location ids. These are constant for a session, so the result can be used as a header template.
+     *
+     * @param buffer the buffer to encode the fields into.
+     * @param offset the offset within the buffer to start encoding at.
+     * @return the length of the encoded fields.
+     */
+    int encodeHeaderTemplate(MutableAsciiBuffer buffer, int offset);
+
+    /**
+     * Splice a header template, as rendered by {@link #encodeHeaderTemplate(MutableAsciiBuffer, int)}, into the
+     * encoded header after the MsgType field. The session identity fields then needn't be set on this encoder, and
+     * must not be or they will be encoded twice. The template isn't copied, so it should be immutable once set.
+     *
+     * @param template the template, or null to clear it.
+     * @param length the length of the template, or 0 to clear it.
+     * @return this encoder.
+     */
+    SessionHeaderEncoder headerTemplate(byte[] template, int length);
+
     SessionHeaderEncoder msgType(CharSequence value);
 
     SessionHeaderEncoder msgType(DirectBuffer value);
@@ -95,6 +95,17 @@ public final class LongDictionary
         return map.get(key);
     }
 
+    public long[] keys()
+    {
+        final long[] keys = new long[map.size()];
+        int i = 0;
+        for (final Long key : map.keySet())
+        {
+            keys[i++] = key;
+        }
+        return keys;
+    }
+
     public boolean contains(final long key, final int value)
     {
         final IntHashSet fields = values(key);
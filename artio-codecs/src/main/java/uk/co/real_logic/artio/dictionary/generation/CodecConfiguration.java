@@ -52,15 +52,39 @@ public final class CodecConfiguration
      * without checking whether the field is set.
      */
     public static final String WRAP_EMPTY_BUFFER = "fix.codecs.wrap_empty_buffer";
+    /**
+     * Integer system property for the number of digits in a fixed width, zero padded, BodyLength field written by
+     * generated encoders. Defaults to {@link #VARIABLE_BODY_LENGTH}.
+     *
+     * @see #fixedBodyLengthWidth(int)
+     */
+    public static final String FIXED_BODY_LENGTH_WIDTH_PROPERTY = "fix.codecs.fixed_body_length_width";
+    /**
+     * Boolean system property to generate an SBE schema, SBE codecs and FIX to SBE transcoders for the dictionary.
+     *
+     * @see #sbeTranscodersEnabled(boolean)
+     */
+    public static final String SBE_TRANSCODERS_ENABLED_PROPERTY = "fix.codecs.sbe_transcoders";
+    /**
+     * Boolean system property to generate decoders that decode the entries of repeating groups as they're iterated.
+     *
+     * @see #lazyGroupDecoding(boolean)
+     */
+    public static final String LAZY_GROUP_DECODING_PROPERTY = "fix.codecs.lazy_group_decoding";
     public static final String PARENT_PACKAGE_PROPERTY = "fix.codecs.parent_package";
     public static final String FLYWEIGHTS_ENABLED_PROPERTY = "fix.codecs.flyweight";
     public static final String REJECT_UNKNOWN_ENUM_VALUE_PROPERTY = "reject.unknown.enum.value";
 
     public static final String DEFAULT_PARENT_PACKAGE = "uk.co.real_logic.artio";
+    public static final int VARIABLE_BODY_LENGTH = 0;
+    public static final int MAX_FIXED_BODY_LENGTH_WIDTH = 9;
 
     private String parentPackage = System.getProperty(PARENT_PACKAGE_PROPERTY, DEFAULT_PARENT_PACKAGE);
     private boolean flyweightsEnabled = Boolean.getBoolean(FLYWEIGHTS_ENABLED_PROPERTY);
     private boolean wrapEmptyBuffer = Boolean.getBoolean(WRAP_EMPTY_BUFFER);
+    private int fixedBodyLengthWidth = Integer.getInteger(FIXED_BODY_LENGTH_WIDTH_PROPERTY, VARIABLE_BODY_LENGTH);
+    private boolean sbeTranscodersEnabled = Boolean.getBoolean(SBE_TRANSCODERS_ENABLED_PROPERTY);
+    private boolean lazyGroupDecoding = Boolean.getBoolean(LAZY_GROUP_DECODING_PROPERTY);
     private SharedCodecConfiguration sharedCodecConfiguration;
 
     private String codecRejectUnknownEnumValueEnabled;
@@ -125,6 +149,65 @@ public final class CodecConfiguration
         return this;
     }
 
+    /**
+     * Generate encoders that write the BodyLength field zero padded to a fixed number of digits, eg 9=000123. This
+     * lets an encoder reserve the BodyLength slot up front, so a message starts exactly at the offset that it's
+     * encoded at rather than its header being written backwards once the body has been encoded. Only enable this
+     * if your counter-parties accept zero padded BodyLength values.
+     *
+     * Encoding a message whose body is too long for the width fails with a NumberFormatException.
+     *
+     * Defaults to the value of {@link #FIXED_BODY_LENGTH_WIDTH_PROPERTY} system property, or
+     * {@link #VARIABLE_BODY_LENGTH} if that isn't set.
+     *
+     * @param fixedBodyLengthWidth the number of digits of the BodyLength, up to {@link #MAX_FIXED_BODY_LENGTH_WIDTH},
+     *                             or {@link #VARIABLE_BODY_LENGTH} to write it without padding.
+     * @return this
+     */
+    public CodecConfiguration fixedBodyLengthWidth(final int fixedBodyLengthWidth)
+    {
+        this.fixedBodyLengthWidth = fixedBodyLengthWidth;
+        return this;
+    }
+
+    /**
+     * Generate an SBE schema from the dictionary, the SBE codecs for that schema and a transcoder per message that
+     * copies fields between the generated FIX codecs and SBE codecs. These go into the <code>sbe</code> package
+     * under the parent package, the schema being written alongside them for consumers in other languages.
+     * This lets downstream consumers read archived or received messages with fixed offset binary access rather than
+     * re-parsing tag=value FIX. Repeating groups and DATA fields aren't transcoded. Not supported with shared codecs.
+     *
+     * Defaults to the value of {@link #SBE_TRANSCODERS_ENABLED_PROPERTY} system property.
+     *
+     * @param sbeTranscodersEnabled true to generate SBE transcoders, false otherwise (default).
+     * @return this
+     */
+    public CodecConfiguration sbeTranscodersEnabled(final boolean sbeTranscodersEnabled)
+    {
+        this.sbeTranscodersEnabled = sbeTranscodersEnabled;
+        return this;
+    }
+
+    /**
+     * Generate decoders that only find the end of each repeating group when a message is decoded, its entries being
+     * decoded when they're first accessed through the group's getter, iterator or <code>next()</code>. This makes
+     * decoding messages with large repeating groups cheap when only the header or a few body fields are read.
+     *
+     * Entries are decoded from the buffer that the message was decoded from, so it must not be reused until the
+     * message's repeating groups have been read. Not supported with shared codecs.
+     *
+     * Defaults to the value of {@link #LAZY_GROUP_DECODING_PROPERTY} system property.
+     *
+     * @param lazyGroupDecoding true to decode repeating group entries on access, false to decode them with the
+     *                          rest of the message (default).
+     * @return this
+     */
+    public CodecConfiguration lazyGroupDecoding(final boolean lazyGroupDecoding)
+    {
+        this.lazyGroupDecoding = lazyGroupDecoding;
+        return this;
+    }
+
     /**
      * Allow duplicate fields. Executable documentation can be found in the test "DuplicateFieldsTest".
      *
@@ -231,6 +314,21 @@ public final class CodecConfiguration
         return wrapEmptyBuffer;
     }
 
+    int fixedBodyLengthWidth()
+    {
+        return fixedBodyLengthWidth;
+    }
+
+    boolean sbeTranscodersEnabled()
+    {
+        return sbeTranscodersEnabled;
+    }
+
+    boolean lazyGroupDecoding()
+    {
+        return lazyGroupDecoding;
+    }
+
     String codecRejectUnknownEnumValueEnabled()
     {
         return codecRejectUnknownEnumValueEnabled;
@@ -258,6 +356,13 @@ public final class CodecConfiguration
             throw new IllegalArgumentException("Missing outputPath() configuration property");
         }
 
+        if (fixedBodyLengthWidth < VARIABLE_BODY_LENGTH || fixedBodyLengthWidth > MAX_FIXED_BODY_LENGTH_WIDTH)
+        {
+            throw new IllegalArgumentException(
+                "fixedBodyLengthWidth must be between " + VARIABLE_BODY_LENGTH + " and " +
+                MAX_FIXED_BODY_LENGTH_WIDTH + " but was " + fixedBodyLengthWidth);
+        }
+
         if (codecRejectUnknownEnumValueEnabled == null)
         {
             final String rejectUnknownEnumPropertyValue = System.getProperty(REJECT_UNKNOWN_ENUM_VALUE_PROPERTY);
@@ -274,6 +379,16 @@ public final class CodecConfiguration
                         "configuration option. If you want to provide dictionaries for sharing then use " +
                         "SharedCodecConfiguration.withDictionary().");
             }
+
+            if (sbeTranscodersEnabled)
+            {
+                throw new IllegalArgumentException("SBE transcoders can't be generated for shared codecs");
+            }
+
+            if (lazyGroupDecoding)
+            {
+                throw new IllegalArgumentException("Lazy group decoding isn't supported for shared codecs");
+            }
         }
         else
         {
@@ -15,6 +15,7 @@
  */
 package uk.co.real_logic.artio.dictionary.generation;
 
+import org.agrona.LangUtil;
 import org.agrona.generation.OutputManager;
 import org.agrona.generation.PackageOutputManager;
 import uk.co.real_logic.artio.builder.RejectUnknownEnumValue;
@@ -22,13 +23,25 @@ import uk.co.real_logic.artio.builder.RejectUnknownField;
 import uk.co.real_logic.artio.builder.Validation;
 import uk.co.real_logic.artio.dictionary.DictionaryParser;
 import uk.co.real_logic.artio.dictionary.ir.Dictionary;
+import uk.co.real_logic.sbe.SbeTool;
+import uk.co.real_logic.sbe.generation.java.JavaGenerator;
+import uk.co.real_logic.sbe.ir.IrGenerator;
+import uk.co.real_logic.sbe.xml.MessageSchema;
+import uk.co.real_logic.sbe.xml.ParserOptions;
+import uk.co.real_logic.sbe.xml.XmlSchemaParser;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.BiFunction;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 public final class CodecGenerator
 {
     public static final String SHARED_DIR_NAME = "shared";
@@ -140,6 +153,7 @@ public final class CodecGenerator
         final String encoderPackage = parentPackage + ".builder";
         final String decoderPackage = parentPackage + ".decoder";
         final String decoderFlyweightPackage = parentPackage + ".decoder_flyweight";
+        final String sbePackage = parentPackage + ".sbe";
 
         final BiFunction<String, String, OutputManager> outputManagerFactory =
             configuration.outputManagerFactory();
@@ -165,7 +179,8 @@ public final class CodecGenerator
             Validation.class,
             RejectUnknownField.class,
             RejectUnknownEnumValue.class,
-            codecRejectUnknownEnumValueEnabled).generate();
+            codecRejectUnknownEnumValueEnabled,
+            configuration.fixedBodyLengthWidth()).generate();
 
         new DecoderGenerator(
             dictionary,
@@ -179,11 +194,25 @@ public final class CodecGenerator
             RejectUnknownEnumValue.class,
             false,
             configuration.wrapEmptyBuffer(),
-            codecRejectUnknownEnumValueEnabled).generate();
+            codecRejectUnknownEnumValueEnabled,
+            configuration.lazyGroupDecoding()).generate();
 
         new PrinterGenerator(dictionary, decoderPackage, decoderOutput).generate();
         new AcceptorGenerator(dictionary, decoderPackage, decoderOutput).generate();
 
+        if (configuration.sbeTranscodersEnabled())
+        {
+            final SbeTranscoderGenerator transcoderGenerator = new SbeTranscoderGenerator(
+                dictionary,
+                sbePackage,
+                decoderPackage,
+                encoderPackage,
+                outputManagerFactory.apply(outputPath, sbePackage));
+            transcoderGenerator.generate();
+            generateSbeCodecs(
+                outputPath, sbePackage, transcoderGenerator.generateSchema(), outputManagerFactory);
+        }
+
         if (configuration.flyweightsEnabled())
         {
             final PackageOutputManager flyweightDecoderOutput =
@@ -200,7 +229,39 @@ public final class CodecGenerator
                 RejectUnknownEnumValue.class,
                 true,
                 configuration.wrapEmptyBuffer(),
-                codecRejectUnknownEnumValueEnabled).generate();
+                codecRejectUnknownEnumValueEnabled,
+                configuration.lazyGroupDecoding()).generate();
+        }
+    }
+
+    private static void generateSbeCodecs(
+        final String outputPath,
+        final String sbePackage,
+        final String schema,
+        final BiFunction<String, String, OutputManager> outputManagerFactory)
+    {
+        try
+        {
+            final byte[] schemaBytes = schema.getBytes(UTF_8);
+            final Path schemaDir = Paths.get(outputPath, sbePackage.split("\\."));
+            Files.createDirectories(schemaDir);
+            Files.write(schemaDir.resolve(SbeTranscoderGenerator.SCHEMA_FILE_NAME), schemaBytes);
+
+            final MessageSchema messageSchema = XmlSchemaParser.parse(
+                new ByteArrayInputStream(schemaBytes), ParserOptions.DEFAULT);
+            // Equivalent to SbeTool.generate() with its defaults, but writing through the configured output manager
+            new JavaGenerator(
+                new IrGenerator().generate(messageSchema),
+                SbeTool.JAVA_DEFAULT_ENCODING_BUFFER_TYPE,
+                SbeTool.JAVA_DEFAULT_DECODING_BUFFER_TYPE,
+                false,
+                false,
+                false,
+                outputManagerFactory.apply(outputPath, sbePackage)).generate();
+        }
+        catch (final Exception e)
+        {
+            LangUtil.rethrowUnchecked(e);
         }
     }
 }
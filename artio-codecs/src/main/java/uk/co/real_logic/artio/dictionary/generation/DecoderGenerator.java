@@ -72,6 +72,8 @@ class DecoderGenerator extends Generator
     public static final String REQUIRED_FIELDS = "REQUIRED_FIELDS";
     private static final String GROUP_FIELDS = "GROUP_FIELDS";
     private static final String ALL_GROUP_FIELDS = "ALL_GROUP_FIELDS";
+    private static final String ENTRY_FIELDS = "ENTRY_FIELDS";
+    private static final String NESTED_FIELDS = "NESTED_FIELDS";
 
     // Has to be generated everytime since HeaderDecoder and TrailerDecoder are generated.
     private static final String MESSAGE_DECODER =
@@ -119,6 +121,10 @@ class DecoderGenerator extends Generator
      * Wrap empty buffer instead of throwing an exception if an optional string is unset.
      */
     private final boolean wrapEmptyBuffer;
+    /**
+     * Only record the byte range of repeating groups when decoding and decode their entries as they're iterated.
+     */
+    private final boolean lazyGroupDecoding;
 
     DecoderGenerator(
         final Dictionary dictionary,
@@ -133,12 +139,33 @@ class DecoderGenerator extends Generator
         final boolean flyweightsEnabled,
         final boolean wrapEmptyBuffer,
         final String codecRejectUnknownEnumValueEnabled)
+    {
+        this(dictionary, initialBufferSize, thisPackage, commonPackage, encoderPackage, outputManager,
+            validationClass, rejectUnknownFieldClass, rejectUnknownEnumValueClass, flyweightsEnabled, wrapEmptyBuffer,
+            codecRejectUnknownEnumValueEnabled, false);
+    }
+
+    DecoderGenerator(
+        final Dictionary dictionary,
+        final int initialBufferSize,
+        final String thisPackage,
+        final String commonPackage,
+        final String encoderPackage,
+        final OutputManager outputManager,
+        final Class<?> validationClass,
+        final Class<?> rejectUnknownFieldClass,
+        final Class<?> rejectUnknownEnumValueClass,
+        final boolean flyweightsEnabled,
+        final boolean wrapEmptyBuffer,
+        final String codecRejectUnknownEnumValueEnabled,
+        final boolean lazyGroupDecoding)
     {
         super(dictionary, thisPackage, commonPackage, outputManager, validationClass, rejectUnknownFieldClass,
             rejectUnknownEnumValueClass, flyweightsEnabled, codecRejectUnknownEnumValueEnabled);
         this.initialBufferSize = initialBufferSize;
         this.encoderPackage = encoderPackage;
         this.wrapEmptyBuffer = wrapEmptyBuffer;
+        this.lazyGroupDecoding = lazyGroupDecoding;
     }
 
     public void generate()
@@ -407,6 +434,30 @@ class DecoderGenerator extends Generator
         {
             return String.format("    public abstract void %1$s();\n", resetMethod);
         }
+        else if (lazyGroupDecoding)
+        {
+            // Walks the entries without next() so that entries which haven't been decoded yet aren't
+            final Entry numberField = group.numberField();
+            return String.format(
+                "    public void %1$s()\n" +
+                "    {\n" +
+                "        %2$s entry = %6$s;\n" +
+                "        for (int i = 0, size = %5$s.numberFieldValue(); i < size && entry != null; i++)\n" +
+                "        {\n" +
+                "            entry.reset();\n" +
+                "            entry = entry.undecodedNext();\n" +
+                "        }\n" +
+                "        %6$sPending = false;\n" +
+                "        %3$s = MISSING_INT;\n" +
+                "        has%4$sGeneration = MISSING_GENERATION;\n" +
+                "    }\n\n",
+                resetMethod,
+                decoderClassName(name),
+                formatPropertyName(numberField.name()),
+                numberField.name(),
+                iteratorFieldName(group),
+                formatPropertyName(name));
+        }
         else
         {
             final Entry numberField = group.numberField();
@@ -422,7 +473,7 @@ class DecoderGenerator extends Generator
                 "            }\n" +
                 "        }\n" +
                 "        %3$s = MISSING_INT;\n" +
-                "        has%4$s = false;\n" +
+                "        has%4$sGeneration = MISSING_GENERATION;\n" +
                 "    }\n\n",
                 resetMethod,
                 decoderClassName(name),
@@ -472,6 +523,9 @@ class DecoderGenerator extends Generator
     {
         return
             "        buffer = null;\n" +
+            (isGroup && lazyGroupDecoding ?
+            "        pendingBuffer = null;\n" +
+            "        nextPending = false;\n" : "") +
             "        if (" + CODEC_VALIDATION_ENABLED + ")\n" +
             "        {\n" +
             "            invalidTagId = Decoder.NO_ERROR;\n" +
@@ -687,7 +741,7 @@ class DecoderGenerator extends Generator
         return
             entry.required() ? enumValidationMethod :
             String.format(
-                "        if (has%1$s)\n" +
+                "        if (has%1$s())\n" +
                 "        {\n" +
                 "%2$s" +
                 "        }\n",
@@ -737,7 +791,7 @@ class DecoderGenerator extends Generator
         else
         {
             return String.format(
-                "        if (has%1$s)\n" +
+                "        if (has%1$s())\n" +
                 "        {\n" +
                 "%2$s" +
                 "        }\n",
@@ -939,18 +993,158 @@ class DecoderGenerator extends Generator
 
             wrapTrailerAndMessageFieldsInGroupConstructor(out, group);
 
+            if (lazyGroupDecoding)
+            {
+                lazyGroupMethods(out, group);
+            }
+            else
+            {
+                out.append(String.format(
+                    "    private %1$s next = null;\n\n" +
+                    "    public %1$s next()\n" +
+                    "    {\n" +
+                    "        return next;\n" +
+                    "    }\n\n",
+                    groupClassName(group)));
+            }
+
             out.append(String.format(
-                "    private %1$s next = null;\n\n" +
-                "    public %1$s next()\n" +
-                "    {\n" +
-                "        return next;\n" +
-                "    }\n\n" +
-                "    private IntHashSet seenFields = new IntHashSet(%2$d);\n\n",
-                groupClassName(group),
+                "    private IntHashSet seenFields = new IntHashSet(%1$d);\n\n",
                 sizeHashSet(group.entries())));
         }
     }
 
+    private void lazyGroupMethods(final Writer out, final Group group) throws IOException
+    {
+        final List<Field> entryFields = group.entries().stream().flatMap(this::extractEntryFields).collect(toList());
+        final List<Field> nestedFields = group.entries().stream().flatMap(this::extractNestedFields).collect(toList());
+        out.append(generateFieldDictionary(entryFields, ENTRY_FIELDS, false));
+        out.append(generateFieldDictionary(nestedFields, NESTED_FIELDS, false));
+
+        // An entry only decodes its successor when it's iterated to, entries are delimited in the same way as the
+        // decode method does: by a repeated field.
+        out.append(String.format(
+            "    private %1$s next = null;\n" +
+            "    private boolean nextPending = false;\n\n" +
+            "    public %1$s next()\n" +
+            "    {\n" +
+            "        if (nextPending)\n" +
+            "        {\n" +
+            "            nextPending = false;\n" +
+            "            next.decodePending();\n" +
+            "        }\n" +
+            "        return next;\n" +
+            "    }\n\n" +
+            "    %1$s undecodedNext()\n" +
+            "    {\n" +
+            "        return next;\n" +
+            "    }\n\n" +
+            "    private AsciiBuffer pendingBuffer = null;\n" +
+            "    private int pendingOffset;\n" +
+            "    private int pendingEnd;\n" +
+            "    private int pendingEntries;\n\n" +
+            "    void decodeLazily(final AsciiBuffer buffer, final int offset, final int end, final int entries)\n" +
+            "    {\n" +
+            "        nextPending = false;\n" +
+            "        if (entries > 0 && offset < end)\n" +
+            "        {\n" +
+            "            pendingBuffer = buffer;\n" +
+            "            pendingOffset = offset;\n" +
+            "            pendingEnd = end;\n" +
+            "            pendingEntries = entries;\n" +
+            "        }\n" +
+            "        else\n" +
+            "        {\n" +
+            "            pendingBuffer = null;\n" +
+            "        }\n" +
+            "    }\n\n" +
+            "    %1$s decodePending()\n" +
+            "    {\n" +
+            "        final AsciiBuffer pendingBuffer = this.pendingBuffer;\n" +
+            "        if (pendingBuffer != null)\n" +
+            "        {\n" +
+            "            this.pendingBuffer = null;\n" +
+            "            final int pendingOffset = this.pendingOffset;\n" +
+            "            final int position = pendingOffset + decode(pendingBuffer, pendingOffset, " +
+            "pendingEnd - pendingOffset);\n" +
+            "            if (pendingEntries > 1 && position > pendingOffset && position < pendingEnd && " +
+            "next != null)\n" +
+            "            {\n" +
+            "                next.decodeLazily(pendingBuffer, position, pendingEnd, pendingEntries - 1);\n" +
+            "                nextPending = true;\n" +
+            "            }\n" +
+            "        }\n" +
+            "        return this;\n" +
+            "    }\n\n" +
+            "    private final IntHashSet skippedFields = new IntHashSet(%2$d);\n\n" +
+            "    int skipEntries(final AsciiBuffer buffer, final int offset, final int end, final int entries)\n" +
+            "    {\n" +
+            "        if (entries <= 0)\n" +
+            "        {\n" +
+            "            return offset;\n" +
+            "        }\n\n" +
+            "        final IntHashSet skippedFields = this.skippedFields;\n" +
+            "        skippedFields.clear();\n" +
+            "        int entryCount = 1;\n" +
+            "        int position = offset;\n" +
+            "        while (position < end)\n" +
+            "        {\n" +
+            "            final int equalsPosition = buffer.scan(position, end, '=');\n" +
+            "            if (equalsPosition == AsciiBuffer.UNKNOWN_INDEX)\n" +
+            "            {\n" +
+            "                break;\n" +
+            "            }\n" +
+            "            final int tag = buffer.getInt(position, equalsPosition);\n" +
+            "            if (!" + NESTED_FIELDS + ".contains(tag))\n" +
+            "            {\n" +
+            "                if (!" + ENTRY_FIELDS + ".contains(tag) && (" + CODEC_REJECT_UNKNOWN_FIELD_ENABLED +
+            " || %3$s))\n" +
+            "                {\n" +
+            "                    break;\n" +
+            "                }\n" +
+            "                if (!skippedFields.add(tag))\n" +
+            "                {\n" +
+            "                    if (entryCount == entries)\n" +
+            "                    {\n" +
+            "                        break;\n" +
+            "                    }\n" +
+            "                    entryCount++;\n" +
+            "                    skippedFields.clear();\n" +
+            "                    skippedFields.add(tag);\n" +
+            "                }\n" +
+            "            }\n" +
+            "            final int endOfField = buffer.scan(equalsPosition + 1, end, START_OF_HEADER);\n" +
+            "            if (endOfField == AsciiBuffer.UNKNOWN_INDEX)\n" +
+            "            {\n" +
+            "                break;\n" +
+            "            }\n" +
+            "            position = endOfField + 1;\n" +
+            "        }\n" +
+            "        return position;\n" +
+            "    }\n\n",
+            groupClassName(group),
+            sizeHashSet(group.entries()),
+            unknownFieldPredicate(GROUP)));
+    }
+
+    // Fields that delimit the entries of a group: its own fields, those of its components and the number fields of
+    // its nested groups.
+    private Stream<Field> extractEntryFields(final Entry entry)
+    {
+        return entry.match(
+            (e, field) -> Stream.of(field),
+            (e, group) -> Stream.of((Field)group.numberField().element()),
+            (e, component) -> component.entries().stream().flatMap(this::extractEntryFields));
+    }
+
+    private Stream<Field> extractNestedFields(final Entry entry)
+    {
+        return entry.match(
+            (e, field) -> Stream.empty(),
+            (e, group) -> group.entries().stream().flatMap(this::extractFields),
+            (e, component) -> component.entries().stream().flatMap(this::extractNestedFields));
+    }
+
     private void wrapTrailerAndMessageFieldsInGroupConstructor(final Writer out, final Aggregate aggregate)
         throws IOException
     {
@@ -1120,6 +1314,33 @@ class DecoderGenerator extends Generator
                 iteratorClassName(group, true),
                 iteratorFieldName(group)));
         }
+        else if (lazyGroupDecoding)
+        {
+            out.append(String.format(
+                "\n" +
+                "    private %1$s %2$s = null;\n" +
+                "    private boolean %2$sPending = false;\n" +
+                "    public %1$s %2$s()\n" +
+                "    {\n" +
+                "        if (%2$sPending)\n" +
+                "        {\n" +
+                "            %2$sPending = false;\n" +
+                "            %2$s.decodePending();\n" +
+                "        }\n" +
+                "        return %2$s;\n" +
+                "    }\n\n" +
+                "%3$s\n" +
+                "    private %4$s %5$s = new %4$s(this);\n" +
+                "    public %4$s %5$s()\n" +
+                "    {\n" +
+                "        return %5$s.iterator();\n" +
+                "    }\n\n",
+                groupClassName,
+                formatPropertyName(group.name()),
+                prefix,
+                iteratorClassName(group, false),
+                iteratorFieldName(group)));
+        }
         else
         {
             out.append(String.format(
@@ -1346,7 +1567,7 @@ class DecoderGenerator extends Generator
             "%4$s" +
             "    public %6$s %2$sAsEnum()\n" +
             "    {\n" +
-            (!entry.required() ? "        if (!has%1$s)\n return %6$s.%5$s;\n" : "") +
+            (!entry.required() ? "        if (!has%1$s())\n return %6$s.%5$s;\n" : "") +
             (type.isStringBased() ? "        %2$sWrapper.wrap(this.%2$s(), %2$sLength);\n" : "") +
             "        return %3$s;\n" +
             "    }\n\n",
@@ -1387,7 +1608,7 @@ class DecoderGenerator extends Generator
     private String wrapEmptyBuffer(final Entry entry)
     {
         return entry.required() ? "" : String.format(
-          "        if (!has%s)\n" +
+          "        if (!has%s())\n" +
           "        {\n" +
           "            return view.wrap(buffer, 0, 0);\n" +
           "        }\n\n",
@@ -1402,7 +1623,7 @@ class DecoderGenerator extends Generator
         {
             asStringBody = String.format(entry.required() ?
                 "buffer != null ? buffer.getStringWithoutLengthAscii(%1$sOffset, %1$sLength) : \"\"" :
-                "has%2$s ? buffer.getStringWithoutLengthAscii(%1$sOffset, %1$sLength) : null",
+                "has%2$s() ? buffer.getStringWithoutLengthAscii(%1$sOffset, %1$sLength) : null",
                 fieldName,
                 name);
         }
@@ -1410,7 +1631,7 @@ class DecoderGenerator extends Generator
         {
             asStringBody = String.format(entry.required() ?
                 "new String(%1$s, 0, %1$sLength)" :
-                "has%2$s ? new String(%1$s, 0, %1$sLength) : null",
+                "has%2$s() ? new String(%1$s, 0, %1$sLength) : null",
                 fieldName,
                 name);
         }
@@ -1425,7 +1646,7 @@ class DecoderGenerator extends Generator
             // We read and cache the number in group field so that it doesn't get re-read during a reset.
             case NUMINGROUP:
                 return String.format(
-                    "%1$s = groupNoField(buffer, %1$s, has%2$s, %1$sOffset, %1$sLength, %3$d, " +
+                    "%1$s = groupNoField(buffer, %1$s, has%2$s(), %1$sOffset, %1$sLength, %3$d, " +
                         CODEC_VALIDATION_ENABLED + ");\n",
                     fieldName,
                     field.name(),
@@ -1590,7 +1811,7 @@ class DecoderGenerator extends Generator
     private String optionalCheck(final Entry entry)
     {
         return entry.required() ? "" : String.format(
-            "        if (!has%s)\n" +
+            "        if (!has%s())\n" +
             "        {\n" +
             "            throw new IllegalArgumentException(\"No value for optional field: %1$s\");\n" +
             "        }\n\n",
@@ -1720,6 +1941,7 @@ class DecoderGenerator extends Generator
             (isGroup ? "" : "            alreadyVisitedFields.clear();\n") +
             "        }\n" +
             "        this.buffer = buffer;\n" +
+            clearPendingGroups(aggregate) +
             "        final int end = offset + length;\n" +
             "        int position = offset;\n" +
             (hasCommonCompounds ? "        position += header.decode(buffer, position, length);\n" : "") +
@@ -1764,6 +1986,20 @@ class DecoderGenerator extends Generator
             "            {\n";
     }
 
+    private String clearPendingGroups(final Aggregate aggregate)
+    {
+        if (!lazyGroupDecoding)
+        {
+            return "";
+        }
+
+        // Groups that aren't in this message mustn't decode from the range recorded for a previous one
+        return aggregate
+            .allGroupsIncludingComponents()
+            .map((entry) -> String.format("        %1$sPending = false;\n", formatPropertyName(entry.name())))
+            .collect(joining());
+    }
+
     private String malformedMessageCheck()
     {
         return "            if (endOfField == AsciiBuffer.UNKNOWN_INDEX || " +
@@ -1882,7 +2118,7 @@ class DecoderGenerator extends Generator
         {
             // Pass missing int here to force re-read as we're in the decode method and don't want a stale cached value
             getNumberField = String.format(
-                "this.%1$s = groupNoField(buffer, MISSING_INT, has%2$s, %1$sOffset, %1$sLength, %3$d, " +
+                "this.%1$s = groupNoField(buffer, MISSING_INT, has%2$s(), %1$sOffset, %1$sLength, %3$d, " +
                 CODEC_VALIDATION_ENABLED + ")",
                 groupNumberField,
                 numberField.name(),
@@ -1898,6 +2134,13 @@ class DecoderGenerator extends Generator
             "                {\n" +
             "                    %1$s = new %2$s(trailer, %5$s);\n" +
             "                }\n" +
+            (lazyGroupDecoding ?
+            "                position = endOfField + 1;\n" +
+            "                final int %3$s = %4$s;\n" +
+            "                final int %1$sStart = position;\n" +
+            "                position = %1$s.skipEntries(buffer, position, end, %3$s);\n" +
+            "                %1$s.decodeLazily(buffer, %1$sStart, position, %3$s);\n" +
+            "                %1$sPending = true;\n" :
             "                %2$s %1$sCurrent = %1$s;\n" +
             "                position = endOfField + 1;\n" +
             "                final int %3$s = %4$s;\n" +
@@ -1908,7 +2151,7 @@ class DecoderGenerator extends Generator
             "                        position += %1$sCurrent.decode(buffer, position, end - position);\n" +
             "                        %1$sCurrent = %1$sCurrent.next();\n" +
             "                    }\n" +
-            "                }\n" +
+            "                }\n") +
             "                if (" + CODEC_VALIDATION_ENABLED + ")\n" +
             "                {\n" +
             "                    final int checkEqualsPosition = buffer.scan(position, end, '=');\n" +
@@ -1978,7 +2221,7 @@ class DecoderGenerator extends Generator
 
     private String optionalAssign(final Entry entry)
     {
-        return entry.required() ? "" : String.format("                has%s = true;\n", entry.name());
+        return entry.required() ? "" : String.format("                has%sGeneration = generation;\n", entry.name());
     }
 
     private String fieldDecodeMethod(final Field field, final String fieldName)
@@ -2144,11 +2387,11 @@ class DecoderGenerator extends Generator
 
         final String numberField = group.numberField().name();
         return String.format(
-            "        if (has%2$s)\n" +
+            "        if (has%2$s())\n" +
             "        {\n" +
             "            indent(builder, level);\n" +
             "            builder.append(\"\\\"%1$s\\\": [\\n\");\n" +
-            "            %3$s %4$s = this.%4$s;\n" +
+            "            %3$s %4$s = this.%4$s%6$s;\n" +
             "            for (int i = 0, size = this.%5$s; i < size; i++)\n" +
             "            {\n" +
             "                indent(builder, level);\n" +
@@ -2167,7 +2410,14 @@ class DecoderGenerator extends Generator
             numberField,
             decoderClassName(name),
             formatPropertyName(name),
-            formatPropertyName(numberField));
+            formatPropertyName(numberField),
+            firstEntryAccess());
+    }
+
+    // Lazily decoded groups decode their first entry when it's accessed through the getter
+    private String firstEntryAccess()
+    {
+        return lazyGroupDecoding ? "()" : "";
     }
 
     private String generateToEncoder(final Aggregate aggregate)
@@ -2267,10 +2517,10 @@ class DecoderGenerator extends Generator
         final String numberField = group.numberField().name();
 
         return String.format(
-            "        if (has%1$s)\n" +
+            "        if (has%1$s())\n" +
             "        {\n" +
             "            final int size = this.%4$s;\n" +
-            "            %2$s %3$s = this.%3$s;\n" +
+            "            %2$s %3$s = this.%3$s%7$s;\n" +
             "            %6$s %3$sEncoder = %5$s.%3$s(size);\n" +
             "            for (int i = 0; i < size; i++)\n" +
             "            {\n" +
@@ -2287,7 +2537,8 @@ class DecoderGenerator extends Generator
             formatPropertyName(name),
             formatPropertyName(numberField),
             encoderName,
-            encoderClassName(name));
+            encoderClassName(name),
+            firstEntryAccess());
     }
 
     protected String componentToEncoder(final Component component, final String encoderName)
@@ -2368,7 +2619,68 @@ class DecoderGenerator extends Generator
 
     protected String optionalReset(final Field field, final String name)
     {
-        return resetByFlag(name);
+        return String.format(
+            "    public void %2$s()\n" +
+            "    {\n" +
+            "        has%1$sGeneration = MISSING_GENERATION;\n" +
+            "    }\n\n",
+            name,
+            nameOfResetMethod(name));
+    }
+
+    protected String hasField(final Entry entry)
+    {
+        return entry.required() ?
+            "" :
+            String.format("    %2$s int has%1$sGeneration = MISSING_GENERATION;\n\n", entry.name(), scope);
+    }
+
+    protected String hasGetter(final String name)
+    {
+        return String.format(
+            "    public boolean has%s()\n" +
+            "    {\n" +
+            "        return has%1$sGeneration == generation;\n" +
+            "    }\n\n",
+            name);
+    }
+
+    // Optional fields are reset by moving onto the next generation rather than individually
+    protected String callFieldResetMethod(final Entry entry)
+    {
+        return entry.required() ? callResetMethod(entry) : "";
+    }
+
+    protected String resetGeneration(final List<Entry> entries, final boolean isInParent)
+    {
+        final String resetOptionalFields = resetOptionalFields(entries);
+        return (isInParent ? "" : "        nextGeneration();\n") +
+            (resetOptionalFields.isEmpty() ? "" :
+            "        if (generation == FIRST_GENERATION)\n" +
+            "        {\n" +
+            resetOptionalFields +
+            "        }\n");
+    }
+
+    private String resetOptionalFields(final List<Entry> entries)
+    {
+        final StringBuilder resetCalls = new StringBuilder();
+        for (final Entry entry : entries)
+        {
+            if (entry.isField() && !entry.required() && !entry.isInParent())
+            {
+                final String resetCall = callResetMethod(entry);
+                if (!resetCall.isEmpty())
+                {
+                    resetCalls.append("    ").append(resetCall);
+                }
+            }
+            else if (entry.isComponent())
+            {
+                resetCalls.append(resetOptionalFields(((Component)entry.element()).entries()));
+            }
+        }
+        return resetCalls.toString();
     }
 
     protected boolean appendToChecksHasGetter(final Entry entry, final Field field)
@@ -61,6 +61,15 @@ class EncoderGenerator extends Generator
         "SequenceResetEncoder",
         "BusinessMessageRejectEncoder"));
 
+    // The session identity fields of a header, these are constant for a session so can be rendered once per session
+    private static final Set<String> HEADER_TEMPLATE_FIELDS = new HashSet<>(Arrays.asList(
+        "SenderCompID",
+        "SenderSubID",
+        "SenderLocationID",
+        "TargetCompID",
+        "TargetSubID",
+        "TargetLocationID"));
+
     private static final String TRAILER_ENCODE_PREFIX =
         "    long finishMessage(final MutableAsciiBuffer buffer, final int messageStart, final int offset)\n" +
         "    {\n" +
@@ -90,7 +99,7 @@ class EncoderGenerator extends Generator
         "        int position = bodyStart - 1;\n" +
         "\n" +
         "        buffer.putSeparator(position);\n" +
-        "        position = buffer.putNaturalIntAsciiFromEnd(bodyLength, position);\n" +
+        "%1$s" +
         "        position -= bodyLengthHeaderLength;\n" +
         "        buffer.putBytes(position, bodyLengthHeader, 0, bodyLengthHeaderLength);\n" +
         "\n" +
@@ -112,9 +121,13 @@ class EncoderGenerator extends Generator
         "    // 35=...| + other header fields\n" +
         "    public long startMessage(final MutableAsciiBuffer buffer, final int offset)\n" +
         "    {\n" +
-        "        final int start = offset + beginStringLength + 16;\n" +
+        "        final int start = offset + beginStringLength + %2$d;\n" +
         "        int position = start;";
 
+    // "8=" + "|" + "9=" + "|" around the BeginString and BodyLength values
+    private static final int BEGIN_STRING_AND_BODY_LENGTH_FRAMING = 6;
+    private static final int MAX_BODY_LENGTH_DIGITS = 10;
+
     private static final String GROUP_ENCODE_PREFIX =
         "    public int encode(final MutableAsciiBuffer buffer, final int offset, final int remainingElements)\n" +
         "    {\n" +
@@ -155,6 +168,7 @@ class EncoderGenerator extends Generator
     private final MutableAsciiBuffer string = new MutableAsciiBuffer(buffer);
 
     private final String beginString;  // e.g. "FIX.4.4"
+    private final int fixedBodyLengthWidth;
 
     EncoderGenerator(
         final Dictionary dictionary,
@@ -165,6 +179,21 @@ class EncoderGenerator extends Generator
         final Class<?> rejectUnknownFieldClass,
         final Class<?> rejectUnknownEnumValueClass,
         final String codecRejectUnknownEnumValueEnabled)
+    {
+        this(dictionary, builderPackage, builderCommonPackage, outputManager, validationClass, rejectUnknownFieldClass,
+            rejectUnknownEnumValueClass, codecRejectUnknownEnumValueEnabled, CodecConfiguration.VARIABLE_BODY_LENGTH);
+    }
+
+    EncoderGenerator(
+        final Dictionary dictionary,
+        final String builderPackage,
+        final String builderCommonPackage,
+        final OutputManager outputManager,
+        final Class<?> validationClass,
+        final Class<?> rejectUnknownFieldClass,
+        final Class<?> rejectUnknownEnumValueClass,
+        final String codecRejectUnknownEnumValueEnabled,
+        final int fixedBodyLengthWidth)
     {
         super(dictionary, builderPackage, builderCommonPackage, outputManager, validationClass, rejectUnknownFieldClass,
             rejectUnknownEnumValueClass, false, codecRejectUnknownEnumValueEnabled);
@@ -174,6 +203,7 @@ class EncoderGenerator extends Generator
         validateHasField(header, BODY_LENGTH);
 
         beginString = dictionary.beginString();
+        this.fixedBodyLengthWidth = fixedBodyLengthWidth;
     }
 
     private void validateHasField(final Component header, final String fieldName)
@@ -308,6 +338,10 @@ class EncoderGenerator extends Generator
 
         precomputedHeaders(out, aggregate.entries());
         generateSetters(out, className, aggregate.entries());
+        if (isHeader && !isSharedParent())
+        {
+            out.append(headerTemplateMethods(className, aggregate.entries()));
+        }
         out.append(encodeMethod(aggregate.entries(), type));
         final String resetMethod = completeResetMethod(aggregate, isMessage, type);
         out.append(resetMethod);
@@ -363,7 +397,9 @@ class EncoderGenerator extends Generator
                 additionalReset = RESET_NEXT_GROUP;
                 break;
             case HEADER:
-                additionalReset = "        beginStringAsCopy(DEFAULT_BEGIN_STRING, 0, DEFAULT_BEGIN_STRING.length);\n";
+                additionalReset =
+                    "        beginStringAsCopy(DEFAULT_BEGIN_STRING, 0, DEFAULT_BEGIN_STRING.length);\n" +
+                    "        headerTemplateLength = 0;\n";
                 break;
             default:
                 additionalReset = "";
@@ -952,7 +988,7 @@ class EncoderGenerator extends Generator
                 break;
 
             case HEADER:
-                prefix = HEADER_ENCODE_PREFIX;
+                prefix = headerEncodePrefix();
                 break;
 
             default:
@@ -960,9 +996,9 @@ class EncoderGenerator extends Generator
                 break;
         }
 
-        final String body = entries.stream()
-            .map(this::encodeEntry)
-            .collect(joining("\n"));
+        final String body = aggregateType == AggregateType.HEADER ?
+            encodeHeaderEntries(entries) :
+            entries.stream().map(this::encodeEntry).collect(joining("\n"));
 
         String suffix;
         if (aggregateType == AggregateType.MESSAGE)
@@ -1006,6 +1042,100 @@ class EncoderGenerator extends Generator
         return prefix + body + suffix;
     }
 
+    // A fixed width BodyLength is zero padded into a slot of known size, so the message starts exactly at the offset
+    // it's encoded at and the header needn't be written backwards from a variable length BodyLength.
+    private String headerEncodePrefix()
+    {
+        if (fixedBodyLengthWidth == CodecConfiguration.VARIABLE_BODY_LENGTH)
+        {
+            return String.format(
+                HEADER_ENCODE_PREFIX,
+                "        position = buffer.putNaturalIntAsciiFromEnd(bodyLength, position);\n",
+                BEGIN_STRING_AND_BODY_LENGTH_FRAMING + MAX_BODY_LENGTH_DIGITS);
+        }
+
+        return String.format(
+            HEADER_ENCODE_PREFIX,
+            "        position -= " + fixedBodyLengthWidth + ";\n" +
+            "        buffer.putNaturalPaddedIntAscii(position, " + fixedBodyLengthWidth + ", bodyLength);\n",
+            BEGIN_STRING_AND_BODY_LENGTH_FRAMING + fixedBodyLengthWidth);
+    }
+
+    // Splices the header template in after the MsgType, the template's fields are only required when it's absent
+    private String encodeHeaderEntries(final List<Entry> entries)
+    {
+        final String spliceTemplate =
+            "        if (headerTemplateLength > 0)\n" +
+            "        {\n" +
+            "            buffer.putBytes(position, headerTemplate, 0, headerTemplateLength);\n" +
+            "            position += headerTemplateLength;\n" +
+            "        }\n";
+        final String templatedMissingCondition = CODEC_VALIDATION_ENABLED + " && headerTemplateLength == 0";
+
+        final StringBuilder body = new StringBuilder();
+        boolean spliced = false;
+        for (final Entry entry : entries)
+        {
+            if (isHeaderTemplateField(entry))
+            {
+                body.append(encodeField(entry, templatedMissingCondition));
+            }
+            else
+            {
+                body.append(encodeEntry(entry));
+            }
+            body.append("\n");
+
+            if (MSG_TYPE.equals(entry.name()))
+            {
+                body.append(spliceTemplate);
+                spliced = true;
+            }
+        }
+
+        return spliced ? body.toString() : spliceTemplate + body;
+    }
+
+    private String headerTemplateMethods(final String className, final List<Entry> entries)
+    {
+        final String encodeTemplateFields = entries.stream()
+            .filter(this::isHeaderTemplateField)
+            .map(this::encodeEntry)
+            .collect(joining("\n"));
+
+        return String.format(
+            "    private byte[] headerTemplate;\n" +
+            "    private int headerTemplateLength = 0;\n\n" +
+            "    public boolean supportsHeaderTemplate()\n" +
+            "    {\n" +
+            "        return true;\n" +
+            "    }\n\n" +
+            "    public %1$s headerTemplate(final byte[] template, final int length)\n" +
+            "    {\n" +
+            "        headerTemplate = template;\n" +
+            "        headerTemplateLength = length;\n" +
+            "        return this;\n" +
+            "    }\n\n" +
+            "    public int headerTemplateLength()\n" +
+            "    {\n" +
+            "        return headerTemplateLength;\n" +
+            "    }\n\n" +
+            "    public int encodeHeaderTemplate(final MutableAsciiBuffer buffer, final int offset)\n" +
+            "    {\n" +
+            "        int position = offset;\n\n" +
+            "%2$s" +
+            "\n" +
+            "        return position - offset;\n" +
+            "    }\n\n",
+            className,
+            encodeTemplateFields);
+    }
+
+    private boolean isHeaderTemplateField(final Entry entry)
+    {
+        return entry.isField() && HEADER_TEMPLATE_FIELDS.contains(entry.name());
+    }
+
     private String encodeEntry(final Entry entry)
     {
         if (isBodyLength(entry) || isBeginString(entry) || isCheckSum(entry))
@@ -1019,6 +1149,11 @@ class EncoderGenerator extends Generator
     }
 
     private String encodeField(final Entry entry)
+    {
+        return encodeField(entry, CODEC_VALIDATION_ENABLED);
+    }
+
+    private String encodeField(final Entry entry, final String missingCondition)
     {
         final Element element = entry.element();
         final Field field = (Field)element;
@@ -1048,7 +1183,8 @@ class EncoderGenerator extends Generator
             needsIndent = false;
         }
 
-        final String enablingSuffix = enablingSuffix(name, mustCheckFlag, mustCheckLength, needsMissingThrow);
+        final String enablingSuffix = enablingSuffix(
+            name, mustCheckFlag, mustCheckLength, needsMissingThrow, missingCondition);
         final String tag = formatTag(fieldName, enablingPrefix);
         final String indent = indent(needsIndent);
         switch (type)
@@ -1115,13 +1251,17 @@ class EncoderGenerator extends Generator
     }
 
     private String enablingSuffix(
-        final String name, final boolean mustCheckFlag, final boolean mustCheckLength, final boolean needsMissingThrow)
+        final String name,
+        final boolean mustCheckFlag,
+        final boolean mustCheckLength,
+        final boolean needsMissingThrow,
+        final String missingCondition)
     {
         String enablingSuffix = mustCheckFlag || mustCheckLength ? "        }\n" : "";
         if (needsMissingThrow)
         {
             enablingSuffix = enablingSuffix +
-                "        else if (" + CODEC_VALIDATION_ENABLED + ")\n" +
+                "        else if (" + missingCondition + ")\n" +
                 "        {\n" +
                 "            throw new EncodingException(\"Missing Field: " + name + "\");\n" +
                 "        }\n";
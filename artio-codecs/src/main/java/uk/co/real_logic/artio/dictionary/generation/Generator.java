@@ -218,13 +218,15 @@ public abstract class Generator
                 "    public void resetMessage()\n" +
                 "    {\n" +
                 "%4$s" +
+                "%5$s" +
                 "%2$s" +
                 "    }\n\n" +
                 "%3$s",
                 reset,
                 resetEntries,
                 methods,
-                resetParent);
+                resetParent,
+                resetGeneration(entries, isInParent));
         }
         else
         {
@@ -233,6 +235,7 @@ public abstract class Generator
                 "    public void reset()\n" +
                 "    {\n" +
                 "%4$s" +
+                "%5$s" +
                 "%1$s" +
                 "%2$s" +
                 "    }\n\n" +
@@ -240,10 +243,17 @@ public abstract class Generator
                 resetEntries,
                 isSharedParent() ? "" : additionalReset,
                 methods,
-                resetParent);
+                resetParent,
+                resetGeneration(entries, isInParent));
         }
     }
 
+    // Code run at the start of a reset, before the entries themselves get reset.
+    protected String resetGeneration(final List<Entry> entries, final boolean isInParent)
+    {
+        return "";
+    }
+
     protected String resetEntries(final List<Entry> entries, final StringBuilder methods)
     {
         return resetFields(entries, methods) +
@@ -258,7 +268,12 @@ public abstract class Generator
             methods,
             entry -> entry.isField() && !entry.isInParent(),
             (entry) -> resetField(entry.required(), (Field)entry.element()),
-            this::callResetMethod);
+            this::callFieldResetMethod);
+    }
+
+    protected String callFieldResetMethod(final Entry entry)
+    {
+        return callResetMethod(entry);
     }
 
     protected String resetAllBy(
@@ -379,7 +394,7 @@ public abstract class Generator
         return "reset" + name;
     }
 
-    private String callResetMethod(final Entry entry)
+    protected String callResetMethod(final Entry entry)
     {
         if (isNotResettableField(entry.name()))
         {
@@ -0,0 +1,549 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary.generation;
+
+import org.agrona.AsciiSequenceView;
+import org.agrona.generation.OutputManager;
+import uk.co.real_logic.artio.dictionary.Generated;
+import uk.co.real_logic.artio.dictionary.ir.Aggregate;
+import uk.co.real_logic.artio.dictionary.ir.Component;
+import uk.co.real_logic.artio.dictionary.ir.Dictionary;
+import uk.co.real_logic.artio.dictionary.ir.Entry;
+import uk.co.real_logic.artio.dictionary.ir.Field;
+import uk.co.real_logic.artio.dictionary.ir.Field.Type;
+import uk.co.real_logic.artio.dictionary.ir.Message;
+import uk.co.real_logic.artio.fields.DecimalFloat;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static uk.co.real_logic.artio.dictionary.generation.DecoderGenerator.decoderClassName;
+import static uk.co.real_logic.artio.dictionary.generation.EncoderGenerator.encoderClassName;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.GENERATED_ANNOTATION;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.fileHeader;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.importFor;
+import static uk.co.real_logic.sbe.generation.java.JavaUtil.formatClassName;
+import static uk.co.real_logic.sbe.generation.java.JavaUtil.formatPropertyName;
+
+/**
+ * Generates an SBE schema with a message for every message of a FIX dictionary, and a transcoder per message that
+ * copies fields between the generated FIX decoders and encoders and the SBE flyweights generated from that schema.
+ *
+ * The schema contains the header and body fields of each message, with components flattened into the message.
+ * Repeating groups, DATA fields and the framing fields of the header and trailer aren't transcoded. All SBE fields are
+ * optional, fields that are missing from the FIX message are encoded as the null value of their type.
+ */
+class SbeTranscoderGenerator
+{
+    static final String SCHEMA_FILE_NAME = "fix-sbe-schema.xml";
+    private static final String TRANSCODER_SUFFIX = "Transcoder";
+
+    private static final int SCHEMA_ID = 1;
+    private static final String HEADER_PATH = "header().";
+    private static final Set<Integer> FRAMING_TAGS = new HashSet<>(Arrays.asList(8, 9, 35, 10));
+
+    // Names of the methods that SBE generates on every message flyweight
+    private static final Set<String> RESERVED_PROPERTY_NAMES = new HashSet<>(Arrays.asList(
+        "buffer", "offset", "wrap", "wrapAndApplyHeader", "encodedLength", "limit", "actingBlockLength",
+        "actingVersion", "initialOffset", "appendTo", "toString"));
+
+    private static final String SCHEMA_HEADER =
+        "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n" +
+        "<sbe:messageSchema xmlns:sbe=\"http://fixprotocol.io/2016/sbe\"\n" +
+        "                   package=\"%1$s\"\n" +
+        "                   id=\"%2$d\"\n" +
+        "                   version=\"0\"\n" +
+        "                   semanticVersion=\"%3$s\"\n" +
+        "                   description=\"Generated from a FIX dictionary by Artio\"\n" +
+        "                   byteOrder=\"littleEndian\">\n" +
+        "    <types>\n" +
+        "        <composite name=\"messageHeader\" description=\"Message identifiers and length of message root\">\n" +
+        "            <type name=\"blockLength\" primitiveType=\"uint16\"/>\n" +
+        "            <type name=\"templateId\" primitiveType=\"uint16\"/>\n" +
+        "            <type name=\"schemaId\" primitiveType=\"uint16\"/>\n" +
+        "            <type name=\"version\" primitiveType=\"uint16\"/>\n" +
+        "        </composite>\n" +
+        "        <composite name=\"Decimal\">\n" +
+        "            <type name=\"mantissa\" primitiveType=\"int64\" presence=\"optional\"/>\n" +
+        "            <type name=\"exponent\" primitiveType=\"int8\"/>\n" +
+        "        </composite>\n" +
+        "        <composite name=\"VarString\">\n" +
+        "            <type name=\"length\" primitiveType=\"uint32\" maxValue=\"1073741824\"/>\n" +
+        "            <type name=\"varData\" primitiveType=\"uint8\" length=\"0\" characterEncoding=\"US-ASCII\"/>\n" +
+        "        </composite>\n" +
+        "        <type name=\"Int32\" primitiveType=\"int32\" presence=\"optional\"/>\n" +
+        "        <type name=\"Int64\" primitiveType=\"int64\" presence=\"optional\"/>\n" +
+        "        <type name=\"Char\" primitiveType=\"char\" presence=\"optional\"/>\n" +
+        "        <type name=\"Boolean\" primitiveType=\"uint8\" presence=\"optional\"/>\n" +
+        "    </types>\n";
+
+    enum SbeType
+    {
+        INT32("Int32"),
+        INT64("Int64"),
+        DECIMAL("Decimal"),
+        CHAR("Char"),
+        BOOLEAN("Boolean"),
+        STRING("VarString");
+
+        private final String schemaName;
+
+        SbeType(final String schemaName)
+        {
+            this.schemaName = schemaName;
+        }
+    }
+
+    static final class TranscodedField
+    {
+        private final Field field;
+        private final boolean required;
+        private final String decoderPath;
+        private final String encoderPath;
+        private final SbeType type;
+        private final String propertyName;
+
+        TranscodedField(
+            final Field field,
+            final boolean required,
+            final String decoderPath,
+            final String encoderPath,
+            final SbeType type)
+        {
+            this.field = field;
+            this.required = required;
+            this.decoderPath = decoderPath;
+            this.encoderPath = encoderPath;
+            this.type = type;
+            this.propertyName = formatPropertyName(field.name());
+        }
+
+        boolean isVarData()
+        {
+            return type == SbeType.STRING;
+        }
+    }
+
+    private final Dictionary dictionary;
+    private final String sbePackage;
+    private final String decoderPackage;
+    private final String encoderPackage;
+    private final OutputManager outputManager;
+
+    SbeTranscoderGenerator(
+        final Dictionary dictionary,
+        final String sbePackage,
+        final String decoderPackage,
+        final String encoderPackage,
+        final OutputManager outputManager)
+    {
+        this.dictionary = dictionary;
+        this.sbePackage = sbePackage;
+        this.decoderPackage = decoderPackage;
+        this.encoderPackage = encoderPackage;
+        this.outputManager = outputManager;
+    }
+
+    public void generate()
+    {
+        for (final Message message : dictionary.messages())
+        {
+            final String className = transcoderClassName(message.name());
+            outputManager.withOutput(
+                className,
+                (out) -> generateTranscoder(message, className, transcodedFields(message), out));
+        }
+    }
+
+    String generateSchema()
+    {
+        final StringBuilder schema = new StringBuilder();
+        schema.append(String.format(
+            SCHEMA_HEADER,
+            sbePackage,
+            SCHEMA_ID,
+            dictionary.beginString()));
+
+        int templateId = 1;
+        for (final Message message : dictionary.messages())
+        {
+            schema.append(String.format(
+                "    <sbe:message name=\"%1$s\" id=\"%2$d\" semanticType=\"%3$s\">\n",
+                message.name(),
+                templateId++,
+                message.fullType()));
+
+            final List<TranscodedField> fields = transcodedFields(message);
+            // SBE requires fixed length fields to precede variable length data
+            for (final TranscodedField field : fields)
+            {
+                if (!field.isVarData())
+                {
+                    schema.append(schemaElement("field", field));
+                }
+            }
+            for (final TranscodedField field : fields)
+            {
+                if (field.isVarData())
+                {
+                    schema.append(schemaElement("data", field));
+                }
+            }
+
+            schema.append("    </sbe:message>\n");
+        }
+
+        schema.append("</sbe:messageSchema>\n");
+        return schema.toString();
+    }
+
+    static String transcoderClassName(final String messageName)
+    {
+        return formatClassName(messageName) + TRANSCODER_SUFFIX;
+    }
+
+    private static String schemaElement(final String elementName, final TranscodedField field)
+    {
+        return String.format(
+            "        <%1$s name=\"%2$s\" id=\"%3$d\" type=\"%4$s\"/>\n",
+            elementName,
+            field.field.name(),
+            field.field.number(),
+            field.type.schemaName);
+    }
+
+    List<TranscodedField> transcodedFields(final Message message)
+    {
+        final List<TranscodedField> fields = new ArrayList<>();
+        final Set<String> names = new HashSet<>();
+        addFields(dictionary.header(), HEADER_PATH, HEADER_PATH, fields, names);
+        addFields(message, "", "", fields, names);
+        return fields;
+    }
+
+    private static void addFields(
+        final Aggregate aggregate,
+        final String decoderPath,
+        final String encoderPath,
+        final List<TranscodedField> fields,
+        final Set<String> names)
+    {
+        for (final Entry entry : aggregate.entries())
+        {
+            final Entry.Element element = entry.element();
+            if (element instanceof Field)
+            {
+                final Field field = (Field)element;
+                final SbeType type = sbeTypeOf(field.type());
+                if (type != null &&
+                    !FRAMING_TAGS.contains(field.number()) &&
+                    !RESERVED_PROPERTY_NAMES.contains(formatPropertyName(field.name())) &&
+                    names.add(field.name()))
+                {
+                    fields.add(new TranscodedField(field, entry.required(), decoderPath, encoderPath, type));
+                }
+            }
+            else if (element instanceof Component)
+            {
+                // Decoders flatten components into their parent whilst encoders nest them
+                final Component component = (Component)element;
+                addFields(
+                    component,
+                    decoderPath,
+                    encoderPath + formatPropertyName(component.name()) + "().",
+                    fields,
+                    names);
+            }
+        }
+    }
+
+    private static SbeType sbeTypeOf(final Type type)
+    {
+        switch (type)
+        {
+            case INT:
+            case LENGTH:
+            case SEQNUM:
+            case NUMINGROUP:
+            case DAYOFMONTH:
+                return SbeType.INT32;
+
+            case LONG:
+                return SbeType.INT64;
+
+            case FLOAT:
+            case PRICE:
+            case PRICEOFFSET:
+            case QTY:
+            case QUANTITY:
+            case PERCENTAGE:
+            case AMT:
+                return SbeType.DECIMAL;
+
+            case CHAR:
+                return SbeType.CHAR;
+
+            case BOOLEAN:
+                return SbeType.BOOLEAN;
+
+            case DATA:
+            case XMLDATA:
+                return null;
+
+            default:
+                return SbeType.STRING;
+        }
+    }
+
+    private void generateTranscoder(
+        final Message message,
+        final String className,
+        final List<TranscodedField> fields,
+        final Writer out) throws IOException
+    {
+        final String name = message.name();
+        final String fixDecoder = decoderPackage + "." + decoderClassName(name);
+        final String fixEncoder = encoderPackage + "." + encoderClassName(name);
+        final String sbeEncoder = formatClassName(name) + "Encoder";
+        final String sbeDecoder = formatClassName(name) + "Decoder";
+
+        out.append(fileHeader(sbePackage));
+        out.append(
+            importFor(AsciiSequenceView.class) +
+            "import org.agrona.concurrent.UnsafeBuffer;\n" +
+            importFor(DecimalFloat.class) +
+            importFor(Generated.class) +
+            "\n" +
+            "/**\n" +
+            " * Transcodes " + name + " messages between their FIX codecs and SBE flyweights.\n" +
+            " */\n" +
+            GENERATED_ANNOTATION +
+            "public class " + className + "\n" +
+            "{\n" +
+            "    private static final byte[] EMPTY = new byte[0];\n\n" +
+            "    private final AsciiSequenceView view = new AsciiSequenceView();\n");
+
+        for (final TranscodedField field : fields)
+        {
+            if (field.isVarData())
+            {
+                out.append(String.format(
+                    "    private final UnsafeBuffer %1$sData = new UnsafeBuffer(EMPTY);\n", field.propertyName));
+            }
+        }
+
+        out.append(String.format(
+            "\n" +
+            "    /**\n" +
+            "     * Copy the fields of a decoded FIX message into an SBE message.\n" +
+            "     *\n" +
+            "     * @param fix the decoded FIX message.\n" +
+            "     * @param sbe the SBE encoder, wrapped at the offset to encode at.\n" +
+            "     * @return the encoded length of the SBE message.\n" +
+            "     */\n" +
+            "    public int toSbe(final %1$s fix, final %2$s sbe)\n" +
+            "    {\n",
+            fixDecoder,
+            sbeEncoder));
+        for (final TranscodedField field : fields)
+        {
+            if (!field.isVarData())
+            {
+                out.append(toSbe(field, sbeEncoder));
+            }
+        }
+        for (final TranscodedField field : fields)
+        {
+            if (field.isVarData())
+            {
+                out.append(toSbe(field, sbeEncoder));
+            }
+        }
+        out.append(
+            "        return sbe.encodedLength();\n" +
+            "    }\n\n");
+
+        out.append(String.format(
+            "    /**\n" +
+            "     * Copy the fields of an SBE message into a FIX encoder. Fields that are null in the SBE\n" +
+            "     * message aren't set, so the encoder should have been reset. String fields of the encoder\n" +
+            "     * refer to the SBE message's buffer rather than copying it, so the FIX message should be\n" +
+            "     * encoded before that buffer is reused.\n" +
+            "     *\n" +
+            "     * @param sbe the SBE decoder, wrapped around the message to transcode.\n" +
+            "     * @param fix the FIX encoder.\n" +
+            "     */\n" +
+            "    public void fromSbe(final %1$s sbe, final %2$s fix)\n" +
+            "    {\n",
+            sbeDecoder,
+            fixEncoder));
+        for (final TranscodedField field : fields)
+        {
+            if (!field.isVarData())
+            {
+                out.append(fromSbe(field, sbeDecoder));
+            }
+        }
+        for (final TranscodedField field : fields)
+        {
+            if (field.isVarData())
+            {
+                out.append(fromSbe(field, sbeDecoder));
+            }
+        }
+        out.append(
+            "    }\n" +
+            "}\n");
+    }
+
+    private static String toSbe(final TranscodedField field, final String sbeEncoder)
+    {
+        final String value = "fix." + field.decoderPath + field.propertyName + "()";
+        final String hasValue = "fix." + field.decoderPath + "has" + field.field.name() + "()";
+        final String nullValue = sbeEncoder + "." + field.propertyName + "NullValue()";
+
+        switch (field.type)
+        {
+            case INT32:
+            case INT64:
+                return String.format(field.required ?
+                    "        sbe.%1$s(%2$s);\n" :
+                    "        sbe.%1$s(%3$s ? %2$s : %4$s);\n",
+                    field.propertyName, value, hasValue, nullValue);
+
+            case CHAR:
+                return String.format(field.required ?
+                    "        sbe.%1$s((byte)%2$s);\n" :
+                    "        sbe.%1$s(%3$s ? (byte)%2$s : %4$s);\n",
+                    field.propertyName, value, hasValue, nullValue);
+
+            case BOOLEAN:
+                return String.format(field.required ?
+                    "        sbe.%1$s((short)(%2$s ? 1 : 0));\n" :
+                    "        sbe.%1$s(%3$s ? (short)(%2$s ? 1 : 0) : %4$s);\n",
+                    field.propertyName, value, hasValue, nullValue);
+
+            case DECIMAL:
+            {
+                final String setValue = String.format(
+                    "            final DecimalFloat %1$s = %2$s;\n" +
+                    "            sbe.%1$s().mantissa(%1$s.value()).exponent((byte)-%1$s.scale());\n",
+                    field.propertyName,
+                    value);
+
+                return field.required ? "        {\n" + setValue + "        }\n" : String.format(
+                    "        if (%2$s)\n" +
+                    "        {\n" +
+                    "%3$s" +
+                    "        }\n" +
+                    "        else\n" +
+                    "        {\n" +
+                    "            sbe.%1$s().mantissa(DecimalEncoder.mantissaNullValue()).exponent((byte)0);\n" +
+                    "        }\n",
+                    field.propertyName,
+                    hasValue,
+                    setValue);
+            }
+
+            case STRING:
+            default:
+            {
+                final String putValue = String.format(
+                    "            fix.%1$s%2$s(view);\n" +
+                    "            sbe.put%3$s(view.buffer(), view.offset(), view.length());\n",
+                    field.decoderPath,
+                    field.propertyName,
+                    upperFirst(field.propertyName));
+
+                return field.required ? "        {\n" + putValue + "        }\n" : String.format(
+                    "        if (%1$s)\n" +
+                    "        {\n" +
+                    "%2$s" +
+                    "        }\n" +
+                    "        else\n" +
+                    "        {\n" +
+                    "            sbe.put%3$s(EMPTY, 0, 0);\n" +
+                    "        }\n",
+                    hasValue,
+                    putValue,
+                    upperFirst(field.propertyName));
+            }
+        }
+    }
+
+    private static String fromSbe(final TranscodedField field, final String sbeDecoder)
+    {
+        final String setter = "fix." + field.encoderPath + field.propertyName;
+        final String value = "sbe." + field.propertyName + "()";
+        final String nullValue = sbeDecoder + "." + field.propertyName + "NullValue()";
+
+        switch (field.type)
+        {
+            case INT32:
+            case INT64:
+                return notNull(value, nullValue, setter + "(" + value + ");\n");
+
+            case CHAR:
+                return notNull(value, nullValue, setter + "((char)" + value + ");\n");
+
+            case BOOLEAN:
+                return notNull(value, nullValue, setter + "(" + value + " == 1);\n");
+
+            case DECIMAL:
+                return notNull(
+                    value + ".mantissa()",
+                    "DecimalDecoder.mantissaNullValue()",
+                    setter + "(" + value + ".mantissa(), -" + value + ".exponent());\n");
+
+            case STRING:
+            default:
+            {
+                final String data = field.propertyName + "Data";
+                return String.format(
+                    "        sbe.wrap%1$s(%2$s);\n" +
+                    "        if (%2$s.capacity() > 0)\n" +
+                    "        {\n" +
+                    "            %3$s(%2$s, 0, %2$s.capacity());\n" +
+                    "        }\n",
+                    upperFirst(field.propertyName),
+                    data,
+                    setter);
+            }
+        }
+    }
+
+    private static String notNull(final String value, final String nullValue, final String statement)
+    {
+        return String.format(
+            "        if (%1$s != %2$s)\n" +
+            "        {\n" +
+            "            %3$s" +
+            "        }\n",
+            value,
+            nullValue,
+            statement);
+    }
+
+    private static String upperFirst(final String propertyName)
+    {
+        return Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+    }
+}
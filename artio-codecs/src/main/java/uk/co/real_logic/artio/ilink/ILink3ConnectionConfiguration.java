@@ -36,6 +36,7 @@ public final class ILink3ConnectionConfiguration
     public static final int DEFAULT_MAX_RETRANSMIT_QUEUE_SIZE = 1024 * 1024 * 128;
     public static final int DEFAULT_REQUESTED_KEEP_ALIVE_INTERVAL = 10_000;
     public static final int DEFAULT_RETRANSMIT_TIMEOUT_IN_MS = 30_000;
+    public static final int DEFAULT_MAX_OUTSTANDING_RETRANSMIT_REQUESTS = 1;
     public static final int KEEP_ALIVE_INTERVAL_MAX_VALUE = 65534;
     public static final long AUTOMATIC_INITIAL_SEQUENCE_NUMBER = -1L;
 
@@ -70,6 +71,7 @@ public final class ILink3ConnectionConfiguration
     private final String backupHost;
     private final int maxRetransmitQueueSize;
     private final int retransmitNotificationTimeoutInMs;
+    private final int maxOutstandingRetransmitRequests;
 
     /**
      * Load the ILink3SessionConfiguration from a properties file.
@@ -213,6 +215,11 @@ public final class ILink3ConnectionConfiguration
         return retransmitNotificationTimeoutInMs;
     }
 
+    public int maxOutstandingRetransmitRequests()
+    {
+        return maxOutstandingRetransmitRequests;
+    }
+
     public int retransmitRequestMessageLimit()
     {
         return 2500;
@@ -254,6 +261,12 @@ public final class ILink3ConnectionConfiguration
             throw new IllegalArgumentException(
                 "retransmitNotificationTimeoutInMs must be positive, but is: " + retransmitNotificationTimeoutInMs);
         }
+
+        if (maxOutstandingRetransmitRequests <= 0)
+        {
+            throw new IllegalArgumentException(
+                "maxOutstandingRetransmitRequests must be positive, but is: " + maxOutstandingRetransmitRequests);
+        }
     }
 
     public String toString()
@@ -272,6 +285,7 @@ public final class ILink3ConnectionConfiguration
             ", handler=" + handler +
             ", maxRetransmitQueueSize=" + maxRetransmitQueueSize +
             ", retransmitNotificationTimeoutInMs=" + retransmitNotificationTimeoutInMs +
+            ", maxOutstandingRetransmitRequests=" + maxOutstandingRetransmitRequests +
             '}';
     }
 
@@ -293,7 +307,8 @@ public final class ILink3ConnectionConfiguration
         final boolean useBackupHost,
         final String backupHost,
         final int maxRetransmitQueueSize,
-        final int retransmitNotificationTimeoutInMs)
+        final int retransmitNotificationTimeoutInMs,
+        final int maxOutstandingRetransmitRequests)
     {
         this.host = host;
         this.port = port;
@@ -314,6 +329,7 @@ public final class ILink3ConnectionConfiguration
         this.backupHost = backupHost;
         this.maxRetransmitQueueSize = maxRetransmitQueueSize;
         this.retransmitNotificationTimeoutInMs = retransmitNotificationTimeoutInMs;
+        this.maxOutstandingRetransmitRequests = maxOutstandingRetransmitRequests;
 
         validate();
     }
@@ -338,6 +354,7 @@ public final class ILink3ConnectionConfiguration
         private String backupHost;
         private int maxRetransmitQueueSize = DEFAULT_MAX_RETRANSMIT_QUEUE_SIZE;
         private int retransmitNotificationTimeoutInMs = DEFAULT_RETRANSMIT_TIMEOUT_IN_MS;
+        private int maxOutstandingRetransmitRequests = DEFAULT_MAX_OUTSTANDING_RETRANSMIT_REQUESTS;
 
         public ILink3ConnectionConfiguration build()
         {
@@ -359,7 +376,8 @@ public final class ILink3ConnectionConfiguration
                 useBackupHost,
                 backupHost,
                 maxRetransmitQueueSize,
-                retransmitNotificationTimeoutInMs);
+                retransmitNotificationTimeoutInMs,
+                maxOutstandingRetransmitRequests);
         }
 
         /**
@@ -608,5 +626,27 @@ public final class ILink3ConnectionConfiguration
             this.retransmitNotificationTimeoutInMs = retransmitNotificationTimeoutInMs;
             return this;
         }
+
+        /**
+         * Sets the maximum number of retransmit requests that can be outstanding at the same time. Large gaps are
+         * split into requests of at most
+         * {@link ILink3ConnectionConfiguration#retransmitRequestMessageLimit()} messages. By default each request
+         * is only sent once the previous one has been filled, setting this above 1 sends the next requests before
+         * the earlier ones have been filled, so that a large gap is recovered in fewer round trips. CME answers
+         * retransmit requests in the order that they were sent, messages are handed to the connection handler as
+         * soon as they are contiguous with those already received.
+         *
+         * Check the exchange's limits on concurrent retransmit requests before raising this value: a rejected
+         * request is treated as filled and its messages are not requested again.
+         *
+         * @param maxOutstandingRetransmitRequests the maximum number of retransmit requests that can be sent but
+         *                                         not yet filled.
+         * @return this
+         */
+        public Builder maxOutstandingRetransmitRequests(final int maxOutstandingRetransmitRequests)
+        {
+            this.maxOutstandingRetransmitRequests = maxOutstandingRetransmitRequests;
+            return this;
+        }
     }
 }
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.otf;
+
+import org.agrona.DirectBuffer;
+import org.agrona.collections.IntHashSet;
+import uk.co.real_logic.artio.dictionary.LongDictionary;
+import uk.co.real_logic.artio.util.AsciiBuffer;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.util.Arrays;
+
+import static uk.co.real_logic.artio.dictionary.SessionConstants.START_OF_HEADER;
+import static uk.co.real_logic.artio.util.AsciiBuffer.UNKNOWN_INDEX;
+
+/**
+ * Zero allocation parser that extracts the values of a fixed set of tags from a fix message. Use this instead of an
+ * {@link OtfParser} when only a few fields of a message are needed.
+ *
+ * Tags are looked up in tables indexed by tag number, rather than hashed, and parsing stops as soon as every requested
+ * tag has been found. Only the first occurrence of a tag outside of a repeating group is extracted: the fields of the
+ * repeating groups in the group to field dictionary are skipped. The checksum of the message isn't validated.
+ *
+ * Extracted values are referred to by the index of their tag in the tags that the extractor was created with.
+ */
+public final class OtfTagExtractor
+{
+    public static final int NOT_FOUND = -1;
+
+    private static final int NOT_REQUESTED = -1;
+
+    private final MutableAsciiBuffer string = new MutableAsciiBuffer();
+
+    private final int[] tags;
+    private final int[] indexByTag;
+    private final boolean[][] groupFieldsByTag;
+    private final int[] groupStack;
+    private final int[] valueOffsets;
+    private final int[] valueLengths;
+
+    private int foundCount;
+
+    public OtfTagExtractor(final int... tags)
+    {
+        this(new LongDictionary(), tags);
+    }
+
+    public OtfTagExtractor(final LongDictionary groupToField, final int... tags)
+    {
+        if (tags.length == 0)
+        {
+            throw new IllegalArgumentException("At least one tag must be extracted");
+        }
+
+        final long[] groupTags = groupToField.keys();
+        int maxTag = 0;
+        for (final int tag : tags)
+        {
+            if (tag <= 0)
+            {
+                throw new IllegalArgumentException("Invalid tag: " + tag);
+            }
+            maxTag = Math.max(maxTag, tag);
+        }
+        for (final long groupTag : groupTags)
+        {
+            maxTag = Math.max(maxTag, (int)groupTag);
+        }
+
+        this.tags = tags.clone();
+        indexByTag = new int[maxTag + 1];
+        Arrays.fill(indexByTag, NOT_REQUESTED);
+        for (int i = 0; i < tags.length; i++)
+        {
+            if (indexByTag[tags[i]] != NOT_REQUESTED)
+            {
+                throw new IllegalArgumentException("Duplicate tag: " + tags[i]);
+            }
+            indexByTag[tags[i]] = i;
+        }
+
+        groupFieldsByTag = new boolean[maxTag + 1][];
+        for (final long groupTag : groupTags)
+        {
+            groupFieldsByTag[(int)groupTag] = fieldTable(groupToField.values(groupTag));
+        }
+        groupStack = new int[groupTags.length];
+
+        valueOffsets = new int[tags.length];
+        valueLengths = new int[tags.length];
+        Arrays.fill(valueOffsets, NOT_FOUND);
+    }
+
+    /**
+     * Extract the requested tags from a message. Values that were found before a malformed field are kept.
+     *
+     * @param buffer the buffer containing the message.
+     * @param offset the offset of the start of the message.
+     * @param length the length of the message.
+     * @return true if every requested tag was found, false otherwise.
+     */
+    public boolean extract(final DirectBuffer buffer, final int offset, final int length)
+    {
+        string.wrap(buffer);
+        Arrays.fill(valueOffsets, NOT_FOUND);
+        foundCount = 0;
+
+        try
+        {
+            return extractFields(offset, offset + length);
+        }
+        catch (final NumberFormatException ex)
+        {
+            return false;
+        }
+    }
+
+    private boolean extractFields(final int offset, final int end)
+    {
+        final MutableAsciiBuffer string = this.string;
+        final int[] indexByTag = this.indexByTag;
+        final boolean[][] groupFieldsByTag = this.groupFieldsByTag;
+        final int[] groupStack = this.groupStack;
+
+        int groupDepth = 0;
+        int position = offset;
+        while (position < end)
+        {
+            final int equalsPosition = string.scan(position, end, '=');
+            if (equalsPosition == UNKNOWN_INDEX)
+            {
+                return false;
+            }
+
+            final int tag = string.getNatural(position, equalsPosition);
+            final int valueOffset = equalsPosition + 1;
+            final int endOfField = string.scan(valueOffset, end, START_OF_HEADER);
+            if (endOfField == UNKNOWN_INDEX)
+            {
+                return false;
+            }
+
+            // A field that isn't part of the innermost group ends it
+            while (groupDepth > 0 && !isGroupField(groupFieldsByTag[groupStack[groupDepth - 1]], tag))
+            {
+                groupDepth--;
+            }
+
+            if (tag < indexByTag.length)
+            {
+                final int index = indexByTag[tag];
+                if (groupDepth == 0 && index != NOT_REQUESTED && valueOffsets[index] == NOT_FOUND)
+                {
+                    valueOffsets[index] = valueOffset;
+                    valueLengths[index] = endOfField - valueOffset;
+                    if (++foundCount == valueOffsets.length)
+                    {
+                        return true;
+                    }
+                }
+
+                if (groupFieldsByTag[tag] != null && groupDepth < groupStack.length)
+                {
+                    groupStack[groupDepth++] = tag;
+                }
+            }
+
+            position = endOfField + 1;
+        }
+
+        return false;
+    }
+
+    public int tagCount()
+    {
+        return tags.length;
+    }
+
+    public int tag(final int index)
+    {
+        return tags[index];
+    }
+
+    public boolean found(final int index)
+    {
+        return valueOffsets[index] != NOT_FOUND;
+    }
+
+    /**
+     * Get the offset of a value within the buffer of the last extracted message.
+     *
+     * @param index the index of the value's tag.
+     * @return the offset of the value or {@link #NOT_FOUND} if the tag wasn't found.
+     */
+    public int valueOffset(final int index)
+    {
+        return valueOffsets[index];
+    }
+
+    public int valueLength(final int index)
+    {
+        return found(index) ? valueLengths[index] : 0;
+    }
+
+    /**
+     * Get the buffer of the last extracted message, for decoding extracted values.
+     *
+     * @return the buffer of the last extracted message.
+     */
+    public AsciiBuffer buffer()
+    {
+        return string;
+    }
+
+    private static boolean isGroupField(final boolean[] groupFields, final int tag)
+    {
+        return tag < groupFields.length && groupFields[tag];
+    }
+
+    private static boolean[] fieldTable(final IntHashSet fields)
+    {
+        int maxField = 0;
+        for (final int field : fields)
+        {
+            maxField = Math.max(maxField, field);
+        }
+
+        final boolean[] table = new boolean[maxField + 1];
+        for (final int field : fields)
+        {
+            table[field] = true;
+        }
+        return table;
+    }
+}
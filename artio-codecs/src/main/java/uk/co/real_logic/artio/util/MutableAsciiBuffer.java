@@ -25,6 +25,8 @@ import uk.co.real_logic.artio.util.float_parsing.DecimalFloatParser;
 
 import java.nio.ByteBuffer;
 
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
 import static java.nio.charset.StandardCharsets.US_ASCII;
 import static uk.co.real_logic.artio.dictionary.generation.CodecUtil.MISSING_INT;
 
@@ -36,6 +38,31 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
     private static final byte Y = (byte)'Y';
     private static final byte N = (byte)'N';
 
+    private static final long ALTERNATE_BYTES_MASK = 0x00FF00FF00FF00FFL;
+    private static final long SIGN_BITS_MASK = 0x8080808080808080L;
+    private static final long SUM_SHORTS_MULTIPLIER = 0x0001000100010001L;
+
+    private static final long NOT_DIGITS = -1;
+    private static final int MAX_WORD_PARSED_INT_DIGITS = 9;
+    private static final int MAX_WORD_PARSED_LONG_DIGITS = 18;
+    private static final long ZERO_DIGITS = 0x3030303030303030L;
+    private static final long HIGH_NIBBLES_MASK = 0xF0F0F0F0F0F0F0F0L;
+    private static final long LOW_NIBBLES_MASK = 0x0F0F0F0F0F0F0F0FL;
+    private static final long DIGIT_OVERFLOW_ADDEND = 0x0606060606060606L;
+    private static final long ALL_DIGITS_NIBBLES = 0x3333333333333333L;
+
+    // The ascii digits of 00 to 99, indexed by twice the number
+    private static final byte[] DIGIT_PAIRS = new byte[200];
+
+    static
+    {
+        for (int i = 0; i < 100; i++)
+        {
+            DIGIT_PAIRS[i << 1] = (byte)(ZERO + i / 10);
+            DIGIT_PAIRS[(i << 1) + 1] = (byte)(ZERO + i % 10);
+        }
+    }
+
     public MutableAsciiBuffer()
     {
         super(0, 0);
@@ -78,12 +105,33 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
 
     public int getNatural(final int startInclusive, final int endExclusive)
     {
-        return super.parseNaturalIntAscii(startInclusive, endExclusive - startInclusive);
+        final int length = endExclusive - startInclusive;
+        if (length > 0 && length <= MAX_WORD_PARSED_INT_DIGITS)
+        {
+            final long value = parseDigits(startInclusive, length);
+            if (value != NOT_DIGITS)
+            {
+                return (int)value;
+            }
+        }
+
+        // Invalid and overlong values are left to the byte at a time parser, for its error handling
+        return super.parseNaturalIntAscii(startInclusive, length);
     }
 
     public long getNaturalLong(final int startInclusive, final int endExclusive)
     {
-        return super.parseNaturalLongAscii(startInclusive, endExclusive - startInclusive);
+        final int length = endExclusive - startInclusive;
+        if (length > 0 && length <= MAX_WORD_PARSED_LONG_DIGITS)
+        {
+            final long value = parseDigits(startInclusive, length);
+            if (value != NOT_DIGITS)
+            {
+                return value;
+            }
+        }
+
+        return super.parseNaturalLongAscii(startInclusive, length);
     }
 
     @SuppressWarnings("FinalParameters")
@@ -95,9 +143,106 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
             return MISSING_INT;
         }
 
+        final boolean negative = getByte(startInclusive) == NEGATIVE;
+        final int digitsStart = negative ? startInclusive + 1 : startInclusive;
+        final int digitsLength = endExclusive - digitsStart;
+        if (digitsLength > 0 && digitsLength <= MAX_WORD_PARSED_INT_DIGITS)
+        {
+            final long value = parseDigits(digitsStart, digitsLength);
+            if (value != NOT_DIGITS)
+            {
+                return negative ? -(int)value : (int)value;
+            }
+        }
+
         return super.parseIntAscii(startInclusive, length);
     }
 
+    /**
+     * Parse up to 18 ascii digits, 8 at a time. Any digits that don't fill a whole word are parsed first, from a word
+     * whose other bytes are replaced with leading zeros.
+     *
+     * @param index the index of the first digit.
+     * @param length the number of digits, at most 18.
+     * @return the value of the digits or {@link #NOT_DIGITS} if there is a byte that isn't a digit.
+     */
+    private long parseDigits(final int index, final int length)
+    {
+        final int capacity = capacity();
+        final int end = index + length;
+        int position = index;
+        long value = 0;
+
+        final int leadingDigits = length & 7;
+        if (leadingDigits != 0)
+        {
+            final int paddingBits = (Long.BYTES - leadingDigits) << 3;
+            final long word;
+            if (position + Long.BYTES <= capacity)
+            {
+                word = getLong(position, LITTLE_ENDIAN) << paddingBits;
+            }
+            else if (end >= Long.BYTES)
+            {
+                word = getLong(end - Long.BYTES, LITTLE_ENDIAN) & (-1L << paddingBits);
+            }
+            else
+            {
+                return parseDigitsByteByByte(index, length);
+            }
+
+            value = parseEightDigits(word | (ZERO_DIGITS >>> (Long.SIZE - paddingBits)));
+            if (value == NOT_DIGITS)
+            {
+                return NOT_DIGITS;
+            }
+            position += leadingDigits;
+        }
+
+        for (; position < end; position += Long.BYTES)
+        {
+            final long digits = parseEightDigits(getLong(position, LITTLE_ENDIAN));
+            if (digits == NOT_DIGITS)
+            {
+                return NOT_DIGITS;
+            }
+            value = value * 100_000_000L + digits;
+        }
+
+        return value;
+    }
+
+    private long parseDigitsByteByByte(final int index, final int length)
+    {
+        long value = 0;
+        for (int i = index, end = index + length; i < end; i++)
+        {
+            final byte digit = getByte(i);
+            if (digit < '0' || digit > '9')
+            {
+                return NOT_DIGITS;
+            }
+            value = value * 10 + (digit - '0');
+        }
+
+        return value;
+    }
+
+    // Checks that every byte of a little endian word is a digit, then combines adjacent digits, pairs and quads.
+    private static long parseEightDigits(final long word)
+    {
+        final long digitNibbles =
+            (word & HIGH_NIBBLES_MASK) | (((word + DIGIT_OVERFLOW_ADDEND) & HIGH_NIBBLES_MASK) >>> 4);
+        if (digitNibbles != ALL_DIGITS_NIBBLES)
+        {
+            return NOT_DIGITS;
+        }
+
+        long value = (word & LOW_NIBBLES_MASK) * 2561 >>> 8;
+        value = (value & 0x00FF00FF00FF00FFL) * 6553601 >>> 16;
+        return (value & 0x0000FFFF0000FFFFL) * 42949672960001L >>> 32;
+    }
+
     public int getDigit(final int index)
     {
         final byte value = getByte(index);
@@ -166,12 +311,44 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
         return MessageTypeEncoding.packMessageType(byteArray(), addressOffset(), offset, length);
     }
 
-    @SuppressWarnings("FinalParameters")
-    public DecimalFloat getFloat(final DecimalFloat number, int offset, int length)
+    public DecimalFloat getFloat(final DecimalFloat number, final int offset, final int length)
     {
+        if (getPlainFloat(number, offset, length))
+        {
+            return number;
+        }
+
         return DecimalFloatParser.extract(number, AsciiBufferCharReader.INSTANCE, this, offset, length);
     }
 
+    // Plain decimals, eg -123.45, have their digits parsed a word at a time. Anything else, such as padding, an
+    // exponent or more than 18 digits, is left to the DecimalFloatParser.
+    private boolean getPlainFloat(final DecimalFloat number, final int offset, final int length)
+    {
+        final int end = offset + length;
+        final boolean negative = length > 0 && getByte(offset) == NEGATIVE;
+        final int integerStart = negative ? offset + 1 : offset;
+        final int dotIndex = scan(integerStart, end, DOT);
+        final int integerLength = (dotIndex == UNKNOWN_INDEX ? end : dotIndex) - integerStart;
+        final int fractionLength = dotIndex == UNKNOWN_INDEX ? 0 : end - (dotIndex + 1);
+        final int digitCount = integerLength + fractionLength;
+        if (digitCount == 0 || digitCount > MAX_WORD_PARSED_LONG_DIGITS)
+        {
+            return false;
+        }
+
+        final long integer = integerLength == 0 ? 0 : parseDigits(integerStart, integerLength);
+        final long fraction = fractionLength == 0 ? 0 : parseDigits(dotIndex + 1, fractionLength);
+        if (integer == NOT_DIGITS || fraction == NOT_DIGITS)
+        {
+            return false;
+        }
+
+        final long value = integer * PowerOf10.pow10(fractionLength) + fraction;
+        number.set(negative ? -value : value, fractionLength);
+        return true;
+    }
+
     public int getLocalMktDate(final int offset, final int length)
     {
         return LocalMktDateDecoder.decode(this, offset, length);
@@ -235,7 +412,19 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
     public int computeChecksum(final int startInclusive, final int endExclusive)
     {
         int total = 0;
-        for (int index = startInclusive; index < endExclusive; index++)
+        int index = startInclusive;
+
+        // Sum 8 bytes at a time: add alternate bytes into four 16 bit lanes then add the lanes with a multiply.
+        // Bytes are summed as signed values, as getByte() returns, so take off 256 for each byte with its sign bit.
+        for (final int lastWordStart = endExclusive - Long.BYTES; index <= lastWordStart; index += Long.BYTES)
+        {
+            final long word = getLong(index);
+            final long laneSums = (word & ALTERNATE_BYTES_MASK) + ((word >>> 8) & ALTERNATE_BYTES_MASK);
+            final int unsignedSum = (int)((laneSums * SUM_SHORTS_MULTIPLIER) >>> 48);
+            total += unsignedSum - (Long.bitCount(word & SIGN_BITS_MASK) << 8);
+        }
+
+        for (; index < endExclusive; index++)
         {
             total += getByte(index);
         }
@@ -321,7 +510,13 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
         }
         else if (scale > 0)
         {
-            putLong(remainder, start + length + DOT_LENGTH - 1, scale);
+            final long scaleDivisor = PowerOf10.pow10(scale);
+            final int dotIndex = start + length - scale;
+            final int fractionEnd = dotIndex + scale;
+            final int fractionStart = putLong(remainder % scaleDivisor, fractionEnd) + 1;
+            putTrailingZero(dotIndex + 1, fractionStart - (dotIndex + 1));
+            putByte(dotIndex, DOT);
+            putLong(remainder / scaleDivisor, dotIndex - 1);
             return minusAdj + length + DOT_LENGTH;
         }
         else
@@ -367,39 +562,39 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
         }
     }
 
+    /**
+     * Puts the digits of a negated value backwards from its last digit, two digits at a time. Values are negated so
+     * that Long.MIN_VALUE can be put.
+     *
+     * @param remainder the negated value, nothing is put if this is 0.
+     * @param end the index of the last digit.
+     * @return the index before the first digit.
+     */
     @SuppressWarnings("FinalParameters")
     private int putLong(long remainder, final int end)
     {
         int index = end;
-        while (remainder < 0)
+        while (remainder <= -100)
         {
-            final long digit = remainder % 10;
-            remainder = remainder / 10;
-            putByte(index, (byte)(ZERO + (-1L * digit)));
-            index--;
+            final long quotient = remainder / 100;
+            final int pairIndex = (int)(quotient * 100 - remainder) << 1;
+            putByte(index, DIGIT_PAIRS[pairIndex + 1]);
+            putByte(index - 1, DIGIT_PAIRS[pairIndex]);
+            remainder = quotient;
+            index -= 2;
         }
 
-        return index;
-    }
-
-    @SuppressWarnings("FinalParameters")
-    private int putLong(long remainder, final int end, int scale)
-    {
-        int index = end;
-        while (remainder < 0)
+        if (remainder <= -10)
         {
-            if (scale == 0)
-            {
-                putByte(index, DOT);
-            }
-            else
-            {
-                final long digit = remainder % 10;
-                remainder = remainder / 10;
-                putByte(index, (byte)(ZERO + (-1L * digit)));
-            }
+            final int pairIndex = (int)-remainder << 1;
+            putByte(index, DIGIT_PAIRS[pairIndex + 1]);
+            putByte(index - 1, DIGIT_PAIRS[pairIndex]);
+            index -= 2;
+        }
+        else if (remainder < 0)
+        {
+            putByte(index, (byte)(ZERO - remainder));
             index--;
-            scale--;
         }
 
         return index;
@@ -344,6 +344,14 @@ public final class ExampleDictionary
         "8=FIX.4.4\0019=53\00135=0\001115=abc\001116=2\001117=1.1\001127=19700101-00:00:00.001" +
         "\00110=043\001";
 
+    public static final String FIXED_WIDTH_BODY_LENGTH_MESSAGE =
+        "8=FIX.4.4\0019=000053\00135=0\001115=abc\001116=2\001117=1.1\001127=19700101-00:00:00.001" +
+        "\00110=235\001";
+
+    public static final String HEADER_TEMPLATE_MESSAGE =
+        "8=FIX.4.4\0019=73\00135=0\00149=sender\00156=target\001115=abc\001116=2\001117=1.1" +
+        "\001127=19700101-00:00:00.001\00110=137\001";
+
     public static final String MULTI_CHAR_VALUE_MESSAGE =
         "8=FIX.4.4\0019=61\00135=0\001115=abc\001116=2\001117=1.1" +
         "\001132=a b\001127=19700101-00:00:00.001\00110=225\001";
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary.generation;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import uk.co.real_logic.artio.builder.Decoder;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static uk.co.real_logic.artio.dictionary.ExampleDictionary.*;
+import static uk.co.real_logic.artio.util.Reflection.*;
+
+public class DecoderGeneratorLazyGroupTest extends AbstractDecoderGeneratorTest
+{
+    private final MutableAsciiBuffer groupBuffer = new MutableAsciiBuffer(new byte[CAPACITY]);
+
+    @BeforeClass
+    public static void generate() throws Exception
+    {
+        generate(false, true);
+    }
+
+    @Test
+    public void shouldDecodeGroupEntriesWhenTheyAreAccessed() throws Exception
+    {
+        final Decoder decoder = newHeartbeat();
+        groupBuffer.putAscii(0, REPEATING_GROUP_MESSAGE);
+        decoder.decode(groupBuffer, 0, REPEATING_GROUP_MESSAGE.length());
+
+        assertEquals(2, get(decoder, "noEgGroupGroupCounter"));
+        assertEquals(2, get(decoder, "intField"));
+
+        // Entries are read from the buffer when accessed rather than when the message is decoded
+        replaceValue("121=1", '3');
+        final Object group = getEgGroup(decoder);
+        assertEquals(3, get(group, "groupField"));
+
+        replaceValue("121=2", '4');
+        assertEquals(4, get(next(group), "groupField"));
+
+        assertTrue(decoder.validate());
+    }
+
+    @Test
+    public void shouldDecodeNestedGroupEntriesWhenTheyAreAccessed() throws Exception
+    {
+        final Decoder decoder = decodeHeartbeat(MULTI_ENTRY_NESTED_GROUP_MESSAGE);
+
+        final Object secondEntry = next(getEgGroup(decoder));
+        assertEquals(2, get(secondEntry, "groupField"));
+
+        final Object nestedGroup = getNestedGroup(secondEntry);
+        assertEquals(3, get(nestedGroup, "nestedField"));
+        assertEquals(4, get(next(nestedGroup), "nestedField"));
+    }
+
+    private void replaceValue(final String field, final char value)
+    {
+        final int index = new String(groupBuffer.byteArray(), 0, REPEATING_GROUP_MESSAGE.length())
+            .indexOf(field);
+        groupBuffer.putByte(index + field.length() - 1, (byte)value);
+    }
+}
@@ -24,6 +24,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import uk.co.real_logic.artio.EncodingException;
 import uk.co.real_logic.artio.builder.Encoder;
+import uk.co.real_logic.artio.builder.SessionHeaderEncoder;
 import uk.co.real_logic.artio.fields.DecimalFloat;
 import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
@@ -50,13 +51,14 @@ public class EncoderGeneratorTest
     private static Class<?> enumTestMessage;
     private static Class<?> otherMessage;
     private static Class<?> heartbeatWithoutValidation;
+    private static Class<?> heartbeatWithFixedBodyLength;
 
     private final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[8 * 1024]);
 
     @BeforeClass
     public static void generate() throws Exception
     {
-        sources = generateSources(true);
+        sources = generateSources(true, CodecConfiguration.VARIABLE_BODY_LENGTH);
         if (AbstractDecoderGeneratorTest.CODEC_LOGGING)
         {
             System.out.println(sources);
@@ -70,11 +72,15 @@ public class EncoderGeneratorTest
         enumTestMessage = classLoader.loadClass(ENUM_TEST_MESSAGE_ENCODER);
         otherMessage = classLoader.loadClass(OTHER_MESSAGE_ENCODER);
 
-        final Map<String, CharSequence> sourcesWithoutValidation = generateSources(false);
+        final Map<String, CharSequence> sourcesWithoutValidation =
+            generateSources(false, CodecConfiguration.VARIABLE_BODY_LENGTH);
         heartbeatWithoutValidation = compileInMemory(HEARTBEAT_ENCODER, sourcesWithoutValidation);
+
+        heartbeatWithFixedBodyLength = compileInMemory(HEARTBEAT_ENCODER, generateSources(true, 6));
     }
 
-    private static Map<String, CharSequence> generateSources(final boolean validation)
+    private static Map<String, CharSequence> generateSources(
+        final boolean validation, final int fixedBodyLengthWidth)
     {
         final Class<?> validationClass = validation ? ValidationOn.class : ValidationOff.class;
         final Class<?> rejectUnknownField = RejectUnknownFieldOff.class;
@@ -83,7 +89,8 @@ public class EncoderGeneratorTest
         final EnumGenerator enumGenerator = new EnumGenerator(MESSAGE_EXAMPLE, TEST_PARENT_PACKAGE, outputManager);
         final EncoderGenerator encoderGenerator =
             new EncoderGenerator(MESSAGE_EXAMPLE, TEST_PACKAGE, TEST_PARENT_PACKAGE, outputManager, validationClass,
-            rejectUnknownField, rejectUnknownEnumValue, Generator.RUNTIME_REJECT_UNKNOWN_ENUM_VALUE_PROPERTY);
+            rejectUnknownField, rejectUnknownEnumValue, Generator.RUNTIME_REJECT_UNKNOWN_ENUM_VALUE_PROPERTY,
+            fixedBodyLengthWidth);
         enumGenerator.generate();
         encoderGenerator.generate();
         return outputManager.getSources();
@@ -454,6 +461,41 @@ public class EncoderGeneratorTest
         assertEncodesTo(encoder, DERIVED_FIELDS_MESSAGE);
     }
 
+    @Test
+    public void shouldEncodeFixedWidthBodyLengthFromOffset() throws Exception
+    {
+        final Encoder encoder = (Encoder)heartbeatWithFixedBodyLength.getConstructor().newInstance();
+        setRequiredFields(encoder);
+
+        final long result = encoder.encode(buffer, 1);
+
+        assertEquals(1, Encoder.offset(result));
+        assertEquals(FIXED_WIDTH_BODY_LENGTH_MESSAGE, buffer.getAscii(1, Encoder.length(result)));
+    }
+
+    @Test
+    public void shouldSpliceHeaderTemplateAfterMsgType() throws Exception
+    {
+        final SessionHeaderEncoder templateHeader = newHeartbeat().header();
+        templateHeader.senderCompID("sender").targetCompID("target");
+
+        final MutableAsciiBuffer templateBuffer = new MutableAsciiBuffer(new byte[64]);
+        final int templateLength = templateHeader.encodeHeaderTemplate(templateBuffer, 0);
+        assertEquals("49=sender\00156=target\001", templateBuffer.getAscii(0, templateLength));
+
+        final byte[] template = new byte[templateLength];
+        templateBuffer.getBytes(0, template);
+
+        final Encoder encoder = newHeartbeat();
+        setRequiredFields(encoder);
+        assertTrue(encoder.header().supportsHeaderTemplate());
+        encoder.header().headerTemplate(template, templateLength);
+        assertEncodesTo(encoder, HEADER_TEMPLATE_MESSAGE);
+
+        encoder.header().headerTemplate(null, 0);
+        assertEncodesTo(encoder, DERIVED_FIELDS_MESSAGE);
+    }
+
     @Test
     public void shouldGenerateHumanReadableToString() throws Exception
     {
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary.generation;
+
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.generation.StringWriterOutputManager;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import uk.co.real_logic.artio.builder.Decoder;
+import uk.co.real_logic.artio.fields.DecimalFloat;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+import uk.co.real_logic.sbe.SbeTool;
+import uk.co.real_logic.sbe.ir.IrGenerator;
+import uk.co.real_logic.sbe.xml.Field;
+import uk.co.real_logic.sbe.xml.Message;
+import uk.co.real_logic.sbe.xml.MessageSchema;
+import uk.co.real_logic.sbe.xml.ParserOptions;
+import uk.co.real_logic.sbe.xml.XmlSchemaParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.agrona.generation.CompilerUtil.compileInMemory;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static uk.co.real_logic.artio.dictionary.ExampleDictionary.*;
+import static uk.co.real_logic.artio.dictionary.generation.Generator.RUNTIME_REJECT_UNKNOWN_ENUM_VALUE_PROPERTY;
+
+public class SbeTranscoderGeneratorTest
+{
+    private static final String SBE_PACKAGE = TEST_PACKAGE + ".sbe";
+    private static final String HEARTBEAT_TRANSCODER = SBE_PACKAGE + ".HeartbeatTranscoder";
+
+    private static final SbeTranscoderGenerator TRANSCODER_GENERATOR = new SbeTranscoderGenerator(
+        MESSAGE_EXAMPLE, SBE_PACKAGE, TEST_PACKAGE, TEST_PACKAGE, null);
+
+    private static MessageSchema messageSchema;
+    private static Class<?> heartbeatTranscoder;
+
+    @BeforeClass
+    public static void generate() throws Exception
+    {
+        final String schema = TRANSCODER_GENERATOR.generateSchema();
+        messageSchema = XmlSchemaParser.parse(new ByteArrayInputStream(schema.getBytes(UTF_8)), ParserOptions.DEFAULT);
+
+        final StringWriterOutputManager outputManager = new StringWriterOutputManager();
+        new ConstantGenerator(MESSAGE_EXAMPLE, TEST_PACKAGE, null, outputManager).generate();
+        new EnumGenerator(MESSAGE_EXAMPLE, TEST_PARENT_PACKAGE, outputManager).generate();
+        new EncoderGenerator(MESSAGE_EXAMPLE, TEST_PACKAGE, TEST_PARENT_PACKAGE, outputManager, ValidationOn.class,
+            RejectUnknownFieldOn.class, RejectUnknownEnumValueOn.class, RUNTIME_REJECT_UNKNOWN_ENUM_VALUE_PROPERTY)
+            .generate();
+        new DecoderGenerator(MESSAGE_EXAMPLE, 1, TEST_PACKAGE, TEST_PARENT_PACKAGE, TEST_PACKAGE, outputManager,
+            ValidationOn.class, RejectUnknownFieldOn.class, RejectUnknownEnumValueOn.class, false, false,
+            RUNTIME_REJECT_UNKNOWN_ENUM_VALUE_PROPERTY).generate();
+        outputManager.setPackageName(SBE_PACKAGE);
+        new SbeTranscoderGenerator(MESSAGE_EXAMPLE, SBE_PACKAGE, TEST_PACKAGE, TEST_PACKAGE, outputManager)
+            .generate();
+
+        final Map<String, CharSequence> sources = outputManager.getSources();
+        final Path sbeOutputDir = Files.createTempDirectory("sbe-transcoder-test");
+        try
+        {
+            SbeTool.generate(new IrGenerator().generate(messageSchema), sbeOutputDir.toString(), "Java");
+            try (Stream<Path> files = Files.walk(sbeOutputDir))
+            {
+                for (final Path file : files.filter((path) -> path.toString().endsWith(".java"))
+                    .collect(Collectors.toList()))
+                {
+                    final String fileName = file.getFileName().toString();
+                    final String className = SBE_PACKAGE + "." + fileName.substring(0, fileName.length() - 5);
+                    sources.put(className, new String(Files.readAllBytes(file), UTF_8));
+                }
+            }
+        }
+        finally
+        {
+            IoUtil.delete(new File(sbeOutputDir.toString()), true);
+        }
+
+        heartbeatTranscoder = compileInMemory(HEARTBEAT_TRANSCODER, sources);
+        if (heartbeatTranscoder == null || AbstractDecoderGeneratorTest.CODEC_LOGGING)
+        {
+            System.out.println(sources);
+        }
+    }
+
+    @Test
+    public void shouldGenerateAnSbeMessagePerFixMessage()
+    {
+        assertEquals(MESSAGE_EXAMPLE.messages().size(), messageSchema.messages().size());
+    }
+
+    @Test
+    public void shouldPutFixedLengthFieldsBeforeVariableLengthData()
+    {
+        final List<String> fieldNames = heartbeatFields().stream().map(Field::name).collect(Collectors.toList());
+
+        assertThat(fieldNames, contains(
+            "MsgSeqNum", "PossDupFlag", "PossResend", "LastMsgSeqNumProcessed",
+            "IntField", "FloatField", "BooleanField", "DataFieldLength", "CharField", "DayOfMonthField",
+            "ComponentField", "NestedComponentField", "LongField",
+            "SenderCompID", "TargetCompID", "SenderSubID", "SenderLocationID", "TargetSubID", "TargetLocationID",
+            "SendingTime", "OrigSendingTime", "OnBehalfOfCompID", "TestReqID", "MultiCharField",
+            "MultiValueStringField", "MultiStringValueField", "MultiValueCharNoEnumField", "SomeTimeField"));
+    }
+
+    @Test
+    public void shouldUseTagsAsFieldIds()
+    {
+        for (final Field field : heartbeatFields())
+        {
+            assertEquals(field.name(), MESSAGE_EXAMPLE.fields().get(field.name()).number(), field.id());
+        }
+    }
+
+    @Test
+    public void shouldTranscodeFixToSbeAndBack() throws Exception
+    {
+        assertNotNull("Failed to compile transcoder", heartbeatTranscoder);
+        final ClassLoader classLoader = heartbeatTranscoder.getClassLoader();
+
+        final MutableAsciiBuffer fixBuffer = new MutableAsciiBuffer(new byte[1024]);
+        fixBuffer.putAscii(0, ENCODED_MESSAGE);
+        final Decoder fixDecoder = (Decoder)newInstance(classLoader, HEARTBEAT_DECODER);
+        fixDecoder.decode(fixBuffer, 0, ENCODED_MESSAGE.length());
+
+        final UnsafeBuffer sbeBuffer = new UnsafeBuffer(new byte[1024]);
+        final Object sbeEncoder = newInstance(classLoader, SBE_PACKAGE + ".HeartbeatEncoder");
+        sbeEncoder.getClass().getMethod("wrap", MutableDirectBuffer.class, int.class).invoke(sbeEncoder, sbeBuffer, 0);
+
+        final Object transcoder = heartbeatTranscoder.getConstructor().newInstance();
+        heartbeatTranscoder.getMethod("toSbe", fixDecoder.getClass(), sbeEncoder.getClass())
+            .invoke(transcoder, fixDecoder, sbeEncoder);
+
+        final Object sbeDecoder = newInstance(classLoader, SBE_PACKAGE + ".HeartbeatDecoder");
+        final int blockLength = (int)sbeEncoder.getClass().getMethod("sbeBlockLength").invoke(sbeEncoder);
+        sbeDecoder.getClass().getMethod("wrap", DirectBuffer.class, int.class, int.class, int.class)
+            .invoke(sbeDecoder, sbeBuffer, 0, blockLength, 0);
+
+        final Object fixEncoder = newInstance(classLoader, HEARTBEAT_ENCODER);
+        heartbeatTranscoder.getMethod("fromSbe", sbeDecoder.getClass(), fixEncoder.getClass())
+            .invoke(transcoder, sbeDecoder, fixEncoder);
+
+        assertEquals("abc", get(fixEncoder, "onBehalfOfCompIDAsString"));
+        assertEquals("abc", get(fixEncoder, "testReqIDAsString"));
+        assertEquals(2, get(fixEncoder, "intField"));
+        assertEquals(new DecimalFloat(11, 1), get(fixEncoder, "floatField"));
+        assertEquals(true, get(fixEncoder, "booleanField"));
+        assertEquals(3, get(fixEncoder, "dataFieldLength"));
+        assertEquals("19700101-00:00:00.001", get(fixEncoder, "someTimeFieldAsString"));
+        assertEquals(false, get(fixEncoder, "hasCharField"));
+    }
+
+    private static List<Field> heartbeatFields()
+    {
+        final Message heartbeat = messageSchema.messages()
+            .stream()
+            .filter((message) -> message.name().equals("Heartbeat"))
+            .findFirst()
+            .orElseThrow(IllegalStateException::new);
+
+        assertThat(heartbeat.dataFields(), hasSize(15));
+        return heartbeat.fields();
+    }
+
+    private static Object newInstance(final ClassLoader classLoader, final String className) throws Exception
+    {
+        return classLoader.loadClass(className).getConstructor().newInstance();
+    }
+
+    private static Object get(final Object encoder, final String methodName) throws Exception
+    {
+        return encoder.getClass().getMethod(methodName).invoke(encoder);
+    }
+}
@@ -92,6 +92,9 @@ public class DecimalFloatDecodingTest
             {"0.00000001", 1, 8},
             {"6456.123456789", 6456123456789L, 9},
             {"6456.000000001", 6456000000001L, 9},
+            {"123456789012.345678", 123456789012345678L, 6},
+            {"-12345678.87654321", -1234567887654321L, 8},
+            {"1234567890123456.789", 1234567890123456789L, 3},
         });
     }
 
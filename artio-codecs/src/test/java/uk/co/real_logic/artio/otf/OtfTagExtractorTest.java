@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.otf;
+
+import org.junit.Test;
+import uk.co.real_logic.artio.dictionary.LongDictionary;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.*;
+import static uk.co.real_logic.artio.otf.OtfTagExtractor.NOT_FOUND;
+import static uk.co.real_logic.artio.util.TestMessages.*;
+
+public class OtfTagExtractorTest
+{
+    private static final int OFFSET = 1;
+
+    private final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[16 * 1024]);
+    private final LongDictionary groupToField = new LongDictionary();
+
+    @Test
+    public void shouldExtractRequestedTags()
+    {
+        final OtfTagExtractor extractor = new OtfTagExtractor(34, 35, 55);
+
+        assertTrue(extract(extractor, EG_MESSAGE));
+
+        assertValue(extractor, 0, "4");
+        assertValue(extractor, 1, "D");
+        assertValue(extractor, 2, "CVS");
+    }
+
+    @Test
+    public void shouldReportMissingTags()
+    {
+        final OtfTagExtractor extractor = new OtfTagExtractor(35, 58);
+
+        assertFalse(extract(extractor, EG_MESSAGE));
+
+        assertValue(extractor, 0, "D");
+        assertFalse(extractor.found(1));
+        assertEquals(NOT_FOUND, extractor.valueOffset(1));
+        assertEquals(0, extractor.valueLength(1));
+    }
+
+    @Test
+    public void shouldResetBetweenMessages()
+    {
+        final OtfTagExtractor extractor = new OtfTagExtractor(35, 98);
+
+        assertTrue(extract(extractor, LOGON_MESSAGE));
+        assertFalse(extract(extractor, EG_MESSAGE));
+
+        assertValue(extractor, 0, "D");
+        assertFalse(extractor.found(1));
+    }
+
+    @Test
+    public void shouldExtractFirstOccurrenceWithoutGroupDictionary()
+    {
+        final OtfTagExtractor extractor = new OtfTagExtractor(55);
+
+        assertTrue(extract(extractor, REPEATING_GROUP));
+
+        assertValue(extractor, 0, "IBM");
+    }
+
+    @Test
+    public void shouldSkipFieldsWithinRepeatingGroups()
+    {
+        groupToField.putAll(73, 11, 67, 55, 54, 38, 40, 78);
+        groupToField.putAll(78, 79, 467, 366);
+        final OtfTagExtractor extractor = new OtfTagExtractor(groupToField, 34, 73, 55, 79);
+
+        assertFalse(extract(extractor, NESTED_REPEATING_GROUP));
+
+        assertValue(extractor, 0, "200");
+        assertValue(extractor, 1, "2");
+        assertFalse(extractor.found(2));
+        assertFalse(extractor.found(3));
+    }
+
+    @Test
+    public void shouldExtractFieldsAfterRepeatingGroups()
+    {
+        groupToField.putAll(73, 11, 55);
+        final OtfTagExtractor extractor = new OtfTagExtractor(groupToField, 55, 58);
+
+        assertFalse(extract(extractor, "35=E\00173=1\00111=order-1\00155=IBM\00158=text\001".getBytes(US_ASCII)));
+
+        assertFalse(extractor.found(0));
+        assertValue(extractor, 1, "text");
+    }
+
+    @Test
+    public void shouldNotExtractFromMalformedMessage()
+    {
+        final OtfTagExtractor extractor = new OtfTagExtractor(34, 49);
+
+        assertFalse(extract(extractor, GARBLED_MESSAGE));
+
+        assertValue(extractor, 0, "4");
+        assertFalse(extractor.found(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptDuplicateTags()
+    {
+        new OtfTagExtractor(35, 35);
+    }
+
+    private boolean extract(final OtfTagExtractor extractor, final byte[] message)
+    {
+        buffer.putBytes(OFFSET, message);
+        return extractor.extract(buffer, OFFSET, message.length);
+    }
+
+    private void assertValue(final OtfTagExtractor extractor, final int index, final String value)
+    {
+        assertTrue(extractor.found(index));
+        assertEquals(value, extractor.buffer().getAscii(extractor.valueOffset(index), extractor.valueLength(index)));
+    }
+}
@@ -140,6 +140,86 @@ public class AsciiBufferTest
         assertEquals(-1, value);
     }
 
+    @Test
+    public void shouldDecodeNaturalsOfEveryLength()
+    {
+        final String digits = "123456789012345678";
+        for (int length = 1; length <= digits.length(); length++)
+        {
+            final String value = digits.substring(0, length);
+            putAscii(value + "=");
+
+            assertEquals(Long.parseLong(value), buffer.getNaturalLong(0, length));
+            if (length <= 9)
+            {
+                assertEquals(Integer.parseInt(value), buffer.getNatural(0, length));
+                assertEquals(-Integer.parseInt(value), getIntOf("-" + value));
+            }
+        }
+    }
+
+    @Test
+    public void shouldDecodeNaturalsAtTheEndOfTheBuffer()
+    {
+        final MutableAsciiBuffer smallBuffer = new MutableAsciiBuffer("A1234567890".getBytes(US_ASCII));
+
+        assertEquals(1234567890, smallBuffer.getNatural(1, 11));
+        assertEquals(890, smallBuffer.getNatural(8, 11));
+        assertEquals(1234567890L, smallBuffer.getNaturalLong(1, 11));
+
+        final MutableAsciiBuffer tinyBuffer = new MutableAsciiBuffer("-42".getBytes(US_ASCII));
+        assertEquals(-42, tinyBuffer.getInt(0, 3));
+        assertEquals(42, tinyBuffer.getNatural(1, 3));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void shouldValidateDigitsOfNaturals()
+    {
+        putAscii("1234A678");
+
+        buffer.getNatural(0, 8);
+    }
+
+    @Test
+    public void shouldComputeChecksumOverWordsAndRemainingBytes()
+    {
+        final byte[] message = "8=FIX.4.4\0019=53\00135=0\001115=abc\001116=2\001117=1.1\001".getBytes(US_ASCII);
+        buffer.putBytes(OFFSET, message);
+
+        for (int length = 0; length <= message.length; length++)
+        {
+            assertEquals("Wrong checksum for length " + length,
+                checksumByteByByte(OFFSET, OFFSET + length), buffer.computeChecksum(OFFSET, OFFSET + length));
+        }
+    }
+
+    @Test
+    public void shouldComputeChecksumOfBytesWithSignBitSet()
+    {
+        for (int i = 0; i < 19; i++)
+        {
+            buffer.putByte(OFFSET + i, (byte)(0xF0 + i));
+        }
+
+        assertEquals(checksumByteByByte(OFFSET, OFFSET + 19), buffer.computeChecksum(OFFSET, OFFSET + 19));
+    }
+
+    private int checksumByteByByte(final int startInclusive, final int endExclusive)
+    {
+        int total = 0;
+        for (int index = startInclusive; index < endExclusive; index++)
+        {
+            total += buffer.getByte(index);
+        }
+        return total % 256;
+    }
+
+    private int getIntOf(final String value)
+    {
+        putAscii(value);
+        return buffer.getInt(0, value.length());
+    }
+
     private void putAscii(final String value)
     {
         buffer.putBytes(0, value.getBytes(US_ASCII));
@@ -0,0 +1,339 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.SystemEpochClock;
+import org.agrona.concurrent.SystemNanoClock;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.agrona.hints.ThreadHints;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * An {@link IdleStrategy} that moves between busy spinning, yielding and parking depending upon how long its agent
+ * has gone without doing any work and whether a {@link Schedule} says that the agent should be kept warm.
+ *
+ * <ul>
+ *     <li>Whilst an agent is doing work, or has done work within the spin window, it busy spins.</li>
+ *     <li>After that it yields until the yield window has passed.</li>
+ *     <li>After that it parks for an exponentially increasing period, unless the schedule is active, in which case
+ *     it carries on yielding so that the first message of the day isn't delayed by waking from a park.</li>
+ * </ul>
+ *
+ * The clock is only read when no work has been done, so whilst an agent is busy the cost is the same as a
+ * {@link org.agrona.concurrent.BusySpinIdleStrategy}. The current state and the number of parks can be exposed as
+ * counters, see {@link FixCounters#bindIdleStrategy(IdleStrategy, String)}, which the engine and library do for their
+ * own idle strategies.
+ *
+ * Not thread-safe, each agent should be given its own instance.
+ */
+public class AdaptiveIdleStrategy implements IdleStrategy
+{
+    public static final int SPINNING = 0;
+    public static final int YIELDING = 1;
+    public static final int PARKING = 2;
+
+    public static final long DEFAULT_SPIN_WINDOW_IN_NS = MILLISECONDS.toNanos(1);
+    public static final long DEFAULT_YIELD_WINDOW_IN_NS = MILLISECONDS.toNanos(100);
+    public static final long DEFAULT_MIN_PARK_PERIOD_IN_NS = 1;
+    public static final long DEFAULT_MAX_PARK_PERIOD_IN_NS = 1 << 20;
+
+    private static final long NOT_IDLE = Long.MIN_VALUE;
+    private static final long SCHEDULE_CHECK_INTERVAL_IN_NS = MILLISECONDS.toNanos(100);
+
+    private final long spinWindowInNs;
+    private final long yieldWindowInNs;
+    private final long minParkPeriodInNs;
+    private final long maxParkPeriodInNs;
+    private final Schedule schedule;
+    private final NanoClock nanoClock;
+    private final EpochClock epochClock;
+
+    private int state = SPINNING;
+    private long idleStartInNs = NOT_IDLE;
+    private long parkPeriodInNs;
+    private boolean scheduleActive;
+    private long nextScheduleCheckInNs;
+    private boolean scheduleChecked;
+    private AtomicCounter stateCounter;
+    private AtomicCounter parksCounter;
+
+    /**
+     * Create an idle strategy with the default windows and park periods and no schedule.
+     */
+    public AdaptiveIdleStrategy()
+    {
+        this(Schedule.NONE);
+    }
+
+    /**
+     * Create an idle strategy with the default windows and park periods.
+     *
+     * @param schedule the periods during which the agent shouldn't park.
+     */
+    public AdaptiveIdleStrategy(final Schedule schedule)
+    {
+        this(
+            DEFAULT_SPIN_WINDOW_IN_NS,
+            DEFAULT_YIELD_WINDOW_IN_NS,
+            DEFAULT_MIN_PARK_PERIOD_IN_NS,
+            DEFAULT_MAX_PARK_PERIOD_IN_NS,
+            schedule,
+            SystemNanoClock.INSTANCE,
+            SystemEpochClock.INSTANCE);
+    }
+
+    /**
+     * Create an idle strategy.
+     *
+     * @param spinWindowInNs how long to busy spin for after the agent last did work.
+     * @param yieldWindowInNs how long to yield for after the agent last did work, must be at least the spin window.
+     * @param minParkPeriodInNs the period to park for when the agent starts parking.
+     * @param maxParkPeriodInNs the period that the park period doubles up to whilst the agent is parking.
+     * @param schedule the periods during which the agent shouldn't park.
+     * @param nanoClock the clock used to time the windows.
+     * @param epochClock the clock used to check the schedule.
+     */
+    public AdaptiveIdleStrategy(
+        final long spinWindowInNs,
+        final long yieldWindowInNs,
+        final long minParkPeriodInNs,
+        final long maxParkPeriodInNs,
+        final Schedule schedule,
+        final NanoClock nanoClock,
+        final EpochClock epochClock)
+    {
+        if (yieldWindowInNs < spinWindowInNs)
+        {
+            throw new IllegalArgumentException(
+                "yieldWindowInNs=" + yieldWindowInNs + " must be >= spinWindowInNs=" + spinWindowInNs);
+        }
+
+        if (minParkPeriodInNs <= 0 || maxParkPeriodInNs < minParkPeriodInNs)
+        {
+            throw new IllegalArgumentException("Invalid park periods: minParkPeriodInNs=" + minParkPeriodInNs +
+                ", maxParkPeriodInNs=" + maxParkPeriodInNs);
+        }
+
+        this.spinWindowInNs = spinWindowInNs;
+        this.yieldWindowInNs = yieldWindowInNs;
+        this.minParkPeriodInNs = minParkPeriodInNs;
+        this.maxParkPeriodInNs = maxParkPeriodInNs;
+        this.schedule = schedule;
+        this.nanoClock = nanoClock;
+        this.epochClock = epochClock;
+    }
+
+    /**
+     * Sets the counters that the state and number of parks are written to.
+     *
+     * @param stateCounter the counter for the state, one of {@link #SPINNING}, {@link #YIELDING} or
+     * {@link #PARKING}.
+     * @param parksCounter the counter for the number of times the agent has parked.
+     */
+    public void counters(final AtomicCounter stateCounter, final AtomicCounter parksCounter)
+    {
+        this.stateCounter = stateCounter;
+        this.parksCounter = parksCounter;
+        stateCounter.setOrdered(state);
+    }
+
+    public void idle(final int workCount)
+    {
+        if (workCount > 0)
+        {
+            reset();
+        }
+        else
+        {
+            idle();
+        }
+    }
+
+    public void idle()
+    {
+        final long timeInNs = nanoClock.nanoTime();
+        if (idleStartInNs == NOT_IDLE)
+        {
+            idleStartInNs = timeInNs;
+        }
+
+        final long idleTimeInNs = timeInNs - idleStartInNs;
+        if (idleTimeInNs < spinWindowInNs)
+        {
+            ThreadHints.onSpinWait();
+        }
+        else if (idleTimeInNs < yieldWindowInNs || isScheduleActive(timeInNs))
+        {
+            state(YIELDING);
+            Thread.yield();
+        }
+        else
+        {
+            if (state != PARKING)
+            {
+                state(PARKING);
+                parkPeriodInNs = minParkPeriodInNs;
+            }
+
+            final AtomicCounter parksCounter = this.parksCounter;
+            if (parksCounter != null)
+            {
+                parksCounter.incrementOrdered();
+            }
+
+            LockSupport.parkNanos(parkPeriodInNs);
+            parkPeriodInNs = Math.min(parkPeriodInNs << 1, maxParkPeriodInNs);
+        }
+    }
+
+    public void reset()
+    {
+        if (idleStartInNs != NOT_IDLE)
+        {
+            idleStartInNs = NOT_IDLE;
+            state(SPINNING);
+        }
+    }
+
+    public String alias()
+    {
+        return "adaptive";
+    }
+
+    /**
+     * Gets the current state of the idle strategy.
+     *
+     * @return the current state, one of {@link #SPINNING}, {@link #YIELDING} or {@link #PARKING}.
+     */
+    public int state()
+    {
+        return state;
+    }
+
+    private void state(final int state)
+    {
+        if (this.state != state)
+        {
+            this.state = state;
+
+            final AtomicCounter stateCounter = this.stateCounter;
+            if (stateCounter != null)
+            {
+                stateCounter.setOrdered(state);
+            }
+        }
+    }
+
+    // Checking the schedule needs the calendar, so it's only done periodically.
+    private boolean isScheduleActive(final long timeInNs)
+    {
+        if (!scheduleChecked || timeInNs - nextScheduleCheckInNs >= 0)
+        {
+            scheduleChecked = true;
+            scheduleActive = schedule.isActive(epochClock.time());
+            nextScheduleCheckInNs = timeInNs + SCHEDULE_CHECK_INTERVAL_IN_NS;
+        }
+
+        return scheduleActive;
+    }
+
+    public String toString()
+    {
+        return "AdaptiveIdleStrategy{" +
+            "alias=" + alias() +
+            ", spinWindowInNs=" + spinWindowInNs +
+            ", yieldWindowInNs=" + yieldWindowInNs +
+            ", minParkPeriodInNs=" + minParkPeriodInNs +
+            ", maxParkPeriodInNs=" + maxParkPeriodInNs +
+            '}';
+    }
+
+    /**
+     * The periods during which an {@link AdaptiveIdleStrategy} shouldn't park, for example the trading hours of the
+     * sessions that its agent handles. An application that uses a session scheduler of its own can adapt it, for
+     * example with <code>timeInMs -&gt; scheduler.duringDay()</code>.
+     */
+    @FunctionalInterface
+    public interface Schedule
+    {
+        /**
+         * A schedule that's never active, so idle strategies park purely based upon how recently work was done.
+         */
+        Schedule NONE = timeInMs -> false;
+
+        /**
+         * Checks whether the schedule is active.
+         *
+         * @param timeInMs the current epoch time in milliseconds.
+         * @return true if the schedule is active at the time, false otherwise.
+         */
+        boolean isActive(long timeInMs);
+
+        /**
+         * Create a schedule that's active between specified times on specified days.
+         *
+         * @param timezone the timezone that days start and end in.
+         * @param startDay the first day of the week that the schedule is active on.
+         * @param endDay the last day of the week that the schedule is active on.
+         * @param startTime the time of day that the schedule becomes active.
+         * @param endTime the time of day that the schedule stops being active, if this is the same as the start time
+         *                then the schedule is active for the whole day and if it's before the start time then the
+         *                schedule is active overnight.
+         * @return the schedule.
+         */
+        static Schedule between(
+            final ZoneId timezone,
+            final DayOfWeek startDay,
+            final DayOfWeek endDay,
+            final LocalTime startTime,
+            final LocalTime endTime)
+        {
+            return timeInMs ->
+            {
+                final ZonedDateTime dateTime = Instant.ofEpochMilli(timeInMs).atZone(timezone);
+                final DayOfWeek day = dateTime.getDayOfWeek();
+                if (day.compareTo(startDay) < 0 || day.compareTo(endDay) > 0)
+                {
+                    return false;
+                }
+
+                final LocalTime time = dateTime.toLocalTime();
+                if (startTime.equals(endTime))
+                {
+                    return true;
+                }
+
+                if (startTime.isBefore(endTime))
+                {
+                    return !time.isBefore(startTime) && time.isBefore(endTime);
+                }
+
+                return !time.isBefore(startTime) || time.isBefore(endTime);
+            };
+        }
+    }
+}
@@ -17,6 +17,7 @@ package uk.co.real_logic.artio;
 
 import io.aeron.Aeron;
 import io.aeron.archive.client.AeronArchive;
+import org.agrona.BitUtil;
 import org.agrona.ErrorHandler;
 import org.agrona.IoUtil;
 import org.agrona.Verify;
@@ -33,6 +34,7 @@ import uk.co.real_logic.artio.session.ResendRequestController;
 import uk.co.real_logic.artio.session.SessionCustomisationStrategy;
 import uk.co.real_logic.artio.session.SessionIdStrategy;
 import uk.co.real_logic.artio.timing.HistogramHandler;
+import uk.co.real_logic.artio.timing.MessageTracer;
 import uk.co.real_logic.artio.util.MessageTypeEncoding;
 import uk.co.real_logic.artio.validation.MessageValidationStrategy;
 
@@ -118,6 +120,10 @@ public class CommonConfiguration
      * Property name for the file to which histogram intervals are logged
      */
     public static final String HISTOGRAM_LOGGING_FILE_PROPERTY = "fix.benchmark.histogram_file";
+    /**
+     * Property name for the interval at which messages are sampled for latency tracing
+     */
+    public static final String MESSAGE_TRACE_SAMPLE_INTERVAL_PROPERTY = "fix.core.trace_sample_interval";
 
     /**
      * Property name for character to separate debug logging of FIX messages
@@ -260,6 +266,7 @@ public class CommonConfiguration
 
     public static final long DEFAULT_REPLY_TIMEOUT_IN_MS = 10_000L;
     public static final long DEFAULT_HISTOGRAM_POLL_PERIOD_IN_MS = MINUTES.toMillis(1);
+    public static final int DEFAULT_MESSAGE_TRACE_SAMPLE_INTERVAL = MessageTracer.NO_TRACING;
 
     public static final int DEFAULT_INBOUND_LIBRARY_STREAM = 1;
     public static final int DEFAULT_OUTBOUND_LIBRARY_STREAM = 2;
@@ -293,6 +300,8 @@ public class CommonConfiguration
         Long.getLong(HISTOGRAM_POLL_PERIOD_IN_MS_PROPERTY, DEFAULT_HISTOGRAM_POLL_PERIOD_IN_MS);
     private String histogramLoggingFile = null;
     private HistogramHandler histogramHandler;
+    private int messageTraceSampleInterval =
+        getInteger(MESSAGE_TRACE_SAMPLE_INTERVAL_PROPERTY, DEFAULT_MESSAGE_TRACE_SAMPLE_INTERVAL);
     private String agentNamePrefix = DEFAULT_NAME_PREFIX;
     private int inboundLibraryStream = DEFAULT_INBOUND_LIBRARY_STREAM;
     private int outboundLibraryStream = DEFAULT_OUTBOUND_LIBRARY_STREAM;
@@ -625,6 +634,25 @@ public class CommonConfiguration
         return this;
     }
 
+    /**
+     * Enables per-message latency tracing. One in every <code>messageTraceSampleInterval</code> messages is stamped
+     * as it passes through each stage: socket read, framer publish, library receive and handler return for inbound
+     * messages, outbound claim and socket write for outbound messages. The time between stages is logged as a
+     * histogram per stage alongside the message timing histograms.
+     *
+     * Messages are sampled by the process that publishes them, so the engine and libraries should use the same
+     * interval and a comparable {@link #epochNanoClock(EpochNanoClock)}.
+     *
+     * @param messageTraceSampleInterval a power of two or {@link MessageTracer#NO_TRACING}, the default, to disable
+     *                                   tracing.
+     * @return this
+     */
+    public CommonConfiguration messageTraceSampleInterval(final int messageTraceSampleInterval)
+    {
+        this.messageTraceSampleInterval = messageTraceSampleInterval;
+        return this;
+    }
+
     /**
      * Sets the prefix to be used on agent names. This can be used to distinguish two different Artio instances
      * running in the same process, for example in tests.
@@ -928,6 +956,11 @@ public class CommonConfiguration
         return histogramHandler;
     }
 
+    public int messageTraceSampleInterval()
+    {
+        return messageTraceSampleInterval;
+    }
+
     public String agentNamePrefix()
     {
         return agentNamePrefix;
@@ -993,6 +1026,12 @@ public class CommonConfiguration
         {
             threadFactory = Thread::new;
         }
+
+        if (messageTraceSampleInterval != MessageTracer.NO_TRACING && !BitUtil.isPowerOfTwo(messageTraceSampleInterval))
+        {
+            throw new IllegalArgumentException(
+                "messageTraceSampleInterval must be a power of two, but was: " + messageTraceSampleInterval);
+        }
     }
 
     /**
@@ -18,6 +18,7 @@ package uk.co.real_logic.artio;
 import io.aeron.Aeron;
 import io.aeron.Counter;
 import org.agrona.collections.IntHashSet;
+import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.agrona.concurrent.status.CountersReader;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
@@ -47,7 +48,10 @@ public class FixCounters implements AutoCloseable
         CURRENT_REPLAY_COUNT_TYPE_ID(10_008),
         NEGATIVE_TIMESTAMP_TYPE_ID(10_009),
         FAILED_ADMIN_TYPE_ID(10_010),
-        FAILED_ADMIN_REPLY_TYPE_ID(10_011);
+        FAILED_ADMIN_REPLY_TYPE_ID(10_011),
+        REJECTED_CONNECTIONS_TYPE_ID(10_012),
+        IDLE_STRATEGY_STATE_TYPE_ID(10_013),
+        IDLE_STRATEGY_PARKS_TYPE_ID(10_014);
 
         final int id;
 
@@ -69,6 +73,7 @@ public class FixCounters implements AutoCloseable
     private final AtomicCounter failedAdminReplyPublications;
     private final AtomicCounter currentReplayCount;
     private final AtomicCounter negativeTimestamps;
+    private final AtomicCounter rejectedConnections;
     private final Aeron aeron;
 
     public static IntHashSet lookupCounterIds(
@@ -112,10 +117,13 @@ public class FixCounters implements AutoCloseable
         {
             currentReplayCount = newCounter(FixCountersId.CURRENT_REPLAY_COUNT_TYPE_ID.id(),
                 "Current Replay Count");
+            rejectedConnections = newCounter(REJECTED_CONNECTIONS_TYPE_ID.id(),
+                "Connections rejected by admission control");
         }
         else
         {
             currentReplayCount = null;
+            rejectedConnections = null;
         }
     }
 
@@ -149,6 +157,11 @@ public class FixCounters implements AutoCloseable
         return negativeTimestamps;
     }
 
+    public AtomicCounter rejectedConnections()
+    {
+        return rejectedConnections;
+    }
+
     public AtomicCounter messagesRead(final long connectionId, final String address)
     {
         return newCounter(FixCountersId.MESSAGES_READ_TYPE_ID.id(),
@@ -179,6 +192,22 @@ public class FixCounters implements AutoCloseable
             FixCountersId.RECV_MSG_SEQ_NO_TYPE_ID.id(), msgSeqNoLabel("Received", connectionId, sessionId));
     }
 
+    /**
+     * Exposes the state of an idle strategy via counters, if it's an {@link AdaptiveIdleStrategy}.
+     *
+     * @param idleStrategy the idle strategy of the agent.
+     * @param agentName the name of the agent, used in the counters' labels.
+     */
+    public void bindIdleStrategy(final IdleStrategy idleStrategy, final String agentName)
+    {
+        if (idleStrategy instanceof AdaptiveIdleStrategy)
+        {
+            ((AdaptiveIdleStrategy)idleStrategy).counters(
+                newCounter(IDLE_STRATEGY_STATE_TYPE_ID.id(), agentName + " idle strategy state"),
+                newCounter(IDLE_STRATEGY_PARKS_TYPE_ID.id(), agentName + " idle strategy parks"));
+        }
+    }
+
     private String msgSeqNoLabel(final String type, final long connectionId, final long sessionId)
     {
         final StringBuilder sb = new StringBuilder();
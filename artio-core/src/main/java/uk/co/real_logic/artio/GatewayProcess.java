@@ -33,6 +33,7 @@ import java.util.List;
 
 import static uk.co.real_logic.artio.CommonConfiguration.TIME_MESSAGES;
 import static uk.co.real_logic.artio.dictionary.generation.Exceptions.closeAll;
+import static uk.co.real_logic.artio.timing.MessageTracer.NO_TRACING;
 
 public abstract class GatewayProcess implements AutoCloseable
 {
@@ -109,7 +110,7 @@ public abstract class GatewayProcess implements AutoCloseable
         final Agent agent)
     {
         final List<Agent> agents = new ArrayList<>();
-        if (TIME_MESSAGES)
+        if (TIME_MESSAGES || configuration.messageTraceSampleInterval() != NO_TRACING)
         {
             agents.add(new HistogramLogAgent(
                 timers,
@@ -35,6 +35,7 @@ import uk.co.real_logic.artio.dictionary.FixDictionary;
 import uk.co.real_logic.artio.dictionary.SessionConstants;
 import uk.co.real_logic.artio.engine.framer.DefaultTcpChannelSupplier;
 import uk.co.real_logic.artio.engine.framer.TcpChannelSupplier;
+import uk.co.real_logic.artio.engine.logger.ConsolidatedReplayIndexStore;
 import uk.co.real_logic.artio.engine.logger.FixArchiveScanner;
 import uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor;
 import uk.co.real_logic.artio.fields.EpochFractionFormat;
@@ -50,6 +51,7 @@ import uk.co.real_logic.artio.session.SessionIdStrategy;
 import uk.co.real_logic.artio.timing.HistogramHandler;
 import uk.co.real_logic.artio.validation.*;
 
+import javax.net.ssl.SSLContext;
 import java.io.File;
 import java.net.InetSocketAddress;
 import java.util.*;
@@ -162,6 +164,26 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for the timeout before a connection that hasn't sent a logon is disconnected
      */
     public static final String NO_LOGON_DISCONNECT_TIMEOUT_PROP = "fix.core.no_logon_disconnect";
+    /**
+     * Property name for the maximum number of new TCP connections accepted per second, see
+     * {@link #acceptRatePerSecond(int)}.
+     */
+    public static final String ACCEPT_RATE_PER_SECOND_PROP = "fix.core.accept_rate_per_second";
+    /**
+     * Property name for the maximum number of new TCP connections accepted from a single IP address per second, see
+     * {@link #acceptRatePerAddress(int, int)}.
+     */
+    public static final String ACCEPT_RATE_PER_ADDRESS_PROP = "fix.core.accept_rate_per_address";
+    /**
+     * Property name for the number of connections from a single IP address that can be accepted in a burst, see
+     * {@link #acceptRatePerAddress(int, int)}.
+     */
+    public static final String ACCEPT_BURST_PER_ADDRESS_PROP = "fix.core.accept_burst_per_address";
+    /**
+     * Property name for the maximum number of accepted connections that can be awaiting logon at once, see
+     * {@link #maxPendingLogons(int)}.
+     */
+    public static final String MAX_PENDING_LOGONS_PROP = "fix.core.max_pending_logons";
 
     // ------------------------------------------------
     //          Configuration Defaults
@@ -170,6 +192,7 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     public static final String DEFAULT_LOG_FILE_DIR = "logs";
     public static final int DEFAULT_REPLAY_INDEX_RECORD_CAPACITY = 262144;
     public static final int DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY = 65536;
+    public static final int DEFAULT_CONSOLIDATED_REPLAY_INDEX_FILE_SIZE = 1024 * 1024 * 1024;
     public static final int DEFAULT_LOGGER_CACHE_NUM_SETS = 8;
     public static final int DEFAULT_LOGGER_CACHE_SET_SIZE = 4;
 
@@ -184,6 +207,9 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     public static final int DEFAULT_SENDER_MAX_BYTES_IN_BUFFER = 4 * 1024 * 1024;
     public static final int DEFAULT_REPLAY_POSITION_BUFFER_SIZE = 4 * 1024;
     public static final int DEFAULT_NO_LOGON_DISCONNECT_TIMEOUT_IN_MS = (int)SECONDS.toMillis(5);
+    public static final int NO_ADMISSION_LIMIT = 0;
+    public static final int DEFAULT_ACCEPT_BURST_PER_ADDRESS = 10;
+    public static final String DEFAULT_INITIATOR_ENDPOINT_IDENTIFICATION_ALGORITHM = "HTTPS";
     public static final String DEFAULT_SESSION_ID_FILE = "session_id_buffer";
     public static final String DEFAULT_FIXP_ID_FILE = "fixp_id_buffer";
     public static final String DEFAULT_SEQUENCE_NUMBERS_SENT_FILE = "sequence_numbers_sent";
@@ -211,6 +237,8 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     public static final long MAX_COD_TIMEOUT_IN_MS = 60_000L;
 
     public static final long DEFAULT_TIME_INDEX_FLUSH_INTERVAL_IN_NS = TimeUnit.SECONDS.toNanos(1);
+    public static final long DEFAULT_COLD_ARCHIVE_RETAINED_LENGTH = 1024L * 1024 * 1024;
+    public static final long DEFAULT_COLD_ARCHIVE_CHECK_INTERVAL_IN_MS = SECONDS.toMillis(60);
 
     static
     {
@@ -235,6 +263,8 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     private int replayIndexFileRecordCapacity = getInteger(
         REPLAY_INDEX_RECORD_CAPACITY_PROP, DEFAULT_REPLAY_INDEX_RECORD_CAPACITY);
     private int replayIndexSegmentRecordCapacity = DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY;
+    private boolean consolidatedReplayIndex = false;
+    private int consolidatedReplayIndexFileSize = DEFAULT_CONSOLIDATED_REPLAY_INDEX_FILE_SIZE;
     private String logFileDir = getProperty(LOG_FILE_DIR_PROP, DEFAULT_LOG_FILE_DIR);
     private int loggerCacheNumSets = DEFAULT_LOGGER_CACHE_NUM_SETS;
     private int loggerCacheSetSize = DEFAULT_LOGGER_CACHE_SET_SIZE;
@@ -250,6 +280,7 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     private MappedFile sessionIdBuffer;
     private MappedFile fixPBuffer;
     private Set<String> gapfillOnReplayMessageTypes = new HashSet<>(DEFAULT_GAPFILL_ON_REPLAY_MESSAGE_TYPES);
+    private ReplayIndexFilter replayIndexFilter = ReplayIndexFilter.INDEX_ALL;
     private IntHashSet gapfillOnRetransmitILinkTemplateIds = new IntHashSet();
     private final AeronArchive.Context archiveContext = new AeronArchive.Context();
     private AeronArchive.Context archiveContextClone;
@@ -276,6 +307,14 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     private int noLogonDisconnectTimeoutInMs =
         getInteger(NO_LOGON_DISCONNECT_TIMEOUT_PROP, DEFAULT_NO_LOGON_DISCONNECT_TIMEOUT_IN_MS);
     private boolean indexChecksumEnabled = getBoolean(INDEX_CHECKSUM_ENABLED_PROP, DEFAULT_INDEX_CHECKSUM_ENABLED);
+    private int acceptRatePerSecond = getInteger(ACCEPT_RATE_PER_SECOND_PROP, NO_ADMISSION_LIMIT);
+    private int acceptRatePerAddress = getInteger(ACCEPT_RATE_PER_ADDRESS_PROP, NO_ADMISSION_LIMIT);
+    private int acceptBurstPerAddress = getInteger(ACCEPT_BURST_PER_ADDRESS_PROP, DEFAULT_ACCEPT_BURST_PER_ADDRESS);
+    private int maxPendingLogons = getInteger(MAX_PENDING_LOGONS_PROP, NO_ADMISSION_LIMIT);
+
+    private SSLContext acceptorSslContext = null;
+    private SSLContext initiatorSslContext = null;
+    private String initiatorEndpointIdentificationAlgorithm = DEFAULT_INITIATOR_ENDPOINT_IDENTIFICATION_ALGORITHM;
 
     private String libraryAeronChannel = null;
     private Function<EngineConfiguration, TcpChannelSupplier> channelSupplierFactory = DefaultTcpChannelSupplier::new;
@@ -314,6 +353,10 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     private int throttleWindowInMs = NO_THROTTLE_WINDOW;
     private int throttleLimitOfMessages = NO_THROTTLE_WINDOW;
     private long timeIndexReplayFlushIntervalInNs = DEFAULT_TIME_INDEX_FLUSH_INTERVAL_IN_NS;
+    private String coldArchiveDir = null;
+    private long coldArchiveRetainedLength = DEFAULT_COLD_ARCHIVE_RETAINED_LENGTH;
+    private long coldArchiveCheckIntervalInMs = DEFAULT_COLD_ARCHIVE_CHECK_INTERVAL_IN_MS;
+    private IdleStrategy coldArchiverIdleStrategy = backoffIdleStrategy();
 
     // ---------------------
     // BEGIN SETTERS
@@ -418,6 +461,57 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the context used to terminate TLS on connections accepted by the engine. The engine performs the TLS
+     * handshake in server mode, so the context should be initialised with the engine's key material. Configure
+     * client authentication through the context's default {@link javax.net.ssl.SSLParameters}.
+     *
+     * Defaults to null, ie: accepted connections are unencrypted.
+     *
+     * @param acceptorSslContext the context used to terminate TLS on accepted connections, or null for no TLS.
+     * @return this
+     */
+    public EngineConfiguration acceptorSslContext(final SSLContext acceptorSslContext)
+    {
+        this.acceptorSslContext = acceptorSslContext;
+        return this;
+    }
+
+    /**
+     * Sets the context used to establish TLS on connections initiated by the engine. The engine performs the TLS
+     * handshake in client mode, so the context should be initialised with the counter-parties' trust material.
+     *
+     * Defaults to null, ie: initiated connections are unencrypted.
+     *
+     * @param initiatorSslContext the context used to establish TLS on initiated connections, or null for no TLS.
+     * @return this
+     */
+    public EngineConfiguration initiatorSslContext(final SSLContext initiatorSslContext)
+    {
+        this.initiatorSslContext = initiatorSslContext;
+        return this;
+    }
+
+    /**
+     * Sets the algorithm used to check that the certificate presented to an initiated TLS connection belongs to the
+     * host that was connected to, see {@link javax.net.ssl.SSLParameters#setEndpointIdentificationAlgorithm(String)}.
+     * The host is checked as it was configured when initiating the session, not as it was resolved.
+     *
+     * Defaults to {@link #DEFAULT_INITIATOR_ENDPOINT_IDENTIFICATION_ALGORITHM}, ie: the host must match the
+     * certificate as it would for an HTTPS connection. Only disable this if the counter-parties' certificates are
+     * pinned by the context's trust material, otherwise any certificate from a trusted authority is accepted.
+     *
+     * @param initiatorEndpointIdentificationAlgorithm the algorithm used to check the host of initiated TLS
+     *                                                 connections, or null to not check the host.
+     * @return this
+     */
+    public EngineConfiguration initiatorEndpointIdentificationAlgorithm(
+        final String initiatorEndpointIdentificationAlgorithm)
+    {
+        this.initiatorEndpointIdentificationAlgorithm = initiatorEndpointIdentificationAlgorithm;
+        return this;
+    }
+
     /**
      * Sets the directory to store log files in.
      *
@@ -472,6 +566,39 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets whether the replay index is stored in a {@link ConsolidatedReplayIndexStore}, which packs every session's
+     * index into a few large files, rather than in a header file and segment files per session. This reduces the
+     * number of files, file descriptors and memory mappings when there are many sessions.
+     *
+     * The two layouts aren't compatible: switching layout loses the ability to replay messages indexed before the
+     * switch.
+     *
+     * @param consolidatedReplayIndex true to use the consolidated layout, false for a file per session.
+     * @return this
+     * @see #consolidatedReplayIndexFileSize(int)
+     */
+    public EngineConfiguration consolidatedReplayIndex(final boolean consolidatedReplayIndex)
+    {
+        this.consolidatedReplayIndex = consolidatedReplayIndex;
+        return this;
+    }
+
+    /**
+     * Sets the size of each file that a consolidated replay index stores segments in. Files are created sparse, so
+     * disk space is only used for segments that have been written to. This is rounded down to a multiple of the
+     * segment size, see {@link #replayIndexSegmentRecordCapacity(int)}.
+     *
+     * @param consolidatedReplayIndexFileSize the size of each file that segments are stored in.
+     * @return this
+     * @see #consolidatedReplayIndex(boolean)
+     */
+    public EngineConfiguration consolidatedReplayIndexFileSize(final int consolidatedReplayIndexFileSize)
+    {
+        this.consolidatedReplayIndexFileSize = consolidatedReplayIndexFileSize;
+        return this;
+    }
+
     /**
      * Convert the number of records in a replay index file to a file size. Note: because replay index file sizes must
      * be a power of two this method can return a file size greater than the requested number of methods but never less.
@@ -563,7 +690,8 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     }
 
     /**
-     * Sets the idle strategy for the Framer thread.
+     * Sets the idle strategy for the Framer thread. If this is an {@link uk.co.real_logic.artio.AdaptiveIdleStrategy}
+     * then its state is exposed via counters.
      *
      * @param framerIdleStrategy the idle strategy for the Framer thread.
      * @return this
@@ -575,7 +703,8 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     }
 
     /**
-     * Sets the idle strategy for the Logger thread.
+     * Sets the idle strategy for the Logger thread. If this is an {@link uk.co.real_logic.artio.AdaptiveIdleStrategy}
+     * then its state is exposed via counters.
      *
      * @param archiverIdleStrategy the idle strategy for the Logger thread.
      * @return this
@@ -643,6 +772,56 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the maximum number of new TCP connections that are accepted per second. Connections over this limit are
+     * left in the listen backlog until they can be accepted. This smooths out the load on the Framer when many
+     * counter-parties reconnect at once, eg: at the start of the day. Requires a {@link TcpChannelSupplier} that
+     * supports accept limits, as the default one does.
+     *
+     * @param acceptRatePerSecond the maximum number of new TCP connections per second, or
+     *                            {@link #NO_ADMISSION_LIMIT} for no limit.
+     * @return this
+     * @see EngineConfiguration#ACCEPT_RATE_PER_SECOND_PROP
+     */
+    public EngineConfiguration acceptRatePerSecond(final int acceptRatePerSecond)
+    {
+        this.acceptRatePerSecond = acceptRatePerSecond;
+        return this;
+    }
+
+    /**
+     * Sets the maximum rate at which new TCP connections are accepted from any single IP address. Connections that
+     * exceed this rate are closed as soon as they are accepted.
+     *
+     * @param acceptRatePerAddress the maximum number of new TCP connections per second from one IP address, or
+     *                             {@link #NO_ADMISSION_LIMIT} for no limit.
+     * @param acceptBurstPerAddress the number of connections from one IP address that can be accepted at once.
+     * @return this
+     * @see EngineConfiguration#ACCEPT_RATE_PER_ADDRESS_PROP
+     * @see EngineConfiguration#ACCEPT_BURST_PER_ADDRESS_PROP
+     */
+    public EngineConfiguration acceptRatePerAddress(final int acceptRatePerAddress, final int acceptBurstPerAddress)
+    {
+        this.acceptRatePerAddress = acceptRatePerAddress;
+        this.acceptBurstPerAddress = acceptBurstPerAddress;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of accepted connections that can be awaiting a logon message or its authentication at
+     * any one time. No new connections are accepted whilst this many logons are pending. Requires a
+     * {@link TcpChannelSupplier} that supports accept limits, as the default one does.
+     *
+     * @param maxPendingLogons the maximum number of pending logons, or {@link #NO_ADMISSION_LIMIT} for no limit.
+     * @return this
+     * @see EngineConfiguration#MAX_PENDING_LOGONS_PROP
+     */
+    public EngineConfiguration maxPendingLogons(final int maxPendingLogons)
+    {
+        this.maxPendingLogons = maxPendingLogons;
+        return this;
+    }
+
     public EngineConfiguration channelSupplierFactory(final Function<EngineConfiguration, TcpChannelSupplier> value)
     {
         this.channelSupplierFactory = value;
@@ -700,6 +879,23 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets a filter that decides which FIX messages are written to the replay index. Messages that aren't indexed
+     * are gap filled when they're covered by a resend request, rather than being replayed.
+     *
+     * By default all messages are indexed.
+     *
+     * @see ReplayIndexFilter#excludeMessageTypes(Set)
+     * @see ReplayIndexFilter#excludeSessions(org.agrona.collections.LongHashSet)
+     * @param replayIndexFilter the filter that decides which messages are indexed.
+     * @return this
+     */
+    public EngineConfiguration replayIndexFilter(final ReplayIndexFilter replayIndexFilter)
+    {
+        this.replayIndexFilter = replayIndexFilter;
+        return this;
+    }
+
     /**
      * Sets the types of template ids that are gapfilled instead of replayed in an Ilink3 connection.
      *
@@ -1177,6 +1373,71 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Enables the cold archive, a directory of compressed block files that the oldest segments of the engine's
+     * recordings are moved to in the background, rather than keeping them in the Aeron Archive or pruning them.
+     * Messages in the cold archive can still be replayed to FIX sessions and scanned by the
+     * {@link FixArchiveScanner}, if it's configured with the same directory using
+     * {@link FixArchiveScanner.Configuration#coldArchiveDir(String)}.
+     *
+     * Segments are moved by their own thread, using their own Aeron Archive client, so that compressing and syncing
+     * the cold archive doesn't hold up indexing or replays on the Logger thread. The thread is created with the
+     * {@link #threadFactory(ThreadFactory)} whichever {@link EngineScheduler} is used.
+     *
+     * Disabled by default.
+     *
+     * @param coldArchiveDir the directory to store cold archive files in, or null to disable the cold archive.
+     * @return this
+     * @see #coldArchiveRetainedLength(long)
+     */
+    public EngineConfiguration coldArchiveDir(final String coldArchiveDir)
+    {
+        this.coldArchiveDir = coldArchiveDir;
+        return this;
+    }
+
+    /**
+     * Sets the number of bytes at the end of each recording that are retained in the Aeron Archive when the cold
+     * archive is enabled. Whole archive segments that are further than this behind a recording's position are moved
+     * to the cold archive.
+     *
+     * @param coldArchiveRetainedLength the number of bytes at the end of each recording that are retained in the
+     *                                  Aeron Archive.
+     * @return this
+     * @see #coldArchiveDir(String)
+     */
+    public EngineConfiguration coldArchiveRetainedLength(final long coldArchiveRetainedLength)
+    {
+        this.coldArchiveRetainedLength = coldArchiveRetainedLength;
+        return this;
+    }
+
+    /**
+     * Sets the interval at which recordings are checked for segments to move to the cold archive.
+     *
+     * @param coldArchiveCheckIntervalInMs the interval at which recordings are checked in milliseconds.
+     * @return this
+     * @see #coldArchiveDir(String)
+     */
+    public EngineConfiguration coldArchiveCheckIntervalInMs(final long coldArchiveCheckIntervalInMs)
+    {
+        this.coldArchiveCheckIntervalInMs = coldArchiveCheckIntervalInMs;
+        return this;
+    }
+
+    /**
+     * Sets the idle strategy for the thread that moves segments to the cold archive.
+     *
+     * @param coldArchiverIdleStrategy the idle strategy for the cold archive's thread.
+     * @return this
+     * @see #coldArchiveDir(String)
+     */
+    public EngineConfiguration coldArchiverIdleStrategy(final IdleStrategy coldArchiverIdleStrategy)
+    {
+        this.coldArchiverIdleStrategy = coldArchiverIdleStrategy;
+        return this;
+    }
+
     // ---------------------
     // END SETTERS
     // ---------------------
@@ -1507,6 +1768,15 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public EngineConfiguration messageTraceSampleInterval(final int messageTraceSampleInterval)
+    {
+        super.messageTraceSampleInterval(messageTraceSampleInterval);
+        return this;
+    }
+
     // ------------------------
     // END INHERITED SETTERS
     // ------------------------
@@ -1560,6 +1830,21 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return senderSocketBufferSize;
     }
 
+    public SSLContext acceptorSslContext()
+    {
+        return acceptorSslContext;
+    }
+
+    public SSLContext initiatorSslContext()
+    {
+        return initiatorSslContext;
+    }
+
+    public String initiatorEndpointIdentificationAlgorithm()
+    {
+        return initiatorEndpointIdentificationAlgorithm;
+    }
+
     public boolean hasBindAddress()
     {
         return host != null;
@@ -1590,6 +1875,16 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return replayIndexSegmentRecordCapacity;
     }
 
+    public boolean consolidatedReplayIndex()
+    {
+        return consolidatedReplayIndex;
+    }
+
+    public int consolidatedReplayIndexFileSize()
+    {
+        return consolidatedReplayIndexFileSize;
+    }
+
     public int loggerCacheSetSize()
     {
         return loggerCacheSetSize;
@@ -1689,6 +1984,11 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return gapfillOnReplayMessageTypes;
     }
 
+    public ReplayIndexFilter replayIndexFilter()
+    {
+        return replayIndexFilter;
+    }
+
     public IntHashSet gapfillOnRetransmitILinkTemplateIds()
     {
         return gapfillOnRetransmitILinkTemplateIds;
@@ -1704,6 +2004,26 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return noLogonDisconnectTimeoutInMs;
     }
 
+    public int acceptRatePerSecond()
+    {
+        return acceptRatePerSecond;
+    }
+
+    public int acceptRatePerAddress()
+    {
+        return acceptRatePerAddress;
+    }
+
+    public int acceptBurstPerAddress()
+    {
+        return acceptBurstPerAddress;
+    }
+
+    public int maxPendingLogons()
+    {
+        return maxPendingLogons;
+    }
+
     public SessionPersistenceStrategy sessionPersistenceStrategy()
     {
         return sessionPersistenceStrategy;
@@ -1884,6 +2204,26 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return indexChecksumEnabled;
     }
 
+    public String coldArchiveDir()
+    {
+        return coldArchiveDir;
+    }
+
+    public long coldArchiveRetainedLength()
+    {
+        return coldArchiveRetainedLength;
+    }
+
+    public long coldArchiveCheckIntervalInMs()
+    {
+        return coldArchiveCheckIntervalInMs;
+    }
+
+    public IdleStrategy coldArchiverIdleStrategy()
+    {
+        return coldArchiverIdleStrategy;
+    }
+
     // ---------------------
     // END GETTERS
     // ---------------------
@@ -1917,6 +2257,21 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
             throw new IllegalArgumentException("FIXP acceptor is not supported without logging messages");
         }
 
+        if (coldArchiveDir != null)
+        {
+            if (coldArchiveRetainedLength < 0)
+            {
+                throw new IllegalArgumentException(
+                    "coldArchiveRetainedLength must not be negative: " + coldArchiveRetainedLength);
+            }
+
+            if (coldArchiveCheckIntervalInMs <= 0)
+            {
+                throw new IllegalArgumentException(
+                    "coldArchiveCheckIntervalInMs must be positive: " + coldArchiveCheckIntervalInMs);
+            }
+        }
+
         if (deleteLogFileDirOnStart())
         {
             final File logFileDir = new File(logFileDir());
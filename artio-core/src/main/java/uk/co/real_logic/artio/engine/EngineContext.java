@@ -22,6 +22,7 @@ import io.aeron.UnavailableImageHandler;
 import io.aeron.archive.client.AeronArchive;
 import io.aeron.logbuffer.BufferClaim;
 import org.agrona.ErrorHandler;
+import org.agrona.collections.IntArrayList;
 import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.*;
 import uk.co.real_logic.artio.FixCounters;
@@ -75,6 +76,9 @@ public class EngineContext implements AutoCloseable
     private Indexer inboundIndexer;
     private Indexer outboundIndexer;
     private Agent indexingAgent;
+    // The cold archiver has its own thread and archive client, see EngineConfiguration.coldArchiveDir()
+    private AeronArchive coldArchiverArchive;
+    private AgentRunner coldArchiverRunner;
     private ReplayQuery pruneInboundReplayQuery;
     private ReplayQuery outboundReplayQuery;
     private FramerContext framerContext;
@@ -174,7 +178,9 @@ public class EngineContext implements AutoCloseable
             recordingCoordinator);
     }
 
-    private ReplayIndex newReplayIndex(
+    static ReplayIndex newReplayIndex(
+        final EngineConfiguration configuration,
+        final ErrorHandler errorHandler,
         final String logFileDir,
         final int streamId,
         final RecordingIdLookup recordingIdLookup,
@@ -190,7 +196,7 @@ public class EngineContext implements AutoCloseable
             streamId,
             configuration.replayIndexFileRecordCapacity(),
             configuration.replayIndexSegmentRecordCapacity(),
-            LoggerUtil::map,
+            newReplayIndexStore(configuration, errorHandler, streamId),
             ReplayIndexDescriptor.replayPositionBuffer(logFileDir, streamId, configuration.replayPositionBufferSize()),
             errorHandler,
             recordingIdLookup,
@@ -200,28 +206,54 @@ public class EngineContext implements AutoCloseable
             configuration.timeIndexReplayFlushIntervalInNs(),
             streamId == configuration.outboundLibraryStream(),
             indexChecksumEnabled,
-            evictionHandler);
+            evictionHandler,
+            configuration.replayIndexFilter());
     }
 
     private ReplayQuery newReplayQuery(final IdleStrategy idleStrategy, final int streamId)
     {
-        final String logFileDir = configuration.logFileDir();
         final int cacheSetSize = configuration.loggerCacheSetSize();
         final int cacheNumSets = configuration.loggerCacheNumSets();
         final int archiveReplayStream = configuration.archiveReplayStream();
 
         return new ReplayQuery(
-            logFileDir,
+            newReplayIndexStore(configuration, errorHandler, streamId),
             cacheNumSets,
             cacheSetSize,
-            LoggerUtil::mapExistingFile,
-            streamId,
             idleStrategy,
             aeronArchive,
             errorHandler,
             archiveReplayStream,
             configuration.replayIndexFileRecordCapacity(),
-            configuration.replayIndexSegmentRecordCapacity());
+            configuration.replayIndexSegmentRecordCapacity(),
+            configuration.coldArchiveDir());
+    }
+
+    static ReplayIndexStore newReplayIndexStore(
+        final EngineConfiguration configuration, final ErrorHandler errorHandler, final int streamId)
+    {
+        final String logFileDir = configuration.logFileDir();
+        final int indexFileCapacity = configuration.replayIndexFileRecordCapacity();
+        final int indexSegmentCapacity = configuration.replayIndexSegmentRecordCapacity();
+
+        if (configuration.consolidatedReplayIndex())
+        {
+            return new ConsolidatedReplayIndexStore(
+                logFileDir,
+                streamId,
+                indexFileCapacity,
+                indexSegmentCapacity,
+                configuration.consolidatedReplayIndexFileSize());
+        }
+
+        return new FileReplayIndexStore(
+            logFileDir,
+            streamId,
+            indexFileCapacity,
+            indexSegmentCapacity,
+            LoggerUtil::map,
+            LoggerUtil::mapExistingFile,
+            errorHandler);
     }
 
     private Replayer newReplayer(
@@ -268,6 +300,8 @@ public class EngineContext implements AutoCloseable
             if (configuration.logInboundMessages())
             {
                 inboundReplayIndex = newReplayIndex(
+                    configuration,
+                    errorHandler,
                     logFileDir,
                     configuration.inboundLibraryStream(),
                     recordingCoordinator.indexerInboundRecordingIdLookup(),
@@ -291,6 +325,8 @@ public class EngineContext implements AutoCloseable
             if (configuration.logOutboundMessages())
             {
                 outboundReplayIndex = newReplayIndex(
+                    configuration,
+                    errorHandler,
                     logFileDir,
                     configuration.outboundLibraryStream(),
                     recordingCoordinator.indexerOutboundRecordingIdLookup(),
@@ -369,8 +405,39 @@ public class EngineContext implements AutoCloseable
         agents.add(inboundIndexer);
         agents.add(outboundIndexer);
         agents.add(replayer);
-
         indexingAgent = new CompositeAgent(agents);
+
+        if (configuration.coldArchiveDir() != null)
+        {
+            coldArchiverArchive = AeronArchive.connect(configuration.archiveContextClone().clone().aeron(aeron));
+            coldArchiverRunner = new AgentRunner(
+                configuration.coldArchiverIdleStrategy(), errorHandler, null, newColdArchiver());
+        }
+    }
+
+    private ColdArchiver newColdArchiver()
+    {
+        final IntArrayList streamIds = new IntArrayList();
+        if (configuration.logInboundMessages())
+        {
+            streamIds.addInt(configuration.inboundLibraryStream());
+        }
+        if (configuration.logOutboundMessages())
+        {
+            streamIds.addInt(configuration.outboundLibraryStream());
+        }
+
+        return new ColdArchiver(
+            coldArchiverArchive,
+            errorHandler,
+            clock,
+            configuration.libraryAeronChannel(),
+            streamIds.toIntArray(),
+            configuration.archiveReplayStream(),
+            configuration.coldArchiveDir(),
+            configuration.coldArchiveRetainedLength(),
+            configuration.coldArchiveCheckIntervalInMs(),
+            configuration.agentNamePrefix());
     }
 
     public void catchupIndices()
@@ -496,9 +563,22 @@ public class EngineContext implements AutoCloseable
         return operation;
     }
 
+    // Started once the indices have caught up, so that segments aren't purged whilst they're being replayed
+    void startColdArchiver()
+    {
+        if (coldArchiverRunner != null)
+        {
+            AgentRunner.startOnThread(coldArchiverRunner, configuration.threadFactory());
+        }
+    }
+
     public void close()
     {
         Exceptions.closeAll(
-            sentSequenceNumberIndex, receivedSequenceNumberIndex, pruneInboundReplayQuery);
+            coldArchiverRunner,
+            coldArchiverArchive,
+            sentSequenceNumberIndex,
+            receivedSequenceNumberIndex,
+            pruneInboundReplayQuery);
     }
 }
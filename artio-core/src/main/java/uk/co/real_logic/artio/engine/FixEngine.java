@@ -295,6 +295,8 @@ public final class FixEngine extends GatewayProcess
                 scheduler = configuration.scheduler();
                 scheduler.configure(configuration.aeronContext());
                 init(configuration, ENGINE_LIBRARY_ID);
+                fixCounters.bindIdleStrategy(configuration.framerIdleStrategy(), "Framer");
+                fixCounters.bindIdleStrategy(configuration.archiverIdleStrategy(), "Archiver");
                 timers = new EngineTimers(configuration.epochNanoClock(), fixCounters.negativeTimestamps());
                 final AeronArchive.Context archiveContext = configuration.aeronArchiveContext();
                 final AeronArchive aeronArchive =
@@ -401,6 +403,7 @@ public final class FixEngine extends GatewayProcess
             monitoringAgent,
             conductorAgent(),
             recordingCoordinator);
+        engineContext.startColdArchiver();
 
         launched = true;
 
@@ -27,6 +27,7 @@ import org.agrona.ErrorHandler;
 import org.agrona.IoUtil;
 import org.agrona.collections.Long2LongHashMap;
 import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongArrayList;
 import org.agrona.collections.LongHashSet;
 import org.agrona.collections.MutableLong;
 import org.agrona.concurrent.IdleStrategy;
@@ -46,6 +47,7 @@ import uk.co.real_logic.artio.storage.messages.PreviousRecordingEncoder.Outbound
 import uk.co.real_logic.artio.util.CharFormatter;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.MappedByteBuffer;
 import java.nio.file.Files;
 import java.util.ArrayList;
@@ -244,6 +246,50 @@ public class RecordingCoordinator implements AutoCloseable, RecordingDescriptorC
         }
     }
 
+    // Used by a standby engine to hand its replicated recordings over to the engine that it's promoted to, these are
+    // then extended by the promoted engine's publications as if the recordings were its own.
+    static void saveRecordingIdsFile(
+        final EngineConfiguration configuration,
+        final LongArrayList inboundRecordingIds,
+        final LongArrayList outboundRecordingIds) throws IOException
+    {
+        final int inboundSize = inboundRecordingIds.size();
+        final int outboundSize = outboundRecordingIds.size();
+
+        final File saveFile = File.createTempFile(FILE_NAME, "tmp", new File(configuration.logFileDir()));
+        final int requiredLength = MessageHeaderEncoder.ENCODED_LENGTH + PreviousRecordingEncoder.BLOCK_LENGTH +
+            InboundRecordingsEncoder.HEADER_SIZE + OutboundRecordingsEncoder.HEADER_SIZE +
+            InboundRecordingsEncoder.recordingIdEncodingLength() * inboundSize +
+            OutboundRecordingsEncoder.recordingIdEncodingLength() * outboundSize;
+        final MappedByteBuffer mappedBuffer = IoUtil.mapExistingFile(saveFile, FILE_NAME, 0, requiredLength);
+        final UnsafeBuffer buffer = new UnsafeBuffer(mappedBuffer);
+        try
+        {
+            final PreviousRecordingEncoder previousRecording = new PreviousRecordingEncoder();
+            previousRecording.wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder());
+
+            final InboundRecordingsEncoder inbound = previousRecording.inboundRecordingsCount(inboundSize);
+            for (int i = 0; i < inboundSize; i++)
+            {
+                inbound.next().recordingId(inboundRecordingIds.getLong(i));
+            }
+
+            final OutboundRecordingsEncoder outbound = previousRecording.outboundRecordingsCount(outboundSize);
+            for (int i = 0; i < outboundSize; i++)
+            {
+                outbound.next().recordingId(outboundRecordingIds.getLong(i));
+            }
+
+            mappedBuffer.force();
+        }
+        finally
+        {
+            IoUtil.unmap(mappedBuffer);
+        }
+
+        Files.move(saveFile.toPath(), recordingIdsFile(configuration).toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
     // Only called on single threaded engine startup
     public ExclusivePublication track(final String aeronChannel, final int streamId)
     {
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import org.agrona.collections.LongHashSet;
+
+import java.util.Set;
+
+import static uk.co.real_logic.artio.util.MessageTypeEncoding.packAllMessageTypes;
+
+/**
+ * Decides which FIX messages are written to the replay index. Messages that aren't indexed are never resent: a
+ * resend request that covers them is answered with a gap fill, in the same way as the message types configured by
+ * {@link EngineConfiguration#gapfillOnReplayMessageTypes(Set)}. Sequence numbers are still tracked for these
+ * messages.
+ *
+ * Excluding high volume messages that never need to be resent, for example quotes or market data, reduces the
+ * work done by the indexer and the size of the replay index, so it covers a longer period of other messages.
+ *
+ * The filter is invoked on the Indexer agent for every FIX message, so it shouldn't allocate or block.
+ */
+@FunctionalInterface
+public interface ReplayIndexFilter
+{
+    ReplayIndexFilter INDEX_ALL = (sessionId, messageType) -> true;
+
+    /**
+     * Creates a filter that doesn't index messages of the given types.
+     *
+     * @param messageTypes the FIX msgType values of the messages not to index, eg: "S" for Quote.
+     * @return a filter that doesn't index messages of the given types.
+     */
+    static ReplayIndexFilter excludeMessageTypes(final Set<String> messageTypes)
+    {
+        final LongHashSet excludedMessageTypes = packAllMessageTypes(messageTypes);
+        return (sessionId, messageType) -> !excludedMessageTypes.contains(messageType);
+    }
+
+    /**
+     * Creates a filter that doesn't index any messages for the given sessions, for example drop copy sessions.
+     *
+     * @param sessionIds the ids of the sessions whose messages aren't to be indexed.
+     * @return a filter that doesn't index any messages for the given sessions.
+     */
+    static ReplayIndexFilter excludeSessions(final LongHashSet sessionIds)
+    {
+        return (sessionId, messageType) -> !sessionIds.contains(sessionId);
+    }
+
+    /**
+     * Decide whether a message should be indexed.
+     *
+     * @param sessionId the id of the session that the message was sent or received on.
+     * @param messageType the FIX msgType field, encoded as a long.
+     * @return true if the message should be indexed, false otherwise.
+     */
+    boolean shouldIndex(long sessionId, long messageType);
+}
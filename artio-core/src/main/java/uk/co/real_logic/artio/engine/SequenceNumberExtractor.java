@@ -17,23 +17,22 @@ package uk.co.real_logic.artio.engine;
 
 import io.aeron.Publication;
 import org.agrona.DirectBuffer;
-import uk.co.real_logic.artio.ValidationError;
-import uk.co.real_logic.artio.dictionary.LongDictionary;
-import uk.co.real_logic.artio.fields.AsciiFieldFlyweight;
-import uk.co.real_logic.artio.otf.MessageControl;
-import uk.co.real_logic.artio.otf.OtfMessageAcceptor;
-import uk.co.real_logic.artio.otf.OtfParser;
-import uk.co.real_logic.artio.util.AsciiBuffer;
+import uk.co.real_logic.artio.otf.OtfTagExtractor;
 
 import static uk.co.real_logic.artio.dictionary.SessionConstants.*;
-import static uk.co.real_logic.artio.otf.MessageControl.CONTINUE;
-import static uk.co.real_logic.artio.otf.MessageControl.STOP;
 
 public class SequenceNumberExtractor
 {
     public static final int NO_SEQUENCE_NUMBER = -1;
 
-    private boolean isSequenceReset;
+    private static final int MESSAGE_TYPE_INDEX = 0;
+    private static final int MSG_SEQ_NO_INDEX = 1;
+    private static final int NEW_SEQ_NO_INDEX = 0;
+
+    private final OtfTagExtractor headerExtractor = new OtfTagExtractor(MESSAGE_TYPE, MSG_SEQ_NO);
+    // Only sequence resets are scanned for a NewSeqNo, so other messages stop being parsed at their MsgSeqNum
+    private final OtfTagExtractor newSeqNoExtractor = new OtfTagExtractor(NEW_SEQ_NO);
+
     private int sequenceNumber;
     private int newSequenceNumber;
 
@@ -49,9 +48,25 @@ public class SequenceNumberExtractor
     {
         sequenceNumber = NO_SEQUENCE_NUMBER;
         newSequenceNumber = NO_SEQUENCE_NUMBER;
-        isSequenceReset = false;
 
-        parser.onMessage(buffer, offset, length);
+        try
+        {
+            final OtfTagExtractor headerExtractor = this.headerExtractor;
+            headerExtractor.extract(buffer, offset, length);
+            if (headerExtractor.found(MSG_SEQ_NO_INDEX))
+            {
+                sequenceNumber = getInt(headerExtractor, MSG_SEQ_NO_INDEX);
+            }
+
+            if (isSequenceReset(headerExtractor) && newSeqNoExtractor.extract(buffer, offset, length))
+            {
+                newSequenceNumber = getInt(newSeqNoExtractor, NEW_SEQ_NO_INDEX) - 1;
+            }
+        }
+        catch (final NumberFormatException ignore)
+        {
+            // Malformed messages have no sequence number
+        }
 
         return pickSequenceNumber();
     }
@@ -86,66 +101,15 @@ public class SequenceNumberExtractor
         return newSequenceNumber;
     }
 
-    private final OtfMessageAcceptor extractor = new OtfMessageAcceptor()
+    private static boolean isSequenceReset(final OtfTagExtractor extractor)
     {
-        public MessageControl onNext()
-        {
-            return CONTINUE;
-        }
-
-        public MessageControl onComplete()
-        {
-            return CONTINUE;
-        }
-
-        public MessageControl onField(
-            final int tag, final AsciiBuffer buffer, final int offset, final int length)
-        {
-            if (tag == MESSAGE_TYPE)
-            {
-                isSequenceReset = length == 1 && buffer.getByte(offset) == SEQUENCE_RESET_TYPE_BYTE;
-            }
-            else if (tag == MSG_SEQ_NO)
-            {
-                sequenceNumber = buffer.getInt(offset, offset + length);
-                if (!isSequenceReset)
-                {
-                    return STOP;
-                }
-            }
-            else if (tag == NEW_SEQ_NO && isSequenceReset)
-            {
-                newSequenceNumber = buffer.getInt(offset, offset + length) - 1;
-                return STOP;
-            }
-
-            return CONTINUE;
-        }
-
-        public MessageControl onGroupHeader(final int tag, final int numInGroup)
-        {
-            return CONTINUE;
-        }
-
-        public MessageControl onGroupBegin(final int tag, final int numInGroup, final int index)
-        {
-            return CONTINUE;
-        }
-
-        public MessageControl onGroupEnd(final int tag, final int numInGroup, final int index)
-        {
-            return CONTINUE;
-        }
-
-        public boolean onError(
-            final ValidationError error,
-            final long messageType,
-            final int tagNumber,
-            final AsciiFieldFlyweight value)
-        {
-            return false;
-        }
-    };
+        return extractor.valueLength(MESSAGE_TYPE_INDEX) == 1 &&
+            extractor.buffer().getByte(extractor.valueOffset(MESSAGE_TYPE_INDEX)) == SEQUENCE_RESET_TYPE_BYTE;
+    }
 
-    private final OtfParser parser = new OtfParser(extractor, new LongDictionary());
+    private static int getInt(final OtfTagExtractor extractor, final int index)
+    {
+        final int offset = extractor.valueOffset(index);
+        return extractor.buffer().getInt(offset, offset + extractor.valueLength(index));
+    }
 }
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import io.aeron.archive.client.AeronArchive;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.CompositeAgent;
+import uk.co.real_logic.artio.GatewayProcess;
+
+import java.util.List;
+
+import static org.agrona.concurrent.AgentRunner.startOnThread;
+import static uk.co.real_logic.artio.dictionary.generation.Exceptions.closeAll;
+import static uk.co.real_logic.artio.dictionary.generation.Exceptions.suppressingClose;
+import static uk.co.real_logic.artio.engine.FixEngine.ENGINE_LIBRARY_ID;
+
+/**
+ * A hot standby for a {@link FixEngine} that archives to another Aeron Archive, for example on another host.
+ *
+ * The standby replicates the primary engine's inbound and outbound recordings into its own archive and indexes them
+ * as they arrive, keeping its replay indices, sequence number indices and session ids up to date. When the standby
+ * is promoted the new engine only has to index the tail of the recordings that the standby hadn't reached yet, rather
+ * than the whole archive, before it can accept connections.
+ *
+ * The standby owns the log file directory of its configuration. It doesn't bind, initiate connections or accept
+ * libraries and it never writes to the primary's archive. Only promote a standby once the primary engine has been
+ * closed or has failed, otherwise both engines will have sessions with the same session ids.
+ *
+ * NB: This is an experimental API and is subject to change or potentially removal.
+ */
+public final class StandbyEngine extends GatewayProcess
+{
+    private final Object closeMutex = new Object();
+
+    private EngineConfiguration configuration;
+    private DuplicateEngineChecker duplicateEngineChecker;
+    private StandbyReplicator replicator;
+    private AgentRunner runner;
+
+    private volatile boolean isClosed = false;
+
+    /**
+     * Launch the standby engine. This connects to the primary's archive and starts replicating and indexing its
+     * recordings on a new thread.
+     *
+     * @param configuration the configuration of the standby, this will be used by the engine that it's promoted to.
+     * @param primaryArchiveContext the context used to connect to the primary engine's archive, its control request
+     *                              channel must be reachable from the standby's archive in order to replicate.
+     * @return the new standby engine.
+     */
+    public static StandbyEngine launch(
+        final EngineConfiguration configuration, final AeronArchive.Context primaryArchiveContext)
+    {
+        return new StandbyEngine(configuration, primaryArchiveContext);
+    }
+
+    private StandbyEngine(final EngineConfiguration configuration, final AeronArchive.Context primaryArchiveContext)
+    {
+        synchronized (closeMutex)
+        {
+            try
+            {
+                configuration.conclude();
+                this.configuration = configuration;
+                if (!configuration.logInboundMessages() || !configuration.logOutboundMessages())
+                {
+                    throw new IllegalArgumentException(
+                        "A standby engine must be configured to log both inbound and outbound messages");
+                }
+
+                duplicateEngineChecker = new DuplicateEngineChecker(
+                    configuration.duplicateEngineTimeoutInMs(),
+                    configuration.logFileDir(),
+                    configuration.errorIfDuplicateEngineDetected());
+                duplicateEngineChecker.check();
+
+                init(configuration, ENGINE_LIBRARY_ID);
+                replicator = new StandbyReplicator(configuration, aeron, primaryArchiveContext, errorHandler);
+
+                runner = new AgentRunner(
+                    configuration.archiverIdleStrategy(),
+                    errorHandler,
+                    null,
+                    new CompositeAgent(replicator, duplicateEngineChecker));
+                startOnThread(runner, configuration.threadFactory());
+            }
+            catch (final Exception e)
+            {
+                suppressingClose(this, e);
+
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Gets the last received sequence number that the standby has indexed for a session.
+     *
+     * @param sessionId the session id of the session, as allocated by the primary engine.
+     * @return the last received sequence number or {@link SessionInfo#UNK_SESSION} if unknown.
+     */
+    public int lastReceivedSequenceNumber(final long sessionId)
+    {
+        return replicator.lastReceivedSequenceNumber(sessionId);
+    }
+
+    /**
+     * Gets the last sent sequence number that the standby has indexed for a session.
+     *
+     * @param sessionId the session id of the session, as allocated by the primary engine.
+     * @return the last sent sequence number or {@link SessionInfo#UNK_SESSION} if unknown.
+     */
+    public int lastSentSequenceNumber(final long sessionId)
+    {
+        return replicator.lastSentSequenceNumber(sessionId);
+    }
+
+    /**
+     * Gets the sessions that the standby has seen logon to the primary engine. This is thread safe.
+     *
+     * @return the sessions that the standby has seen logon.
+     */
+    public List<SessionInfo> allSessions()
+    {
+        return replicator.allSessions();
+    }
+
+    /**
+     * Close the standby and launch a {@link FixEngine} on its log file directory and archive. The engine extends the
+     * recordings that the standby replicated and resumes indexing from where the standby stopped.
+     *
+     * The new configuration should refer to the same log file directory and archive as the standby's and mustn't
+     * delete the log file directory on start. Hence the standby can be launched on a different configuration
+     * object to the engine, since a configuration can only be concluded once.
+     *
+     * @param engineConfiguration the configuration of the engine to launch.
+     * @return the new engine.
+     */
+    public FixEngine promote(final EngineConfiguration engineConfiguration)
+    {
+        close();
+
+        return FixEngine.launch(engineConfiguration);
+    }
+
+    /**
+     * Stop replicating and close the standby. This doesn't remove the files associated with the standby, so it can
+     * be relaunched or promoted later.
+     */
+    public void close()
+    {
+        synchronized (closeMutex)
+        {
+            if (!isClosed)
+            {
+                try
+                {
+                    closeAll(
+                        () ->
+                        {
+                            if (runner != null)
+                            {
+                                runner.close();
+                            }
+                            else if (replicator != null)
+                            {
+                                replicator.onClose();
+                            }
+                        },
+                        super::close,
+                        configuration,
+                        () ->
+                        {
+                            if (duplicateEngineChecker != null)
+                            {
+                                duplicateEngineChecker.finalClose();
+                            }
+                        });
+                }
+                finally
+                {
+                    isClosed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Find out whether the {@link #close()} operation has been called.
+     *
+     * @return true if the {@link #close()} operation has been called, false otherwise.
+     */
+    public boolean isClosed()
+    {
+        return isClosed;
+    }
+
+    protected boolean shouldRethrowExceptionInErrorHandler()
+    {
+        return false;
+    }
+}
@@ -0,0 +1,655 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import io.aeron.Aeron;
+import io.aeron.Image;
+import io.aeron.Subscription;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.archive.client.ArchiveException;
+import io.aeron.archive.client.RecordingDescriptorConsumer;
+import io.aeron.archive.client.RecordingSignalConsumer;
+import io.aeron.archive.codecs.RecordingSignal;
+import io.aeron.exceptions.AeronException;
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongArrayList;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.SystemEpochClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.dictionary.generation.Exceptions;
+import uk.co.real_logic.artio.engine.framer.FixContexts;
+import uk.co.real_logic.artio.engine.framer.ReplicatedSessionIdIndex;
+import uk.co.real_logic.artio.engine.logger.*;
+import uk.co.real_logic.artio.messages.FixPProtocolType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.aeron.Aeron.NULL_VALUE;
+import static io.aeron.CommonContext.IPC_CHANNEL;
+import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
+import static io.aeron.archive.status.RecordingPos.NULL_RECORDING_ID;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static uk.co.real_logic.artio.engine.EngineContext.newReplayIndex;
+import static uk.co.real_logic.artio.engine.SessionInfo.UNK_SESSION;
+
+/**
+ * Replicates the recordings of a primary engine's library streams into the local archive and tails the replicated
+ * recordings into the standby's indices.
+ *
+ * Each primary recording is replicated into a single local recording. The mapping between the two is persisted so
+ * that a restarted standby extends its existing replicas rather than copying everything again.
+ */
+class StandbyReplicator implements Agent, RecordingSignalConsumer, RecordingDescriptorConsumer
+{
+    static final String REPLICAS_FILE_NAME = "standby_replicas";
+
+    private static final long DISCOVERY_INTERVAL_IN_MS = 1000;
+    private static final long MAX_DISCOVERY_INTERVAL_IN_MS = 30_000;
+    private static final int FRAGMENT_LIMIT = 20;
+
+    private static final int SRC_RECORDING_ID_OFFSET = 0;
+    private static final int DST_RECORDING_ID_OFFSET = SRC_RECORDING_ID_OFFSET + 8;
+    private static final int STREAM_ID_OFFSET = DST_RECORDING_ID_OFFSET + 8;
+    private static final int REPLICA_RECORD_LENGTH = STREAM_ID_OFFSET + 4;
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Long2ObjectHashMap<Replica> srcRecordingIdToReplica = new Long2ObjectHashMap<>();
+    private final Long2ObjectHashMap<Replica> replicationIdToReplica = new Long2ObjectHashMap<>();
+    private final SequenceNumberExtractor sentSequenceNumberExtractor = new SequenceNumberExtractor();
+    private final SequenceNumberExtractor recvSequenceNumberExtractor = new SequenceNumberExtractor();
+    private final EpochClock epochClock = new SystemEpochClock();
+
+    private final EngineConfiguration configuration;
+    private final ErrorHandler errorHandler;
+    private final String primaryControlChannel;
+    private final int primaryControlStreamId;
+    private final int inboundStreamId;
+    private final int outboundStreamId;
+    private final File replicasFile;
+    private final List<Index> inboundIndices = new ArrayList<>();
+    private final List<Index> outboundIndices = new ArrayList<>();
+
+    private AeronArchive localArchive;
+    private AeronArchive primaryArchive;
+    private Subscription replaySubscription;
+    private SequenceNumberIndexWriter sentSequenceNumberIndex;
+    private SequenceNumberIndexWriter receivedSequenceNumberIndex;
+    private FixContexts fixContexts;
+    private long nextDiscoveryTimeInMs;
+    private long discoveryIntervalInMs = DISCOVERY_INTERVAL_IN_MS;
+
+    StandbyReplicator(
+        final EngineConfiguration configuration,
+        final Aeron aeron,
+        final AeronArchive.Context primaryArchiveContext,
+        final ErrorHandler errorHandler)
+    {
+        this.configuration = configuration;
+        this.errorHandler = errorHandler;
+        primaryControlChannel = primaryArchiveContext.controlRequestChannel();
+        primaryControlStreamId = primaryArchiveContext.controlRequestStreamId();
+        inboundStreamId = configuration.inboundLibraryStream();
+        outboundStreamId = configuration.outboundLibraryStream();
+        replicasFile = new File(configuration.logFileDir(), REPLICAS_FILE_NAME);
+
+        try
+        {
+            localArchive = AeronArchive.connect(
+                configuration.aeronArchiveContext().aeron(aeron).recordingSignalConsumer(this));
+            primaryArchive = AeronArchive.connect(primaryArchiveContext.aeron(aeron));
+            replaySubscription = aeron.addSubscription(IPC_CHANNEL, configuration.archiveReplayStream());
+
+            newIndices(aeron);
+            loadReplicasFile();
+        }
+        catch (final Exception e)
+        {
+            Exceptions.suppressingClose(this::onClose, e);
+            throw e;
+        }
+    }
+
+    private void newIndices(final Aeron aeron)
+    {
+        final String logFileDir = configuration.logFileDir();
+        final EpochClock epochClock = new SystemEpochClock();
+        final Long2LongHashMap connectionIdToFixPSessionId = new Long2LongHashMap(UNK_SESSION);
+        final FixPProtocolType fixPProtocolType = configuration.supportedFixPProtocolType();
+        final boolean indexChecksumEnabled = configuration.indexChecksumEnabled();
+
+        // Unused as the replicated recording id is always passed to the indices
+        final RecordingIdLookup recordingIdLookup = new RecordingIdLookup(
+            configuration.archiverIdleStrategy(), aeron.countersReader());
+
+        // No framer context: replicated meta data writes are stored, but the primary answers the library
+        sentSequenceNumberIndex = new SequenceNumberIndexWriter(
+            sentSequenceNumberExtractor,
+            configuration.sentSequenceNumberBuffer(),
+            configuration.sentSequenceNumberIndex(),
+            errorHandler,
+            outboundStreamId,
+            recordingIdLookup,
+            configuration.indexFileStateFlushTimeoutInMs(),
+            epochClock,
+            logFileDir,
+            connectionIdToFixPSessionId,
+            fixPProtocolType,
+            true, indexChecksumEnabled);
+        outboundIndices.add(sentSequenceNumberIndex);
+
+        receivedSequenceNumberIndex = new SequenceNumberIndexWriter(
+            recvSequenceNumberExtractor,
+            configuration.receivedSequenceNumberBuffer(),
+            configuration.receivedSequenceNumberIndex(),
+            errorHandler,
+            inboundStreamId,
+            recordingIdLookup,
+            configuration.indexFileStateFlushTimeoutInMs(),
+            epochClock,
+            null,
+            connectionIdToFixPSessionId,
+            fixPProtocolType,
+            false, indexChecksumEnabled);
+        inboundIndices.add(receivedSequenceNumberIndex);
+
+        final Long2LongHashMap connectionIdToILinkUuid = new Long2LongHashMap(UNK_SESSION);
+        inboundIndices.add(newReplayIndex(
+            configuration,
+            errorHandler,
+            logFileDir,
+            inboundStreamId,
+            recordingIdLookup,
+            connectionIdToILinkUuid,
+            receivedSequenceNumberIndex.reader(),
+            recvSequenceNumberExtractor,
+            indexChecksumEnabled,
+            new ReplayEvictionHandler(errorHandler)));
+        outboundIndices.add(newReplayIndex(
+            configuration,
+            errorHandler,
+            logFileDir,
+            outboundStreamId,
+            recordingIdLookup,
+            connectionIdToILinkUuid,
+            sentSequenceNumberIndex.reader(),
+            sentSequenceNumberExtractor,
+            indexChecksumEnabled,
+            new ReplayEvictionHandler(errorHandler)));
+
+        fixContexts = new FixContexts(
+            configuration.sessionIdBuffer(),
+            configuration.sessionIdStrategy(),
+            configuration.initialSequenceIndex(),
+            errorHandler);
+        inboundIndices.add(new ReplicatedSessionIdIndex(
+            fixContexts,
+            configuration.sessionIdStrategy(),
+            configuration.acceptorfixDictionary(),
+            inboundStreamId,
+            errorHandler));
+    }
+
+    public int doWork()
+    {
+        int workCount = 0;
+
+        try
+        {
+            workCount += localArchive.pollForRecordingSignals();
+            workCount += discoverRecordings();
+
+            final List<Replica> replicas = this.replicas;
+            for (int i = 0, size = replicas.size(); i < size; i++)
+            {
+                workCount += replicas.get(i).poll();
+            }
+        }
+        catch (final ArchiveException e)
+        {
+            errorHandler.onError(e);
+        }
+
+        workCount += pollIndices(inboundIndices);
+        workCount += pollIndices(outboundIndices);
+
+        return workCount;
+    }
+
+    private static int pollIndices(final List<Index> indices)
+    {
+        int workCount = 0;
+        for (int i = 0, size = indices.size(); i < size; i++)
+        {
+            workCount += indices.get(i).doWork();
+        }
+        return workCount;
+    }
+
+    // Discovery blocks on the primary's archive, so whilst the primary is unavailable it backs off rather than
+    // stalling the indices on every attempt. Only the first failure of a run of failures is reported.
+    private int discoverRecordings()
+    {
+        final long timeInMs = epochClock.time();
+        if (timeInMs < nextDiscoveryTimeInMs)
+        {
+            return 0;
+        }
+
+        int workCount = 1;
+        if (isPrimaryConnected())
+        {
+            try
+            {
+                // An empty channel fragment matches every recording of the stream
+                workCount = primaryArchive.listRecordingsForUri(0, Integer.MAX_VALUE, "", inboundStreamId, this) +
+                    primaryArchive.listRecordingsForUri(0, Integer.MAX_VALUE, "", outboundStreamId, this);
+                discoveryIntervalInMs = DISCOVERY_INTERVAL_IN_MS;
+            }
+            catch (final AeronException e)
+            {
+                onDiscoveryFailure(e);
+            }
+        }
+        else
+        {
+            onDiscoveryFailure(new ArchiveException(
+                "Not connected to the primary's archive on " + primaryControlChannel));
+        }
+
+        // A failed request may have waited for the archive's message timeout
+        nextDiscoveryTimeInMs = epochClock.time() + discoveryIntervalInMs;
+
+        return workCount;
+    }
+
+    private boolean isPrimaryConnected()
+    {
+        return primaryArchive.archiveProxy().publication().isConnected() &&
+            primaryArchive.controlResponsePoller().subscription().isConnected();
+    }
+
+    private void onDiscoveryFailure(final AeronException e)
+    {
+        if (discoveryIntervalInMs == DISCOVERY_INTERVAL_IN_MS)
+        {
+            errorHandler.onError(e);
+        }
+
+        discoveryIntervalInMs = Math.min(discoveryIntervalInMs * 2, MAX_DISCOVERY_INTERVAL_IN_MS);
+    }
+
+    public void onRecordingDescriptor(
+        final long controlSessionId,
+        final long correlationId,
+        final long recordingId,
+        final long startTimestamp,
+        final long stopTimestamp,
+        final long startPosition,
+        final long stopPosition,
+        final int initialTermId,
+        final int segmentFileLength,
+        final int termBufferLength,
+        final int mtuLength,
+        final int sessionId,
+        final int streamId,
+        final String strippedChannel,
+        final String originalChannel,
+        final String sourceIdentity)
+    {
+        Replica replica = srcRecordingIdToReplica.get(recordingId);
+        if (replica == null)
+        {
+            replica = addReplica(recordingId, NULL_RECORDING_ID, streamId);
+            replicate(replica);
+        }
+        else if (!replica.replicating && (stopPosition == NULL_POSITION || stopPosition > replica.stopPosition))
+        {
+            // The primary has extended a recording that we had finished replicating, or we've restarted
+            replicate(replica);
+        }
+    }
+
+    private Replica addReplica(final long srcRecordingId, final long dstRecordingId, final int streamId)
+    {
+        final Replica replica = new Replica(
+            srcRecordingId, dstRecordingId, streamId == inboundStreamId ? inboundIndices : outboundIndices);
+        replicas.add(replica);
+        srcRecordingIdToReplica.put(srcRecordingId, replica);
+        return replica;
+    }
+
+    private void replicate(final Replica replica)
+    {
+        final long replicationId = localArchive.replicate(
+            replica.srcRecordingId,
+            replica.dstRecordingId,
+            primaryControlStreamId,
+            primaryControlChannel,
+            null);
+        replica.replicationId = replicationId;
+        replica.replicating = true;
+        replicationIdToReplica.put(replicationId, replica);
+    }
+
+    public void onSignal(
+        final long controlSessionId,
+        final long correlationId,
+        final long recordingId,
+        final long subscriptionId,
+        final long position,
+        final RecordingSignal signal)
+    {
+        final Replica replica = replicationIdToReplica.get(correlationId);
+        if (replica == null)
+        {
+            return;
+        }
+
+        if (replica.dstRecordingId == NULL_RECORDING_ID && recordingId != NULL_RECORDING_ID)
+        {
+            replica.dstRecordingId = recordingId;
+            saveReplicasFile();
+        }
+
+        if (signal == RecordingSignal.STOP)
+        {
+            replica.replicating = false;
+            replica.replicationId = NULL_VALUE;
+            replica.stopPosition = position;
+            replicationIdToReplica.remove(correlationId);
+        }
+    }
+
+    int lastReceivedSequenceNumber(final long sessionId)
+    {
+        return receivedSequenceNumberIndex.reader().lastKnownSequenceNumber(sessionId);
+    }
+
+    int lastSentSequenceNumber(final long sessionId)
+    {
+        return sentSequenceNumberIndex.reader().lastKnownSequenceNumber(sessionId);
+    }
+
+    List<SessionInfo> allSessions()
+    {
+        return fixContexts.allSessions();
+    }
+
+    public void onClose()
+    {
+        if (localArchive != null)
+        {
+            for (final Replica replica : replicas)
+            {
+                replica.stop();
+            }
+
+            saveRecordingIdsFile();
+        }
+
+        final List<AutoCloseable> closeables = new ArrayList<>();
+        closeables.addAll(inboundIndices);
+        closeables.addAll(outboundIndices);
+        closeables.add(replaySubscription);
+        closeables.add(localArchive);
+        closeables.add(primaryArchive);
+        Exceptions.closeAll(closeables);
+    }
+
+    // Hands the replicas over to the RecordingCoordinator of an engine that's launched on the same directories.
+    private void saveRecordingIdsFile()
+    {
+        final LongArrayList inboundRecordingIds = new LongArrayList();
+        final LongArrayList outboundRecordingIds = new LongArrayList();
+        for (final Replica replica : replicas)
+        {
+            if (replica.dstRecordingId == NULL_RECORDING_ID)
+            {
+                continue;
+            }
+
+            if (replica.indices == inboundIndices)
+            {
+                inboundRecordingIds.addLong(replica.dstRecordingId);
+            }
+            else
+            {
+                outboundRecordingIds.addLong(replica.dstRecordingId);
+            }
+        }
+
+        try
+        {
+            RecordingCoordinator.saveRecordingIdsFile(configuration, inboundRecordingIds, outboundRecordingIds);
+        }
+        catch (final IOException e)
+        {
+            errorHandler.onError(e);
+        }
+    }
+
+    private void loadReplicasFile()
+    {
+        if (!replicasFile.exists())
+        {
+            return;
+        }
+
+        try
+        {
+            final UnsafeBuffer buffer = new UnsafeBuffer(Files.readAllBytes(replicasFile.toPath()));
+            for (int offset = 0; offset + REPLICA_RECORD_LENGTH <= buffer.capacity(); offset += REPLICA_RECORD_LENGTH)
+            {
+                addReplica(
+                    buffer.getLong(offset + SRC_RECORDING_ID_OFFSET),
+                    buffer.getLong(offset + DST_RECORDING_ID_OFFSET),
+                    buffer.getInt(offset + STREAM_ID_OFFSET));
+            }
+        }
+        catch (final IOException e)
+        {
+            errorHandler.onError(e);
+        }
+    }
+
+    private void saveReplicasFile()
+    {
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[replicas.size() * REPLICA_RECORD_LENGTH]);
+        int offset = 0;
+        for (final Replica replica : replicas)
+        {
+            if (replica.dstRecordingId != NULL_RECORDING_ID)
+            {
+                buffer.putLong(offset + SRC_RECORDING_ID_OFFSET, replica.srcRecordingId);
+                buffer.putLong(offset + DST_RECORDING_ID_OFFSET, replica.dstRecordingId);
+                buffer.putInt(
+                    offset + STREAM_ID_OFFSET, replica.indices == inboundIndices ? inboundStreamId : outboundStreamId);
+                offset += REPLICA_RECORD_LENGTH;
+            }
+        }
+
+        try
+        {
+            final File saveFile = File.createTempFile(
+                REPLICAS_FILE_NAME, "tmp", new File(configuration.logFileDir()));
+            final byte[] contents = new byte[offset];
+            buffer.getBytes(0, contents);
+            Files.write(saveFile.toPath(), contents);
+            Files.move(saveFile.toPath(), replicasFile.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+        }
+        catch (final IOException e)
+        {
+            errorHandler.onError(e);
+        }
+    }
+
+    public String roleName()
+    {
+        return configuration.agentNamePrefix() + "StandbyReplicator";
+    }
+
+    final class Replica implements FragmentHandler
+    {
+        private final long srcRecordingId;
+        private final List<Index> indices;
+        private final long[] indexStoppedPositions;
+
+        private long dstRecordingId;
+        private long replicationId = NULL_VALUE;
+        private boolean replicating;
+        private long stopPosition = NULL_POSITION;
+
+        private long position = NULL_POSITION;
+        private long indexedPosition;
+        private long replaySessionId = NULL_VALUE;
+        private Image image;
+
+        Replica(final long srcRecordingId, final long dstRecordingId, final List<Index> indices)
+        {
+            this.srcRecordingId = srcRecordingId;
+            this.dstRecordingId = dstRecordingId;
+            this.indices = indices;
+            indexStoppedPositions = new long[indices.size()];
+        }
+
+        int poll()
+        {
+            if (replaySessionId == NULL_VALUE)
+            {
+                return startTail();
+            }
+
+            Image image = this.image;
+            if (image == null)
+            {
+                image = replaySubscription.imageBySessionId((int)replaySessionId);
+                if (image == null)
+                {
+                    return 0;
+                }
+                this.image = image;
+            }
+
+            final int workCount = image.poll(this, FRAGMENT_LIMIT);
+            position = image.position();
+
+            if (image.isClosed() || image.isEndOfStream())
+            {
+                // The replicated recording has stopped, wait until it's extended before tailing again
+                this.image = null;
+                replaySessionId = NULL_VALUE;
+            }
+
+            return workCount;
+        }
+
+        private int startTail()
+        {
+            if (dstRecordingId == NULL_RECORDING_ID || !(replicating || position < stopPosition))
+            {
+                return 0;
+            }
+
+            if (position == NULL_POSITION)
+            {
+                readIndexedPositions();
+            }
+            else
+            {
+                for (int i = 0; i < indexStoppedPositions.length; i++)
+                {
+                    indexStoppedPositions[i] = Math.max(indexStoppedPositions[i], position);
+                }
+            }
+
+            replaySessionId = localArchive.startReplay(
+                dstRecordingId, position, Long.MAX_VALUE, IPC_CHANNEL, configuration.archiveReplayStream());
+            return 1;
+        }
+
+        // Resume from the least indexed position, indices that are further ahead skip fragments they've seen.
+        private void readIndexedPositions()
+        {
+            long minPosition = Long.MAX_VALUE;
+            for (int i = 0; i < indexStoppedPositions.length; i++)
+            {
+                indexedPosition = NULL_POSITION;
+                indices.get(i).readLastPosition(this::onIndexedPosition);
+                indexStoppedPositions[i] = indexedPosition;
+                if (indexedPosition != NULL_POSITION)
+                {
+                    minPosition = Math.min(minPosition, indexedPosition);
+                }
+            }
+
+            position = minPosition == Long.MAX_VALUE ? localArchive.getStartPosition(dstRecordingId) : minPosition;
+        }
+
+        private void onIndexedPosition(final int aeronSessionId, final long recordingId, final long position)
+        {
+            if (recordingId == dstRecordingId)
+            {
+                indexedPosition = position;
+            }
+        }
+
+        public void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+        {
+            final long endPosition = header.position();
+            for (int i = 0; i < indexStoppedPositions.length; i++)
+            {
+                if (endPosition > indexStoppedPositions[i])
+                {
+                    indices.get(i).onCatchup(buffer, offset, length, header, dstRecordingId);
+                }
+            }
+        }
+
+        void stop()
+        {
+            try
+            {
+                if (replicating)
+                {
+                    localArchive.stopReplication(replicationId);
+                    replicating = false;
+                }
+
+                if (replaySessionId != NULL_VALUE)
+                {
+                    localArchive.stopReplay(replaySessionId);
+                    replaySessionId = NULL_VALUE;
+                }
+            }
+            catch (final ArchiveException e)
+            {
+                // The replication or replay may have stopped concurrently
+                errorHandler.onError(e);
+            }
+        }
+    }
+}
@@ -52,6 +52,7 @@ import static uk.co.real_logic.artio.messages.FixMessageDecoder.metaDataHeaderLe
 import static uk.co.real_logic.artio.messages.MessageStatus.CATCHUP_REPLAY;
 import static uk.co.real_logic.artio.messages.SessionReplyStatus.MISSING_MESSAGES;
 import static uk.co.real_logic.artio.messages.SessionReplyStatus.OK;
+import static uk.co.real_logic.artio.timing.MessageTracer.NOT_TRACED;
 
 public class CatchupReplayer implements ControlledFragmentHandler, Continuation
 {
@@ -232,7 +233,7 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
         this.nanoClock = nanoClock;
     }
 
-    private void updateMessageHeader(final MutableDirectBuffer buffer, final int offset)
+    private void updateMessageHeader(final MutableDirectBuffer buffer, final int offset, final int version)
     {
         final int frameOffset = offset + MessageHeaderEncoder.ENCODED_LENGTH;
         messageEncoder
@@ -240,6 +241,12 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
             .connection(connectionId)
             .libraryId(libraryId)
             .status(CATCHUP_REPLAY);
+
+        // Don't let a replayed message be traced as though it had just been read
+        if (version >= FixMessageEncoder.traceTimestampSinceVersion())
+        {
+            messageEncoder.traceTimestamp(NOT_TRACED);
+        }
     }
 
     public Action onFragment(
@@ -287,7 +294,7 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
             }
 
             return processNormalMessage(
-                srcBuffer, srcOffset, srcLength);
+                srcBuffer, srcOffset, srcLength, version);
         }
     }
 
@@ -351,9 +358,10 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
     private Action processNormalMessage(
         final DirectBuffer srcBuffer,
         final int srcOffset,
-        final int srcLength)
+        final int srcLength,
+        final int version)
     {
-        updateMessageHeader((MutableDirectBuffer)srcBuffer, srcOffset);
+        updateMessageHeader((MutableDirectBuffer)srcBuffer, srcOffset, version);
 
         final Action action = Pressure.apply(inboundPublication.offer(srcBuffer, srcOffset, srcLength));
         if (action == CONTINUE)
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.collections.Object2ObjectHashMap;
+
+import java.util.Iterator;
+
+import static uk.co.real_logic.artio.engine.EngineConfiguration.NO_ADMISSION_LIMIT;
+
+/**
+ * Smooths out logon storms, eg: at the start of the day or after a network outage, so that the Framer doesn't
+ * spend all of its time accepting and authenticating new connections whilst established sessions starve.
+ *
+ * Connections that are over the global accept rate or the pending logon limit are left in the listen backlog to be
+ * accepted later. Connections from an address that is over its own accept rate are accepted and then closed.
+ *
+ * Only accessed on the Framer thread.
+ */
+class ConnectionAdmissionControl
+{
+    static final int UNLIMITED_ACCEPTS = Integer.MAX_VALUE;
+
+    private static final long ADDRESS_SWEEP_INTERVAL_IN_MS = 10_000;
+
+    private final int maxPendingLogons;
+    private final int acceptRatePerAddress;
+    private final int acceptBurstPerAddress;
+    private final TokenBucket acceptBucket;
+    private final Object2ObjectHashMap<String, TokenBucket> addressToBucket = new Object2ObjectHashMap<>();
+    private final boolean enabled;
+
+    private long nextAddressSweepTimeInMs;
+
+    ConnectionAdmissionControl(
+        final int acceptRatePerSecond,
+        final int acceptRatePerAddress,
+        final int acceptBurstPerAddress,
+        final int maxPendingLogons)
+    {
+        this.maxPendingLogons = maxPendingLogons;
+        this.acceptRatePerAddress = acceptRatePerAddress;
+        this.acceptBurstPerAddress = Math.max(1, acceptBurstPerAddress);
+        acceptBucket = acceptRatePerSecond == NO_ADMISSION_LIMIT ?
+            null : new TokenBucket(acceptRatePerSecond, acceptRatePerSecond);
+        enabled = acceptRatePerSecond != NO_ADMISSION_LIMIT ||
+            acceptRatePerAddress != NO_ADMISSION_LIMIT ||
+            maxPendingLogons != NO_ADMISSION_LIMIT;
+    }
+
+    boolean enabled()
+    {
+        return enabled;
+    }
+
+    // The per address limit is applied after accepting, but the others rely on the channel supplier's accept limit.
+    boolean limitsAccepts()
+    {
+        return acceptBucket != null || maxPendingLogons != NO_ADMISSION_LIMIT;
+    }
+
+    /**
+     * Gets the number of new connections that can be accepted right now.
+     *
+     * @param timeInMs the current time.
+     * @param pendingLogons the number of connections that have been accepted but haven't yet completed their logon.
+     * @return the number of new connections that can be accepted, {@link #UNLIMITED_ACCEPTS} if there's no limit.
+     */
+    int acceptLimit(final long timeInMs, final int pendingLogons)
+    {
+        int limit = UNLIMITED_ACCEPTS;
+
+        final TokenBucket acceptBucket = this.acceptBucket;
+        if (acceptBucket != null)
+        {
+            limit = acceptBucket.available(timeInMs);
+        }
+
+        final int maxPendingLogons = this.maxPendingLogons;
+        if (maxPendingLogons != NO_ADMISSION_LIMIT)
+        {
+            limit = Math.min(limit, Math.max(0, maxPendingLogons - pendingLogons));
+        }
+
+        return limit;
+    }
+
+    /**
+     * Record that a connection has been accepted and check whether it's admitted.
+     *
+     * @param remoteAddress the remote address of the connection, as returned by {@link TcpChannel#remoteAddr()}.
+     * @param timeInMs the current time.
+     * @return true if the connection is admitted, false if it should be closed.
+     */
+    boolean onAccept(final String remoteAddress, final long timeInMs)
+    {
+        final TokenBucket acceptBucket = this.acceptBucket;
+        if (acceptBucket != null)
+        {
+            acceptBucket.tryConsume(timeInMs);
+        }
+
+        if (acceptRatePerAddress == NO_ADMISSION_LIMIT)
+        {
+            return true;
+        }
+
+        sweepIdleAddresses(timeInMs);
+
+        final String host = host(remoteAddress);
+        TokenBucket addressBucket = addressToBucket.get(host);
+        if (addressBucket == null)
+        {
+            addressBucket = new TokenBucket(acceptRatePerAddress, acceptBurstPerAddress);
+            addressBucket.refill(timeInMs);
+            addressToBucket.put(host, addressBucket);
+        }
+
+        return addressBucket.tryConsume(timeInMs);
+    }
+
+    // Stops the map of addresses growing without bound
+    private void sweepIdleAddresses(final long timeInMs)
+    {
+        if (timeInMs >= nextAddressSweepTimeInMs)
+        {
+            nextAddressSweepTimeInMs = timeInMs + ADDRESS_SWEEP_INTERVAL_IN_MS;
+
+            final Iterator<TokenBucket> it = addressToBucket.values().iterator();
+            while (it.hasNext())
+            {
+                if (it.next().isFull(timeInMs))
+                {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    // Strips the port from an address of the form "/127.0.0.1:1234" or "hostname/127.0.0.1:1234"
+    static String host(final String remoteAddress)
+    {
+        final int portSeparator = remoteAddress.lastIndexOf(':');
+        final int hostStart = remoteAddress.indexOf('/') + 1;
+        final int hostEnd = portSeparator > hostStart ? portSeparator : remoteAddress.length();
+        return remoteAddress.substring(hostStart, hostEnd);
+    }
+
+    /**
+     * Token bucket that holds its tokens in thousandths in order to accrue partial tokens between refills.
+     */
+    static final class TokenBucket
+    {
+        private static final long MILLI_TOKENS = 1000;
+
+        private final long ratePerSecond;
+        private final long capacityInMilliTokens;
+
+        private long milliTokens;
+        private long lastRefillTimeInMs;
+
+        TokenBucket(final long ratePerSecond, final long capacity)
+        {
+            this.ratePerSecond = ratePerSecond;
+            this.capacityInMilliTokens = capacity * MILLI_TOKENS;
+            this.milliTokens = capacityInMilliTokens;
+        }
+
+        void refill(final long timeInMs)
+        {
+            final long elapsedInMs = timeInMs - lastRefillTimeInMs;
+            if (elapsedInMs > 0)
+            {
+                lastRefillTimeInMs = timeInMs;
+                // a token accrues every 1000 / ratePerSecond ms, ie: ratePerSecond milli-tokens every ms.
+                final long accrued = elapsedInMs >= capacityInMilliTokens ?
+                    capacityInMilliTokens : elapsedInMs * ratePerSecond;
+                milliTokens = Math.min(capacityInMilliTokens, milliTokens + accrued);
+            }
+        }
+
+        int available(final long timeInMs)
+        {
+            refill(timeInMs);
+            return (int)Math.min(Integer.MAX_VALUE, milliTokens / MILLI_TOKENS);
+        }
+
+        boolean tryConsume(final long timeInMs)
+        {
+            refill(timeInMs);
+            if (milliTokens >= MILLI_TOKENS)
+            {
+                milliTokens -= MILLI_TOKENS;
+                return true;
+            }
+
+            return false;
+        }
+
+        boolean isFull(final long timeInMs)
+        {
+            refill(timeInMs);
+            return milliTokens == capacityInMilliTokens;
+        }
+    }
+}
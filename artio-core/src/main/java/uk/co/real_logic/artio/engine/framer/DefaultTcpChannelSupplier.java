@@ -5,14 +5,18 @@ import org.agrona.LangUtil;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
 import uk.co.real_logic.artio.engine.EngineConfiguration;
 
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
 import static java.net.StandardSocketOptions.*;
@@ -23,7 +27,13 @@ public class DefaultTcpChannelSupplier extends TcpChannelSupplier
 {
     private final EngineConfiguration configuration;
     private final boolean hasBindAddress;
-    private final Set<SocketChannel> openingSocketChannels = new HashSet<>();
+    // Keeps the address as it was configured, the channel's remote address is the resolved one
+    private final Map<SocketChannel, InetSocketAddress> openingSocketChannels = new HashMap<>();
+    private final SSLContext acceptorSslContext;
+    private final SSLContext initiatorSslContext;
+    private final String initiatorEndpointIdentificationAlgorithm;
+    private final TlsBufferPool acceptorTlsBufferPool;
+    private final TlsBufferPool initiatorTlsBufferPool;
 
     private Selector selector;
     private ServerSocketChannel listeningChannel;
@@ -32,6 +42,11 @@ public class DefaultTcpChannelSupplier extends TcpChannelSupplier
     {
         hasBindAddress = configuration.hasBindAddress();
         this.configuration = configuration;
+        acceptorSslContext = configuration.acceptorSslContext();
+        initiatorSslContext = configuration.initiatorSslContext();
+        initiatorEndpointIdentificationAlgorithm = configuration.initiatorEndpointIdentificationAlgorithm();
+        acceptorTlsBufferPool = acceptorSslContext == null ? null : new TlsBufferPool(acceptorSslContext);
+        initiatorTlsBufferPool = initiatorSslContext == null ? null : new TlsBufferPool(initiatorSslContext);
         try
         {
             selector = Selector.open();
@@ -52,9 +67,10 @@ public class DefaultTcpChannelSupplier extends TcpChannelSupplier
         {
             selector.selectNow();
             final Set<SelectionKey> selectionKeys = selector.selectedKeys();
-            final int unprocessedConnections = selectionKeys.size();
+            int unprocessedConnections = selectionKeys.size();
             if (unprocessedConnections > 0)
             {
+                int remainingAccepts = acceptLimit;
                 final Iterator<SelectionKey> it = selectionKeys.iterator();
                 while (it.hasNext())
                 {
@@ -62,13 +78,22 @@ public class DefaultTcpChannelSupplier extends TcpChannelSupplier
 
                     if (selectionKey.isAcceptable())
                     {
-                        final SocketChannel channel = listeningChannel.accept();
-                        if (channel != null)
+                        // Over the limit the connection stays in the listen backlog, the selector reports it again
+                        if (remainingAccepts > 0)
                         {
-                            configure(channel);
-                            channel.configureBlocking(false);
+                            final SocketChannel channel = listeningChannel.accept();
+                            if (channel != null)
+                            {
+                                remainingAccepts--;
+                                configure(channel);
+                                channel.configureBlocking(false);
 
-                            handler.onNewChannel(timeInMs, newTcpChannel(channel));
+                                handler.onNewChannel(timeInMs, newTcpChannel(channel, false));
+                            }
+                        }
+                        else
+                        {
+                            unprocessedConnections--;
                         }
 
                         it.remove();
@@ -107,7 +132,7 @@ public class DefaultTcpChannelSupplier extends TcpChannelSupplier
     protected void onFinishConnect(
         final InitiatedChannelHandler channelHandler, final SocketChannel channel) throws IOException
     {
-        channelHandler.onInitiatedChannel(newTcpChannel(channel), null);
+        channelHandler.onInitiatedChannel(newTcpChannel(channel, true), null);
         openingSocketChannels.remove(channel);
     }
 
@@ -131,6 +156,11 @@ public class DefaultTcpChannelSupplier extends TcpChannelSupplier
         }
     }
 
+    public boolean supportsAcceptLimit()
+    {
+        return true;
+    }
+
     private void configure(final SocketChannel channel) throws IOException
     {
         channel.setOption(TCP_NODELAY, true);
@@ -181,17 +211,46 @@ public class DefaultTcpChannelSupplier extends TcpChannelSupplier
             throw e;
         }
         channel.register(selector, OP_CONNECT, channelHandler);
-        openingSocketChannels.add(channel);
+        openingSocketChannels.put(channel, address);
     }
 
-    protected TcpChannel newTcpChannel(final SocketChannel channel) throws IOException
+    protected TcpChannel newTcpChannel(final SocketChannel channel, final boolean initiator) throws IOException
     {
+        if (initiator)
+        {
+            if (initiatorSslContext != null)
+            {
+                InetSocketAddress address = openingSocketChannels.get(channel);
+                if (address == null)
+                {
+                    address = (InetSocketAddress)channel.getRemoteAddress();
+                }
+
+                final SSLEngine sslEngine = initiatorSslContext.createSSLEngine(
+                    address.getHostString(), address.getPort());
+                sslEngine.setUseClientMode(true);
+                if (initiatorEndpointIdentificationAlgorithm != null)
+                {
+                    final SSLParameters sslParameters = sslEngine.getSSLParameters();
+                    sslParameters.setEndpointIdentificationAlgorithm(initiatorEndpointIdentificationAlgorithm);
+                    sslEngine.setSSLParameters(sslParameters);
+                }
+                return new TlsTcpChannel(channel, sslEngine, initiatorTlsBufferPool);
+            }
+        }
+        else if (acceptorSslContext != null)
+        {
+            final SSLEngine sslEngine = acceptorSslContext.createSSLEngine();
+            sslEngine.setUseClientMode(false);
+            return new TlsTcpChannel(channel, sslEngine, acceptorTlsBufferPool);
+        }
+
         return new TcpChannel(channel);
     }
 
     public void stopConnecting(final InetSocketAddress address) throws IOException
     {
-        final Iterator<SocketChannel> iterator = openingSocketChannels.iterator();
+        final Iterator<SocketChannel> iterator = openingSocketChannels.keySet().iterator();
         while (iterator.hasNext())
         {
             final SocketChannel channel = iterator.next();
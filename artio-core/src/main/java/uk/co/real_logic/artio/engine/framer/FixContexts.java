@@ -302,6 +302,38 @@ public class FixContexts implements SessionContexts
         return context;
     }
 
+    /**
+     * Record a session id that was allocated by another engine, eg: the primary engine that a
+     * {@link uk.co.real_logic.artio.engine.StandbyEngine} replicates, so that the session keeps its id if the standby
+     * is promoted.
+     *
+     * @param compositeKey the key identifying the session.
+     * @param sessionId the session id allocated by the other engine.
+     * @param sequenceIndex the sequence index of the session at logon.
+     * @param resetTimeInNs the time of the logon, used if the sequence index has changed.
+     * @param fixDictionary the FIX dictionary of the session.
+     */
+    public void onReplicatedLogon(
+        final CompositeKey compositeKey,
+        final long sessionId,
+        final int sequenceIndex,
+        final long resetTimeInNs,
+        final FixDictionary fixDictionary)
+    {
+        final SessionContext context = compositeToContext.get(compositeKey);
+        if (context == null)
+        {
+            final SessionContext newContext = assignSessionId(compositeKey, sessionId, sequenceIndex, fixDictionary);
+            compositeToContext.put(compositeKey, newContext);
+            allSessions.add(newContext);
+            counter = Math.max(counter, sessionId + 1);
+        }
+        else if (context.sequenceIndex() != sequenceIndex)
+        {
+            context.onSequenceIndex(resetTimeInNs, sequenceIndex);
+        }
+    }
+
     private SessionContext onNewLogon(final CompositeKey compositeKey, final FixDictionary fixDictionary)
     {
         final long sessionId = counter++;
@@ -22,6 +22,8 @@ import uk.co.real_logic.artio.engine.EngineConfiguration;
 import uk.co.real_logic.artio.engine.MessageTimingHandler;
 import uk.co.real_logic.artio.engine.SenderSequenceNumbers;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.timing.MessageTracer;
+import uk.co.real_logic.artio.timing.Timer;
 
 class FixEndPointFactory
 {
@@ -37,6 +39,8 @@ class FixEndPointFactory
     private final FixGatewaySessions gatewaySessions;
     private final SenderSequenceNumbers senderSequenceNumbers;
     private final MessageTimingHandler messageTimingHandler;
+    private final MessageTracer messageTracer;
+    private final Timer tracePublishTimer;
 
     FixEndPointFactory(
         final EngineConfiguration configuration,
@@ -46,7 +50,9 @@ class FixEndPointFactory
         final ErrorHandler errorHandler,
         final FixGatewaySessions gatewaySessions,
         final SenderSequenceNumbers senderSequenceNumbers,
-        final MessageTimingHandler messageTimingHandler)
+        final MessageTimingHandler messageTimingHandler,
+        final MessageTracer messageTracer,
+        final Timer tracePublishTimer)
     {
         this.configuration = configuration;
         this.fixContexts = fixContexts;
@@ -56,6 +62,8 @@ class FixEndPointFactory
         this.gatewaySessions = gatewaySessions;
         this.senderSequenceNumbers = senderSequenceNumbers;
         this.messageTimingHandler = messageTimingHandler;
+        this.messageTracer = messageTracer;
+        this.tracePublishTimer = tracePublishTimer;
     }
 
     FixReceiverEndPoint receiverEndPoint(
@@ -83,7 +91,9 @@ class FixEndPointFactory
             framer.acceptorFixDictionaryLookup(),
             receiverFormatters,
             configuration.throttleWindowInMs(),
-            configuration.throttleLimitOfMessages());
+            configuration.throttleLimitOfMessages(),
+            messageTracer,
+            tracePublishTimer);
     }
 
     FixSenderEndPoint senderEndPoint(
@@ -29,6 +29,7 @@ import uk.co.real_logic.artio.util.AsciiBuffer;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static uk.co.real_logic.artio.GatewayProcess.NO_CONNECTION_ID;
 import static uk.co.real_logic.artio.LogTag.FIX_MESSAGE;
 import static uk.co.real_logic.artio.LogTag.GATEWAY_MESSAGE;
@@ -36,6 +37,7 @@ import static uk.co.real_logic.artio.engine.FixEngine.ENGINE_LIBRARY_ID;
 import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexWriter.NO_REQUIRED_POSITION;
 import static uk.co.real_logic.artio.messages.CancelOnDisconnectOption.DO_NOT_CANCEL_ON_DISCONNECT_OR_LOGOUT;
 import static uk.co.real_logic.artio.messages.DisconnectReason.ENGINE_SHUTDOWN;
+import static uk.co.real_logic.artio.session.Session.NO_POLL_DEADLINE;
 
 class FixGatewaySession extends GatewaySession implements ConnectedSessionInfo, FixSessionOwner
 {
@@ -133,6 +135,7 @@ class FixGatewaySession extends GatewaySession implements ConnectedSessionInfo,
             receiverEndPoint.libraryId(ENGINE_LIBRARY_ID);
             senderEndPoint.libraryId(ENGINE_LIBRARY_ID);
         }
+        requestPoll();
     }
 
     // sets management to a library and also cleans up locally associated session.
@@ -173,6 +176,28 @@ class FixGatewaySession extends GatewaySession implements ConnectedSessionInfo,
         return events + checkNoLogonDisconnect(timeInMs);
     }
 
+    long nextPollDeadlineInMs(final long timeInMs, final long timeInNs)
+    {
+        final long deadlineInMs = super.nextPollDeadlineInMs(timeInMs, timeInNs);
+        final InternalSession session = this.session;
+        if (session == null)
+        {
+            return deadlineInMs;
+        }
+
+        final long sessionDeadlineInNs = session.nextPollDeadlineInNs();
+        if (sessionDeadlineInNs == NO_POLL_DEADLINE)
+        {
+            return deadlineInMs;
+        }
+
+        // round up so that the session's deadline has always passed by the time it gets polled
+        final long sessionDeadlineInMs = sessionDeadlineInNs <= timeInNs ?
+            timeInMs : timeInMs + NANOSECONDS.toMillis(sessionDeadlineInNs - timeInNs) + 1;
+
+        return Math.min(deadlineInMs, sessionDeadlineInMs);
+    }
+
     public void onLogon(final Session session)
     {
         context.updateFrom(session);
@@ -230,6 +255,8 @@ class FixGatewaySession extends GatewaySession implements ConnectedSessionInfo,
             session.messageInfo().isValid(true);
 
             sessionParser.onMessage(buffer, offset, length, messageType, position);
+
+            requestPoll();
         }
     }
 
@@ -554,6 +581,8 @@ class FixGatewaySession extends GatewaySession implements ConnectedSessionInfo,
                     // deliberately blank
                     break;
             }
+
+            requestPoll();
         }
 
         return 1;
@@ -215,6 +215,7 @@ public class FixGatewaySessions extends GatewaySessions
         {
             sessions.add(gatewaySession);
         }
+        startPolling(gatewaySession);
         gatewaySession.manage(sessionParser, session, proxy);
 
         if (DebugLogger.isEnabled(FIX_CONNECTION))
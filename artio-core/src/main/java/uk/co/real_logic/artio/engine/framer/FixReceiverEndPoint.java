@@ -28,7 +28,10 @@ import uk.co.real_logic.artio.dictionary.SessionConstants;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
 import uk.co.real_logic.artio.engine.ByteBufferUtil;
 import uk.co.real_logic.artio.messages.DisconnectReason;
+import uk.co.real_logic.artio.protocol.FramedSessionHeader;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.timing.MessageTracer;
+import uk.co.real_logic.artio.timing.Timer;
 import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.CharFormatter;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
@@ -45,6 +48,7 @@ import static uk.co.real_logic.artio.LogTag.*;
 import static uk.co.real_logic.artio.dictionary.SessionConstants.*;
 import static uk.co.real_logic.artio.messages.MessageStatus.*;
 import static uk.co.real_logic.artio.session.Session.UNKNOWN;
+import static uk.co.real_logic.artio.timing.MessageTracer.NOT_TRACED;
 import static uk.co.real_logic.artio.util.AsciiBuffer.SEPARATOR;
 import static uk.co.real_logic.artio.util.AsciiBuffer.UNKNOWN_INDEX;
 
@@ -150,15 +154,19 @@ class FixReceiverEndPoint extends ReceiverEndPoint
     private final AtomicCounter messagesRead;
     private final PasswordCleaner passwordCleaner = new PasswordCleaner();
     private final BusinessRejectRefIdExtractor businessRejectRefIdExtractor = new BusinessRejectRefIdExtractor();
+    private final FramedSessionHeader sessionHeader = new FramedSessionHeader();
     private final FixGatewaySessions gatewaySessions;
     private final EpochNanoClock clock;
     private final AcceptorFixDictionaryLookup acceptorFixDictionaryLookup;
     private final FixReceiverEndPointFormatters formatters;
+    private final MessageTracer messageTracer;
+    private final Timer tracePublishTimer;
 
     private FixGatewaySession gatewaySession;
     private long sessionId;
     private int sequenceIndex;
     private boolean isPaused = false;
+    private boolean pollingRequiredForBufferedInput = false;
 
     private int pendingAcceptorLogonMsgOffset;
     private int pendingAcceptorLogonMsgLength;
@@ -183,7 +191,9 @@ class FixReceiverEndPoint extends ReceiverEndPoint
         final AcceptorFixDictionaryLookup acceptorFixDictionaryLookup,
         final FixReceiverEndPointFormatters formatters,
         final int throttleWindowInMs,
-        final int throttleLimitOfMessages)
+        final int throttleLimitOfMessages,
+        final MessageTracer messageTracer,
+        final Timer tracePublishTimer)
     {
         super(publication, channel, connectionId, bufferSize, errorHandler, framer, libraryId,
             throttleWindowInMs, throttleLimitOfMessages);
@@ -199,6 +209,8 @@ class FixReceiverEndPoint extends ReceiverEndPoint
         this.gatewaySessions = gatewaySessions;
         this.clock = clock;
         this.acceptorFixDictionaryLookup = acceptorFixDictionaryLookup;
+        this.messageTracer = messageTracer;
+        this.tracePublishTimer = tracePublishTimer;
 
         address = channel.remoteAddr();
     }
@@ -245,6 +257,8 @@ class FixReceiverEndPoint extends ReceiverEndPoint
                 return 0;
             }
 
+            checkBufferedInput();
+
             if (frameMessages(bytesRead == 0 ? lastReadTimestampInNs : latestReadTimestampInNs))
             {
                 lastReadTimestampInNs = latestReadTimestampInNs;
@@ -274,6 +288,25 @@ class FixReceiverEndPoint extends ReceiverEndPoint
         }
     }
 
+    // Data held within the channel, eg: decrypted TLS records that didn't fit into our buffer, doesn't make the
+    // channel selectable, so the end point gets polled until that data has been read.
+    private void checkBufferedInput()
+    {
+        final boolean hasBufferedInput = channel.hasBufferedInput();
+        if (hasBufferedInput != pollingRequiredForBufferedInput && !requiresAuthentication())
+        {
+            pollingRequiredForBufferedInput = hasBufferedInput;
+            if (hasBufferedInput)
+            {
+                framer.receiverEndPointPollingRequired(this);
+            }
+            else
+            {
+                framer.receiverEndPointPollingOptional(connectionId);
+            }
+        }
+    }
+
     private int pollPendingLogon()
     {
         // Retry-able under backpressure
@@ -815,6 +848,7 @@ class FixReceiverEndPoint extends ReceiverEndPoint
         {
             int offset = messageOffset;
             int length = messageLength;
+            FramedSessionHeader sessionHeader = null;
 
             final boolean isUserRequest = messageType == USER_REQUEST_MESSAGE_TYPE;
             if (messageType == LOGON_MESSAGE_TYPE || isUserRequest)
@@ -831,7 +865,13 @@ class FixReceiverEndPoint extends ReceiverEndPoint
                 buffer = passwordCleaner.cleanedBuffer();
                 length = passwordCleaner.cleanedLength();
             }
+            else if (this.sessionHeader.scan(this.buffer, offset, length))
+            {
+                sessionHeader = this.sessionHeader;
+            }
 
+            final MessageTracer messageTracer = this.messageTracer;
+            final long traceTimestamp = messageTracer.sample() ? messageTracer.nanoTime() : NOT_TRACED;
             final long position = publication.saveMessage(
                 buffer,
                 offset,
@@ -843,7 +883,9 @@ class FixReceiverEndPoint extends ReceiverEndPoint
                 connectionId,
                 OK,
                 0,
-                readTimestamp);
+                readTimestamp,
+                traceTimestamp,
+                sessionHeader);
 
             if (Pressure.isBackPressured(position))
             {
@@ -852,6 +894,11 @@ class FixReceiverEndPoint extends ReceiverEndPoint
             }
             else
             {
+                if (traceTimestamp != NOT_TRACED)
+                {
+                    MessageTracer.record(tracePublishTimer, readTimestamp, traceTimestamp);
+                }
+
                 gatewaySession.onMessage(buffer, offset, length, messageType, position);
                 return true;
             }
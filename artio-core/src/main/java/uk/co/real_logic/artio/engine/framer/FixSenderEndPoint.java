@@ -100,6 +100,8 @@ class FixSenderEndPoint extends SenderEndPoint
 
     private boolean replaying;
     private long replayCorrelationId;
+    // Managed by FixSenderEndPoints, true iff this end point is in the set of end points that get polled.
+    boolean isPolled;
     private boolean requiresRetry;
     private int reattemptBytesWritten = NO_REATTEMPT;
 
@@ -605,6 +607,7 @@ class FixSenderEndPoint extends SenderEndPoint
 
     boolean poll(final long timeInMs)
     {
+        flushChannel();
         reattempt();
 
         if (isSlowConsumer() && timeInMs > sendingTimeoutTimeInMs)
@@ -734,6 +737,28 @@ class FixSenderEndPoint extends SenderEndPoint
         return requiresRetry;
     }
 
+    // Idle end points have nothing to reattempt and can't become slow consumers, so they don't need polling.
+    boolean requiresPolling()
+    {
+        return requiresRetry || normalBuffer.usage > 0 || replayBuffer.usage > 0 || channel.hasPendingWrites();
+    }
+
+    // Channels that encrypt can hold data that has been written from our perspective but not reached the socket.
+    private void flushChannel()
+    {
+        if (channel.hasPendingWrites())
+        {
+            try
+            {
+                channel.flush();
+            }
+            catch (final IOException e)
+            {
+                onError(e);
+            }
+        }
+    }
+
     int reattemptBytesWritten()
     {
         return reattemptBytesWritten;
@@ -18,23 +18,29 @@ package uk.co.real_logic.artio.engine.framer;
 import io.aeron.logbuffer.ControlledFragmentHandler.Action;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
+import org.agrona.collections.ArrayListUtil;
 import org.agrona.collections.Long2ObjectHashMap;
 import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.LogTag;
 import uk.co.real_logic.artio.engine.FixEngine;
 import uk.co.real_logic.artio.util.CharFormatter;
 
+import java.util.ArrayList;
 import java.util.function.LongToIntFunction;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
 import static uk.co.real_logic.artio.DebugLogger.IS_REPLAY_LOG_TAG_ENABLED;
 
+/**
+ * Only end points that have buffered data are polled in the duty cycle, so idle connections cost nothing.
+ */
 class FixSenderEndPoints implements AutoCloseable
 {
     final CharFormatter missReplayComplete = new CharFormatter(
         "SEPs.missReplayComplete, connId=%s, corrId=%s, slow=%s");
 
     private final Long2ObjectHashMap<FixSenderEndPoint> connectionIdToSenderEndpoint = new Long2ObjectHashMap<>();
+    private final ArrayList<FixSenderEndPoint> polledEndPoints = new ArrayList<>();
     private final ErrorHandler errorHandler;
     private final LongToIntFunction libraryLookup = this::libraryLookup;
 
@@ -68,10 +74,34 @@ class FixSenderEndPoints implements AutoCloseable
         final FixSenderEndPoint senderEndPoint = connectionIdToSenderEndpoint.remove(connectionId);
         if (senderEndPoint != null)
         {
+            stopPolling(senderEndPoint);
             senderEndPoint.close();
         }
     }
 
+    private void checkPolling(final FixSenderEndPoint senderEndPoint)
+    {
+        if (!senderEndPoint.isPolled && senderEndPoint.requiresPolling())
+        {
+            senderEndPoint.isPolled = true;
+            polledEndPoints.add(senderEndPoint);
+        }
+    }
+
+    private void stopPolling(final FixSenderEndPoint senderEndPoint)
+    {
+        if (senderEndPoint.isPolled)
+        {
+            senderEndPoint.isPolled = false;
+            final ArrayList<FixSenderEndPoint> polledEndPoints = this.polledEndPoints;
+            final int index = polledEndPoints.indexOf(senderEndPoint);
+            if (index >= 0)
+            {
+                ArrayListUtil.fastUnorderedRemove(polledEndPoints, index);
+            }
+        }
+    }
+
     boolean onMessage(
         final int libraryId,
         final long connectionId,
@@ -86,6 +116,7 @@ class FixSenderEndPoints implements AutoCloseable
         {
             endPoint.onOutboundMessage(
                 libraryId, buffer, offset, length, sequenceNumber, timeInMs, metaDataLength);
+            checkPolling(endPoint);
             return true;
         }
 
@@ -109,6 +140,7 @@ class FixSenderEndPoints implements AutoCloseable
                 libraryId, refMsgType, refSeqNum, sequenceNumber,
                 businessRejectRefIDBuffer, businessRejectRefIDOffset, businessRejectRefIDLength,
                 timeInMs);
+            checkPolling(endPoint);
         }
 
         return null;
@@ -121,7 +153,9 @@ class FixSenderEndPoints implements AutoCloseable
         final FixSenderEndPoint endPoint = connectionIdToSenderEndpoint.get(connectionId);
         if (endPoint != null)
         {
-            return endPoint.onReplayMessage(buffer, offset, length, timeInMs, sequenceNumber);
+            final Action action = endPoint.onReplayMessage(buffer, offset, length, timeInMs, sequenceNumber);
+            checkPolling(endPoint);
+            return action;
         }
         else
         {
@@ -145,7 +179,9 @@ class FixSenderEndPoints implements AutoCloseable
         final FixSenderEndPoint senderEndPoint = connectionIdToSenderEndpoint.get(connectionId);
         if (senderEndPoint != null)
         {
-            return senderEndPoint.onReplayComplete(correlationId);
+            final Action action = senderEndPoint.onReplayComplete(correlationId);
+            checkPolling(senderEndPoint);
+            return action;
         }
         else
         {
@@ -178,13 +214,34 @@ class FixSenderEndPoints implements AutoCloseable
 
     int poll(final long timeInMs)
     {
+        final ArrayList<FixSenderEndPoint> polledEndPoints = this.polledEndPoints;
+
         int count = 0;
-        for (final FixSenderEndPoint senderEndPoint : connectionIdToSenderEndpoint.values())
+        for (int i = 0, size = polledEndPoints.size(); i < size;)
         {
+            final FixSenderEndPoint senderEndPoint = polledEndPoints.get(i);
             if (senderEndPoint.poll(timeInMs))
             {
                 count++;
             }
+
+            // The end point can be removed whilst being polled, eg: if it's disconnected as a slow consumer.
+            size = polledEndPoints.size();
+            if (i >= size || polledEndPoints.get(i) != senderEndPoint)
+            {
+                continue;
+            }
+
+            if (senderEndPoint.requiresPolling())
+            {
+                i++;
+            }
+            else
+            {
+                senderEndPoint.isPolled = false;
+                ArrayListUtil.fastUnorderedRemove(polledEndPoints, i, size - 1);
+                size--;
+            }
         }
 
         return count;
@@ -211,6 +268,7 @@ class FixSenderEndPoints implements AutoCloseable
         if (fixSenderEndPoint != null)
         {
             fixSenderEndPoint.onStartReplay(correlationId);
+            checkPolling(fixSenderEndPoint);
         }
     }
 }
@@ -43,6 +43,7 @@ import uk.co.real_logic.artio.messages.AllFixSessionsReplyEncoder.SessionsEncode
 import uk.co.real_logic.artio.messages.*;
 import uk.co.real_logic.artio.protocol.*;
 import uk.co.real_logic.artio.session.*;
+import uk.co.real_logic.artio.timing.MessageTracer;
 import uk.co.real_logic.artio.timing.Timer;
 import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.CharFormatter;
@@ -91,6 +92,7 @@ import static uk.co.real_logic.artio.messages.SequenceNumberType.TRANSIENT;
 import static uk.co.real_logic.artio.messages.SessionReplyStatus.*;
 import static uk.co.real_logic.artio.messages.SessionState.*;
 import static uk.co.real_logic.artio.messages.SessionStatus.SESSION_HANDOVER;
+import static uk.co.real_logic.artio.timing.MessageTracer.NOT_TRACED;
 
 /**
  * Handles incoming connections from clients and outgoing connections to exchanges.
@@ -133,6 +135,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     private final EpochNanoClock clock;
     private final Timer outboundTimer;
     private final Timer sendTimer;
+    private final Timer traceWriteTimer;
 
     private final ControlledFragmentHandler librarySubscriber;
     private final ControlledFragmentHandler replaySubscriber;
@@ -183,6 +186,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     private final long replyTimeoutInNs;
     private final DeadlineTimerWheel timerWheel;
     private final TimerEventHandler timerEventHandler;
+    private final ConnectionAdmissionControl admissionControl;
 
     private long nextConnectionId = (long)(Math.random() * Long.MAX_VALUE);
     private FixPProtocol fixPProtocol;
@@ -203,6 +207,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         final EpochClock epochClock,
         final Timer outboundTimer,
         final Timer sendTimer,
+        final Timer traceWriteTimer,
         final EngineConfiguration configuration,
         final Subscription adminEngineSubscription,
         final AdminReplyPublication adminReplyPublication,
@@ -235,6 +240,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         this.clock = configuration.epochNanoClock();
         this.outboundTimer = outboundTimer;
         this.sendTimer = sendTimer;
+        this.traceWriteTimer = traceWriteTimer;
         this.configuration = configuration;
         this.adminEngineSubscription = adminEngineSubscription;
         this.adminReplyPublication = adminReplyPublication;
@@ -270,6 +276,11 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
 
         replyTimeoutInNs = TimeUnit.MILLISECONDS.toNanos(configuration.replyTimeoutInMs());
         timerEventHandler = new TimerEventHandler(errorHandler);
+        admissionControl = new ConnectionAdmissionControl(
+            configuration.acceptRatePerSecond(),
+            configuration.acceptRatePerAddress(),
+            configuration.acceptBurstPerAddress(),
+            configuration.maxPendingLogons());
 
         acceptorFixDictionaryLookup = new AcceptorFixDictionaryLookup(
             configuration.acceptorfixDictionary(),
@@ -301,10 +312,12 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
                     final int sequenceIndex,
                     final long messageType,
                     final long timestamp,
+                    final long traceTimestamp,
                     final MessageStatus status,
                     final int sequenceNumber,
                     final Header header,
-                    final int metaDataLength)
+                    final int metaDataLength,
+                    final FramedSessionHeader sessionHeader)
                 {
                     return fixSenderEndPoints.onReplayMessage(connectionId, buffer, offset, length, sequenceNumber);
                 }
@@ -327,6 +340,11 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         adminEngineProtocolSubscription = new AdminEngineProtocolSubscription(this);
 
         channelSupplier = configuration.channelSupplier();
+        if (admissionControl.limitsAccepts() && !channelSupplier.supportsAcceptLimit())
+        {
+            throw new IllegalArgumentException(channelSupplier.getClass().getName() +
+                " doesn't support accept limits, so acceptRatePerSecond and maxPendingLogons can't be configured");
+        }
         shouldBind = configuration.bindAtStartup();
 
         Image image = null;
@@ -354,11 +372,16 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
 
         checkOutboundTimestampSender(timeInNs);
 
-        return retryManager.attemptSteps() +
+        final int work = retryManager.attemptSteps() +
             sendOutboundMessages() +
-            sendReplayMessages() +
-            pollEndPoints() +
-            pollNewConnections(timeInMs) +
+            sendReplayMessages();
+
+        // Established connections are serviced before any new connections are accepted.
+        final int bytesReceived = pollEndPoints();
+
+        return work +
+            bytesReceived +
+            pollNewConnections(timeInMs, bytesReceived) +
             pollLibraries(timeInMs) +
             gatewaySessions.pollSessions(timeInMs, timeInNs) +
             fixSenderEndPoints.poll(timeInMs) +
@@ -594,8 +617,17 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         return totalBytesReceived;
     }
 
-    private int pollNewConnections(final long timeInMs) throws IOException
+    private int pollNewConnections(final long timeInMs, final int bytesReceived) throws IOException
     {
+        final ConnectionAdmissionControl admissionControl = this.admissionControl;
+        if (admissionControl.enabled())
+        {
+            // If established connections have used up this duty cycle's read budget then defer accepting.
+            final int acceptLimit = bytesReceived >= inboundBytesReceivedLimit ?
+                0 : admissionControl.acceptLimit(timeInMs, gatewaySessions.pendingLogons());
+            channelSupplier.acceptLimit(acceptLimit);
+        }
+
         return channelSupplier.pollSelector(timeInMs, onNewConnectionFunc);
     }
 
@@ -607,6 +639,14 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
             return;
         }
 
+        final ConnectionAdmissionControl admissionControl = this.admissionControl;
+        if (admissionControl.enabled() && !admissionControl.onAccept(channel.remoteAddr(), timeInMs))
+        {
+            fixCounters.rejectedConnections().increment();
+            channel.close();
+            return;
+        }
+
         if (acceptsFixP)
         {
             onNewFixPConnection(timeInMs, channel);
@@ -1632,10 +1672,12 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         final int sequenceIndex,
         final long messageType,
         final long timestamp,
+        final long traceTimestamp,
         final MessageStatus status,
         final int sequenceNumber,
         final Header header,
-        final int metaDataLength)
+        final int metaDataLength,
+        final FramedSessionHeader sessionHeader)
     {
         final long now = outboundTimer.recordSince(timestamp);
 
@@ -1646,6 +1688,10 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         {
             checkOfflineSequenceReset(sessionId, messageType, buffer, offset, length, sequenceIndex);
         }
+        else if (traceTimestamp != NOT_TRACED)
+        {
+            MessageTracer.record(traceWriteTimer, traceTimestamp, clock.nanoTime());
+        }
 
         sendTimer.recordSince(now);
 
@@ -30,6 +30,7 @@ import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.protocol.Streams;
 import uk.co.real_logic.artio.session.SessionIdStrategy;
 import uk.co.real_logic.artio.timing.EngineTimers;
+import uk.co.real_logic.artio.timing.MessageTracer;
 
 import java.io.File;
 import java.io.IOException;
@@ -140,7 +141,9 @@ public class FramerContext
                 errorHandler,
                 (FixGatewaySessions)gatewaySessions,
                 engineContext.senderSequenceNumbers(),
-                configuration.messageTimingHandler());
+                configuration.messageTimingHandler(),
+                new MessageTracer(configuration.epochNanoClock(), configuration.messageTraceSampleInterval()),
+                timers.tracePublishTimer());
         }
 
         final FinalImagePositions finalImagePositions = new FinalImagePositions();
@@ -149,6 +152,7 @@ public class FramerContext
             epochClock,
             timers.outboundTimer(),
             timers.sendTimer(),
+            timers.traceWriteTimer(),
             configuration,
             adminEngineSubscription,
             adminReplyPublication,
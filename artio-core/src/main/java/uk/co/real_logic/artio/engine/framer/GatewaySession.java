@@ -18,9 +18,12 @@ package uk.co.real_logic.artio.engine.framer;
 import uk.co.real_logic.artio.engine.AbstractConnectedSessionInfo;
 import uk.co.real_logic.artio.messages.ConnectionType;
 
+import static uk.co.real_logic.artio.session.Session.NO_POLL_DEADLINE;
+
 abstract class GatewaySession implements AbstractConnectedSessionInfo
 {
     protected static final int NO_TIMEOUT = -1;
+    static final long NO_DEADLINE_TIMER = -1;
 
     protected final ConnectionType connectionType;
     protected final long authenticationTimeoutInMs;
@@ -37,6 +40,11 @@ abstract class GatewaySession implements AbstractConnectedSessionInfo
     // Only set when owned by gateway, in case that library reconnects.
     protected int lastLibraryId;
 
+    // Deadline scheduling state, managed by GatewaySessions on the Framer thread.
+    GatewaySessions pollScheduler;
+    long deadlineTimerId = NO_DEADLINE_TIMER;
+    boolean pollDue;
+
     GatewaySession(
         final long connectionId,
         final long sessionId,
@@ -67,20 +75,66 @@ abstract class GatewaySession implements AbstractConnectedSessionInfo
 
     abstract int poll(long timeInMs, long timeInNs);
 
+    /**
+     * Gets the time, in ms, by which this session next needs to be polled if nothing else happens to it.
+     *
+     * @param timeInMs the current time in milliseconds.
+     * @param timeInNs the current time in nanoseconds.
+     * @return the next deadline or {@link uk.co.real_logic.artio.session.Session#NO_POLL_DEADLINE} if there is none.
+     */
+    long nextPollDeadlineInMs(final long timeInMs, final long timeInNs)
+    {
+        return disconnectTimeInMs == NO_TIMEOUT ? NO_POLL_DEADLINE : disconnectTimeInMs;
+    }
+
+    // Invoked when something has happened to this session that could bring forward its next deadline.
+    void requestPoll()
+    {
+        final GatewaySessions pollScheduler = this.pollScheduler;
+        if (pollScheduler != null)
+        {
+            pollScheduler.requestPoll(this);
+        }
+    }
+
     void startAuthentication(final long timeInMs)
     {
         hasStartedAuthentication = true;
-        disconnectTimeInMs = timeInMs + authenticationTimeoutInMs;
+        disconnectTimeInMs(timeInMs + authenticationTimeoutInMs);
     }
 
     void onAuthenticationResult()
     {
-        disconnectTimeInMs = NO_TIMEOUT;
+        disconnectTimeInMs(NO_TIMEOUT);
     }
 
     void disconnectAt(final long disconnectTimeout)
     {
-        this.disconnectTimeInMs = disconnectTimeout;
+        disconnectTimeInMs(disconnectTimeout);
+    }
+
+    // A logon is pending from the point of connection until the logon message has been authenticated.
+    boolean isLogonPending()
+    {
+        return disconnectTimeInMs != NO_TIMEOUT;
+    }
+
+    private void disconnectTimeInMs(final long disconnectTimeInMs)
+    {
+        final boolean wasLogonPending = isLogonPending();
+        this.disconnectTimeInMs = disconnectTimeInMs;
+
+        final GatewaySessions pollScheduler = this.pollScheduler;
+        if (pollScheduler != null)
+        {
+            final boolean isLogonPending = isLogonPending();
+            if (wasLogonPending != isLogonPending)
+            {
+                pollScheduler.onLogonPendingChange(isLogonPending);
+            }
+
+            pollScheduler.requestPoll(this);
+        }
     }
 
     boolean hasDisconnected()
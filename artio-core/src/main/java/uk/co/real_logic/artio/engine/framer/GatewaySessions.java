@@ -15,9 +15,12 @@
  */
 package uk.co.real_logic.artio.engine.framer;
 
+import org.agrona.DeadlineTimerWheel;
 import org.agrona.ErrorHandler;
 import org.agrona.LangUtil;
+import org.agrona.collections.ArrayListUtil;
 import org.agrona.collections.Long2LongHashMap;
+import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.collections.LongHashSet;
 import org.agrona.concurrent.EpochClock;
 import uk.co.real_logic.artio.FixGatewayException;
@@ -31,24 +34,41 @@ import uk.co.real_logic.artio.validation.AbstractAuthenticationProxy;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static uk.co.real_logic.artio.engine.ConnectedSessionInfo.UNK_SESSION;
+import static uk.co.real_logic.artio.engine.framer.GatewaySession.NO_DEADLINE_TIMER;
+import static uk.co.real_logic.artio.session.Session.NO_POLL_DEADLINE;
 
 /**
- * Keeps track of which sessions managed by the gateway
+ * Keeps track of which sessions managed by the gateway.
+ *
+ * Sessions are only polled when they are due: either because something has happened to them or because one of their
+ * deadlines, eg: a heartbeat or logon timeout, has been reached. Idle sessions sit on a timer wheel until then. The
+ * wheel has a 1ms tick, rather than sharing the Framer's coarser wheel, so that heartbeats and timeouts aren't
+ * delayed by more than a millisecond.
  */
 abstract class GatewaySessions
 {
+    private static final int DEADLINE_TICK_RESOLUTION_IN_MS = 1;
+    private static final int DEADLINE_TICKS_PER_WHEEL = 1024;
+
     protected final Long2LongHashMap sessionIdToLastLibraryId = new Long2LongHashMap(UNK_SESSION);
     protected final LongHashSet disconnectedSessionIds = new LongHashSet();
     protected final CharFormatter acquiredConnection = new CharFormatter("Gateway Acquired Connection %s");
     protected final List<GatewaySession> sessions = new ArrayList<>();
+    private final ArrayList<GatewaySession> dueSessions = new ArrayList<>();
+    private final Long2ObjectHashMap<GatewaySession> timerIdToSession = new Long2ObjectHashMap<>();
     protected final EpochClock epochClock;
     protected final GatewayPublication inboundPublication;
     protected final GatewayPublication outboundPublication;
     protected final SequenceNumberIndexReader sentSequenceNumberIndex;
     protected final SequenceNumberIndexReader receivedSequenceNumberIndex;
     protected ErrorHandler errorHandler;
+    private final DeadlineTimerWheel.TimerHandler deadlineHandler = this::onDeadlineTimer;
+    private DeadlineTimerWheel timerWheel;
+    private int pendingLogons;
 
     GatewaySessions(
         final EpochClock epochClock,
@@ -89,7 +109,9 @@ abstract class GatewaySessions
             return null;
         }
 
-        return sessions.remove(index);
+        final GatewaySession session = sessions.remove(index);
+        stopPolling(session);
+        return session;
     }
 
     GatewaySession sessionById(final long sessionId)
@@ -129,6 +151,7 @@ abstract class GatewaySessions
         final GatewaySession session = removeSessionByConnectionId(connectionId, sessions);
         if (session != null)
         {
+            stopPolling(session);
             session.onDisconnectReleasedByOwner();
             session.close();
 
@@ -142,25 +165,160 @@ abstract class GatewaySessions
 
     int pollSessions(final long timeInMs, final long timeInNs)
     {
-        final List<GatewaySession> sessions = this.sessions;
+        final ArrayList<GatewaySession> dueSessions = this.dueSessions;
 
-        int eventsProcessed = 0;
-        for (int i = 0, size = sessions.size(); i < size;)
+        int eventsProcessed = pollDeadlines(timeInMs);
+        for (int i = 0, size = dueSessions.size(); i < size;)
         {
-            final GatewaySession session = sessions.get(i);
-            eventsProcessed += session.poll(timeInMs, timeInNs);
-            if (session.hasDisconnected())
+            final GatewaySession session = dueSessions.get(i);
+            final int events = session.poll(timeInMs, timeInNs);
+            eventsProcessed += events;
+
+            // The session can be removed whilst being polled, eg: if it has disconnected.
+            size = dueSessions.size();
+            if (i >= size || dueSessions.get(i) != session)
             {
-                size--;
+                continue;
             }
-            else
+
+            final long deadlineInMs = session.nextPollDeadlineInMs(timeInMs, timeInNs);
+            if (events > 0 || deadlineInMs <= timeInMs)
             {
                 i++;
             }
+            else
+            {
+                session.pollDue = false;
+                ArrayListUtil.fastUnorderedRemove(dueSessions, i, size - 1);
+                size--;
+                scheduleDeadline(session, deadlineInMs);
+            }
         }
         return eventsProcessed;
     }
 
+    void requestPoll(final GatewaySession session)
+    {
+        if (!session.pollDue)
+        {
+            cancelDeadline(session);
+            session.pollDue = true;
+            dueSessions.add(session);
+        }
+    }
+
+    void onLogonPendingChange(final boolean isLogonPending)
+    {
+        if (isLogonPending)
+        {
+            pendingLogons++;
+        }
+        else
+        {
+            pendingLogons--;
+        }
+    }
+
+    /**
+     * Gets the number of tracked sessions whose logon hasn't been received or authenticated yet.
+     *
+     * @return the number of tracked sessions whose logon hasn't been received or authenticated yet.
+     */
+    int pendingLogons()
+    {
+        return pendingLogons;
+    }
+
+    private int pollDeadlines(final long timeInMs)
+    {
+        DeadlineTimerWheel timerWheel = this.timerWheel;
+        if (timerWheel == null)
+        {
+            // Started from the first poll's time, so that the wheel doesn't need to catch up with the clock.
+            timerWheel = new DeadlineTimerWheel(
+                MILLISECONDS, timeInMs, DEADLINE_TICK_RESOLUTION_IN_MS, DEADLINE_TICKS_PER_WHEEL);
+            this.timerWheel = timerWheel;
+        }
+
+        // The wheel only advances a tick per poll, so keep polling until it has polled the tick that the time is in.
+        int expired = 0;
+        long tickTime;
+        do
+        {
+            tickTime = timerWheel.currentTickTime();
+            expired += timerWheel.poll(timeInMs, deadlineHandler, Integer.MAX_VALUE);
+        }
+        while (tickTime != timerWheel.currentTickTime());
+
+        return expired;
+    }
+
+    private boolean onDeadlineTimer(final TimeUnit timeUnit, final long now, final long timerId)
+    {
+        final GatewaySession session = timerIdToSession.remove(timerId);
+        if (session != null)
+        {
+            session.deadlineTimerId = NO_DEADLINE_TIMER;
+            requestPoll(session);
+        }
+
+        return true;
+    }
+
+    private void scheduleDeadline(final GatewaySession session, final long deadlineInMs)
+    {
+        if (deadlineInMs != NO_POLL_DEADLINE)
+        {
+            final long timerId = timerWheel.scheduleTimer(deadlineInMs);
+            session.deadlineTimerId = timerId;
+            timerIdToSession.put(timerId, session);
+        }
+    }
+
+    private void cancelDeadline(final GatewaySession session)
+    {
+        final long timerId = session.deadlineTimerId;
+        if (timerId != NO_DEADLINE_TIMER)
+        {
+            timerWheel.cancelTimer(timerId);
+            timerIdToSession.remove(timerId);
+            session.deadlineTimerId = NO_DEADLINE_TIMER;
+        }
+    }
+
+    protected void startPolling(final GatewaySession session)
+    {
+        if (session.pollScheduler != this)
+        {
+            session.pollScheduler = this;
+            if (session.isLogonPending())
+            {
+                pendingLogons++;
+            }
+        }
+        requestPoll(session);
+    }
+
+    private void stopPolling(final GatewaySession session)
+    {
+        if (session.pollScheduler == this && session.isLogonPending())
+        {
+            pendingLogons--;
+        }
+        session.pollScheduler = null;
+        cancelDeadline(session);
+        if (session.pollDue)
+        {
+            session.pollDue = false;
+            final ArrayList<GatewaySession> dueSessions = this.dueSessions;
+            final int index = dueSessions.indexOf(session);
+            if (index >= 0)
+            {
+                ArrayListUtil.fastUnorderedRemove(dueSessions, index);
+            }
+        }
+    }
+
     List<GatewaySession> sessions()
     {
         return sessions;
@@ -198,6 +356,7 @@ abstract class GatewaySessions
     void track(final GatewaySession gatewaySession)
     {
         sessions.add(gatewaySession);
+        startPolling(gatewaySession);
     }
 
     public LongHashSet findDisconnectedSessions(final int libraryId)
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import uk.co.real_logic.artio.decoder.SessionHeaderDecoder;
+import uk.co.real_logic.artio.dictionary.FixDictionary;
+import uk.co.real_logic.artio.engine.logger.Index;
+import uk.co.real_logic.artio.engine.logger.IndexedPositionConsumer;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+import uk.co.real_logic.artio.session.CompositeKey;
+import uk.co.real_logic.artio.session.SessionIdStrategy;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import static io.aeron.logbuffer.FrameDescriptor.UNFRAGMENTED;
+import static uk.co.real_logic.artio.dictionary.SessionConstants.LOGON_MESSAGE_TYPE;
+import static uk.co.real_logic.artio.engine.framer.MessageTypeExtractor.getMessageType;
+import static uk.co.real_logic.artio.messages.FixMessageDecoder.bodyHeaderLength;
+import static uk.co.real_logic.artio.messages.FixMessageDecoder.metaDataHeaderLength;
+import static uk.co.real_logic.artio.messages.FixMessageDecoder.metaDataSinceVersion;
+import static uk.co.real_logic.artio.messages.MessageStatus.OK;
+
+/**
+ * Keeps {@link FixContexts} up to date with the session ids that another engine has allocated by indexing the logon
+ * messages on its inbound stream. The inbound logon message is sent by the counter-party for both acceptor and
+ * initiator sessions, so the composite key is derived in the same way as for an accepted logon.
+ */
+public class ReplicatedSessionIdIndex implements Index
+{
+    private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
+    private final FixMessageDecoder messageFrame = new FixMessageDecoder();
+    private final MutableAsciiBuffer asciiBuffer = new MutableAsciiBuffer();
+
+    private final FixContexts fixContexts;
+    private final SessionIdStrategy sessionIdStrategy;
+    private final FixDictionary fixDictionary;
+    private final SessionHeaderDecoder headerDecoder;
+    private final int inboundStreamId;
+    private final ErrorHandler errorHandler;
+
+    public ReplicatedSessionIdIndex(
+        final FixContexts fixContexts,
+        final SessionIdStrategy sessionIdStrategy,
+        final FixDictionary fixDictionary,
+        final int inboundStreamId,
+        final ErrorHandler errorHandler)
+    {
+        this.fixContexts = fixContexts;
+        this.sessionIdStrategy = sessionIdStrategy;
+        this.fixDictionary = fixDictionary;
+        this.headerDecoder = fixDictionary.makeHeaderDecoder();
+        this.inboundStreamId = inboundStreamId;
+        this.errorHandler = errorHandler;
+    }
+
+    public void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+    {
+        if (header.streamId() == inboundStreamId)
+        {
+            onMessage(buffer, offset, header);
+        }
+    }
+
+    public void onCatchup(
+        final DirectBuffer buffer, final int offset, final int length, final Header header, final long recordingId)
+    {
+        onMessage(buffer, offset, header);
+    }
+
+    private void onMessage(final DirectBuffer buffer, final int offset, final Header header)
+    {
+        // Logon messages are never large enough to be fragmented
+        if ((header.flags() & UNFRAGMENTED) != UNFRAGMENTED)
+        {
+            return;
+        }
+
+        messageHeader.wrap(buffer, offset);
+        if (messageHeader.templateId() != FixMessageDecoder.TEMPLATE_ID)
+        {
+            return;
+        }
+
+        final int blockLength = messageHeader.blockLength();
+        final int version = messageHeader.version();
+        int messageOffset = offset + MessageHeaderDecoder.ENCODED_LENGTH;
+        final FixMessageDecoder messageFrame = this.messageFrame;
+        messageFrame.wrap(buffer, messageOffset, blockLength, version);
+
+        if (messageFrame.status() != OK || getMessageType(messageFrame) != LOGON_MESSAGE_TYPE)
+        {
+            return;
+        }
+
+        messageOffset += blockLength;
+        if (version >= metaDataSinceVersion())
+        {
+            messageOffset += metaDataHeaderLength() + messageFrame.metaDataLength();
+            messageFrame.skipMetaData();
+        }
+        messageOffset += bodyHeaderLength();
+
+        final SessionHeaderDecoder headerDecoder = this.headerDecoder;
+        asciiBuffer.wrap(buffer);
+        headerDecoder.reset();
+        headerDecoder.decode(asciiBuffer, messageOffset, messageFrame.bodyLength());
+
+        final CompositeKey compositeKey;
+        try
+        {
+            compositeKey = sessionIdStrategy.onAcceptLogon(headerDecoder);
+        }
+        catch (final IllegalArgumentException e)
+        {
+            errorHandler.onError(e);
+            return;
+        }
+
+        fixContexts.onReplicatedLogon(
+            compositeKey,
+            messageFrame.session(),
+            messageFrame.sequenceIndex(),
+            messageFrame.timestamp(),
+            fixDictionary);
+    }
+
+    public void readLastPosition(final IndexedPositionConsumer consumer)
+    {
+        // Deliberately blank, session ids are saved as soon as they're seen so logons can safely be indexed again.
+    }
+
+    public void close()
+    {
+        // Deliberately blank, the FixContexts file is owned by the configuration.
+    }
+}
@@ -188,6 +188,11 @@ class ResetSequenceNumberCommand implements Reply<Void>, AdminCommand
                 final long position = session.tryResetSequenceNumbers();
                 if (!Pressure.isBackPressured(position))
                 {
+                    final GatewaySession gatewaySession = gatewaySessions.sessionById(sessionId);
+                    if (gatewaySession != null)
+                    {
+                        gatewaySession.requestPoll();
+                    }
                     awaitSequenceNumber = 1;
                     step = Step.AWAIT_RECV;
                 }
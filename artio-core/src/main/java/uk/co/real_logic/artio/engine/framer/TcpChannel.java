@@ -26,8 +26,8 @@ import java.nio.channels.SocketChannel;
 
 public class TcpChannel implements AutoCloseable
 {
-    private final SocketChannel socketChannel;
-    private final String remoteAddress;
+    protected final SocketChannel socketChannel;
+    protected final String remoteAddress;
 
     public TcpChannel(final SocketChannel socketChannel) throws IOException
     {
@@ -62,6 +62,38 @@ public class TcpChannel implements AutoCloseable
         return socketChannel.read(dst);
     }
 
+    /**
+     * Whether this channel holds data that has been read from the socket but not yet returned by
+     * {@link #read(ByteBuffer)}. Such data doesn't make the channel selectable, so it needs polling.
+     *
+     * @return true if this channel holds data that hasn't been read yet.
+     */
+    public boolean hasBufferedInput()
+    {
+        return false;
+    }
+
+    /**
+     * Whether this channel holds data that has been accepted by {@link #write(ByteBuffer)} but not yet written to
+     * the socket. Such data is written by a later call to {@link #flush()}.
+     *
+     * @return true if this channel holds data that hasn't been written yet.
+     */
+    public boolean hasPendingWrites()
+    {
+        return false;
+    }
+
+    /**
+     * Attempt to write any data that has been accepted by {@link #write(ByteBuffer)} but not yet written to the
+     * socket.
+     *
+     * @throws IOException if the write fails.
+     */
+    public void flush() throws IOException
+    {
+    }
+
     public void close()
     {
         if (socketChannel.isOpen())
@@ -23,6 +23,8 @@ import java.net.InetSocketAddress;
  */
 public abstract class TcpChannelSupplier implements AutoCloseable
 {
+    protected int acceptLimit = Integer.MAX_VALUE;
+
     public abstract void open(InetSocketAddress address, InitiatedChannelHandler channelHandler) throws IOException;
 
     public abstract void stopConnecting(InetSocketAddress address) throws IOException;
@@ -33,6 +35,29 @@ public abstract class TcpChannelSupplier implements AutoCloseable
 
     public abstract void bind() throws IOException;
 
+    /**
+     * Limits the number of new connections that subsequent calls to {@link #pollSelector(long, NewChannelHandler)}
+     * accept. Connections over the limit are left to be accepted by a later poll. Only has an effect if
+     * {@link #supportsAcceptLimit()} returns true.
+     *
+     * @param acceptLimit the maximum number of new connections to accept in a single poll.
+     */
+    public void acceptLimit(final int acceptLimit)
+    {
+        this.acceptLimit = acceptLimit;
+    }
+
+    /**
+     * Gets whether {@link #pollSelector(long, NewChannelHandler)} honours the {@link #acceptLimit(int)}. The engine
+     * refuses to start with an accept rate or pending logon limit configured if it doesn't.
+     *
+     * @return true if the accept limit is honoured, false otherwise.
+     */
+    public boolean supportsAcceptLimit()
+    {
+        return false;
+    }
+
     @FunctionalInterface
     public interface InitiatedChannelHandler
     {
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Pool of the direct buffers that {@link TlsTcpChannel}s hold their encrypted and spilled over decrypted data in,
+ * so that reconnecting sessions don't allocate and free direct memory.
+ *
+ * Only accessed on the Framer thread.
+ */
+class TlsBufferPool
+{
+    private final ArrayDeque<ByteBuffer> buffers = new ArrayDeque<>();
+    private final int bufferSize;
+
+    TlsBufferPool(final SSLContext sslContext)
+    {
+        final SSLSession session = sslContext.createSSLEngine().getSession();
+        bufferSize = Math.max(session.getPacketBufferSize(), session.getApplicationBufferSize());
+    }
+
+    int bufferSize()
+    {
+        return bufferSize;
+    }
+
+    ByteBuffer acquire()
+    {
+        final ByteBuffer buffer = buffers.pollFirst();
+        return buffer == null ? ByteBuffer.allocateDirect(bufferSize) : buffer;
+    }
+
+    void release(final ByteBuffer buffer)
+    {
+        buffer.clear();
+        buffers.addFirst(buffer);
+    }
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import uk.co.real_logic.artio.engine.ByteBufferUtil;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SocketChannel;
+
+import static javax.net.ssl.SSLEngineResult.HandshakeStatus.FINISHED;
+import static javax.net.ssl.SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING;
+import static javax.net.ssl.SSLEngineResult.Status.BUFFER_OVERFLOW;
+
+/**
+ * A {@link TcpChannel} that terminates TLS using an {@link SSLEngine}.
+ *
+ * Reads decrypt straight into the caller's buffer, only a TLS record that the caller doesn't have room for is
+ * decrypted into a spill-over buffer that's drained by subsequent reads. Writes report the number of plaintext bytes
+ * that have been encrypted, encrypted data that the socket doesn't accept is held until a later write or
+ * {@link #flush()}. Whilst the handshake is in progress writes return 0, which the sender end point treats as
+ * back-pressure and reattempts, and the handshake is driven forward by reads.
+ *
+ * Delegated handshake tasks are run inline on the Framer thread. Buffers are taken from a {@link TlsBufferPool}.
+ */
+public class TlsTcpChannel extends TcpChannel
+{
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
+    private final SSLEngine sslEngine;
+    private final TlsBufferPool bufferPool;
+
+    // All buffers are kept ready to be written into, ie: their data is between 0 and position
+    private ByteBuffer networkInBuffer;
+    private ByteBuffer networkOutBuffer;
+    private ByteBuffer applicationInBuffer;
+
+    private boolean hasBufferedInput;
+    private boolean inboundClosed;
+    private boolean closed;
+
+    TlsTcpChannel(final SocketChannel socketChannel, final SSLEngine sslEngine, final TlsBufferPool bufferPool)
+        throws IOException
+    {
+        super(socketChannel);
+        this.sslEngine = sslEngine;
+        this.bufferPool = bufferPool;
+
+        networkInBuffer = bufferPool.acquire();
+        networkOutBuffer = bufferPool.acquire();
+        applicationInBuffer = bufferPool.acquire();
+
+        sslEngine.beginHandshake();
+    }
+
+    public int write(final ByteBuffer src) throws IOException
+    {
+        if (closed)
+        {
+            throw new ClosedChannelException();
+        }
+
+        final ByteBuffer networkOutBuffer = this.networkOutBuffer;
+
+        flush();
+        if (networkOutBuffer.position() > 0)
+        {
+            return 0;
+        }
+
+        int consumed = 0;
+        while (src.hasRemaining())
+        {
+            progressHandshake();
+            final HandshakeStatus handshakeStatus = sslEngine.getHandshakeStatus();
+            if (handshakeStatus != NOT_HANDSHAKING && handshakeStatus != FINISHED)
+            {
+                break;
+            }
+
+            final SSLEngineResult result = sslEngine.wrap(src, networkOutBuffer);
+            consumed += result.bytesConsumed();
+            switch (result.getStatus())
+            {
+                case CLOSED:
+                    throw new IOException("Disconnected " + remoteAddress + ", TLS session closed");
+
+                case BUFFER_OVERFLOW:
+                    if (networkOutBuffer.position() == 0)
+                    {
+                        throw new SSLException("TLS record larger than buffer of " + networkOutBuffer.capacity());
+                    }
+                    break;
+
+                default:
+                    break;
+            }
+
+            flush();
+            if (networkOutBuffer.position() > 0)
+            {
+                break;
+            }
+        }
+
+        return consumed;
+    }
+
+    public int read(final ByteBuffer dst) throws IOException
+    {
+        if (closed)
+        {
+            throw new ClosedChannelException();
+        }
+
+        if (inboundClosed)
+        {
+            return -1;
+        }
+
+        flush();
+        progressHandshake();
+
+        int produced = drainApplicationIn(dst);
+        if (dst.hasRemaining())
+        {
+            final int read = socketChannel.read(networkInBuffer);
+            if (networkInBuffer.position() > 0)
+            {
+                final int unwrapped = unwrap(dst);
+                if (unwrapped < 0)
+                {
+                    return produced > 0 ? produced : unwrapped;
+                }
+                produced += unwrapped;
+            }
+
+            if (read < 0)
+            {
+                inboundClosed = true;
+                closeInboundQuietly();
+                return produced > 0 ? produced : read;
+            }
+        }
+
+        hasBufferedInput = applicationInBuffer.position() > 0 ||
+            (!dst.hasRemaining() && networkInBuffer.position() > 0);
+
+        return produced;
+    }
+
+    private int unwrap(final ByteBuffer dst) throws IOException
+    {
+        final ByteBuffer networkInBuffer = this.networkInBuffer;
+
+        int produced = 0;
+        networkInBuffer.flip();
+        try
+        {
+            while (networkInBuffer.hasRemaining() && dst.hasRemaining())
+            {
+                SSLEngineResult result = sslEngine.unwrap(networkInBuffer, dst);
+                int unwrapped = result.bytesProduced();
+                if (result.getStatus() == BUFFER_OVERFLOW)
+                {
+                    // The caller doesn't have room for the whole record, so spill it over to be drained by later reads
+                    final ByteBuffer applicationInBuffer = this.applicationInBuffer;
+                    result = sslEngine.unwrap(networkInBuffer, applicationInBuffer);
+                    if (result.getStatus() == BUFFER_OVERFLOW)
+                    {
+                        throw new SSLException(
+                            "TLS record larger than buffer of " + applicationInBuffer.capacity());
+                    }
+                    unwrapped = drainApplicationIn(dst);
+                }
+
+                switch (result.getStatus())
+                {
+                    case BUFFER_UNDERFLOW:
+                        final boolean bufferFull = networkInBuffer.limit() == networkInBuffer.capacity();
+                        if (networkInBuffer.position() == 0 && bufferFull)
+                        {
+                            throw new SSLException("TLS record larger than buffer of " + networkInBuffer.capacity());
+                        }
+                        return produced;
+
+                    case CLOSED:
+                        inboundClosed = true;
+                        return produced > 0 ? produced : -1;
+
+                    default:
+                        break;
+                }
+
+                produced += unwrapped;
+
+                progressHandshake();
+                if (result.bytesConsumed() == 0 && result.bytesProduced() == 0)
+                {
+                    // Waiting on a handshake message to be written
+                    return produced;
+                }
+            }
+
+            return produced;
+        }
+        finally
+        {
+            networkInBuffer.compact();
+        }
+    }
+
+    private int drainApplicationIn(final ByteBuffer dst)
+    {
+        final ByteBuffer applicationInBuffer = this.applicationInBuffer;
+        final int position = applicationInBuffer.position();
+        if (position == 0)
+        {
+            return 0;
+        }
+
+        final int length = Math.min(position, dst.remaining());
+        applicationInBuffer.flip();
+        ByteBufferUtil.limit(applicationInBuffer, length);
+        dst.put(applicationInBuffer);
+        ByteBufferUtil.limit(applicationInBuffer, position);
+        applicationInBuffer.compact();
+
+        return length;
+    }
+
+    private void progressHandshake() throws IOException
+    {
+        while (true)
+        {
+            switch (sslEngine.getHandshakeStatus())
+            {
+                case NEED_TASK:
+                {
+                    Runnable task;
+                    while ((task = sslEngine.getDelegatedTask()) != null)
+                    {
+                        task.run();
+                    }
+                    break;
+                }
+
+                case NEED_WRAP:
+                {
+                    final ByteBuffer networkOutBuffer = this.networkOutBuffer;
+                    final SSLEngineResult result = sslEngine.wrap(EMPTY_BUFFER, networkOutBuffer);
+                    flush();
+                    if (result.getStatus() != SSLEngineResult.Status.OK || result.bytesProduced() == 0)
+                    {
+                        // Either the socket is back-pressured or the session is closed
+                        return;
+                    }
+                    break;
+                }
+
+                default:
+                    return;
+            }
+        }
+    }
+
+    public boolean hasBufferedInput()
+    {
+        return hasBufferedInput;
+    }
+
+    public boolean hasPendingWrites()
+    {
+        return !closed && networkOutBuffer.position() > 0;
+    }
+
+    public void flush() throws IOException
+    {
+        final ByteBuffer networkOutBuffer = this.networkOutBuffer;
+        if (!closed && networkOutBuffer.position() > 0)
+        {
+            networkOutBuffer.flip();
+            try
+            {
+                final int written = socketChannel.write(networkOutBuffer);
+                if (written < 0)
+                {
+                    throw new IOException("Disconnected " + remoteAddress + ", written=" + written);
+                }
+            }
+            finally
+            {
+                networkOutBuffer.compact();
+            }
+        }
+    }
+
+    private void closeInboundQuietly()
+    {
+        try
+        {
+            sslEngine.closeInbound();
+        }
+        catch (final SSLException ignore)
+        {
+            // Peer closed the connection without a close_notify, the connection is being torn down anyway.
+        }
+    }
+
+    public void close()
+    {
+        if (closed)
+        {
+            return;
+        }
+
+        try
+        {
+            // Best effort attempt to send a close_notify, the socket isn't waited on
+            if (socketChannel.isOpen())
+            {
+                sslEngine.closeOutbound();
+                progressHandshake();
+            }
+        }
+        catch (final IOException ignore)
+        {
+            // Deliberately blank, the connection is being torn down
+        }
+        finally
+        {
+            closed = true;
+            hasBufferedInput = false;
+            super.close();
+
+            bufferPool.release(networkInBuffer);
+            bufferPool.release(networkOutBuffer);
+            bufferPool.release(applicationInBuffer);
+            networkInBuffer = null;
+            networkOutBuffer = null;
+            applicationInBuffer = null;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.BitUtil;
+
+import java.io.File;
+import java.nio.ByteOrder;
+
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+
+/**
+ * Layout of the cold archive, see {@link uk.co.real_logic.artio.engine.EngineConfiguration#coldArchiveDir(String)}.
+ *
+ * Each recording has a blocks file and an index file. The blocks file is a sequence of deflate compressed blocks,
+ * each of which holds the fragments of a contiguous range of the recording's positions as records of:
+ *
+ * <pre>
+ *   position (long) | length (int) | flags (int) | fragment body (length bytes)
+ * </pre>
+ *
+ * Where position is the position of the start of the fragment's frame in the recording. The index file has a fixed
+ * length entry for every block, appended in position order after the block has been written, of:
+ *
+ * <pre>
+ *   start position (long) | stop position (long) | file offset (long) | compressed length (int) |
+ *   uncompressed length (int)
+ * </pre>
+ */
+public final class ColdArchiveDescriptor
+{
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    static final int RECORD_POSITION_OFFSET = 0;
+    static final int RECORD_LENGTH_OFFSET = RECORD_POSITION_OFFSET + BitUtil.SIZE_OF_LONG;
+    static final int RECORD_FLAGS_OFFSET = RECORD_LENGTH_OFFSET + BitUtil.SIZE_OF_INT;
+    static final int RECORD_HEADER_LENGTH = RECORD_FLAGS_OFFSET + BitUtil.SIZE_OF_INT;
+
+    static final int ENTRY_START_POSITION_OFFSET = 0;
+    static final int ENTRY_STOP_POSITION_OFFSET = ENTRY_START_POSITION_OFFSET + BitUtil.SIZE_OF_LONG;
+    static final int ENTRY_FILE_OFFSET_OFFSET = ENTRY_STOP_POSITION_OFFSET + BitUtil.SIZE_OF_LONG;
+    static final int ENTRY_COMPRESSED_LENGTH_OFFSET = ENTRY_FILE_OFFSET_OFFSET + BitUtil.SIZE_OF_LONG;
+    static final int ENTRY_UNCOMPRESSED_LENGTH_OFFSET = ENTRY_COMPRESSED_LENGTH_OFFSET + BitUtil.SIZE_OF_INT;
+    public static final int ENTRY_LENGTH = ENTRY_UNCOMPRESSED_LENGTH_OFFSET + BitUtil.SIZE_OF_INT;
+
+    public static final int DEFAULT_BLOCK_LENGTH = 256 * 1024;
+
+    private ColdArchiveDescriptor()
+    {
+    }
+
+    static File blocksFile(final String coldArchiveDir, final long recordingId)
+    {
+        return new File(coldArchiveDir + File.separator + "cold-archive-" + recordingId + "-blocks");
+    }
+
+    static File indexFile(final String coldArchiveDir, final long recordingId)
+    {
+        return new File(coldArchiveDir + File.separator + "cold-archive-" + recordingId + "-index");
+    }
+
+    /**
+     * The recording position after a fragment, ie the position of the next fragment.
+     *
+     * @param position the position of the start of the fragment's frame.
+     * @param length the length of the fragment's body.
+     * @return the recording position after the fragment.
+     */
+    static long nextPosition(final long position, final int length)
+    {
+        return position + BitUtil.align(HEADER_LENGTH + length, FRAME_ALIGNMENT);
+    }
+}
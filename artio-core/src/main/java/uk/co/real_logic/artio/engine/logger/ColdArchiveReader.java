@@ -0,0 +1,343 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import io.aeron.logbuffer.Header;
+import io.aeron.protocol.DataHeaderFlyweight;
+import org.agrona.LangUtil;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.dictionary.generation.Exceptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.BREAK;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static uk.co.real_logic.artio.engine.logger.ColdArchiveDescriptor.*;
+
+/**
+ * Reads the fragments of recordings that have been moved to the cold archive, see {@link ColdArchiveDescriptor}.
+ * Fragments are handed to handlers with a {@link Header} that has the flags and position that they had in the
+ * recording, so they can be reassembled in the same way as fragments that are replayed from the Aeron Archive.
+ *
+ * Index files are re-read as they grow, so a reader can be used whilst the cold archive is written to. Not
+ * thread-safe.
+ */
+public class ColdArchiveReader implements AutoCloseable
+{
+    private static final int POSITION_BITS_TO_SHIFT = 30;
+    private static final long TERM_OFFSET_MASK = (1L << POSITION_BITS_TO_SHIFT) - 1;
+
+    private final Long2ObjectHashMap<RecordingIndex> recordingIdToIndex = new Long2ObjectHashMap<>();
+    private final UnsafeBuffer entry = new UnsafeBuffer(new byte[ENTRY_LENGTH]);
+    private final UnsafeBuffer block = new UnsafeBuffer(new byte[0]);
+    private final DataHeaderFlyweight dataHeader = new DataHeaderFlyweight(new UnsafeBuffer(new byte[HEADER_LENGTH]));
+    private final Header header = new Header(0, POSITION_BITS_TO_SHIFT);
+    private final Inflater inflater = new Inflater();
+    private final String coldArchiveDir;
+
+    private byte[] compressed = new byte[0];
+    private byte[] uncompressed = new byte[0];
+    private RecordingIndex blockRecording;
+    private int blockIndex;
+    private int blockLength;
+
+    public ColdArchiveReader(final String coldArchiveDir)
+    {
+        this.coldArchiveDir = coldArchiveDir;
+        header.buffer(dataHeader);
+        header.offset(0);
+        dataHeader.headerType(DataHeaderFlyweight.HDR_TYPE_DATA);
+    }
+
+    /**
+     * Gets the position of the first fragment of a recording that's in the cold archive.
+     *
+     * @param recordingId the id of the recording.
+     * @return the position of the first fragment of the recording that's in the cold archive, or
+     * {@link io.aeron.archive.client.AeronArchive#NULL_POSITION} if none of the recording is.
+     */
+    public long startPosition(final long recordingId)
+    {
+        final RecordingIndex index = refreshedIndex(recordingId);
+        return index.count == 0 ? NULL_POSITION : index.startPositions[0];
+    }
+
+    /**
+     * Gets the position after the last fragment of a recording that's in the cold archive.
+     *
+     * @param recordingId the id of the recording.
+     * @return the position after the last fragment of the recording that's in the cold archive, or
+     * {@link io.aeron.archive.client.AeronArchive#NULL_POSITION} if none of the recording is.
+     */
+    public long stopPosition(final long recordingId)
+    {
+        final RecordingIndex index = refreshedIndex(recordingId);
+        return index.count == 0 ? NULL_POSITION : index.stopPositions[index.count - 1];
+    }
+
+    /**
+     * Read the fragments of a recording whose frames start in the range <code>[fromPosition, toPosition)</code>
+     * until the handler aborts or breaks, or the fragment limit is reached.
+     *
+     * @param recordingId the id of the recording.
+     * @param fromPosition the position to read from, inclusive.
+     * @param toPosition the position to read to, exclusive.
+     * @param handler the handler for the fragments.
+     * @param fragmentLimit the maximum number of fragments to read.
+     * @return the position to continue reading from, which is at least <code>toPosition</code> when the range has
+     * been read or when the rest of the range isn't in the cold archive.
+     */
+    public long read(
+        final long recordingId,
+        final long fromPosition,
+        final long toPosition,
+        final ControlledFragmentHandler handler,
+        final int fragmentLimit)
+    {
+        final RecordingIndex index = recordingIdToIndex.computeIfAbsent(recordingId, RecordingIndex::new);
+        final DataHeaderFlyweight dataHeader = this.dataHeader;
+        final UnsafeBuffer block = this.block;
+
+        long position = fromPosition;
+        int fragments = 0;
+        int blockIndex = index.blockContaining(position);
+        if (blockIndex == index.count)
+        {
+            index.refresh();
+            blockIndex = index.blockContaining(position);
+        }
+
+        for (; blockIndex < index.count; blockIndex++)
+        {
+            loadBlock(index, blockIndex);
+
+            final int blockLength = this.blockLength;
+            int offset = 0;
+            while (offset < blockLength)
+            {
+                final long recordPosition = block.getLong(offset + RECORD_POSITION_OFFSET, BYTE_ORDER);
+                final int length = block.getInt(offset + RECORD_LENGTH_OFFSET, BYTE_ORDER);
+                final int bodyOffset = offset + RECORD_HEADER_LENGTH;
+                if (recordPosition >= toPosition)
+                {
+                    return toPosition;
+                }
+
+                if (recordPosition >= position)
+                {
+                    if (fragments >= fragmentLimit)
+                    {
+                        return recordPosition;
+                    }
+
+                    dataHeader.frameLength(HEADER_LENGTH + length);
+                    dataHeader.flags((short)block.getInt(offset + RECORD_FLAGS_OFFSET, BYTE_ORDER));
+                    dataHeader.termId((int)(recordPosition >>> POSITION_BITS_TO_SHIFT));
+                    dataHeader.termOffset((int)(recordPosition & TERM_OFFSET_MASK));
+                    dataHeader.sessionId((int)recordingId);
+
+                    final Action action = handler.onFragment(block, bodyOffset, length, header);
+                    if (action == ABORT)
+                    {
+                        return recordPosition;
+                    }
+
+                    fragments++;
+                    position = nextPosition(recordPosition, length);
+                    if (action == BREAK)
+                    {
+                        return position;
+                    }
+                }
+
+                offset = bodyOffset + length;
+            }
+
+            position = Math.max(position, index.stopPositions[blockIndex]);
+            if (position >= toPosition)
+            {
+                return position;
+            }
+        }
+
+        // The rest of the range isn't in the cold archive
+        return Math.max(position, toPosition);
+    }
+
+    private RecordingIndex refreshedIndex(final long recordingId)
+    {
+        final RecordingIndex index = recordingIdToIndex.computeIfAbsent(recordingId, RecordingIndex::new);
+        index.refresh();
+        return index;
+    }
+
+    private void loadBlock(final RecordingIndex index, final int blockIndex)
+    {
+        if (blockRecording == index && this.blockIndex == blockIndex)
+        {
+            return;
+        }
+
+        final int compressedLength = index.compressedLengths[blockIndex];
+        final int uncompressedLength = index.uncompressedLengths[blockIndex];
+        if (compressed.length < compressedLength)
+        {
+            compressed = new byte[compressedLength];
+        }
+        if (uncompressed.length < uncompressedLength)
+        {
+            uncompressed = new byte[uncompressedLength];
+            block.wrap(uncompressed);
+        }
+
+        try
+        {
+            final RandomAccessFile blocksFile = index.blocksFile();
+            blocksFile.seek(index.fileOffsets[blockIndex]);
+            blocksFile.readFully(compressed, 0, compressedLength);
+
+            final Inflater inflater = this.inflater;
+            inflater.reset();
+            inflater.setInput(compressed, 0, compressedLength);
+            final int inflatedLength = inflater.inflate(uncompressed, 0, uncompressedLength);
+            if (inflatedLength != uncompressedLength || !inflater.finished())
+            {
+                throw new IllegalStateException(
+                    "Corrupt cold archive block " + blockIndex + " of recording " + index.recordingId);
+            }
+        }
+        catch (final IOException | DataFormatException e)
+        {
+            blockRecording = null;
+            LangUtil.rethrowUnchecked(e);
+        }
+
+        blockRecording = index;
+        this.blockIndex = blockIndex;
+        blockLength = uncompressedLength;
+    }
+
+    public void close()
+    {
+        inflater.end();
+        recordingIdToIndex.values().forEach(RecordingIndex::close);
+        recordingIdToIndex.clear();
+    }
+
+    final class RecordingIndex
+    {
+        private final long recordingId;
+        private final File indexFile;
+
+        private long[] startPositions = new long[0];
+        private long[] stopPositions = new long[0];
+        private long[] fileOffsets = new long[0];
+        private int[] compressedLengths = new int[0];
+        private int[] uncompressedLengths = new int[0];
+        private int count;
+        private RandomAccessFile blocksFile;
+
+        RecordingIndex(final long recordingId)
+        {
+            this.recordingId = recordingId;
+            indexFile = ColdArchiveDescriptor.indexFile(coldArchiveDir, recordingId);
+        }
+
+        void refresh()
+        {
+            final int entries = (int)(indexFile.length() / ENTRY_LENGTH);
+            if (entries <= count)
+            {
+                return;
+            }
+
+            if (entries > startPositions.length)
+            {
+                final int capacity = Math.max(entries, startPositions.length * 2);
+                startPositions = Arrays.copyOf(startPositions, capacity);
+                stopPositions = Arrays.copyOf(stopPositions, capacity);
+                fileOffsets = Arrays.copyOf(fileOffsets, capacity);
+                compressedLengths = Arrays.copyOf(compressedLengths, capacity);
+                uncompressedLengths = Arrays.copyOf(uncompressedLengths, capacity);
+            }
+
+            final UnsafeBuffer entry = ColdArchiveReader.this.entry;
+            try (RandomAccessFile file = new RandomAccessFile(indexFile, "r"))
+            {
+                file.seek((long)count * ENTRY_LENGTH);
+                for (int i = count; i < entries; i++)
+                {
+                    file.readFully(entry.byteArray(), 0, ENTRY_LENGTH);
+                    startPositions[i] = entry.getLong(ENTRY_START_POSITION_OFFSET, BYTE_ORDER);
+                    stopPositions[i] = entry.getLong(ENTRY_STOP_POSITION_OFFSET, BYTE_ORDER);
+                    fileOffsets[i] = entry.getLong(ENTRY_FILE_OFFSET_OFFSET, BYTE_ORDER);
+                    compressedLengths[i] = entry.getInt(ENTRY_COMPRESSED_LENGTH_OFFSET, BYTE_ORDER);
+                    uncompressedLengths[i] = entry.getInt(ENTRY_UNCOMPRESSED_LENGTH_OFFSET, BYTE_ORDER);
+                }
+                count = entries;
+            }
+            catch (final IOException e)
+            {
+                LangUtil.rethrowUnchecked(e);
+            }
+        }
+
+        // The index of the first block that ends after the position, or count if there isn't one
+        int blockContaining(final long position)
+        {
+            final long[] stopPositions = this.stopPositions;
+            int low = 0;
+            int high = count;
+            while (low < high)
+            {
+                final int mid = (low + high) >>> 1;
+                if (stopPositions[mid] <= position)
+                {
+                    low = mid + 1;
+                }
+                else
+                {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        RandomAccessFile blocksFile() throws IOException
+        {
+            if (blocksFile == null)
+            {
+                blocksFile = new RandomAccessFile(ColdArchiveDescriptor.blocksFile(coldArchiveDir, recordingId), "r");
+            }
+            return blocksFile;
+        }
+
+        void close()
+        {
+            Exceptions.closeAll(blocksFile);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.dictionary.generation.Exceptions;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
+import static uk.co.real_logic.artio.engine.logger.ColdArchiveDescriptor.*;
+
+/**
+ * Appends the fragments of a recording to its cold archive files, see {@link ColdArchiveDescriptor}. A block and its
+ * index entry are only written once the block is full or the writer is flushed, blocks are synced to disk before
+ * their index entry is written so that readers never see an entry for a block that isn't there.
+ */
+class ColdArchiveWriter implements AutoCloseable
+{
+    private final UnsafeBuffer entry = new UnsafeBuffer(new byte[ENTRY_LENGTH]);
+    private final ExpandableArrayBuffer block;
+    private final Deflater deflater;
+    private final RandomAccessFile blocksFile;
+    private final RandomAccessFile indexFile;
+    private final int blockLength;
+
+    private byte[] compressed;
+    private int blockOffset;
+    private long blockStartPosition;
+    private long blockStopPosition;
+    private long stopPosition;
+    private long uncompressedBytes;
+    private long compressedBytes;
+
+    ColdArchiveWriter(
+        final String coldArchiveDir,
+        final long recordingId,
+        final int blockLength,
+        final int compressionLevel) throws IOException
+    {
+        this.blockLength = blockLength;
+        block = new ExpandableArrayBuffer(blockLength);
+        compressed = new byte[blockLength];
+        deflater = new Deflater(compressionLevel);
+
+        blocksFile = new RandomAccessFile(blocksFile(coldArchiveDir, recordingId), "rw");
+        indexFile = new RandomAccessFile(indexFile(coldArchiveDir, recordingId), "rw");
+        try
+        {
+            truncateIncompleteWrites();
+        }
+        catch (final IOException e)
+        {
+            close();
+            throw e;
+        }
+    }
+
+    // A previous writer may have stopped part way through writing a block or an index entry.
+    private void truncateIncompleteWrites() throws IOException
+    {
+        final long entries = indexFile.length() / ENTRY_LENGTH;
+        long blocksLength = 0;
+        stopPosition = NULL_POSITION;
+        if (entries > 0)
+        {
+            indexFile.seek((entries - 1) * ENTRY_LENGTH);
+            indexFile.readFully(entry.byteArray(), 0, ENTRY_LENGTH);
+            blocksLength = entry.getLong(ENTRY_FILE_OFFSET_OFFSET, BYTE_ORDER) +
+                entry.getInt(ENTRY_COMPRESSED_LENGTH_OFFSET, BYTE_ORDER);
+            stopPosition = entry.getLong(ENTRY_STOP_POSITION_OFFSET, BYTE_ORDER);
+        }
+
+        indexFile.setLength(entries * ENTRY_LENGTH);
+        indexFile.seek(entries * ENTRY_LENGTH);
+        blocksFile.setLength(blocksLength);
+        blocksFile.seek(blocksLength);
+    }
+
+    /**
+     * Append a fragment of the recording, fragments must be appended in position order.
+     *
+     * @param position the position of the start of the fragment's frame in the recording.
+     * @param flags the flags of the fragment's frame.
+     * @param buffer the buffer containing the fragment's body.
+     * @param offset the offset of the fragment's body within the buffer.
+     * @param length the length of the fragment's body.
+     * @throws IOException if writing a completed block fails.
+     */
+    void append(
+        final long position, final byte flags, final DirectBuffer buffer, final int offset, final int length)
+        throws IOException
+    {
+        final ExpandableArrayBuffer block = this.block;
+        int blockOffset = this.blockOffset;
+        if (blockOffset == 0)
+        {
+            blockStartPosition = position;
+        }
+
+        block.putLong(blockOffset + RECORD_POSITION_OFFSET, position, BYTE_ORDER);
+        block.putInt(blockOffset + RECORD_LENGTH_OFFSET, length, BYTE_ORDER);
+        block.putInt(blockOffset + RECORD_FLAGS_OFFSET, flags & 0xFF, BYTE_ORDER);
+        blockOffset += RECORD_HEADER_LENGTH;
+        block.putBytes(blockOffset, buffer, offset, length);
+        blockOffset += length;
+
+        this.blockOffset = blockOffset;
+        blockStopPosition = nextPosition(position, length);
+
+        if (blockOffset >= blockLength)
+        {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Write any partially filled block and sync the index to disk.
+     *
+     * @throws IOException if the write fails.
+     */
+    void flush() throws IOException
+    {
+        writeBlock();
+        indexFile.getFD().sync();
+    }
+
+    /**
+     * Gets the position up to which fragments have been written to disk.
+     *
+     * @return the position up to which fragments have been written to disk, or
+     * {@link io.aeron.archive.client.AeronArchive#NULL_POSITION} if the cold archive of the recording is empty.
+     */
+    long stopPosition()
+    {
+        return stopPosition;
+    }
+
+    long uncompressedBytes()
+    {
+        return uncompressedBytes;
+    }
+
+    long compressedBytes()
+    {
+        return compressedBytes;
+    }
+
+    private void writeBlock() throws IOException
+    {
+        final int uncompressedLength = blockOffset;
+        if (uncompressedLength == 0)
+        {
+            return;
+        }
+
+        final Deflater deflater = this.deflater;
+        deflater.reset();
+        deflater.setInput(block.byteArray(), 0, uncompressedLength);
+        deflater.finish();
+
+        int compressedLength = 0;
+        while (!deflater.finished())
+        {
+            if (compressedLength == compressed.length)
+            {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+
+        final long fileOffset = blocksFile.getFilePointer();
+        blocksFile.write(compressed, 0, compressedLength);
+        blocksFile.getFD().sync();
+
+        final UnsafeBuffer entry = this.entry;
+        entry.putLong(ENTRY_START_POSITION_OFFSET, blockStartPosition, BYTE_ORDER);
+        entry.putLong(ENTRY_STOP_POSITION_OFFSET, blockStopPosition, BYTE_ORDER);
+        entry.putLong(ENTRY_FILE_OFFSET_OFFSET, fileOffset, BYTE_ORDER);
+        entry.putInt(ENTRY_COMPRESSED_LENGTH_OFFSET, compressedLength, BYTE_ORDER);
+        entry.putInt(ENTRY_UNCOMPRESSED_LENGTH_OFFSET, uncompressedLength, BYTE_ORDER);
+        indexFile.write(entry.byteArray(), 0, ENTRY_LENGTH);
+
+        blockOffset = 0;
+        stopPosition = blockStopPosition;
+        uncompressedBytes += uncompressedLength;
+        compressedBytes += compressedLength;
+    }
+
+    public void close()
+    {
+        deflater.end();
+        Exceptions.closeAll(blocksFile, indexFile);
+    }
+}
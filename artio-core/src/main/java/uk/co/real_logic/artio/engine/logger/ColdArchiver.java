@@ -0,0 +1,381 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.Image;
+import io.aeron.Subscription;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.archive.client.ArchiveException;
+import io.aeron.archive.client.RecordingDescriptorConsumer;
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.LangUtil;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.EpochNanoClock;
+import uk.co.real_logic.artio.DebugLogger;
+import uk.co.real_logic.artio.dictionary.generation.Exceptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+import static io.aeron.Aeron.NULL_VALUE;
+import static io.aeron.CommonContext.IPC_CHANNEL;
+import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
+import static io.aeron.archive.client.AeronArchive.segmentFileBasePosition;
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static uk.co.real_logic.artio.LogTag.STATE_CLEANUP;
+
+/**
+ * Moves the oldest segments of the engine's recordings out of the Aeron Archive and into the cold archive, see
+ * {@link uk.co.real_logic.artio.engine.EngineConfiguration#coldArchiveDir(String)}.
+ *
+ * Every check interval the recordings are listed and, for each recording whose whole segments are more than the
+ * retained length behind its recorded position, those segments are replayed into compressed blocks. Once their
+ * blocks have been synced to disk the segments are purged from the Aeron Archive in the same way as the
+ * {@link uk.co.real_logic.artio.engine.framer.PruneOperation}. Runs on its own thread with its own archive client, so
+ * that compressing and syncing blocks doesn't hold up the indexers or the replayer.
+ */
+public class ColdArchiver implements Agent, FragmentHandler, RecordingDescriptorConsumer
+{
+    private static final int FRAGMENT_LIMIT = 100;
+
+    private final List<Candidate> candidates = new ArrayList<>();
+    private final ArrayDeque<Candidate> pending = new ArrayDeque<>();
+    private final AeronArchive aeronArchive;
+    private final ErrorHandler errorHandler;
+    private final EpochNanoClock clock;
+    private final String channel;
+    private final int[] streamIds;
+    private final int archiveReplayStream;
+    private final String coldArchiveDir;
+    private final long retainedLength;
+    private final long checkIntervalInNs;
+    private final ColdArchiveReader reader;
+    private final String agentNamePrefix;
+
+    private long nextCheckTimeInNs;
+    private Subscription replaySubscription;
+    private Candidate current;
+    private ColdArchiveWriter writer;
+    private long replaySessionId = NULL_VALUE;
+    private Image image;
+
+    public ColdArchiver(
+        final AeronArchive aeronArchive,
+        final ErrorHandler errorHandler,
+        final EpochNanoClock clock,
+        final String channel,
+        final int[] streamIds,
+        final int archiveReplayStream,
+        final String coldArchiveDir,
+        final long retainedLength,
+        final long checkIntervalInMs,
+        final String agentNamePrefix)
+    {
+        this.aeronArchive = aeronArchive;
+        this.errorHandler = errorHandler;
+        this.clock = clock;
+        this.channel = channel;
+        this.streamIds = streamIds;
+        this.archiveReplayStream = archiveReplayStream;
+        this.coldArchiveDir = coldArchiveDir;
+        this.retainedLength = retainedLength;
+        this.checkIntervalInNs = TimeUnit.MILLISECONDS.toNanos(checkIntervalInMs);
+        this.agentNamePrefix = agentNamePrefix;
+
+        final File dir = new File(coldArchiveDir);
+        if (!dir.exists() && !dir.mkdirs())
+        {
+            throw new IllegalStateException("Unable to create cold archive dir: " + coldArchiveDir);
+        }
+        reader = new ColdArchiveReader(coldArchiveDir);
+    }
+
+    public int doWork()
+    {
+        if (image != null)
+        {
+            return pollImage();
+        }
+
+        if (current != null)
+        {
+            return acquireImage();
+        }
+
+        final Candidate next = pending.poll();
+        if (next != null)
+        {
+            startArchiving(next);
+            return 1;
+        }
+
+        final long timeInNs = clock.nanoTime();
+        if (timeInNs >= nextCheckTimeInNs)
+        {
+            nextCheckTimeInNs = timeInNs + checkIntervalInNs;
+            findCandidates();
+            return 1;
+        }
+
+        return 0;
+    }
+
+    private void findCandidates()
+    {
+        try
+        {
+            for (final int streamId : streamIds)
+            {
+                aeronArchive.listRecordingsForUri(0, Integer.MAX_VALUE, channel, streamId, this);
+            }
+
+            for (final Candidate candidate : candidates)
+            {
+                if (candidate.plan())
+                {
+                    pending.add(candidate);
+                }
+            }
+        }
+        catch (final Throwable e)
+        {
+            errorHandler.onError(e);
+        }
+        finally
+        {
+            candidates.clear();
+        }
+    }
+
+    public void onRecordingDescriptor(
+        final long controlSessionId, final long correlationId, final long recordingId, final long startTimestamp,
+        final long stopTimestamp, final long startPosition, final long stopPosition, final int initialTermId,
+        final int segmentFileLength, final int termBufferLength, final int mtuLength, final int sessionId,
+        final int streamId, final String strippedChannel, final String originalChannel, final String sourceIdentity)
+    {
+        // Can't make other archive requests whilst listing, so the positions are planned afterwards.
+        candidates.add(new Candidate(recordingId, startPosition, stopPosition, segmentFileLength, termBufferLength));
+    }
+
+    private void startArchiving(final Candidate candidate)
+    {
+        if (candidate.fromPosition >= candidate.toPosition)
+        {
+            // Already in the cold archive, but the segments weren't purged.
+            purge(candidate);
+            return;
+        }
+
+        try
+        {
+            if (replaySubscription == null)
+            {
+                replaySubscription = aeronArchive.context().aeron().addSubscription(
+                    IPC_CHANNEL, archiveReplayStream);
+            }
+
+            writer = new ColdArchiveWriter(
+                coldArchiveDir,
+                candidate.recordingId,
+                ColdArchiveDescriptor.DEFAULT_BLOCK_LENGTH,
+                Deflater.DEFAULT_COMPRESSION);
+            replaySessionId = aeronArchive.startReplay(
+                candidate.recordingId,
+                candidate.fromPosition,
+                candidate.toPosition - candidate.fromPosition,
+                IPC_CHANNEL,
+                archiveReplayStream);
+            current = candidate;
+        }
+        catch (final Throwable e)
+        {
+            errorHandler.onError(e);
+            complete();
+        }
+    }
+
+    private int acquireImage()
+    {
+        image = replaySubscription.imageBySessionId((int)replaySessionId);
+        return image == null ? 0 : 1;
+    }
+
+    private int pollImage()
+    {
+        final Image image = this.image;
+        final Candidate current = this.current;
+        try
+        {
+            final int fragments = image.poll(this, FRAGMENT_LIMIT);
+            if (image.position() >= current.toPosition)
+            {
+                writer.flush();
+                purge(current);
+                complete();
+                return fragments + 1;
+            }
+
+            if (image.isClosed() || image.isEndOfStream())
+            {
+                // Blocks that have been written remain valid, the next check continues from them.
+                writer.flush();
+                throw new IllegalStateException("Replay of recording " + current.recordingId +
+                    " ended at " + image.position() + " before " + current.toPosition);
+            }
+
+            return fragments;
+        }
+        catch (final Throwable e)
+        {
+            errorHandler.onError(e);
+            stopReplay();
+            complete();
+            return 1;
+        }
+    }
+
+    public void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+    {
+        final long position = header.position() - BitUtil.align(header.frameLength(), FRAME_ALIGNMENT);
+        try
+        {
+            writer.append(position, header.flags(), buffer, offset, length);
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
+    private void purge(final Candidate candidate)
+    {
+        DebugLogger.log(STATE_CLEANUP, "ColdArchiver: purging recordingId=%s,newStartPosition=%s",
+            candidate.recordingId, candidate.toPosition);
+
+        try
+        {
+            aeronArchive.purgeSegments(candidate.recordingId, candidate.toPosition);
+        }
+        catch (final Throwable e)
+        {
+            errorHandler.onError(e);
+        }
+    }
+
+    private void stopReplay()
+    {
+        if (replaySessionId != NULL_VALUE)
+        {
+            try
+            {
+                aeronArchive.stopReplay(replaySessionId);
+            }
+            catch (final ArchiveException e)
+            {
+                // The replay session may have already ended.
+                if (e.errorCode() != ArchiveException.UNKNOWN_REPLAY)
+                {
+                    errorHandler.onError(e);
+                }
+            }
+        }
+    }
+
+    private void complete()
+    {
+        Exceptions.closeAll(writer);
+        writer = null;
+        image = null;
+        current = null;
+        replaySessionId = NULL_VALUE;
+    }
+
+    public void onClose()
+    {
+        stopReplay();
+        complete();
+        Exceptions.closeAll(reader, replaySubscription);
+    }
+
+    public String roleName()
+    {
+        return agentNamePrefix + "ColdArchiver";
+    }
+
+    final class Candidate
+    {
+        private final long recordingId;
+        private final long startPosition;
+        private final long stopPosition;
+        private final int segmentFileLength;
+        private final int termBufferLength;
+
+        private long fromPosition;
+        private long toPosition;
+
+        Candidate(
+            final long recordingId,
+            final long startPosition,
+            final long stopPosition,
+            final int segmentFileLength,
+            final int termBufferLength)
+        {
+            this.recordingId = recordingId;
+            this.startPosition = startPosition;
+            this.stopPosition = stopPosition;
+            this.segmentFileLength = segmentFileLength;
+            this.termBufferLength = termBufferLength;
+        }
+
+        // Decides the range of whole segments that can be moved, if there are any.
+        boolean plan()
+        {
+            long recordedPosition = stopPosition;
+            if (recordedPosition == NULL_POSITION)
+            {
+                recordedPosition = aeronArchive.getRecordingPosition(recordingId);
+            }
+
+            final long archiveBelowPosition = recordedPosition - retainedLength;
+            if (recordedPosition == NULL_POSITION || archiveBelowPosition <= startPosition)
+            {
+                return false;
+            }
+
+            toPosition = segmentFileBasePosition(
+                startPosition, archiveBelowPosition, termBufferLength, segmentFileLength);
+            final long lowerBoundPosition = segmentFileBasePosition(
+                startPosition, startPosition, termBufferLength, segmentFileLength) + segmentFileLength;
+            // Don't move anything if you're < a segment away from the start of the stream.
+            if (toPosition < lowerBoundPosition)
+            {
+                return false;
+            }
+
+            fromPosition = Math.max(startPosition, reader.stopPosition(recordingId));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,503 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.BitUtil;
+import org.agrona.IoUtil;
+import org.agrona.collections.IntArrayList;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.collections.LongArrayList;
+import org.agrona.collections.LongHashSet;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.HEADER_FILE_SIZE;
+
+/**
+ * Packs the replay index rings of many sessions into a few large memory-mapped files rather than a header file and
+ * several segment files per session.
+ *
+ * The directory is a series of chunk files, see {@link ReplayIndexDescriptor#replayIndexDirectoryFile}, each holding
+ * {@link #DIRECTORY_CHUNK_ENTRIES} fixed length entries. An entry holds a session's header, laid out exactly as the
+ * header file of the {@link FileReplayIndexStore}, so the beginChange / endChange protocol between the writer and
+ * readers is unchanged. After the header the entry holds the session id, whether the entry is in use, a generation
+ * and the extent that holds each segment of the session's ring. Each chunk ends with a counter that's incremented
+ * whenever one of its entries is allocated or freed, so readers only rescan the chunks that have changed when they look
+ * up a session that they haven't seen.
+ *
+ * Extents are segment sized regions of the store files, see {@link ReplayIndexDescriptor#replayIndexStoreFile}.
+ * They are allocated lazily, in the same way that segment files are created lazily, so a session that has only sent
+ * a few messages only uses a single extent. Extents and entries of deleted sessions are zeroed and reused. New files
+ * are created sparse and neither directory chunks nor store files are ever remapped, so readers can safely hold views
+ * onto them. Since those views can end up onto another session's storage, deleting a session first increments its
+ * entry's generation, see {@link #generation(UnsafeBuffer)}, which readers check after reading records.
+ *
+ * The allocator state isn't persisted, the writer rebuilds it by scanning the directory on first use.
+ */
+public class ConsolidatedReplayIndexStore implements ReplayIndexStore
+{
+    public static final int DIRECTORY_CHUNK_ENTRIES = 1024;
+
+    private static final int SESSION_ID_OFFSET = BitUtil.align(HEADER_FILE_SIZE, BitUtil.SIZE_OF_LONG);
+    private static final int STATE_OFFSET = SESSION_ID_OFFSET + BitUtil.SIZE_OF_LONG;
+    private static final int GENERATION_OFFSET = STATE_OFFSET + BitUtil.SIZE_OF_LONG;
+    private static final int EXTENTS_OFFSET = GENERATION_OFFSET + BitUtil.SIZE_OF_LONG;
+
+    private static final int FREE = 0;
+    private static final int IN_USE = 1;
+
+    // Extent ids are stored + 1 so that a zeroed entry has no extents
+    private static final int NO_EXTENT = 0;
+    private static final int NO_ENTRY = -1;
+
+    private final String logFileDir;
+    private final int streamId;
+    private final int segmentSize;
+    private final int segmentCount;
+    private final int entryLength;
+    private final int chunkChangeCounterOffset;
+    private final int directoryChunkSize;
+    private final int extentsPerStoreFile;
+
+    private final List<UnsafeBuffer> directoryChunks = new ArrayList<>();
+    private final List<UnsafeBuffer> storeFiles = new ArrayList<>();
+    private final Long2LongHashMap sessionIdToEntry = new Long2LongHashMap(NO_ENTRY);
+
+    // Reader state, the session that each entry held and the change counter of each chunk when they were last scanned.
+    private final LongArrayList scannedChunkChangeCounters = new LongArrayList();
+    private final BitSet scannedEntries = new BitSet();
+    private long[] scannedEntrySessionIds = new long[DIRECTORY_CHUNK_ENTRIES];
+
+    // Allocator state, only used by the writer.
+    private final IntArrayList freeEntries = new IntArrayList();
+    private final IntArrayList freeExtents = new IntArrayList();
+    private boolean allocatorInitialised;
+
+    public ConsolidatedReplayIndexStore(
+        final String logFileDir,
+        final int streamId,
+        final int indexFileCapacity,
+        final int indexSegmentCapacity,
+        final int storeFileSize)
+    {
+        this.logFileDir = logFileDir;
+        this.streamId = streamId;
+        this.segmentSize = ReplayIndexDescriptor.capacityToBytesInt(indexSegmentCapacity);
+        this.segmentCount = ReplayIndexDescriptor.segmentCount(indexFileCapacity, indexSegmentCapacity);
+        this.entryLength = BitUtil.align(
+            EXTENTS_OFFSET + segmentCount * BitUtil.SIZE_OF_INT, BitUtil.CACHE_LINE_LENGTH);
+        this.chunkChangeCounterOffset = entryLength * DIRECTORY_CHUNK_ENTRIES;
+        this.directoryChunkSize = chunkChangeCounterOffset + BitUtil.CACHE_LINE_LENGTH;
+        this.extentsPerStoreFile = Math.max(1, storeFileSize / segmentSize);
+    }
+
+    public boolean exists(final long fixSessionId)
+    {
+        return findEntry(fixSessionId) != NO_ENTRY;
+    }
+
+    public UnsafeBuffer mapHeader(final long fixSessionId)
+    {
+        initialiseAllocator();
+
+        int entry = (int)sessionIdToEntry.get(fixSessionId);
+        if (entry == NO_ENTRY)
+        {
+            entry = allocateEntry();
+            final UnsafeBuffer chunk = directoryChunk(entry);
+            final int entryOffset = entryOffset(entry);
+            chunk.putLong(entryOffset + SESSION_ID_OFFSET, fixSessionId);
+            chunk.putIntOrdered(entryOffset + STATE_OFFSET, IN_USE);
+            incrementChangeCounter(chunk);
+            sessionIdToEntry.put(fixSessionId, entry);
+        }
+
+        return headerBuffer(entry);
+    }
+
+    public UnsafeBuffer mapSegment(final long fixSessionId, final int segmentIndex)
+    {
+        final int entry = (int)sessionIdToEntry.get(fixSessionId);
+        if (entry == NO_ENTRY)
+        {
+            throw new IllegalStateException("No replay index header for session " + fixSessionId);
+        }
+
+        final UnsafeBuffer chunk = directoryChunk(entry);
+        final int extentOffset = extentOffset(entry, segmentIndex);
+        int extentId = chunk.getInt(extentOffset);
+        if (extentId == NO_EXTENT)
+        {
+            extentId = allocateExtent() + 1;
+            chunk.putIntOrdered(extentOffset, extentId);
+        }
+
+        return extentBuffer(extentId - 1);
+    }
+
+    public UnsafeBuffer mapExistingHeader(final long fixSessionId)
+    {
+        final int entry = findEntry(fixSessionId);
+        if (entry == NO_ENTRY)
+        {
+            throw new IllegalStateException("No replay index for session " + fixSessionId + " in " +
+                ReplayIndexDescriptor.replayIndexDirectoryFile(logFileDir, streamId, 0));
+        }
+
+        return headerBuffer(entry);
+    }
+
+    public UnsafeBuffer mapExistingSegment(final long fixSessionId, final int segmentIndex)
+    {
+        final int entry = findEntry(fixSessionId);
+        if (entry == NO_ENTRY)
+        {
+            return null;
+        }
+
+        final int extentId = directoryChunk(entry).getIntVolatile(extentOffset(entry, segmentIndex));
+        if (extentId == NO_EXTENT)
+        {
+            return null;
+        }
+
+        return extentBuffer(extentId - 1);
+    }
+
+    public long generation(final UnsafeBuffer headerBuffer)
+    {
+        // Header buffers are views onto the whole entry up to its extents.
+        return headerBuffer.getLongVolatile(GENERATION_OFFSET);
+    }
+
+    public void unmap(final UnsafeBuffer headerBuffer, final UnsafeBuffer[] segmentBuffers)
+    {
+        // Deliberately blank: buffers are views onto files that stay mapped until the store is closed.
+    }
+
+    public void delete(final long fixSessionId)
+    {
+        initialiseAllocator();
+
+        final int entry = (int)sessionIdToEntry.remove(fixSessionId);
+        if (entry == NO_ENTRY)
+        {
+            return;
+        }
+
+        final UnsafeBuffer chunk = directoryChunk(entry);
+        final int entryOffset = entryOffset(entry);
+
+        // Invalidate the views that readers hold before anything is reused, the volatile write stops the subsequent
+        // writes from being reordered before it.
+        final int generationOffset = entryOffset + GENERATION_OFFSET;
+        chunk.putLongVolatile(generationOffset, chunk.getLong(generationOffset) + 1);
+
+        // Reset the header so that readers stop iterating before the extents are reused.
+        chunk.setMemory(entryOffset, HEADER_FILE_SIZE, (byte)0);
+
+        for (int segmentIndex = 0; segmentIndex < segmentCount; segmentIndex++)
+        {
+            final int extentOffset = extentOffset(entry, segmentIndex);
+            final int extentId = chunk.getInt(extentOffset);
+            if (extentId != NO_EXTENT)
+            {
+                // Free extents are always zeroed, so that a reused extent doesn't contain stale records.
+                final UnsafeBuffer extent = extentBuffer(extentId - 1);
+                extent.setMemory(0, extent.capacity(), (byte)0);
+                chunk.putIntOrdered(extentOffset, NO_EXTENT);
+                freeExtents.addInt(extentId - 1);
+            }
+        }
+
+        chunk.putLong(entryOffset + SESSION_ID_OFFSET, 0);
+        chunk.putIntOrdered(entryOffset + STATE_OFFSET, FREE);
+        incrementChangeCounter(chunk);
+        freeEntries.addInt(entry);
+    }
+
+    public LongHashSet sessionIds()
+    {
+        if (!allocatorInitialised)
+        {
+            refreshDirectory();
+        }
+
+        final LongHashSet sessionIds = new LongHashSet();
+        final Long2LongHashMap.KeyIterator it = sessionIdToEntry.keySet().iterator();
+        while (it.hasNext())
+        {
+            sessionIds.add(it.nextValue());
+        }
+        return sessionIds;
+    }
+
+    public void close()
+    {
+        directoryChunks.forEach(chunk -> IoUtil.unmap(chunk.byteBuffer()));
+        directoryChunks.clear();
+        storeFiles.forEach(storeFile -> IoUtil.unmap(storeFile.byteBuffer()));
+        storeFiles.clear();
+        sessionIdToEntry.clear();
+        scannedChunkChangeCounters.clear();
+        scannedEntries.clear();
+    }
+
+    private int findEntry(final long fixSessionId)
+    {
+        if (allocatorInitialised)
+        {
+            return (int)sessionIdToEntry.get(fixSessionId);
+        }
+
+        // The writer may have reused the entry for another session since it was cached.
+        final int entry = (int)sessionIdToEntry.get(fixSessionId);
+        if (entry != NO_ENTRY && isEntryFor(entry, fixSessionId))
+        {
+            return entry;
+        }
+
+        refreshDirectory();
+        return (int)sessionIdToEntry.get(fixSessionId);
+    }
+
+    private boolean isEntryFor(final int entry, final long fixSessionId)
+    {
+        final UnsafeBuffer chunk = directoryChunk(entry);
+        final int entryOffset = entryOffset(entry);
+        return chunk.getIntVolatile(entryOffset + STATE_OFFSET) == IN_USE &&
+            chunk.getLong(entryOffset + SESSION_ID_OFFSET) == fixSessionId;
+    }
+
+    // Only rescans the chunks that are new or have changed since they were last scanned.
+    private void refreshDirectory()
+    {
+        mapExistingDirectoryChunks();
+
+        final LongArrayList scannedChunkChangeCounters = this.scannedChunkChangeCounters;
+        final int chunkCount = directoryChunks.size();
+        for (int chunkIndex = 0; chunkIndex < chunkCount; chunkIndex++)
+        {
+            final long changeCounter = directoryChunks.get(chunkIndex).getLongVolatile(chunkChangeCounterOffset);
+            if (chunkIndex >= scannedChunkChangeCounters.size())
+            {
+                scannedChunkChangeCounters.addLong(changeCounter);
+                scanChunk(chunkIndex);
+            }
+            else if (scannedChunkChangeCounters.getLong(chunkIndex) != changeCounter)
+            {
+                scannedChunkChangeCounters.setLong(chunkIndex, changeCounter);
+                scanChunk(chunkIndex);
+            }
+        }
+    }
+
+    private void scanChunk(final int chunkIndex)
+    {
+        final UnsafeBuffer chunk = directoryChunks.get(chunkIndex);
+        final int firstEntry = chunkIndex * DIRECTORY_CHUNK_ENTRIES;
+        final int lastEntry = firstEntry + DIRECTORY_CHUNK_ENTRIES;
+        if (scannedEntrySessionIds.length < lastEntry)
+        {
+            scannedEntrySessionIds = Arrays.copyOf(scannedEntrySessionIds, lastEntry);
+        }
+
+        final long[] scannedEntrySessionIds = this.scannedEntrySessionIds;
+        for (int entry = firstEntry; entry < lastEntry; entry++)
+        {
+            if (scannedEntries.get(entry))
+            {
+                final long previousSessionId = scannedEntrySessionIds[entry];
+                if (sessionIdToEntry.get(previousSessionId) == entry)
+                {
+                    sessionIdToEntry.remove(previousSessionId);
+                }
+                scannedEntries.clear(entry);
+            }
+
+            final int entryOffset = entryOffset(entry);
+            if (chunk.getIntVolatile(entryOffset + STATE_OFFSET) == IN_USE)
+            {
+                final long sessionId = chunk.getLong(entryOffset + SESSION_ID_OFFSET);
+                sessionIdToEntry.put(sessionId, entry);
+                scannedEntrySessionIds[entry] = sessionId;
+                scannedEntries.set(entry);
+            }
+        }
+    }
+
+    private void incrementChangeCounter(final UnsafeBuffer chunk)
+    {
+        chunk.putLongOrdered(chunkChangeCounterOffset, chunk.getLong(chunkChangeCounterOffset) + 1);
+    }
+
+    private void initialiseAllocator()
+    {
+        if (allocatorInitialised)
+        {
+            return;
+        }
+
+        refreshDirectory();
+        mapExistingStoreFiles();
+
+        final BitSet usedExtents = new BitSet();
+        final int entryCount = directoryChunks.size() * DIRECTORY_CHUNK_ENTRIES;
+        for (int entry = entryCount - 1; entry >= 0; entry--)
+        {
+            final UnsafeBuffer chunk = directoryChunk(entry);
+            final int entryOffset = entryOffset(entry);
+            if (chunk.getInt(entryOffset + STATE_OFFSET) == IN_USE)
+            {
+                for (int segmentIndex = 0; segmentIndex < segmentCount; segmentIndex++)
+                {
+                    final int extentId = chunk.getInt(extentOffset(entry, segmentIndex));
+                    if (extentId != NO_EXTENT)
+                    {
+                        usedExtents.set(extentId - 1);
+                    }
+                }
+            }
+            else
+            {
+                freeEntries.addInt(entry);
+            }
+        }
+
+        for (int extent = storeFiles.size() * extentsPerStoreFile - 1; extent >= 0; extent--)
+        {
+            if (!usedExtents.get(extent))
+            {
+                freeExtents.addInt(extent);
+            }
+        }
+
+        allocatorInitialised = true;
+    }
+
+    private int allocateEntry()
+    {
+        if (freeEntries.isEmpty())
+        {
+            final int chunkIndex = directoryChunks.size();
+            final File file = ReplayIndexDescriptor.replayIndexDirectoryFile(logFileDir, streamId, chunkIndex);
+            directoryChunks.add(mapNewFile(file, directoryChunkSize));
+
+            final int firstEntry = chunkIndex * DIRECTORY_CHUNK_ENTRIES;
+            for (int entry = firstEntry + DIRECTORY_CHUNK_ENTRIES - 1; entry >= firstEntry; entry--)
+            {
+                freeEntries.addInt(entry);
+            }
+        }
+
+        return freeEntries.popInt();
+    }
+
+    private int allocateExtent()
+    {
+        if (freeExtents.isEmpty())
+        {
+            final int fileIndex = storeFiles.size();
+            final File file = ReplayIndexDescriptor.replayIndexStoreFile(logFileDir, streamId, fileIndex);
+            storeFiles.add(mapNewFile(file, storeFileSize()));
+
+            final int firstExtent = fileIndex * extentsPerStoreFile;
+            for (int extent = firstExtent + extentsPerStoreFile - 1; extent >= firstExtent; extent--)
+            {
+                freeExtents.addInt(extent);
+            }
+        }
+
+        return freeExtents.popInt();
+    }
+
+    private void mapExistingDirectoryChunks()
+    {
+        File file;
+        while (isComplete(
+            file = ReplayIndexDescriptor.replayIndexDirectoryFile(logFileDir, streamId, directoryChunks.size()),
+            directoryChunkSize))
+        {
+            directoryChunks.add(new UnsafeBuffer(LoggerUtil.mapExistingFile(file)));
+        }
+    }
+
+    private void mapExistingStoreFiles()
+    {
+        File file;
+        while (isComplete(
+            file = ReplayIndexDescriptor.replayIndexStoreFile(logFileDir, streamId, storeFiles.size()),
+            storeFileSize()))
+        {
+            storeFiles.add(new UnsafeBuffer(LoggerUtil.mapExistingFile(file)));
+        }
+    }
+
+    // A reader can observe a file that the writer is still sizing
+    private static boolean isComplete(final File file, final int size)
+    {
+        return file.length() == size;
+    }
+
+    private UnsafeBuffer mapNewFile(final File file, final int size)
+    {
+        IoUtil.ensureDirectoryExists(file.getParentFile(), file.getParent());
+        // Sparse, so untouched extents don't use any disk space or page cache
+        return new UnsafeBuffer(IoUtil.mapNewFile(file, size, false));
+    }
+
+    private UnsafeBuffer headerBuffer(final int entry)
+    {
+        return new UnsafeBuffer(directoryChunk(entry), entryOffset(entry), EXTENTS_OFFSET);
+    }
+
+    private UnsafeBuffer extentBuffer(final int extent)
+    {
+        final int fileIndex = extent / extentsPerStoreFile;
+        if (fileIndex >= storeFiles.size())
+        {
+            mapExistingStoreFiles();
+        }
+
+        final int offset = (extent % extentsPerStoreFile) * segmentSize;
+        return new UnsafeBuffer(storeFiles.get(fileIndex), offset, segmentSize);
+    }
+
+    private UnsafeBuffer directoryChunk(final int entry)
+    {
+        return directoryChunks.get(entry / DIRECTORY_CHUNK_ENTRIES);
+    }
+
+    private int entryOffset(final int entry)
+    {
+        return (entry % DIRECTORY_CHUNK_ENTRIES) * entryLength;
+    }
+
+    private int extentOffset(final int entry, final int segmentIndex)
+    {
+        return entryOffset(entry) + EXTENTS_OFFSET + segmentIndex * BitUtil.SIZE_OF_INT;
+    }
+
+    private int storeFileSize()
+    {
+        return extentsPerStoreFile * segmentSize;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.ErrorHandler;
+import org.agrona.collections.LongHashSet;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.io.IOException;
+
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.HEADER_FILE_SIZE;
+
+/**
+ * Stores each session's replay index in a header file and up to segment count segment files, see
+ * {@link ReplayIndexDescriptor#replayIndexHeaderFile(String, long, int)}.
+ */
+public class FileReplayIndexStore implements ReplayIndexStore
+{
+    private final String logFileDir;
+    private final File logFileDirFile;
+    private final int streamId;
+    private final int segmentSize;
+    private final int segmentCount;
+    private final BufferFactory bufferFactory;
+    private final ExistingBufferFactory existingBufferFactory;
+    private final ErrorHandler errorHandler;
+
+    public FileReplayIndexStore(
+        final String logFileDir,
+        final int streamId,
+        final int indexFileCapacity,
+        final int indexSegmentCapacity,
+        final BufferFactory bufferFactory,
+        final ExistingBufferFactory existingBufferFactory,
+        final ErrorHandler errorHandler)
+    {
+        this.logFileDir = logFileDir;
+        this.streamId = streamId;
+        this.segmentSize = ReplayIndexDescriptor.capacityToBytesInt(indexSegmentCapacity);
+        this.segmentCount = ReplayIndexDescriptor.segmentCount(indexFileCapacity, indexSegmentCapacity);
+        this.bufferFactory = bufferFactory;
+        this.existingBufferFactory = existingBufferFactory;
+        this.errorHandler = errorHandler;
+
+        logFileDirFile = new File(logFileDir);
+    }
+
+    public boolean exists(final long fixSessionId)
+    {
+        return headerFile(fixSessionId).exists();
+    }
+
+    public UnsafeBuffer mapHeader(final long fixSessionId)
+    {
+        return new UnsafeBuffer(bufferFactory.map(headerFile(fixSessionId), HEADER_FILE_SIZE));
+    }
+
+    public UnsafeBuffer mapSegment(final long fixSessionId, final int segmentIndex)
+    {
+        return new UnsafeBuffer(bufferFactory.map(segmentFile(fixSessionId, segmentIndex), segmentSize));
+    }
+
+    public UnsafeBuffer mapExistingHeader(final long fixSessionId)
+    {
+        return new UnsafeBuffer(existingBufferFactory.map(headerFile(fixSessionId)));
+    }
+
+    public UnsafeBuffer mapExistingSegment(final long fixSessionId, final int segmentIndex)
+    {
+        final File file = segmentFile(fixSessionId, segmentIndex);
+        if (!file.exists())
+        {
+            return null;
+        }
+
+        return new UnsafeBuffer(existingBufferFactory.map(file));
+    }
+
+    public long generation(final UnsafeBuffer headerBuffer)
+    {
+        // Deleted files are unlinked rather than reused, so the buffers that readers hold stay valid.
+        return 0;
+    }
+
+    public void unmap(final UnsafeBuffer headerBuffer, final UnsafeBuffer[] segmentBuffers)
+    {
+        ReplayIndexDescriptor.unmapBuffers(headerBuffer, segmentBuffers);
+    }
+
+    public void delete(final long fixSessionId)
+    {
+        final File headerFile = headerFile(fixSessionId);
+        if (headerFile.exists())
+        {
+            deleteFile(headerFile);
+        }
+
+        for (int segmentIndex = 0; segmentIndex < segmentCount; segmentIndex++)
+        {
+            final File segmentFile = segmentFile(fixSessionId, segmentIndex);
+            if (segmentFile.exists())
+            {
+                deleteFile(segmentFile);
+            }
+        }
+    }
+
+    public LongHashSet sessionIds()
+    {
+        return ReplayIndexDescriptor.listReplayIndexSessionIds(logFileDirFile, streamId);
+    }
+
+    public void close()
+    {
+    }
+
+    private void deleteFile(final File replayIndexFile)
+    {
+        if (!replayIndexFile.delete())
+        {
+            errorHandler.onError(new IOException("Unable to delete replay index file: " + replayIndexFile));
+        }
+    }
+
+    private File headerFile(final long fixSessionId)
+    {
+        return ReplayIndexDescriptor.replayIndexHeaderFile(logFileDir, fixSessionId, streamId);
+    }
+
+    private File segmentFile(final long fixSessionId, final int segmentIndex)
+    {
+        return ReplayIndexDescriptor.replayIndexSegmentFile(logFileDir, fixSessionId, streamId, segmentIndex);
+    }
+}
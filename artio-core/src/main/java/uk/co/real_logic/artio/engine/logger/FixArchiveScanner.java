@@ -17,10 +17,14 @@ package uk.co.real_logic.artio.engine.logger;
 
 import io.aeron.*;
 import io.aeron.archive.client.AeronArchive;
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
 import org.agrona.collections.IntHashSet;
 import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.concurrent.IdleStrategy;
 import uk.co.real_logic.artio.DebugLogger;
+import uk.co.real_logic.artio.dictionary.generation.Exceptions;
 import uk.co.real_logic.artio.engine.EngineConfiguration;
 import uk.co.real_logic.artio.fixp.FixPMessageConsumer;
 
@@ -29,6 +33,7 @@ import java.util.Iterator;
 import java.util.List;
 
 import static io.aeron.CommonContext.IPC_CHANNEL;
+import static io.aeron.archive.client.AeronArchive.NULL_LENGTH;
 import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
 import static uk.co.real_logic.artio.LogTag.ARCHIVE_SCAN;
 import static uk.co.real_logic.artio.engine.logger.FixMessageLogger.Configuration.*;
@@ -54,6 +59,8 @@ public class FixArchiveScanner implements AutoCloseable
     private final int fragmentLimit;
 
     private final String logFileDir;
+    private final String coldArchiveDir;
+    private final ColdArchiveReader coldArchiveReader;
 
     private final Long2ObjectHashMap<TimeIndexReader> streamIdToInboundTimeIndex = new Long2ObjectHashMap<>();
 
@@ -66,6 +73,7 @@ public class FixArchiveScanner implements AutoCloseable
         public int maximumBufferSize = DEFAULT_MAXIMUM_BUFFER_SIZE;
         private String logFileDir;
         private boolean enableIndexScan;
+        private String coldArchiveDir;
         private AeronArchive.Context archiveContext;
 
         public Configuration()
@@ -188,6 +196,25 @@ public class FixArchiveScanner implements AutoCloseable
             return enableIndexScan;
         }
 
+        /**
+         * Sets the coldArchiveDir used by your {@link EngineConfiguration}, so that messages that have been moved
+         * out of the Aeron Archive into the cold archive are scanned as well.
+         *
+         * @param coldArchiveDir the coldArchiveDir configured in your {@link EngineConfiguration}.
+         * @return this
+         * @see EngineConfiguration#coldArchiveDir(String)
+         */
+        public Configuration coldArchiveDir(final String coldArchiveDir)
+        {
+            this.coldArchiveDir = coldArchiveDir;
+            return this;
+        }
+
+        public String coldArchiveDir()
+        {
+            return coldArchiveDir;
+        }
+
         /**
          * Sets the context to be used to create the Aeron Archiver that this backs onto.
          *
@@ -244,6 +271,9 @@ public class FixArchiveScanner implements AutoCloseable
         {
             this.logFileDir = null;
         }
+
+        coldArchiveDir = configuration.coldArchiveDir();
+        coldArchiveReader = coldArchiveDir == null ? null : new ColdArchiveReader(coldArchiveDir);
     }
 
     public void scan(
@@ -287,7 +317,7 @@ public class FixArchiveScanner implements AutoCloseable
 
         try (Subscription replaySubscription = aeron.addSubscription(IPC_CHANNEL, archiveScannerStreamId))
         {
-            final RecordingPoller[] pollers = makeRecordingPollers(
+            final StreamTimestampZipper.Poller[] pollers = makeRecordingPollers(
                 aeronChannel, queryStreamIds, follow, recordingIdToPositionRange, replaySubscription);
 
             if (DEBUG_LOG_ARCHIVE_SCAN)
@@ -318,25 +348,66 @@ public class FixArchiveScanner implements AutoCloseable
         }
     }
 
-    private RecordingPoller[] makeRecordingPollers(
+    private StreamTimestampZipper.Poller[] makeRecordingPollers(
         final String aeronChannel,
         final IntHashSet queryStreamIds,
         final boolean follow,
         final Long2ObjectHashMap<PositionRange> recordingIdToPositionRange,
         final Subscription replaySubscription)
     {
-        return queryStreamIds
-            .stream()
-            .flatMap(id ->
-                lookupArchiveLocations(
-                    id, follow, aeronChannel, recordingIdToPositionRange)
-                    .stream()
-                    // filter out empty streams as
-                    // 1) they are empty - we don't need to poll them
-                    // 2) we use empty length later within polling as a test for polling being finished
-                    .filter(archiveLocation -> archiveLocation.length() != 0L)
-                    .map(archiveLocation -> new RecordingPoller(replaySubscription, id, archiveLocation)))
-            .toArray(RecordingPoller[]::new);
+        final List<StreamTimestampZipper.Poller> pollers = new ArrayList<>();
+        for (final int id : queryStreamIds)
+        {
+            for (final ArchiveLocation archiveLocation :
+                lookupArchiveLocations(id, follow, aeronChannel, recordingIdToPositionRange))
+            {
+                addColdRecordingPoller(pollers, id, archiveLocation);
+
+                // filter out empty streams as
+                // 1) they are empty - we don't need to poll them
+                // 2) we use empty length later within polling as a test for polling being finished
+                if (archiveLocation.length() != 0L)
+                {
+                    pollers.add(new RecordingPoller(replaySubscription, id, archiveLocation));
+                }
+            }
+        }
+        return pollers.toArray(new StreamTimestampZipper.Poller[0]);
+    }
+
+    // Splits off the part of the location that's in the cold archive
+    private void addColdRecordingPoller(
+        final List<StreamTimestampZipper.Poller> pollers, final int streamId, final ArchiveLocation archiveLocation)
+    {
+        if (coldArchiveReader == null)
+        {
+            return;
+        }
+
+        final long recordingId = archiveLocation.recordingId;
+        final long coldStopPosition = coldArchiveReader.stopPosition(recordingId);
+        final long startPosition = archiveLocation.startPosition;
+        if (coldStopPosition == NULL_POSITION || startPosition >= coldStopPosition)
+        {
+            return;
+        }
+
+        final long stopPosition = archiveLocation.stopPosition;
+        final long coldPollerStopPosition = stopPosition == NULL_POSITION ?
+            coldStopPosition : Math.min(stopPosition, coldStopPosition);
+        if (startPosition < coldPollerStopPosition)
+        {
+            pollers.add(new ColdRecordingPoller(streamId, recordingId, startPosition, coldPollerStopPosition));
+        }
+
+        // Replays never deliver padding frames, so the cold archive can stop short of the end of the segments that
+        // were purged, ie before the start of the recording in the Aeron Archive.
+        long archiveStartPosition = Math.max(coldPollerStopPosition, archiveLocation.archiveStartPosition);
+        if (stopPosition != NULL_POSITION)
+        {
+            archiveStartPosition = Math.min(archiveStartPosition, stopPosition);
+        }
+        archiveLocation.startPosition = archiveStartPosition;
     }
 
     private Long2ObjectHashMap<PositionRange> scanIndexIfPossible(
@@ -406,9 +477,9 @@ public class FixArchiveScanner implements AutoCloseable
         }
     }
 
-    private boolean checkCompletion(final RecordingPoller[] pollers)
+    private boolean checkCompletion(final StreamTimestampZipper.Poller[] pollers)
     {
-        for (final RecordingPoller poller : pollers)
+        for (final StreamTimestampZipper.Poller poller : pollers)
         {
             if (!poller.isComplete())
             {
@@ -456,6 +527,19 @@ public class FixArchiveScanner implements AutoCloseable
                 }
             });
 
+        if (coldArchiveReader != null)
+        {
+            // Purging moves a recording's start position past the segments that are in the cold archive
+            for (final ArchiveLocation location : archiveLocations)
+            {
+                final long coldStartPosition = coldArchiveReader.startPosition(location.recordingId);
+                if (coldStartPosition != NULL_POSITION && coldStartPosition < location.startPosition)
+                {
+                    location.startPosition = coldStartPosition;
+                }
+            }
+        }
+
         if (!follow)
         {
             for (final ArchiveLocation location : archiveLocations)
@@ -504,6 +588,8 @@ public class FixArchiveScanner implements AutoCloseable
     static class ArchiveLocation
     {
         final long recordingId;
+        // Where the recording starts in the Aeron Archive, older segments may have been moved to the cold archive
+        final long archiveStartPosition;
 
         long startPosition;
         long stopPosition;
@@ -512,6 +598,7 @@ public class FixArchiveScanner implements AutoCloseable
             final long recordingId, final long startPosition, final long stopPosition)
         {
             this.recordingId = recordingId;
+            this.archiveStartPosition = startPosition;
             this.startPosition = startPosition;
             this.stopPosition = stopPosition;
         }
@@ -523,7 +610,12 @@ public class FixArchiveScanner implements AutoCloseable
 
         public long length()
         {
-            return startPosition == NULL_POSITION ? NULL_POSITION : stopPosition - startPosition;
+            if (startPosition == NULL_POSITION)
+            {
+                return NULL_POSITION;
+            }
+
+            return stopPosition == NULL_POSITION ? NULL_LENGTH : stopPosition - startPosition;
         }
 
         public String toString()
@@ -636,8 +728,78 @@ public class FixArchiveScanner implements AutoCloseable
         }
     }
 
+    class ColdRecordingPoller implements StreamTimestampZipper.Poller, ControlledFragmentHandler
+    {
+        private final ColdArchiveReader reader = new ColdArchiveReader(coldArchiveDir);
+        private final int originalStreamId;
+        private final long recordingId;
+        private final long stopPosition;
+
+        private long position;
+        private FragmentAssembler fragmentAssembler;
+        private int fragments;
+
+        ColdRecordingPoller(
+            final int originalStreamId,
+            final long recordingId,
+            final long startPosition,
+            final long stopPosition)
+        {
+            this.originalStreamId = originalStreamId;
+            this.recordingId = recordingId;
+            this.stopPosition = stopPosition;
+            position = startPosition;
+        }
+
+        public boolean isComplete()
+        {
+            return position >= stopPosition;
+        }
+
+        public int poll(final FragmentAssembler fragmentAssembler)
+        {
+            if (isComplete())
+            {
+                return 0;
+            }
+
+            this.fragmentAssembler = fragmentAssembler;
+            fragments = 0;
+            position = reader.read(recordingId, position, stopPosition, this, fragmentLimit);
+
+            return isComplete() ? fragments + 1 : fragments;
+        }
+
+        public Action onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+        {
+            fragments++;
+            fragmentAssembler.onFragment(buffer, offset, length, header);
+            return Action.CONTINUE;
+        }
+
+        public int streamId()
+        {
+            return originalStreamId;
+        }
+
+        public void close()
+        {
+            reader.close();
+        }
+
+        public String toString()
+        {
+            return "ColdRecordingPoller{" +
+                "recordingId=" + recordingId +
+                ", originalStreamId=" + originalStreamId +
+                ", position=" + position +
+                ", stopPosition=" + stopPosition +
+                '}';
+        }
+    }
+
     public void close()
     {
-        aeronArchive.close();
+        Exceptions.closeAll(coldArchiveReader, aeronArchive);
     }
 }
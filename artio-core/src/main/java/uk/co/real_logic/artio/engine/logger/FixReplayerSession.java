@@ -35,6 +35,7 @@ import uk.co.real_logic.artio.engine.framer.FixThrottleRejectBuilder;
 import uk.co.real_logic.artio.engine.framer.MessageTypeExtractor;
 import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
 import uk.co.real_logic.artio.messages.*;
+import uk.co.real_logic.artio.protocol.FramedSessionHeader;
 import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
@@ -49,6 +50,7 @@ import static uk.co.real_logic.artio.engine.framer.SenderEndPoint.NOT_LAST_REPLA
 import static uk.co.real_logic.artio.engine.logger.Replayer.MESSAGE_FRAME_BLOCK_LENGTH;
 import static uk.co.real_logic.artio.messages.FixMessageDecoder.metaDataHeaderLength;
 import static uk.co.real_logic.artio.messages.FixMessageDecoder.metaDataSinceVersion;
+import static uk.co.real_logic.artio.timing.MessageTracer.NOT_TRACED;
 
 class FixReplayerSession extends ReplayerSession
 {
@@ -83,6 +85,10 @@ class FixReplayerSession extends ReplayerSession
     private int lastSeqNo;
     private int headerSeqNum;
 
+    // Sequence numbers that weren't in the replay index, which is expected for messages that were filtered out of it
+    private int lastReplayedSeqNo;
+    private int missingSeqNums;
+
     private int beginGapFillSeqNum = NONE;
 
     private State state;
@@ -124,6 +130,7 @@ class FixReplayerSession extends ReplayerSession
         sequenceNumberExtractor = new SequenceNumberExtractor();
 
         lastSeqNo = beginSeqNo - 1;
+        lastReplayedSeqNo = lastSeqNo;
         this.throttleRejectBuilder = throttleRejectBuilder;
 
         possDupEnabler = new PossDupEnabler(
@@ -207,8 +214,11 @@ class FixReplayerSession extends ReplayerSession
 
         if (FIX_MESSAGE.status() == MessageStatus.OK)
         {
-            final int metaDataAdjustment = version >= metaDataSinceVersion() ?
-                metaDataHeaderLength() + FIX_MESSAGE.metaDataLength() : 0;
+            // Frames archived by older versions have a shorter block, so offsets are adjusted relative to the
+            // current block length.
+            final int blockLengthAdjustment = actingBlockLength - FixMessageDecoder.BLOCK_LENGTH;
+            final int metaDataAdjustment = blockLengthAdjustment + (version >= metaDataSinceVersion() ?
+                metaDataHeaderLength() + FIX_MESSAGE.metaDataLength() : 0);
             final int messageFrameBlockLength = MESSAGE_FRAME_BLOCK_LENGTH + metaDataAdjustment;
             final int messageOffset = srcOffset + messageFrameBlockLength;
             final int messageLength = srcLength - messageFrameBlockLength;
@@ -233,7 +243,7 @@ class FixReplayerSession extends ReplayerSession
                     beginGapFillSeqNum(lastSeqNo + 1);
                 }
 
-                lastSeqNo = msgSeqNum;
+                onReplayed(msgSeqNum);
                 return CONTINUE;
             }
             else
@@ -258,7 +268,7 @@ class FixReplayerSession extends ReplayerSession
                     srcBuffer, messageOffset, messageLength, srcOffset, srcLength, metaDataAdjustment, messageType);
                 if (action != ABORT)
                 {
-                    lastSeqNo = msgSeqNum;
+                    onReplayed(msgSeqNum);
                 }
 
                 return action;
@@ -285,7 +295,7 @@ class FixReplayerSession extends ReplayerSession
                 beginGapFillSeqNum(lastSeqNo + 1);
             }
 
-            lastSeqNo = msgSeqNum;
+            onReplayed(msgSeqNum);
             return CONTINUE;
         }
         else
@@ -318,12 +328,34 @@ class FixReplayerSession extends ReplayerSession
                 NOT_LAST_REPLAY_MSG);
             if (action == CONTINUE)
             {
-                lastSeqNo = msgSeqNum;
+                onReplayed(msgSeqNum);
             }
             return action;
         }
     }
 
+    private void onReplayed(final int msgSeqNum)
+    {
+        if (msgSeqNum > lastReplayedSeqNo + 1)
+        {
+            missingSeqNums += msgSeqNum - lastReplayedSeqNo - 1;
+        }
+        lastReplayedSeqNo = Math.max(lastReplayedSeqNo, msgSeqNum);
+        lastSeqNo = msgSeqNum;
+    }
+
+    // A mismatch is only expected when every sequence number that wasn't replayed could have been filtered out
+    private boolean isExpectedCountMismatch(final int replayedMessages, final int expectedCount)
+    {
+        if (!replayer.replayIndexFiltered)
+        {
+            return false;
+        }
+
+        final int missingSeqNums = this.missingSeqNums + Math.max(0, endSeqNo - lastReplayedSeqNo);
+        return replayedMessages + missingSeqNums == expectedCount;
+    }
+
     private Action sendGapFill(final int msgSeqNo, final int newSeqNo, final boolean lastMessage)
     {
         final long result = gapFillEncoder.encode(msgSeqNo, newSeqNo);
@@ -361,6 +393,11 @@ class FixReplayerSession extends ReplayerSession
                 .sequenceIndex(this.sequenceIndex)
                 .sequenceNumber(sequenceNumber)
                 .messageType(messageType)
+                .traceTimestamp(NOT_TRACED);
+
+            FramedSessionHeader.encodeMissing(FIX_MESSAGE_ENCODER);
+
+            FIX_MESSAGE_ENCODER
                 .putMetaData(NO_BYTES, 0, 0)
                 .putBody(fixBuffer, fixOffset, fixLength);
 
@@ -465,10 +502,13 @@ class FixReplayerSession extends ReplayerSession
                     }
                 }
 
-                onIllegalState(
-                    "[%s] Error in resend request, count(%d) < expectedCount (%d), newSequenceNumber(%d), " +
-                    "endSeqNo(%d)",
-                    message, replayedMessages, expectedCount, newSequenceNumber, endSeqNo);
+                if (!isExpectedCountMismatch(replayedMessages, expectedCount))
+                {
+                    onIllegalState(
+                        "[%s] Error in resend request, count(%d) < expectedCount (%d), newSequenceNumber(%d), " +
+                        "endSeqNo(%d)",
+                        message, replayedMessages, expectedCount, newSequenceNumber, endSeqNo);
+                }
             }
         }
 
@@ -24,6 +24,9 @@ import io.aeron.logbuffer.FragmentHandler;
 import io.aeron.logbuffer.Header;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
+import org.agrona.collections.ArrayListUtil;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongArrayList;
 import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.AgentInvoker;
 import org.agrona.concurrent.IdleStrategy;
@@ -34,6 +37,8 @@ import uk.co.real_logic.artio.dictionary.generation.Exceptions;
 import uk.co.real_logic.artio.engine.CompletionPosition;
 import uk.co.real_logic.artio.util.CharFormatter;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
 
 import static io.aeron.CommonContext.IPC_CHANNEL;
@@ -46,6 +51,8 @@ import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
 public class Indexer implements Agent, ControlledFragmentHandler
 {
     private static final int LIMIT = 20;
+    // Kept below the archive's default limit on concurrent replays
+    static final int MAX_CONCURRENT_CATCHUP_REPLAYS = 8;
 
     private final CharFormatter indexingFormatter = new CharFormatter(
         "Indexing @ %s from [%s, %s]");
@@ -92,61 +99,111 @@ public class Indexer implements Agent, ControlledFragmentHandler
         return total;
     }
 
+    /**
+     * Brings every index up to the end of the recordings that they index. Each recording that has un-indexed data is
+     * replayed once, from the lowest position that any index has reached, and the replay is shared between all the
+     * indices that lag behind it. Up to {@link #MAX_CONCURRENT_CATCHUP_REPLAYS} recordings are replayed concurrently.
+     *
+     * @param aeronArchive the archive to replay recordings from.
+     * @param errorHandler the handler for errors from the archive.
+     */
     public void catchIndexUp(final AeronArchive aeronArchive, final ErrorHandler errorHandler)
     {
         final IdleStrategy idleStrategy = CommonConfiguration.backoffIdleStrategy();
         final AgentInvoker aeronInvoker = aeronArchive.context().aeron().conductorAgentInvoker();
 
+        final Long2ObjectHashMap<CatchupReplay> recordingIdToReplay = new Long2ObjectHashMap<>();
         for (int i = 0, size = indices.size(); i < size; i++)
         {
             final Index index = indices.get(i);
-
             index.readLastPosition((aeronSessionId, recordingId, indexStoppedPosition) ->
+                recordingIdToReplay
+                    .computeIfAbsent(recordingId, CatchupReplay::new)
+                    .addIndex(index, indexStoppedPosition));
+        }
+
+        final ArrayDeque<CatchupReplay> pendingReplays = new ArrayDeque<>();
+        for (final CatchupReplay replay : recordingIdToReplay.values())
+        {
+            try
+            {
+                if (replay.lagsBehind(aeronArchive.getStopPosition(replay.recordingId)))
+                {
+                    pendingReplays.add(replay);
+                }
+            }
+            catch (final ArchiveException ex)
+            {
+                errorHandler.onError(ex);
+            }
+        }
+
+        if (pendingReplays.isEmpty())
+        {
+            return;
+        }
+
+        final List<CatchupReplay> activeReplays = new ArrayList<>();
+        try (Subscription subscription = aeronArchive.context().aeron().addSubscription(
+            IPC_CHANNEL, archiveReplayStream))
+        {
+            while (!pendingReplays.isEmpty() || !activeReplays.isEmpty())
             {
+                while (activeReplays.size() < MAX_CONCURRENT_CATCHUP_REPLAYS && !pendingReplays.isEmpty())
+                {
+                    final CatchupReplay replay = pendingReplays.poll();
+                    try
+                    {
+                        replay.start(aeronArchive);
+                        activeReplays.add(replay);
+                    }
+                    catch (final ArchiveException ex)
+                    {
+                        errorHandler.onError(ex);
+                    }
+                }
+
+                int workCount = 0;
                 try
                 {
-                    final long recordingStoppedPosition = aeronArchive.getStopPosition(recordingId);
-                    if (recordingStoppedPosition > indexStoppedPosition)
+                    for (int i = activeReplays.size() - 1; i >= 0; i--)
                     {
-                        DebugLogger.log(
-                            LogTag.INDEX,
-                            catchupFormatter,
-                            index.getName(),
-                            recordingId,
-                            recordingStoppedPosition,
-                            indexStoppedPosition);
-
-                        final long length = recordingStoppedPosition - indexStoppedPosition;
-                        try (Subscription subscription = aeronArchive.replay(
-                            recordingId, indexStoppedPosition, length, IPC_CHANNEL, archiveReplayStream))
+                        final CatchupReplay replay = activeReplays.get(i);
+                        workCount += replay.poll(subscription, errorHandler);
+                        if (replay.isComplete())
                         {
-                            // Only do 1 replay at a time
-                            while (subscription.imageCount() != 1)
-                            {
-                                idle(idleStrategy, aeronInvoker, 0);
-                                aeronArchive.checkForErrorResponse();
-                            }
-                            idleStrategy.reset();
-
-                            final Image replayImage = subscription.imageAtIndex(0);
-
-                            final FragmentHandler handler = (buffer, offset, srcLength, header) ->
-                                index.onCatchup(buffer, offset, srcLength, header, recordingId);
-
-                            while (replayImage.position() < recordingStoppedPosition)
-                            {
-                                final int workCount = replayImage.poll(handler, LIMIT);
-                                idle(idleStrategy, aeronInvoker, workCount);
-                            }
-                            idleStrategy.reset();
+                            ArrayListUtil.fastUnorderedRemove(activeReplays, i);
                         }
                     }
+
+                    if (workCount == 0)
+                    {
+                        aeronArchive.checkForErrorResponse();
+                    }
                 }
                 catch (final ArchiveException ex)
                 {
-                    errorHandler.onError(ex);
+                    // Can't tell which replay failed, so abandon the ones in flight rather than wait on them forever
+                    final StringBuilder unindexed = new StringBuilder();
+                    for (int i = 0, size = activeReplays.size(); i < size; i++)
+                    {
+                        final CatchupReplay replay = activeReplays.get(i);
+                        replay.stop(aeronArchive);
+                        unindexed
+                            .append(i == 0 ? "" : ", ")
+                            .append(replay.recordingId)
+                            .append(" @ ")
+                            .append(replay.position());
+                    }
+                    activeReplays.clear();
+
+                    errorHandler.onError(new IllegalStateException(
+                        "Abandoned catchup replays, indices haven't caught up with recordings: " + unindexed, ex));
                 }
-            });
+
+                idle(idleStrategy, aeronInvoker, workCount);
+            }
+            idleStrategy.reset();
         }
     }
 
@@ -224,4 +281,130 @@ public class Indexer implements Agent, ControlledFragmentHandler
     {
         return agentNamePrefix + "Indexer";
     }
+
+    /**
+     * A single replay of a recording that feeds every index that hasn't indexed up to the end of it.
+     */
+    private final class CatchupReplay implements FragmentHandler
+    {
+        private final long recordingId;
+        private final List<Index> recordingIndices = new ArrayList<>();
+        private final LongArrayList indexStoppedPositions = new LongArrayList();
+
+        private long startPosition = Long.MAX_VALUE;
+        private long stopPosition;
+        private long replaySessionId;
+        private Image image;
+        private boolean complete;
+
+        CatchupReplay(final long recordingId)
+        {
+            this.recordingId = recordingId;
+        }
+
+        void addIndex(final Index index, final long indexStoppedPosition)
+        {
+            final int existing = recordingIndices.indexOf(index);
+            if (existing == -1)
+            {
+                recordingIndices.add(index);
+                indexStoppedPositions.addLong(indexStoppedPosition);
+            }
+            else if (indexStoppedPosition < indexStoppedPositions.getLong(existing))
+            {
+                indexStoppedPositions.setLong(existing, indexStoppedPosition);
+            }
+        }
+
+        boolean lagsBehind(final long recordingStoppedPosition)
+        {
+            stopPosition = recordingStoppedPosition;
+            for (int i = 0, size = recordingIndices.size(); i < size; i++)
+            {
+                final long indexStoppedPosition = indexStoppedPositions.getLong(i);
+                if (recordingStoppedPosition > indexStoppedPosition)
+                {
+                    DebugLogger.log(
+                        LogTag.INDEX,
+                        catchupFormatter,
+                        recordingIndices.get(i).getName(),
+                        recordingId,
+                        recordingStoppedPosition,
+                        indexStoppedPosition);
+
+                    startPosition = Math.min(startPosition, indexStoppedPosition);
+                }
+            }
+
+            return startPosition != Long.MAX_VALUE;
+        }
+
+        void start(final AeronArchive aeronArchive)
+        {
+            replaySessionId = aeronArchive.startReplay(
+                recordingId, startPosition, stopPosition - startPosition, IPC_CHANNEL, archiveReplayStream);
+        }
+
+        int poll(final Subscription subscription, final ErrorHandler errorHandler)
+        {
+            if (image == null)
+            {
+                image = subscription.imageBySessionId((int)replaySessionId);
+                if (image == null)
+                {
+                    return 0;
+                }
+            }
+
+            final int workCount = image.poll(this, LIMIT);
+            if (image.position() >= stopPosition)
+            {
+                complete = true;
+            }
+            else if (image.isClosed())
+            {
+                errorHandler.onError(new IllegalStateException(
+                    "Catchup replay of recording " + recordingId + " ended @ " + image.position() +
+                    " rather than @ " + stopPosition));
+                complete = true;
+            }
+
+            return workCount;
+        }
+
+        boolean isComplete()
+        {
+            return complete;
+        }
+
+        long position()
+        {
+            return image == null ? startPosition : image.position();
+        }
+
+        void stop(final AeronArchive aeronArchive)
+        {
+            try
+            {
+                aeronArchive.stopReplay(replaySessionId);
+            }
+            catch (final ArchiveException ignore)
+            {
+                // Deliberately blank, the replay may already have stopped
+            }
+        }
+
+        public void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+        {
+            // Only feed each index the data that it hasn't already indexed
+            final long endPosition = header.position();
+            for (int i = 0, size = recordingIndices.size(); i < size; i++)
+            {
+                if (endPosition > indexStoppedPositions.getLong(i))
+                {
+                    recordingIndices.get(i).onCatchup(buffer, offset, length, header, recordingId);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.AtomicBuffer;
+import uk.co.real_logic.artio.engine.MappedFile;
+
+import java.io.File;
+
+import static org.agrona.UnsafeAccess.UNSAFE;
+import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexDescriptor.*;
+
+/**
+ * Reads session metadata from its own mapping of the file written by a {@link MetaDataStoreWriter}. Remaps the file
+ * when the writer has grown it beyond the current mapping.
+ *
+ * Designed to used on a single thread.
+ */
+final class MetaDataStoreReader implements AutoCloseable
+{
+    private final MappedFile mappedFile;
+
+    private AtomicBuffer buffer;
+
+    MetaDataStoreReader(final File location)
+    {
+        mappedFile = MappedFile.map(location, 0);
+        buffer = mappedFile.buffer();
+    }
+
+    /**
+     * Copy the value of a slot into a new array and wrap it with the buffer. Fails if the writer changes the slot
+     * during the read, in which case the caller should check that the index still refers to the slot and retry. A slot
+     * that a writer died whilst updating, or that has been corrupted, always fails so retries should be bounded.
+     *
+     * @param position the position of the slot.
+     * @param metaData the buffer to wrap around a copy of the value.
+     * @return true if the value was read without the slot being written to, false otherwise.
+     */
+    boolean read(final int position, final DirectBuffer metaData)
+    {
+        if (position + META_DATA_SLOT_HEADER_LENGTH > buffer.capacity())
+        {
+            remap();
+            return false;
+        }
+
+        final AtomicBuffer buffer = this.buffer;
+        final long sequence = buffer.getLongVolatile(position + META_DATA_SLOT_SEQUENCE_OFFSET);
+        if ((sequence & 1) == 1)
+        {
+            return false;
+        }
+
+        final int capacity = buffer.getInt(position + META_DATA_SLOT_CAPACITY_OFFSET);
+        final int length = buffer.getInt(position + META_DATA_SLOT_LENGTH_OFFSET);
+        if (length < 0 || length > capacity || position + META_DATA_SLOT_HEADER_LENGTH + length > buffer.capacity())
+        {
+            // Either a torn read or a slot that the writer has allocated beyond the current mapping
+            UNSAFE.loadFence();
+            if (sequence == buffer.getLongVolatile(position + META_DATA_SLOT_SEQUENCE_OFFSET))
+            {
+                remap();
+            }
+            return false;
+        }
+
+        final byte[] value = new byte[length];
+        buffer.getBytes(position + META_DATA_SLOT_HEADER_LENGTH, value);
+
+        UNSAFE.loadFence(); // LoadLoad required so previous loads don't move past version check below.
+
+        if (sequence != buffer.getLongVolatile(position + META_DATA_SLOT_SEQUENCE_OFFSET))
+        {
+            return false;
+        }
+
+        metaData.wrap(value);
+        return true;
+    }
+
+    private void remap()
+    {
+        mappedFile.remap();
+        buffer = mappedFile.buffer();
+    }
+
+    public void close()
+    {
+        mappedFile.close();
+    }
+}
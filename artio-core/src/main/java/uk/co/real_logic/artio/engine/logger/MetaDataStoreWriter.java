@@ -0,0 +1,568 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.BitUtil;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.collections.Int2IntHashMap;
+import org.agrona.collections.IntArrayList;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.engine.MappedFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static java.nio.ByteOrder.BIG_ENDIAN;
+import static org.agrona.UnsafeAccess.UNSAFE;
+import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexDescriptor.*;
+
+/**
+ * Writes session metadata into a memory-mapped file, on the thread of the {@link SequenceNumberIndexWriter} that
+ * owns it.
+ *
+ * Values are stored in slots whose capacity is rounded up to a power of two, so a value can usually grow without
+ * being moved. Slots that are no longer referenced by the sequence number index are put onto a free list for their
+ * size class and reused. They only become free once the index that stopped referencing them has been flushed to
+ * disk, so the index on disk never refers to a slot that has been reused for another session.
+ *
+ * Once enough of the file is free, {@link #compact(SlotMovedHandler)} moves slots from the end of the file into free
+ * slots nearer its start and trims the free slots off the end, a few at a time on the indexer's duty cycle.
+ *
+ * Each slot has a sequence that is odd whilst it's being written, so that a {@link MetaDataStoreReader} on another
+ * thread can read values directly from its own mapping of the file.
+ *
+ * The allocator state isn't persisted, it's rebuilt on startup from the slots that the index refers to. Files
+ * written by the previous version of the metadata file are moved to {@link #legacyLocation} and their values are
+ * imported into the new file, see {@link #importLegacySlot(int, int)}.
+ */
+final class MetaDataStoreWriter implements AutoCloseable
+{
+    interface SlotMovedHandler
+    {
+        void onSlotMoved(int recordOffset, int newPosition);
+    }
+
+    static final int SLOT_ALIGNMENT = MIN_META_DATA_SLOT_CAPACITY;
+    static final int INITIAL_FILE_LENGTH = 64 * 1024;
+    static final int MAX_FILE_LENGTH = 1 << 30;
+    static final int COMPACTION_MIN_FREE_BYTES = 64 * 1024;
+    static final int COMPACTION_BATCH_SIZE = 16;
+
+    private static final int MISSING_RECORD = -1;
+
+    private final IntArrayList[] freeSlots = new IntArrayList[Integer.SIZE];
+    private final IntArrayList pendingFreeSlots = new IntArrayList();
+    private final IntArrayList slotPositions = new IntArrayList();
+    private final Int2IntHashMap slotToRecordOffset = new Int2IntHashMap(MISSING_RECORD);
+    private final UnsafeBuffer valueBuffer = new UnsafeBuffer(0, 0);
+    private final File location;
+    private final File legacyLocation;
+
+    private MappedFile mappedFile;
+    private AtomicBuffer buffer;
+    private RandomAccessFile legacyFile;
+    private int slotsStart;
+    private int endOfSlots;
+    private long freeBytes;
+    private boolean dirty;
+    private boolean compactionStalled;
+
+    MetaDataStoreWriter(final File location, final File legacyLocation)
+    {
+        this.location = location;
+        this.legacyLocation = legacyLocation;
+
+        try
+        {
+            if (readFileVersion() == LEGACY_META_DATA_FILE_VERSION)
+            {
+                Files.move(location.toPath(), legacyLocation.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            if (legacyLocation.exists())
+            {
+                legacyFile = new RandomAccessFile(legacyLocation, "r");
+            }
+
+            if (readFileVersion() == 0)
+            {
+                createFile();
+            }
+            else
+            {
+                openFile();
+            }
+        }
+        catch (final IOException | RuntimeException e)
+        {
+            CloseHelper.quietCloseAll(legacyFile, mappedFile);
+            throw new IllegalStateException("Unable to open metadata file: " + location, e);
+        }
+    }
+
+    private int readFileVersion() throws IOException
+    {
+        if (!location.exists() || location.length() < LEGACY_META_DATA_FILE_HEADER_LENGTH)
+        {
+            return 0;
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(location, "r"))
+        {
+            final long magicNumber = file.readLong();
+            final int fileVersion = file.readInt();
+
+            if (magicNumber == 0 && fileVersion == 0)
+            {
+                // Created but never initialised
+                return 0;
+            }
+
+            if (magicNumber != META_DATA_MAGIC_NUMBER)
+            {
+                throw new IllegalStateException("Invalid magic number in metadata file: " + magicNumber);
+            }
+
+            if (fileVersion != LEGACY_META_DATA_FILE_VERSION && fileVersion < READABLE_META_DATA_FILE_VERSION)
+            {
+                throw new IllegalStateException("Unreadable metadata file version: " + fileVersion);
+            }
+
+            return fileVersion;
+        }
+    }
+
+    private void createFile() throws IOException
+    {
+        // Slots start after any legacy slots so that an index position can always be identified as legacy or not
+        final int legacyLength = legacyFile != null ? (int)legacyFile.length() : 0;
+        final int slotsStart = BitUtil.align(Math.max(META_DATA_FILE_HEADER_LENGTH, legacyLength), SLOT_ALIGNMENT);
+
+        Files.deleteIfExists(location.toPath());
+        mappedFile = MappedFile.map(location, fileLength(slotsStart));
+        buffer = mappedFile.buffer();
+        writeHeader(slotsStart);
+        mappedFile.force();
+    }
+
+    private void openFile() throws IOException
+    {
+        try (RandomAccessFile file = new RandomAccessFile(location, "rw"))
+        {
+            file.seek(META_DATA_END_OF_SLOTS_OFFSET);
+            final int endOfSlots = file.readInt();
+
+            // No reader has mapped the file yet, so this is the only time that it is safe to shrink it.
+            final long compactedLength = fileLength(endOfSlots);
+            if (file.length() > compactedLength)
+            {
+                file.setLength(compactedLength);
+            }
+        }
+
+        mappedFile = MappedFile.map(location, 0);
+        buffer = mappedFile.buffer();
+        slotsStart = buffer.getInt(META_DATA_SLOTS_START_OFFSET, BIG_ENDIAN);
+        endOfSlots = buffer.getInt(META_DATA_END_OF_SLOTS_OFFSET, BIG_ENDIAN);
+    }
+
+    private void writeHeader(final int slotsStart)
+    {
+        this.slotsStart = slotsStart;
+        this.endOfSlots = slotsStart;
+
+        // The header is big endian, like the header of the legacy file which was written by a RandomAccessFile
+        buffer.putLong(0, META_DATA_MAGIC_NUMBER, BIG_ENDIAN);
+        buffer.putInt(META_DATA_VERSION_OFFSET, META_DATA_FILE_VERSION, BIG_ENDIAN);
+        buffer.putInt(META_DATA_SLOTS_START_OFFSET, slotsStart, BIG_ENDIAN);
+        buffer.putInt(META_DATA_END_OF_SLOTS_OFFSET, slotsStart, BIG_ENDIAN);
+        dirty = true;
+    }
+
+    /**
+     * Record that a slot is referenced by the index whilst recovering on startup.
+     *
+     * @param position the position of the slot.
+     * @param recordOffset the offset of the index record that refers to it.
+     */
+    void onLiveSlot(final int position, final int recordOffset)
+    {
+        slotToRecordOffset.put(position, recordOffset);
+    }
+
+    /**
+     * Scan the slots on startup, after every live slot has been passed to {@link #onLiveSlot(int, int)}, and put
+     * every other slot onto the free lists.
+     */
+    void recoverFreeSlots()
+    {
+        final AtomicBuffer buffer = this.buffer;
+        int position = slotsStart;
+        while (position < endOfSlots)
+        {
+            final int capacity = buffer.getInt(position + META_DATA_SLOT_CAPACITY_OFFSET);
+            if (capacity < MIN_META_DATA_SLOT_CAPACITY || !BitUtil.isPowerOfTwo(capacity) ||
+                position + slotLength(capacity) > endOfSlots)
+            {
+                throw new IllegalStateException(
+                    "Corrupt metadata slot at " + position + " in " + location + ", capacity = " + capacity);
+            }
+
+            slotPositions.addInt(position);
+            if (!slotToRecordOffset.containsKey(position))
+            {
+                addFreeSlot(position);
+            }
+
+            position += slotLength(capacity);
+        }
+    }
+
+    boolean isLegacyPosition(final int position)
+    {
+        return legacyFile != null && position < slotsStart;
+    }
+
+    int importLegacySlot(final int legacyPosition, final int recordOffset) throws IOException
+    {
+        final RandomAccessFile legacyFile = this.legacyFile;
+        legacyFile.seek(legacyPosition);
+        final int length = legacyFile.readInt();
+        final byte[] value = new byte[length];
+        // Legacy slots can be shorter than their length field if they're at the end of the file
+        legacyFile.read(value);
+
+        return allocate(recordOffset, value, length);
+    }
+
+    /**
+     * Delete the legacy file once the index no longer refers to it, ie after it has been flushed following
+     * the import of the legacy slots.
+     */
+    void deleteLegacyFile() throws IOException
+    {
+        if (legacyFile != null)
+        {
+            legacyFile.close();
+            legacyFile = null;
+            Files.delete(legacyLocation.toPath());
+        }
+    }
+
+    int allocate(final int recordOffset, final byte[] value, final int length) throws IOException
+    {
+        final int capacity = slotCapacity(length);
+        final IntArrayList freeSlots = this.freeSlots[sizeClass(capacity)];
+        final int position;
+        if (freeSlots != null && !freeSlots.isEmpty())
+        {
+            position = freeSlots.popInt();
+            freeBytes -= slotLength(capacity);
+        }
+        else
+        {
+            position = endOfSlots;
+            final int newEndOfSlots = position + slotLength(capacity);
+            ensureFileLength(newEndOfSlots);
+
+            buffer.putInt(position + META_DATA_SLOT_CAPACITY_OFFSET, capacity);
+            slotPositions.addInt(position);
+            endOfSlots(newEndOfSlots);
+        }
+
+        valueBuffer.wrap(value);
+        write(position, valueBuffer, 0, 0, length, length);
+        slotToRecordOffset.put(position, recordOffset);
+        compactionStalled = false;
+
+        return position;
+    }
+
+    boolean fits(final int position, final int length)
+    {
+        return length <= buffer.getInt(position + META_DATA_SLOT_CAPACITY_OFFSET);
+    }
+
+    void update(final int position, final byte[] value, final int offset, final int length)
+    {
+        final int newLength = Math.max(offset + length, buffer.getInt(position + META_DATA_SLOT_LENGTH_OFFSET));
+        valueBuffer.wrap(value);
+        write(position, valueBuffer, offset, offset, length, newLength);
+    }
+
+    void readValue(final int position, final byte[] value, final int length)
+    {
+        buffer.getBytes(position + META_DATA_SLOT_HEADER_LENGTH, value, 0, length);
+    }
+
+    /**
+     * Free a slot once the index has been flushed, see {@link #releasePendingSlots()}.
+     *
+     * @param position the position of the slot to free.
+     */
+    void free(final int position)
+    {
+        slotToRecordOffset.remove(position);
+        pendingFreeSlots.addInt(position);
+    }
+
+    /**
+     * Called after the index has been flushed to disk, so slots that it no longer refers to can be reused.
+     */
+    void releasePendingSlots()
+    {
+        final IntArrayList pendingFreeSlots = this.pendingFreeSlots;
+        for (int i = 0, size = pendingFreeSlots.size(); i < size; i++)
+        {
+            addFreeSlot(pendingFreeSlots.getInt(i));
+        }
+        pendingFreeSlots.clear();
+        compactionStalled = false;
+    }
+
+    /**
+     * Moves live slots from the end of the file into free slots nearer the start and trims free slots off the end
+     * once more than half of the file is free.
+     *
+     * @param slotMovedHandler notified of the new position of each moved slot, so that the index can refer to it.
+     * @return the amount of work done.
+     */
+    int compact(final SlotMovedHandler slotMovedHandler)
+    {
+        if (compactionStalled || freeBytes < COMPACTION_MIN_FREE_BYTES || freeBytes * 2 < endOfSlots - slotsStart)
+        {
+            return 0;
+        }
+
+        final IntArrayList slotPositions = this.slotPositions;
+        int work = 0;
+        final int lastIndex = slotPositions.size() - 1;
+        for (int index = lastIndex; index >= 0 && index > lastIndex - COMPACTION_BATCH_SIZE; index--)
+        {
+            final int position = slotPositions.getInt(index);
+            final int recordOffset = slotToRecordOffset.get(position);
+            if (recordOffset != MISSING_RECORD)
+            {
+                final int newPosition = moveSlot(position, recordOffset);
+                if (newPosition != MISSING_RECORD)
+                {
+                    slotMovedHandler.onSlotMoved(recordOffset, newPosition);
+                    work++;
+                }
+            }
+            else if (index == slotPositions.size() - 1 && !pendingFreeSlots.containsInt(position))
+            {
+                removeFreeSlot(position);
+                slotPositions.removeAt(index);
+                endOfSlots(position);
+                work++;
+            }
+        }
+
+        // Nothing can move until slots are allocated or freed
+        compactionStalled = work == 0;
+
+        return work;
+    }
+
+    private int moveSlot(final int position, final int recordOffset)
+    {
+        final AtomicBuffer buffer = this.buffer;
+        final int capacity = buffer.getInt(position + META_DATA_SLOT_CAPACITY_OFFSET);
+        final IntArrayList freeSlots = this.freeSlots[sizeClass(capacity)];
+        if (freeSlots == null)
+        {
+            return MISSING_RECORD;
+        }
+
+        int lowestIndex = MISSING_RECORD;
+        int lowestPosition = position;
+        for (int i = 0, size = freeSlots.size(); i < size; i++)
+        {
+            final int freePosition = freeSlots.getInt(i);
+            if (freePosition < lowestPosition)
+            {
+                lowestIndex = i;
+                lowestPosition = freePosition;
+            }
+        }
+
+        if (lowestIndex == MISSING_RECORD)
+        {
+            return MISSING_RECORD;
+        }
+
+        freeSlots.fastUnorderedRemove(lowestIndex);
+        freeBytes -= slotLength(capacity);
+
+        final int length = buffer.getInt(position + META_DATA_SLOT_LENGTH_OFFSET);
+        write(lowestPosition, buffer, position + META_DATA_SLOT_HEADER_LENGTH, 0, length, length);
+        slotToRecordOffset.put(lowestPosition, recordOffset);
+        free(position);
+
+        return lowestPosition;
+    }
+
+    /**
+     * Forces the file to disk if it has been written to since the last call, this is batched with the flushes
+     * of the index.
+     */
+    void force()
+    {
+        if (dirty)
+        {
+            mappedFile.force();
+            dirty = false;
+        }
+    }
+
+    void reset()
+    {
+        slotToRecordOffset.clear();
+        slotPositions.clear();
+        pendingFreeSlots.clear();
+        for (final IntArrayList freeSlots : this.freeSlots)
+        {
+            if (freeSlots != null)
+            {
+                freeSlots.clear();
+            }
+        }
+        freeBytes = 0;
+        compactionStalled = false;
+        writeHeader(META_DATA_FILE_HEADER_LENGTH);
+    }
+
+    public void close()
+    {
+        CloseHelper.closeAll(legacyFile, mappedFile);
+    }
+
+    private void write(
+        final int position,
+        final DirectBuffer srcBuffer,
+        final int srcOffset,
+        final int valueOffset,
+        final int length,
+        final int newLength)
+    {
+        final AtomicBuffer buffer = this.buffer;
+        final long writingSequence = (buffer.getLong(position + META_DATA_SLOT_SEQUENCE_OFFSET) & ~1L) + 1;
+        buffer.putLongOrdered(position + META_DATA_SLOT_SEQUENCE_OFFSET, writingSequence);
+        UNSAFE.storeFence();
+
+        buffer.putBytes(position + META_DATA_SLOT_HEADER_LENGTH + valueOffset, srcBuffer, srcOffset, length);
+        buffer.putInt(position + META_DATA_SLOT_LENGTH_OFFSET, newLength);
+
+        buffer.putLongOrdered(position + META_DATA_SLOT_SEQUENCE_OFFSET, writingSequence + 1);
+        dirty = true;
+    }
+
+    private void addFreeSlot(final int position)
+    {
+        final int capacity = buffer.getInt(position + META_DATA_SLOT_CAPACITY_OFFSET);
+        final int sizeClass = sizeClass(capacity);
+        IntArrayList freeSlots = this.freeSlots[sizeClass];
+        if (freeSlots == null)
+        {
+            freeSlots = new IntArrayList();
+            this.freeSlots[sizeClass] = freeSlots;
+        }
+
+        freeSlots.addInt(position);
+        freeBytes += slotLength(capacity);
+    }
+
+    private void removeFreeSlot(final int position)
+    {
+        final int capacity = buffer.getInt(position + META_DATA_SLOT_CAPACITY_OFFSET);
+        freeSlots[sizeClass(capacity)].removeInt(position);
+        freeBytes -= slotLength(capacity);
+    }
+
+    private void endOfSlots(final int endOfSlots)
+    {
+        this.endOfSlots = endOfSlots;
+        buffer.putInt(META_DATA_END_OF_SLOTS_OFFSET, endOfSlots, BIG_ENDIAN);
+        dirty = true;
+    }
+
+    private void ensureFileLength(final long requiredLength) throws IOException
+    {
+        if (requiredLength > MAX_FILE_LENGTH)
+        {
+            throw new IOException("Metadata file " + location + " has reached its maximum length of " +
+                MAX_FILE_LENGTH);
+        }
+
+        if (requiredLength > buffer.capacity())
+        {
+            try (RandomAccessFile file = new RandomAccessFile(location, "rw"))
+            {
+                file.setLength(fileLength(requiredLength));
+            }
+
+            mappedFile.remap();
+            buffer = mappedFile.buffer();
+        }
+    }
+
+    int slotsStart()
+    {
+        return slotsStart;
+    }
+
+    int endOfSlots()
+    {
+        return endOfSlots;
+    }
+
+    long freeBytes()
+    {
+        return freeBytes;
+    }
+
+    static int slotCapacity(final int length)
+    {
+        return BitUtil.findNextPositivePowerOfTwo(Math.max(MIN_META_DATA_SLOT_CAPACITY, length));
+    }
+
+    static int slotLength(final int capacity)
+    {
+        return META_DATA_SLOT_HEADER_LENGTH + capacity;
+    }
+
+    private static int sizeClass(final int capacity)
+    {
+        return Integer.numberOfTrailingZeros(capacity);
+    }
+
+    private static int fileLength(final long requiredLength)
+    {
+        int fileLength = INITIAL_FILE_LENGTH;
+        while (fileLength < requiredLength)
+        {
+            fileLength <<= 1;
+        }
+
+        return fileLength;
+    }
+}
@@ -25,18 +25,18 @@ import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
+import uk.co.real_logic.artio.engine.ReplayIndexFilter;
 import uk.co.real_logic.artio.engine.SequenceNumberExtractor;
 import uk.co.real_logic.artio.messages.*;
 import uk.co.real_logic.artio.storage.messages.ReplayIndexRecordEncoder;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.function.LongFunction;
 
 import static io.aeron.archive.status.RecordingPos.NULL_RECORDING_ID;
 import static io.aeron.logbuffer.FrameDescriptor.*;
 import static org.agrona.UnsafeAccess.UNSAFE;
 import static uk.co.real_logic.artio.engine.SequenceNumberExtractor.NO_SEQUENCE_NUMBER;
+import static uk.co.real_logic.artio.engine.framer.MessageTypeExtractor.getMessageType;
 import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.*;
 import static uk.co.real_logic.artio.messages.FixMessageDecoder.*;
 import static uk.co.real_logic.artio.messages.MessageStatus.OK;
@@ -82,12 +82,13 @@ public class ReplayIndex implements Index, RedactHandler
     private final ReplayEvictionHandler evictionHandler;
     private final int segmentSizeBitShift;
     private final int segmentCount;
-    private final BufferFactory bufferFactory;
+    private final ReplayIndexStore indexStore;
     private final AtomicBuffer positionBuffer;
     private final ErrorHandler errorHandler;
     private final RecordingIdLookup recordingIdLookup;
     private final TimeIndexWriter timeIndex;
     private final SessionOwnershipTracker sessTracker;
+    private final ReplayIndexFilter replayIndexFilter;
 
     public ReplayIndex(
         final SequenceNumberExtractor sequenceNumberExtractor,
@@ -95,7 +96,7 @@ public class ReplayIndex implements Index, RedactHandler
         final int requiredStreamId,
         final int indexFileCapacity,
         final int indexSegmentCapacity,
-        final BufferFactory bufferFactory,
+        final ReplayIndexStore indexStore,
         final AtomicBuffer positionBuffer,
         final ErrorHandler errorHandler,
         final RecordingIdLookup recordingIdLookup,
@@ -105,7 +106,8 @@ public class ReplayIndex implements Index, RedactHandler
         final long timeIndexReplayFlushIntervalInNs,
         final boolean sent,
         final boolean indexChecksumEnabled,
-        final ReplayEvictionHandler evictionHandler)
+        final ReplayEvictionHandler evictionHandler,
+        final ReplayIndexFilter replayIndexFilter)
     {
         this.sequenceNumberExtractor = sequenceNumberExtractor;
         this.logFileDir = logFileDir;
@@ -115,10 +117,11 @@ public class ReplayIndex implements Index, RedactHandler
         this.evictionHandler = evictionHandler;
         this.segmentSizeBitShift = Long.numberOfTrailingZeros(segmentSize);
         this.segmentCount = ReplayIndexDescriptor.segmentCount(indexFileCapacity, indexSegmentCapacity);
-        this.bufferFactory = bufferFactory;
+        this.indexStore = indexStore;
         this.positionBuffer = positionBuffer;
         this.errorHandler = errorHandler;
         this.recordingIdLookup = recordingIdLookup;
+        this.replayIndexFilter = replayIndexFilter;
 
         checkPowerOfTwo("segmentCount", segmentCount);
         checkPowerOfTwo("segmentSize", segmentSize);
@@ -192,10 +195,9 @@ public class ReplayIndex implements Index, RedactHandler
         else
         {
             // This session isn't in the cache
-            final File headerFile = replayIndexHeaderFile(sessionId);
-            if (headerFile.exists())
+            if (indexStore.exists(sessionId))
             {
-                final UnsafeBuffer headerBuffer = mapUnsafeBuffer(HEADER_FILE_SIZE, headerFile);
+                final UnsafeBuffer headerBuffer = indexStore.mapHeader(sessionId);
                 try
                 {
                     if (forNextSessionVersion(headerBuffer))
@@ -206,7 +208,7 @@ public class ReplayIndex implements Index, RedactHandler
                 }
                 finally
                 {
-                    IoUtil.unmap(headerBuffer.byteBuffer());
+                    indexStore.unmap(headerBuffer, null);
                 }
             }
         }
@@ -228,6 +230,7 @@ public class ReplayIndex implements Index, RedactHandler
     private int continuedSequenceNumber;
     private int continuedSequenceIndex;
     private long continuedTimestamp;
+    private boolean continuedIndexed;
 
     public void onCatchup(
         final DirectBuffer buffer,
@@ -346,7 +349,7 @@ public class ReplayIndex implements Index, RedactHandler
                 }
             }
         }
-        else
+        else if (continuedIndexed)
         {
             sessionIndex(continuedFixSessionId).onRecord(
                 endPosition, length,
@@ -393,6 +396,17 @@ public class ReplayIndex implements Index, RedactHandler
             offset += bodyHeaderLength();
 
             final long fixSessionId = messageFrame.session();
+            final boolean indexed = replayIndexFilter.shouldIndex(fixSessionId, getMessageType(messageFrame));
+            if (beginMessage)
+            {
+                continuedIndexed = indexed;
+            }
+
+            if (!indexed)
+            {
+                return;
+            }
+
             sequenceNumberExtractor.extractCached(
                 srcBuffer, offset, messageFrame.bodyLength(), header.sessionId(), endPosition);
             int sequenceNumber = sequenceNumberExtractor.sequenceNumber();
@@ -444,11 +458,7 @@ public class ReplayIndex implements Index, RedactHandler
         {
             // File might be present but not within the cache.
             evictionHandler.onReset(fixSessionId);
-            final File replayIndexFile = replayIndexHeaderFile(fixSessionId);
-            if (replayIndexFile.exists())
-            {
-                deleteFile(replayIndexFile);
-            }
+            indexStore.delete(fixSessionId);
         }
     }
 
@@ -470,6 +480,7 @@ public class ReplayIndex implements Index, RedactHandler
             positionWriter);
         fixSessionIdToIndex.values().forEach(SessionIndex::close);
         fixSessionIdToIndex.clear();
+        indexStore.close();
         IoUtil.unmap(positionBuffer.byteBuffer());
     }
 
@@ -489,10 +500,7 @@ public class ReplayIndex implements Index, RedactHandler
         private final int segmentSizeBitShift;
 
         private final UnsafeBuffer headerBuffer;
-        private final File headerFile;
-
         private final UnsafeBuffer[] segmentBuffers;
-        private final File[] segmentBufferFiles;
 
         SessionIndex(final long fixSessionId)
         {
@@ -502,11 +510,9 @@ public class ReplayIndex implements Index, RedactHandler
             this.segmentSize = replayIndex.segmentSize;
             this.segmentSizeBitShift = replayIndex.segmentSizeBitShift;
             segmentBuffers = new UnsafeBuffer[segmentCount];
-            segmentBufferFiles = new File[segmentCount];
 
-            headerFile = replayIndexHeaderFile(fixSessionId);
-            final boolean exists = headerFile.exists();
-            this.headerBuffer = mapUnsafeBuffer(HEADER_FILE_SIZE, headerFile);
+            final boolean exists = indexStore.exists(fixSessionId);
+            this.headerBuffer = indexStore.mapHeader(fixSessionId);
 
             if (!exists)
             {
@@ -572,9 +578,7 @@ public class ReplayIndex implements Index, RedactHandler
             UnsafeBuffer segmentBuffer = segmentBuffers[segmentIndex];
             if (segmentBuffer == null)
             {
-                final File file = replayIndexSegmentFile(fixSessionId, segmentIndex);
-                segmentBufferFiles[segmentIndex] = file;
-                segmentBuffer = mapUnsafeBuffer(segmentSize, file);
+                segmentBuffer = indexStore.mapSegment(fixSessionId, segmentIndex);
                 segmentBuffers[segmentIndex] = segmentBuffer;
             }
             return segmentBuffer;
@@ -585,19 +589,12 @@ public class ReplayIndex implements Index, RedactHandler
             close();
 
             evictionHandler.onReset(fixSessionId);
-            deleteFile(headerFile);
-            for (final File segmentFile: segmentBufferFiles)
-            {
-                if (segmentFile != null)
-                {
-                    deleteFile(segmentFile);
-                }
-            }
+            indexStore.delete(fixSessionId);
         }
 
         public void close()
         {
-            ReplayIndexDescriptor.unmapBuffers(headerBuffer, segmentBuffers);
+            indexStore.unmap(headerBuffer, segmentBuffers);
         }
 
         public void checkForNextSession(final boolean forNextSession)
@@ -613,27 +610,4 @@ public class ReplayIndex implements Index, RedactHandler
     {
         forNextSessionVersion(headerBuffer, false);
     }
-
-    private File replayIndexHeaderFile(final long fixSessionId)
-    {
-        return ReplayIndexDescriptor.replayIndexHeaderFile(logFileDir, fixSessionId, requiredStreamId);
-    }
-
-    private File replayIndexSegmentFile(final long fixSessionId, final int segmentIndex)
-    {
-        return ReplayIndexDescriptor.replayIndexSegmentFile(logFileDir, fixSessionId, requiredStreamId, segmentIndex);
-    }
-
-    void deleteFile(final File replayIndexFile)
-    {
-        if (!replayIndexFile.delete())
-        {
-            errorHandler.onError(new IOException("Unable to delete replay index file: " + replayIndexFile));
-        }
-    }
-
-    private UnsafeBuffer mapUnsafeBuffer(final int size, final File replayIndexFile)
-    {
-        return new UnsafeBuffer(bufferFactory.map(replayIndexFile, size));
-    }
 }
@@ -60,6 +60,16 @@ public final class ReplayIndexDescriptor
             logFileDir + File.separator + "replay-index-" + fixSessionId + "-" + streamId + "-" + segmentIndex);
     }
 
+    static File replayIndexDirectoryFile(final String logFileDir, final int streamId, final int chunkIndex)
+    {
+        return new File(logFileDir + File.separator + "replay-index-" + streamId + "-directory-" + chunkIndex);
+    }
+
+    static File replayIndexStoreFile(final String logFileDir, final int streamId, final int fileIndex)
+    {
+        return new File(logFileDir + File.separator + "replay-index-" + streamId + "-store-" + fileIndex);
+    }
+
     static LongHashSet listReplayIndexSessionIds(final File logFileDir, final int streamId)
     {
         final String prefix = "replay-index-";
@@ -85,11 +95,14 @@ public final class ReplayIndexDescriptor
     static void unmapBuffers(final UnsafeBuffer headerBuffer, final UnsafeBuffer[] segmentBuffers)
     {
         IoUtil.unmap(headerBuffer.byteBuffer());
-        for (final UnsafeBuffer segmentBuffer : segmentBuffers)
+        if (segmentBuffers != null)
         {
-            if (segmentBuffer != null)
+            for (final UnsafeBuffer segmentBuffer : segmentBuffers)
             {
-                IoUtil.unmap(segmentBuffer.byteBuffer());
+                if (segmentBuffer != null)
+                {
+                    IoUtil.unmap(segmentBuffer.byteBuffer());
+                }
             }
         }
     }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.collections.LongHashSet;
+import org.agrona.concurrent.UnsafeBuffer;
+
+/**
+ * Storage for the per session rings of the replay index. Each session has a header buffer, laid out as described by
+ * {@link ReplayIndexDescriptor}, and a ring of records split into segments.
+ *
+ * The {@link ReplayIndex} is the single writer and uses the non-existing variants of the methods,
+ * {@link ReplayQuery} instances only read existing sessions.
+ *
+ * @see FileReplayIndexStore
+ * @see ConsolidatedReplayIndexStore
+ */
+public interface ReplayIndexStore extends AutoCloseable
+{
+    /**
+     * Check whether the index for a session exists.
+     *
+     * @param fixSessionId the session to check.
+     * @return true if the index for the session exists, false otherwise.
+     */
+    boolean exists(long fixSessionId);
+
+    /**
+     * Map the header of a session, creating it if it doesn't exist. Used by the writer.
+     *
+     * @param fixSessionId the session to map the header of.
+     * @return the header buffer of the session.
+     */
+    UnsafeBuffer mapHeader(long fixSessionId);
+
+    /**
+     * Map a segment of a session's ring, creating it if it doesn't exist. Used by the writer.
+     *
+     * @param fixSessionId the session to map the segment of.
+     * @param segmentIndex the index of the segment within the ring.
+     * @return the segment buffer.
+     */
+    UnsafeBuffer mapSegment(long fixSessionId, int segmentIndex);
+
+    /**
+     * Map the header of an existing session. Used by readers.
+     *
+     * @param fixSessionId the session to map the header of.
+     * @return the header buffer of the session.
+     */
+    UnsafeBuffer mapExistingHeader(long fixSessionId);
+
+    /**
+     * Map an existing segment of a session's ring. Used by readers.
+     *
+     * @param fixSessionId the session to map the segment of.
+     * @param segmentIndex the index of the segment within the ring.
+     * @return the segment buffer or null if the segment hasn't been written to yet.
+     */
+    UnsafeBuffer mapExistingSegment(long fixSessionId, int segmentIndex);
+
+    /**
+     * Gets the generation of the storage behind a header buffer returned by this store. It changes when the session's
+     * index is deleted, after which the storage can be reused by another session, so readers that hold on to buffers
+     * check that it hasn't changed after reading records through them.
+     *
+     * @param headerBuffer a header buffer returned by this store.
+     * @return the generation of the storage behind the header buffer.
+     */
+    long generation(UnsafeBuffer headerBuffer);
+
+    /**
+     * Release buffers returned by this store.
+     *
+     * @param headerBuffer the header buffer to release.
+     * @param segmentBuffers the segment buffers to release, elements may be null.
+     */
+    void unmap(UnsafeBuffer headerBuffer, UnsafeBuffer[] segmentBuffers);
+
+    /**
+     * Delete the index of a session, for example when its sequence numbers are reset. Used by the writer.
+     *
+     * @param fixSessionId the session to delete the index of.
+     */
+    void delete(long fixSessionId);
+
+    /**
+     * List the sessions that have an index in this store.
+     *
+     * @return the ids of the sessions that have an index in this store.
+     */
+    LongHashSet sessionIds();
+
+    void close();
+}
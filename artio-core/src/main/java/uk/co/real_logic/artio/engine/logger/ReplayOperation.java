@@ -85,10 +85,13 @@ public class ReplayOperation
     private final LogTag logTag;
     private final CountersReader countersReader;
     private final Subscription subscription;
+    private final ColdArchiveReader coldArchiveReader;
 
     // fields reset for each recordingRange
     private int replayedMessages = 0;
     private long endPosition;
+    private long coldPosition;
+    private long coldEndPosition;
     private RecordingRange recordingRange;
     private long replaySessionId;
     private int aeronSessionId;
@@ -112,7 +115,8 @@ public class ReplayOperation
         final Subscription subscription,
         final int archiveReplayStream,
         final LogTag logTag,
-        final MessageTracker messageTracker)
+        final MessageTracker messageTracker,
+        final ColdArchiveReader coldArchiveReader)
     {
         this.messageTracker = messageTracker;
         assembler = new ControlledFragmentAssembler(this.messageTracker);
@@ -126,6 +130,7 @@ public class ReplayOperation
         final Aeron aeron = aeronArchive.context().aeron();
         countersReader = aeron.countersReader();
         this.subscription = subscription;
+        this.coldArchiveReader = coldArchiveReader;
 
         logTagEnabled = DebugLogger.isEnabled(logTag);
     }
@@ -280,34 +285,32 @@ public class ReplayOperation
                 ranges.remove(0);
             }
 
-            try
-            {
-                replaySessionId = aeronArchive.startReplay(
-                    recordingId,
-                    beginPosition,
-                    length,
-                    IPC_CHANNEL,
-                    archiveReplayStream);
-                aeronSessionId = (int)replaySessionId;
-
-                messageTracker.reset(count);
-
-                logStart(count);
+            messageTracker.reset(count);
 
-                // reset the image if the new recordingRange requires it
-                if (image != null && aeronSessionId != image.sessionId())
+            // Older parts of the range may have been moved out of the Aeron Archive
+            coldPosition = beginPosition;
+            coldEndPosition = beginPosition;
+            if (coldArchiveReader != null)
+            {
+                final long coldStopPosition = coldArchiveReader.stopPosition(recordingId);
+                if (beginPosition < coldStopPosition)
                 {
-                    image = null;
+                    coldEndPosition = Math.min(endPosition, coldStopPosition);
+                    return replayCold();
                 }
             }
-            catch (final Throwable exception)
-            {
-                errorHandler.onError(exception);
 
+            if (!startReplay(recordingId, beginPosition, length, count))
+            {
                 return true;
             }
         }
 
+        if (coldPosition < coldEndPosition)
+        {
+            return replayCold();
+        }
+
         if (image == null)
         {
             return attemptAcquireImage();
@@ -343,6 +346,97 @@ public class ReplayOperation
         }
     }
 
+    private boolean startReplay(final long recordingId, final long beginPosition, final long length, final int count)
+    {
+        try
+        {
+            replaySessionId = aeronArchive.startReplay(
+                recordingId,
+                beginPosition,
+                length,
+                IPC_CHANNEL,
+                archiveReplayStream);
+            aeronSessionId = (int)replaySessionId;
+
+            logStart(count);
+
+            // reset the image if the new recordingRange requires it
+            if (image != null && aeronSessionId != image.sessionId())
+            {
+                image = null;
+            }
+
+            return true;
+        }
+        catch (final Throwable exception)
+        {
+            errorHandler.onError(exception);
+
+            return false;
+        }
+    }
+
+    private boolean replayCold()
+    {
+        final RecordingRange recordingRange = this.recordingRange;
+        try
+        {
+            coldPosition = coldArchiveReader.read(
+                recordingRange.recordingId, coldPosition, coldEndPosition, assembler, Integer.MAX_VALUE);
+        }
+        catch (final Throwable exception)
+        {
+            errorHandler.onError(exception);
+
+            return true;
+        }
+
+        if (coldPosition < coldEndPosition)
+        {
+            // Back pressured, retry on the next iteration
+            return false;
+        }
+
+        if (coldEndPosition < endPosition)
+        {
+            // The rest of the range is still in the Aeron Archive, unless the cold archiver has moved more of it
+            // whilst it was being read. The archive's start position is read first as the cold archive is synced
+            // before segments are purged.
+            final long recordingId = recordingRange.recordingId;
+            final long startPosition;
+            try
+            {
+                startPosition = archiveStartPosition(recordingId);
+                final long coldStopPosition = coldArchiveReader.stopPosition(recordingId);
+                if (coldStopPosition > coldEndPosition)
+                {
+                    coldEndPosition = Math.min(endPosition, coldStopPosition);
+                    return false;
+                }
+            }
+            catch (final Throwable exception)
+            {
+                errorHandler.onError(exception);
+
+                return true;
+            }
+
+            if (startPosition < endPosition)
+            {
+                return !startReplay(recordingId, startPosition, endPosition - startPosition, recordingRange.count);
+            }
+        }
+
+        return onReachedMessageReplayCount(messageTracker.count, recordingRange.count);
+    }
+
+    // Replays never deliver padding frames, so the cold archive can stop short of the end of the segments that were
+    // purged, ie before the start of the recording in the Aeron Archive.
+    private long archiveStartPosition(final long recordingId)
+    {
+        return Math.max(coldEndPosition, aeronArchive.getStartPosition(recordingId));
+    }
+
     private boolean attemptAcquireImage()
     {
         if (IS_REPLAY_ATTEMPT_ENABLED)
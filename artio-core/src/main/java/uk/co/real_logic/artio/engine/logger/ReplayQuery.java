@@ -19,7 +19,6 @@ import io.aeron.Subscription;
 import io.aeron.archive.client.AeronArchive;
 import org.agrona.CloseHelper;
 import org.agrona.ErrorHandler;
-import org.agrona.IoUtil;
 import org.agrona.collections.Long2LongHashMap;
 import org.agrona.collections.Long2ObjectCache;
 import org.agrona.collections.LongHashSet;
@@ -29,7 +28,6 @@ import uk.co.real_logic.artio.LogTag;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.storage.messages.ReplayIndexRecordDecoder;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.LongFunction;
@@ -53,10 +51,7 @@ public class ReplayQuery implements AutoCloseable
 
     private final LongFunction<SessionQuery> newSessionQuery = SessionQuery::new;
     private final Long2ObjectCache<SessionQuery> fixSessionToIndex;
-    private final String logFileDir;
-    private final File logFileDirFile;
-    private final ExistingBufferFactory indexBufferFactory;
-    private final int requiredStreamId;
+    private final ReplayIndexStore indexStore;
     private final IdleStrategy idleStrategy;
     private final AeronArchive aeronArchive;
     private final ErrorHandler errorHandler;
@@ -65,25 +60,23 @@ public class ReplayQuery implements AutoCloseable
     private final int segmentSizeBitShift;
     private final int segmentCount;
     private final long indexFileSize;
+    private final ColdArchiveReader coldArchiveReader;
 
     private Subscription replaySubscription;
 
     public ReplayQuery(
-        final String logFileDir,
+        final ReplayIndexStore indexStore,
         final int cacheNumSets,
         final int cacheSetSize,
-        final ExistingBufferFactory indexBufferFactory,
-        final int requiredStreamId,
         final IdleStrategy idleStrategy,
         final AeronArchive aeronArchive,
         final ErrorHandler errorHandler,
         final int archiveReplayStream,
         final int indexFileCapacity,
-        final int indexSegmentCapacity)
+        final int indexSegmentCapacity,
+        final String coldArchiveDir)
     {
-        this.logFileDir = logFileDir;
-        this.indexBufferFactory = indexBufferFactory;
-        this.requiredStreamId = requiredStreamId;
+        this.indexStore = indexStore;
         this.idleStrategy = idleStrategy;
         this.aeronArchive = aeronArchive;
         this.errorHandler = errorHandler;
@@ -94,8 +87,8 @@ public class ReplayQuery implements AutoCloseable
         this.segmentSizeBitShift = Long.numberOfTrailingZeros(segmentSize);
         this.segmentCount = ReplayIndexDescriptor.segmentCount(indexFileCapacity, indexSegmentCapacity);
 
-        logFileDirFile = new File(logFileDir);
         fixSessionToIndex = new Long2ObjectCache<>(cacheNumSets, cacheSetSize, SessionQuery::close);
+        coldArchiveReader = coldArchiveDir == null ? null : new ColdArchiveReader(coldArchiveDir);
     }
 
     /**
@@ -118,27 +111,51 @@ public class ReplayQuery implements AutoCloseable
         final LogTag logTag,
         final MessageTracker tracker)
     {
-        return lookupSessionQuery(sessionId)
-            .query(beginSequenceNumber, beginSequenceIndex, endSequenceNumber, endSequenceIndex, logTag, tracker);
+        ReplayOperation operation;
+        while ((operation = lookupSessionQuery(sessionId).query(
+            beginSequenceNumber, beginSequenceIndex, endSequenceNumber, endSequenceIndex, logTag, tracker)) == null)
+        {
+            fixSessionToIndex.remove(sessionId);
+        }
+        return operation;
     }
 
     public void queryStartPositions(final Long2LongHashMap newStartPositions)
     {
-        final LongHashSet allSessionIds = listReplayIndexSessionIds(logFileDirFile, requiredStreamId);
+        final LongHashSet allSessionIds = indexStore.sessionIds();
 
         // Run over existing session queries first in order to minimise cache evictions then reloads.
+        final LongHashSet staleSessionIds = new LongHashSet();
         for (final SessionQuery query : fixSessionToIndex.values())
         {
-            aggregateLowerPosition(query.queryStartPositions(), newStartPositions);
-            allSessionIds.remove(query.fixSessionId);
+            final Long2LongHashMap startPositions = query.queryStartPositions();
+            if (startPositions == null)
+            {
+                staleSessionIds.add(query.fixSessionId);
+            }
+            else
+            {
+                aggregateLowerPosition(startPositions, newStartPositions);
+                allSessionIds.remove(query.fixSessionId);
+            }
+        }
+
+        final LongHashSet.LongIterator staleSessionIdIt = staleSessionIds.iterator();
+        while (staleSessionIdIt.hasNext())
+        {
+            fixSessionToIndex.remove(staleSessionIdIt.nextValue());
         }
 
         final LongHashSet.LongIterator sessionIdIt = allSessionIds.iterator();
         while (sessionIdIt.hasNext())
         {
             final long sessionId = sessionIdIt.nextValue();
-            final SessionQuery query = lookupSessionQuery(sessionId);
-            aggregateLowerPosition(query.queryStartPositions(), newStartPositions);
+            Long2LongHashMap startPositions;
+            while ((startPositions = lookupSessionQuery(sessionId).queryStartPositions()) == null)
+            {
+                fixSessionToIndex.remove(sessionId);
+            }
+            aggregateLowerPosition(startPositions, newStartPositions);
         }
     }
 
@@ -151,7 +168,7 @@ public class ReplayQuery implements AutoCloseable
     {
         fixSessionToIndex.clear();
 
-        CloseHelper.close(replaySubscription);
+        CloseHelper.closeAll(replaySubscription, indexStore, coldArchiveReader);
     }
 
     public void onReset(final long fixSessionId)
@@ -163,18 +180,18 @@ public class ReplayQuery implements AutoCloseable
     {
         private final long fixSessionId;
 
-        private final File headerFile;
         private final UnsafeBuffer headerBuffer;
         private final UnsafeBuffer[] segmentBuffers;
 
         private final int actingBlockLength;
         private final int actingVersion;
+        private final long generation;
 
         SessionQuery(final long fixSessionId)
         {
             segmentBuffers = new UnsafeBuffer[segmentCount];
-            headerFile = replayIndexHeaderFile(logFileDir, fixSessionId, requiredStreamId);
-            headerBuffer = new UnsafeBuffer(indexBufferFactory.map(headerFile));
+            headerBuffer = indexStore.mapExistingHeader(fixSessionId);
+            generation = indexStore.generation(headerBuffer);
             this.fixSessionId = fixSessionId;
 
             messageFrameHeader.wrap(headerBuffer, 0);
@@ -182,6 +199,7 @@ public class ReplayQuery implements AutoCloseable
             actingVersion = messageFrameHeader.version();
         }
 
+        // Returns null if the session's index has been deleted since this query was created, see isStale().
         ReplayOperation query(
             final int beginSequenceNumber,
             final int beginSequenceIndex,
@@ -225,6 +243,11 @@ public class ReplayQuery implements AutoCloseable
 
                 final UnsafeBuffer segmentBuffer = segmentBuffer(
                     iteratorPosition, segmentSizeBitShift, segmentBuffers, indexFileSize);
+                if (segmentBuffer == null)
+                {
+                    // Nothing has been written to this segment yet
+                    break;
+                }
                 final int offset = offsetInSegment(iteratorPosition, segmentSize);
 
                 indexRecord.wrap(segmentBuffer, offset, actingBlockLength, actingVersion);
@@ -279,9 +302,21 @@ public class ReplayQuery implements AutoCloseable
                 ranges.add(currentRange);
             }
 
+            if (isStale())
+            {
+                return null;
+            }
+
             return newReplayOperation(ranges, logTag, messageTracker);
         }
 
+        // The store may have reused the buffers for another session's index since the session's index was deleted.
+        private boolean isStale()
+        {
+            UNSAFE.loadFence(); // LoadLoad required so the record loads don't move past the generation check.
+            return indexStore.generation(headerBuffer) != generation;
+        }
+
         private UnsafeBuffer segmentBuffer(
             final long position,
             final int segmentSizeBitShift,
@@ -292,8 +327,7 @@ public class ReplayQuery implements AutoCloseable
             UnsafeBuffer segmentBuffer = segmentBuffers[segmentIndex];
             if (segmentBuffer == null)
             {
-                final File file = replayIndexSegmentFile(logFileDir, fixSessionId, requiredStreamId, segmentIndex);
-                segmentBuffer = new UnsafeBuffer(indexBufferFactory.map(file));
+                segmentBuffer = indexStore.mapExistingSegment(fixSessionId, segmentIndex);
                 segmentBuffers[segmentIndex] = segmentBuffer;
             }
             return segmentBuffer;
@@ -337,7 +371,8 @@ public class ReplayQuery implements AutoCloseable
                 replaySubscription,
                 archiveReplayStream,
                 logTag,
-                messageTracker);
+                messageTracker,
+                coldArchiveReader);
         }
 
         private RecordingRange addRange(
@@ -384,7 +419,14 @@ public class ReplayQuery implements AutoCloseable
             return iteratorPosition;
         }
 
-        public Long2LongHashMap queryStartPositions()
+        // Returns null if the session's index has been deleted since this query was created, see isStale().
+        Long2LongHashMap queryStartPositions()
+        {
+            final Long2LongHashMap recordingIdToStartPosition = scanStartPositions();
+            return isStale() ? null : recordingIdToStartPosition;
+        }
+
+        private Long2LongHashMap scanStartPositions()
         {
             final Long2LongHashMap recordingIdToStartPosition = new Long2LongHashMap(NULL_VALUE);
 
@@ -417,6 +459,11 @@ public class ReplayQuery implements AutoCloseable
 
                 final UnsafeBuffer segmentBuffer = segmentBuffer(
                     iteratorPosition, segmentSizeBitShift, segmentBuffers, indexFileSize);
+                if (segmentBuffer == null)
+                {
+                    // Nothing has been written to this segment yet
+                    return recordingIdToStartPosition;
+                }
                 final int offset = offsetInSegment(iteratorPosition, segmentSize);
 
                 indexRecord.wrap(segmentBuffer, offset, actingBlockLength, actingVersion);
@@ -452,14 +499,7 @@ public class ReplayQuery implements AutoCloseable
 
         public void close()
         {
-            IoUtil.unmap(headerBuffer.byteBuffer());
-            for (final UnsafeBuffer segmentBuffer : segmentBuffers)
-            {
-                if (segmentBuffer != null)
-                {
-                    IoUtil.unmap(segmentBuffer.byteBuffer());
-                }
-            }
+            indexStore.unmap(headerBuffer, segmentBuffers);
         }
     }
 
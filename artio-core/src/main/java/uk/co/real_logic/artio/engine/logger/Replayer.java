@@ -113,6 +113,9 @@ public class Replayer extends AbstractReplayer
     private final FixPRetransmitHandler fixPRetransmitHandler;
     private final UtcTimestampEncoder utcTimestampEncoder;
 
+    // Messages excluded from the replay index are expected to be missing from a replay
+    final boolean replayIndexFiltered;
+
     public Replayer(
         final ReplayQuery outboundReplayQuery,
         final ExclusivePublication publication,
@@ -155,6 +158,9 @@ public class Replayer extends AbstractReplayer
         this.clock = clock;
         this.configuration = configuration;
 
+        final ReplayIndexFilter replayIndexFilter = configuration.replayIndexFilter();
+        replayIndexFiltered = replayIndexFilter != null && replayIndexFilter != ReplayIndexFilter.INDEX_ALL;
+
         gapFillMessageTypes = packAllMessageTypes(gapfillOnReplayMessageTypes);
         utcTimestampEncoder = new UtcTimestampEncoder(epochFractionFormat);
 
@@ -37,6 +37,11 @@ import static uk.co.real_logic.artio.engine.SectorFramer.nextSectorStart;
  * Series of LastKnownSequenceNumber records
  * ...
  * Positions Table
+ * <p>
+ * The metadata file, see {@link #metaDataFile(String)}, starts with a big endian header of the magic number, file
+ * version, the offset of the first slot and the offset after the last slot. Each slot has a sequence that is odd
+ * whilst the slot is being written, the slot's capacity and the length of its value, followed by the value itself.
+ * The metadata position of a LastKnownSequenceNumber record is the offset of its slot.
  */
 final class SequenceNumberIndexDescriptor
 {
@@ -45,10 +50,21 @@ final class SequenceNumberIndexDescriptor
 
     static final int NO_META_DATA = -1;
     static final long META_DATA_MAGIC_NUMBER = 0xBEEF;
-    static final int META_DATA_FILE_VERSION = 1;
+    static final int LEGACY_META_DATA_FILE_VERSION = 1;
+    static final int META_DATA_FILE_VERSION = 2;
     static final int READABLE_META_DATA_FILE_VERSION = META_DATA_FILE_VERSION;
-    static final int META_DATA_FILE_HEADER_LENGTH = SIZE_OF_LONG + SIZE_OF_INT;
-    static final int SIZE_OF_META_DATA_LENGTH = SIZE_OF_INT;
+    static final int LEGACY_META_DATA_FILE_HEADER_LENGTH = SIZE_OF_LONG + SIZE_OF_INT;
+
+    static final int META_DATA_VERSION_OFFSET = SIZE_OF_LONG;
+    static final int META_DATA_SLOTS_START_OFFSET = META_DATA_VERSION_OFFSET + SIZE_OF_INT;
+    static final int META_DATA_END_OF_SLOTS_OFFSET = META_DATA_SLOTS_START_OFFSET + SIZE_OF_INT;
+    static final int META_DATA_FILE_HEADER_LENGTH = 32;
+
+    static final int META_DATA_SLOT_SEQUENCE_OFFSET = 0;
+    static final int META_DATA_SLOT_CAPACITY_OFFSET = META_DATA_SLOT_SEQUENCE_OFFSET + SIZE_OF_LONG;
+    static final int META_DATA_SLOT_LENGTH_OFFSET = META_DATA_SLOT_CAPACITY_OFFSET + SIZE_OF_INT;
+    static final int META_DATA_SLOT_HEADER_LENGTH = META_DATA_SLOT_LENGTH_OFFSET + SIZE_OF_INT;
+    static final int MIN_META_DATA_SLOT_CAPACITY = 16;
 
     static final double SEQUENCE_NUMBER_RATIO = 0.9;
 
@@ -57,6 +73,11 @@ final class SequenceNumberIndexDescriptor
         return new File(logFileDir + "/metadata");
     }
 
+    static File legacyMetaDataFile(final String logFileDir)
+    {
+        return new File(logFileDir + "/metadata-v1");
+    }
+
     static AtomicBuffer positionsBuffer(final AtomicBuffer buffer, final int positionsOffset)
     {
         return new UnsafeBuffer(buffer, positionsOffset, buffer.capacity() - positionsOffset);
@@ -18,24 +18,20 @@ package uk.co.real_logic.artio.engine.logger;
 import org.agrona.CloseHelper;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
-import org.agrona.LangUtil;
 import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.hints.ThreadHints;
 import uk.co.real_logic.artio.engine.SectorFramer;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.messages.MetaDataStatus;
 import uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberDecoder;
 import uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.io.RandomAccessFile;
-
 import static io.aeron.archive.status.RecordingPos.NULL_RECORDING_ID;
 import static uk.co.real_logic.artio.engine.ConnectedSessionInfo.UNK_SESSION;
 import static uk.co.real_logic.artio.engine.SectorFramer.OUT_OF_SPACE;
 import static uk.co.real_logic.artio.engine.logger.IndexedPositionReader.UNKNOWN_POSITION;
 import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexDescriptor.*;
+import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexWriter.META_DATA_OFFSET;
 import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder.BLOCK_LENGTH;
 import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder.SCHEMA_VERSION;
 
@@ -44,6 +40,9 @@ import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEnc
  */
 public class SequenceNumberIndexReader implements AutoCloseable
 {
+    // The writer only holds a slot mid-write for a single copy, so a read that fails this many times won't succeed
+    private static final int MAX_META_DATA_READ_ATTEMPTS = 10_000;
+
     private final MessageHeaderDecoder fileHeaderDecoder = new MessageHeaderDecoder();
     private final LastKnownSequenceNumberDecoder lastKnownDecoder = new LastKnownSequenceNumberDecoder();
     private final AtomicBuffer inMemoryBuffer;
@@ -51,7 +50,7 @@ public class SequenceNumberIndexReader implements AutoCloseable
     private final IndexedPositionReader positions;
     private final ErrorHandler errorHandler;
     private final RecordingIdLookup recordingIdLookup;
-    private final RandomAccessFile metaDataFile;
+    private final MetaDataStoreReader metaDataStore;
 
     public SequenceNumberIndexReader(
         final AtomicBuffer inMemoryBuffer,
@@ -66,25 +65,7 @@ public class SequenceNumberIndexReader implements AutoCloseable
         sectorFramer = new SectorFramer(positionTableOffset);
         validateBuffer();
         positions = new IndexedPositionReader(positionsBuffer(inMemoryBuffer, positionTableOffset));
-        metaDataFile = openMetaDataFile(metaDataDir);
-    }
-
-    private RandomAccessFile openMetaDataFile(final String metaDataDir)
-    {
-        if (metaDataDir != null)
-        {
-            final File metaDataFile = metaDataFile(metaDataDir);
-
-            try
-            {
-                return new RandomAccessFile(metaDataFile, "r");
-            }
-            catch (final FileNotFoundException e)
-            {
-                LangUtil.rethrowUnchecked(e);
-            }
-        }
-        return null;
+        metaDataStore = metaDataDir != null ? new MetaDataStoreReader(metaDataFile(metaDataDir)) : null;
     }
 
     public int lastKnownSequenceNumber(final long sessionId)
@@ -136,7 +117,7 @@ public class SequenceNumberIndexReader implements AutoCloseable
 
     public MetaDataStatus readMetaData(final long sessionId, final DirectBuffer buffer)
     {
-        if (metaDataFile == null)
+        if (metaDataStore == null)
         {
             return MetaDataStatus.FILE_ERROR;
         }
@@ -146,34 +127,43 @@ public class SequenceNumberIndexReader implements AutoCloseable
             return MetaDataStatus.UNKNOWN_SESSION;
         }
 
-        final int metaDataPosition = lastKnownDecoder.metaDataPosition();
-        if (metaDataPosition == NO_META_DATA)
-        {
-            return MetaDataStatus.NO_META_DATA;
-        }
-
-        try
+        for (int attempt = 0; attempt < MAX_META_DATA_READ_ATTEMPTS; attempt++)
         {
-            metaDataFile.seek(metaDataPosition);
-            final int metaDataLength = metaDataFile.readInt();
+            final int metaDataPosition = metaDataPosition();
+            // The record is cleared if all sequence numbers are reset
+            if (lastKnownDecoder.sessionId() != sessionId)
+            {
+                return MetaDataStatus.UNKNOWN_SESSION;
+            }
 
-            final byte[] metaDataValue = new byte[metaDataLength];
-            metaDataFile.read(metaDataValue);
+            if (metaDataPosition == NO_META_DATA)
+            {
+                return MetaDataStatus.NO_META_DATA;
+            }
 
-            buffer.wrap(metaDataValue);
+            // The slot can be moved or reused by the writer whilst it's being read, in which case the index no
+            // longer refers to it.
+            if (metaDataStore.read(metaDataPosition, buffer) && metaDataPosition == metaDataPosition() &&
+                lastKnownDecoder.sessionId() == sessionId)
+            {
+                return MetaDataStatus.OK;
+            }
 
-            return MetaDataStatus.OK;
-        }
-        catch (final IOException e)
-        {
-            errorHandler.onError(e);
-            return MetaDataStatus.FILE_ERROR;
+            ThreadHints.onSpinWait();
         }
+
+        // The slot has stayed mid-write or inconsistent, eg: the writer died whilst updating it or the file is corrupt
+        return MetaDataStatus.FILE_ERROR;
+    }
+
+    private int metaDataPosition()
+    {
+        return inMemoryBuffer.getIntVolatile(lastKnownDecoder.offset() + META_DATA_OFFSET);
     }
 
     public void close()
     {
-        CloseHelper.close(metaDataFile);
+        CloseHelper.close(metaDataStore);
     }
 
 }
@@ -22,6 +22,7 @@ import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
 import org.agrona.LangUtil;
 import org.agrona.collections.CollectionUtil;
+import org.agrona.collections.IntArrayList;
 import org.agrona.collections.Long2LongHashMap;
 import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.concurrent.AtomicBuffer;
@@ -38,7 +39,6 @@ import uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -87,10 +87,10 @@ public class SequenceNumberIndexWriter implements Index, RedactHandler
     private final Long2LongHashMap recordOffsets = new Long2LongHashMap(MISSING_RECORD);
 
     // Meta data state
-    private final File metaDataLocation;
     private final List<WriteMetaDataResponse> responsesToResend = new ArrayList<>();
     private final Predicate<WriteMetaDataResponse> sendResponseFunc = this::sendResponse;
-    private final RandomAccessFile metaDataFile;
+    private final MetaDataStoreWriter metaDataStore;
+    private final MetaDataStoreWriter.SlotMovedHandler onMetaDataSlotMovedFunc = this::putMetaDataField;
     private final SequenceNumberIndexReader reader;
     private byte[] metaDataWriteBuffer = new byte[0];
     private final Long2ObjectHashMap<Long2LongHashMap> sessionIdToRedactPositions = new Long2ObjectHashMap<>();
@@ -175,13 +175,20 @@ public class SequenceNumberIndexWriter implements Index, RedactHandler
 
             if (metaDataDir != null)
             {
-                metaDataLocation = metaDataFile(metaDataDir);
-                metaDataFile = openMetaDataFile(metaDataLocation);
+                metaDataStore = new MetaDataStoreWriter(metaDataFile(metaDataDir), legacyMetaDataFile(metaDataDir));
+                try
+                {
+                    recoverMetaDataStore();
+                }
+                catch (final Exception e)
+                {
+                    Exceptions.suppressingClose(metaDataStore, e);
+                    throw e;
+                }
             }
             else
             {
-                metaDataLocation = null;
-                metaDataFile = null;
+                metaDataStore = null;
             }
         }
         catch (final Exception e)
@@ -200,47 +207,65 @@ public class SequenceNumberIndexWriter implements Index, RedactHandler
                 saveRecord(seqNum, uuid, endPosition, NO_REQUIRED_POSITION, possRetrans));
     }
 
-    private RandomAccessFile openMetaDataFile(final File metaDataLocation)
+    private void recoverMetaDataStore()
     {
-        RandomAccessFile file = null;
-        try
+        final MetaDataStoreWriter metaDataStore = this.metaDataStore;
+        final IntArrayList legacyRecordOffsets = new IntArrayList();
+
+        int recordOffset = SequenceNumberIndexDescriptor.HEADER_SIZE;
+        while (true)
         {
-            file = new RandomAccessFile(metaDataLocation, "rw");
-            if (file.length() == 0)
+            recordOffset = checksumFramer.claim(recordOffset, RECORD_SIZE);
+            if (recordOffset == OUT_OF_SPACE)
             {
-                writeMetaDataFileHeader(file);
+                break;
             }
-            else
+
+            lastKnownDecoder.wrap(inMemoryBuffer, recordOffset, RECORD_SIZE, SCHEMA_VERSION);
+            if (lastKnownDecoder.sessionId() == 0)
             {
-                final long magicNumber = file.readLong();
-                final int fileVersion = file.readInt();
+                break;
+            }
 
-                if (magicNumber != META_DATA_MAGIC_NUMBER)
+            final int metaDataPosition = getMetaData(recordOffset);
+            if (metaDataPosition != NO_META_DATA)
+            {
+                if (metaDataStore.isLegacyPosition(metaDataPosition))
                 {
-                    throw new IllegalStateException("Invalid magic number in metadata file: " + magicNumber);
+                    legacyRecordOffsets.addInt(recordOffset);
                 }
-
-                if (fileVersion < READABLE_META_DATA_FILE_VERSION)
+                else
                 {
-                    throw new IllegalStateException("Unreadable metadata file version: " + fileVersion);
+                    metaDataStore.onLiveSlot(metaDataPosition, recordOffset);
                 }
             }
-            return file;
+
+            recordOffset += RECORD_SIZE;
         }
-        catch (final IOException | IllegalStateException e)
+
+        // Import legacy values after the free slots are known so that slots left by an interrupted import get reused
+        metaDataStore.recoverFreeSlots();
+        try
+        {
+            for (int i = 0, size = legacyRecordOffsets.size(); i < size; i++)
+            {
+                final int legacyRecordOffset = legacyRecordOffsets.getInt(i);
+                final int metaDataPosition = metaDataStore.importLegacySlot(
+                    getMetaData(legacyRecordOffset), legacyRecordOffset);
+                putMetaDataField(legacyRecordOffset, metaDataPosition);
+            }
+
+            // The legacy file can only be deleted once the index that refers to the imported slots is on disk
+            if (!legacyRecordOffsets.isEmpty())
+            {
+                updateFile();
+            }
+            metaDataStore.deleteLegacyFile();
+        }
+        catch (final IOException e)
         {
-            Exceptions.suppressingClose(file, e);
             LangUtil.rethrowUnchecked(e);
         }
-
-        return null;
-    }
-
-    private void writeMetaDataFileHeader(final RandomAccessFile file) throws IOException
-    {
-        file.writeLong(META_DATA_MAGIC_NUMBER);
-        file.writeInt(META_DATA_FILE_VERSION);
-        file.getFD().sync();
     }
 
     public void onCatchup(
@@ -563,7 +588,7 @@ public class SequenceNumberIndexWriter implements Index, RedactHandler
         final long correlationId = writeMetaData.correlationId();
         final int metaDataOffset = writeMetaData.metaDataOffset();
 
-        if (framerContext == null || metaDataFile == null)
+        if (metaDataStore == null)
         {
             writeMetaDataResponse(libraryId, correlationId, MetaDataStatus.FILE_ERROR);
 
@@ -607,25 +632,23 @@ public class SequenceNumberIndexWriter implements Index, RedactHandler
             }
             else
             {
-                metaDataFile.seek(oldMetaDataPosition);
-                final int oldMetaDataLength = metaDataFile.readInt();
                 final int newMetaDataMinLength = metaDataUpdateOffset + metaDataUpdateLength;
                 // Is there space to replace?
-                if (newMetaDataMinLength <= oldMetaDataLength)
+                if (metaDataStore.fits(oldMetaDataPosition, newMetaDataMinLength))
                 {
-                    metaDataFile.seek(oldMetaDataPosition + SIZE_OF_META_DATA_LENGTH + metaDataUpdateOffset);
-                    metaDataFile.write(metaDataValue, metaDataUpdateOffset, metaDataUpdateLength);
+                    metaDataStore.update(
+                        oldMetaDataPosition, metaDataValue, metaDataUpdateOffset, metaDataUpdateLength);
                 }
                 else
                 {
                     // Pickup the old prefix that will be copied if it's an update
                     if (metaDataUpdateOffset > 0)
                     {
-                        // Already at the old metadata position
-                        metaDataFile.read(metaDataValue, 0, metaDataUpdateOffset);
+                        metaDataStore.readValue(oldMetaDataPosition, metaDataValue, metaDataUpdateOffset);
                     }
 
                     allocateMetaDataSlot(sequenceNumberIndexFilePosition, metaDataValue, newMetaDataMinLength);
+                    metaDataStore.free(oldMetaDataPosition);
                 }
             }
 
@@ -644,22 +667,20 @@ public class SequenceNumberIndexWriter implements Index, RedactHandler
         final byte[] metaDataValue,
         final int metaDataLength) throws IOException
     {
-        final int metaDataFileInitialLength = (int)metaDataFile.length();
-        updateMetaDataFile(metaDataFileInitialLength, metaDataValue, metaDataLength);
-        putMetaDataField(sequenceNumberIndexFilePosition, metaDataFileInitialLength);
+        final int metaDataPosition = metaDataStore.allocate(
+            sequenceNumberIndexFilePosition, metaDataValue, metaDataLength);
+        putMetaDataField(sequenceNumberIndexFilePosition, metaDataPosition);
         hasSavedRecordSinceFileUpdate = true;
     }
 
-    private void updateMetaDataFile(
-        final int position, final byte[] metaDataValue, final int metaDataLength) throws IOException
-    {
-        metaDataFile.seek(position);
-        metaDataFile.writeInt(metaDataValue.length);
-        metaDataFile.write(metaDataValue, 0, metaDataLength);
-    }
-
     private void writeMetaDataResponse(final int libraryId, final long correlationId, final MetaDataStatus status)
     {
+        // Standby engines index replicated writes without a framer: the primary answers the library.
+        if (framerContext == null)
+        {
+            return;
+        }
+
         final WriteMetaDataResponse response = new WriteMetaDataResponse(libraryId, correlationId, status);
         if (!sendResponse(response))
         {
@@ -671,6 +692,16 @@ public class SequenceNumberIndexWriter implements Index, RedactHandler
     {
         int work = positionWriter != null ? positionWriter.checkRecordings() : 0;
 
+        if (metaDataStore != null)
+        {
+            final int compactionWork = metaDataStore.compact(onMetaDataSlotMovedFunc);
+            if (compactionWork > 0)
+            {
+                hasSavedRecordSinceFileUpdate = true;
+                work += compactionWork;
+            }
+        }
+
         if (hasSavedRecordSinceFileUpdate)
         {
             final long requiredUpdateTimeInMs = lastUpdatedFileTimeInMs + indexFileStateFlushTimeoutInMs;
@@ -704,18 +735,9 @@ public class SequenceNumberIndexWriter implements Index, RedactHandler
 
     private void resetMetaDataFile()
     {
-        if (metaDataLocation != null)
+        if (metaDataStore != null)
         {
-            try
-            {
-                metaDataFile.seek(0);
-                metaDataFile.setLength(META_DATA_FILE_HEADER_LENGTH);
-                writeMetaDataFileHeader(metaDataFile);
-            }
-            catch (final IOException e)
-            {
-                errorHandler.onError(e);
-            }
+            metaDataStore.reset();
         }
     }
 
@@ -743,6 +765,10 @@ public class SequenceNumberIndexWriter implements Index, RedactHandler
         }
         saveFile();
         flipFiles();
+        if (metaDataStore != null)
+        {
+            metaDataStore.releasePendingSlots();
+        }
         hasSavedRecordSinceFileUpdate = false;
         lastUpdatedFileTimeInMs = clock.time();
     }
@@ -756,16 +782,9 @@ public class SequenceNumberIndexWriter implements Index, RedactHandler
 
     private void syncMetaDataFile()
     {
-        if (metaDataFile != null)
+        if (metaDataStore != null)
         {
-            try
-            {
-                metaDataFile.getFD().sync();
-            }
-            catch (final IOException e)
-            {
-                errorHandler.onError(e);
-            }
+            metaDataStore.force();
         }
     }
 
@@ -830,20 +849,7 @@ public class SequenceNumberIndexWriter implements Index, RedactHandler
         }
         finally
         {
-            Exceptions.closeAll(indexFile, writableFile, reader, () ->
-            {
-                if (metaDataFile != null)
-                {
-                    try
-                    {
-                        metaDataFile.close();
-                    }
-                    catch (final IOException e)
-                    {
-                        errorHandler.onError(e);
-                    }
-                }
-            });
+            Exceptions.closeAll(indexFile, writableFile, reader, metaDataStore);
         }
     }
 
@@ -956,16 +962,7 @@ public class SequenceNumberIndexWriter implements Index, RedactHandler
                 if (oldMetaDataPosition != NO_META_DATA)
                 {
                     putMetaDataField(recordOffset, NO_META_DATA);
-                    try
-                    {
-                        metaDataFile.seek(oldMetaDataPosition);
-                        final int metaDataLength = metaDataFile.readInt();
-                        updateMetaDataFile(oldMetaDataPosition, new byte[metaDataLength], metaDataLength);
-                    }
-                    catch (final IOException e)
-                    {
-                        errorHandler.onError(e);
-                    }
+                    metaDataStore.free(oldMetaDataPosition);
                 }
             }
             hasSavedRecordSinceFileUpdate = true;
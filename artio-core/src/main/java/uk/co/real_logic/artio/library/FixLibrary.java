@@ -80,6 +80,7 @@ public class FixLibrary extends GatewayProcess
         {
             scheduler.configure(configuration.aeronContext());
             init(configuration, configuration.libraryId());
+            fixCounters.bindIdleStrategy(configuration.libraryIdleStrategy(), "Library " + configuration.libraryId());
             final LibraryTimers timers = new LibraryTimers(
                 configuration.epochNanoClock(), fixCounters.negativeTimestamps());
             initMonitoringAgent(timers.all(), configuration, null, null);
@@ -385,6 +386,24 @@ public class FixLibrary extends GatewayProcess
         return poller.sessionWriter(sessionId, connectionId, sequenceIndex);
     }
 
+    /**
+     * Gets the sender for a session that this library owns, creating it if necessary. Unlike the Session itself the
+     * sender can be used to send messages from any thread: messages are queued and then sent, with their sequence
+     * numbers assigned, by this library's polling thread. See {@link SessionSender} for details.
+     *
+     * This method must be called on the library's polling thread, for example in your
+     * {@link SessionAcquireHandler}. Once the session is released, disconnected or times out the sender stops
+     * accepting messages, and a new sender should be obtained if the session is acquired again.
+     *
+     * @param session the session to send messages on.
+     * @return the sender for the session.
+     * @see LibraryConfiguration#sessionSendQueueCapacity(int)
+     */
+    public SessionSender sessionSender(final Session session)
+    {
+        return poller.sessionSender(session);
+    }
+
     /**
      * Create a SessionWriter for a Session from a different Artio instance. This SessionWriter can be used in a
      * clustered system to fill the archive on a follower node with FIX messages that have been replicated by a
@@ -15,6 +15,7 @@
  */
 package uk.co.real_logic.artio.library;
 
+import org.agrona.BitUtil;
 import org.agrona.concurrent.EpochNanoClock;
 import org.agrona.concurrent.IdleStrategy;
 import uk.co.real_logic.artio.CommonConfiguration;
@@ -66,6 +67,9 @@ public final class LibraryConfiguration extends CommonConfiguration
     };
 
     public static final SessionProxyFactory DEFAULT_SESSION_PROXY_FACTORY = DirectSessionProxy::new;
+    public static final int DEFAULT_SESSION_WORKER_THREADS = 0;
+    public static final int DEFAULT_SESSION_WORKER_QUEUE_CAPACITY = 1024 * 1024;
+    public static final int DEFAULT_SESSION_SEND_QUEUE_CAPACITY = 64;
 
     private final int libraryId;
 
@@ -89,6 +93,12 @@ public final class LibraryConfiguration extends CommonConfiguration
     private LibraryScheduler scheduler = new DefaultLibraryScheduler();
     private String libraryName = "";
     private SessionProxyFactory sessionProxyFactory = DEFAULT_SESSION_PROXY_FACTORY;
+    private boolean shareSessionCodecs = false;
+    private int sessionWorkerThreads = DEFAULT_SESSION_WORKER_THREADS;
+    private int sessionWorkerQueueCapacity = DEFAULT_SESSION_WORKER_QUEUE_CAPACITY;
+    private int sessionSendQueueCapacity = DEFAULT_SESSION_SEND_QUEUE_CAPACITY;
+    private RoutedMessagePredicate routedMessagePredicate;
+    private RoutedMessageHandler routedMessageHandler;
     private FixPConnectionExistsHandler fixPConnectionExistsHandler;
     private FixPConnectionAcquiredHandler fixPConnectionAcquiredHandler;
 
@@ -126,7 +136,8 @@ public final class LibraryConfiguration extends CommonConfiguration
     }
 
     /**
-     * Sets the idle strategy for the FIX library instance.
+     * Sets the idle strategy for the FIX library instance. If this is an
+     * {@link uk.co.real_logic.artio.AdaptiveIdleStrategy} then its state is exposed via counters.
      *
      * @param libraryIdleStrategy the idle strategy for the FIX library instance.
      * @return this
@@ -256,6 +267,119 @@ public final class LibraryConfiguration extends CommonConfiguration
         return this;
     }
 
+    /**
+     * Share the buffers and codecs that sessions use to parse and send session level messages between all the
+     * sessions of this library that have the same FIX dictionary, rather than each session allocating its own. This
+     * cuts the heap footprint of libraries with many sessions. Sessions keep their own sequence numbers, timers and
+     * header encoders.
+     *
+     * The shared state is only used whilst a message is being parsed or sent, so this is safe because a library is
+     * single threaded. Buffers are only shared with the default session proxy factory.
+     *
+     * @param shareSessionCodecs true to share codecs and buffers between sessions, false by default.
+     * @return this
+     */
+    public LibraryConfiguration shareSessionCodecs(final boolean shareSessionCodecs)
+    {
+        this.shareSessionCodecs = shareSessionCodecs;
+        return this;
+    }
+
+    /**
+     * Invoke the {@link SessionHandler} callbacks of this library's sessions on a pool of worker threads rather than
+     * on the library's poller thread. The poller thread remains responsible for all IO: it hands each decoded message
+     * to the worker that its session is pinned to and sends the messages that the workers have queued up.
+     *
+     * Each session is pinned to one worker by its session id, so its callbacks are invoked in order and never
+     * concurrently. Callbacks for different sessions may be invoked concurrently. When enabled, handlers must send
+     * messages through the {@link SessionSender} from {@link SessionAcquiredInfo#sessionSender()} rather than by
+     * calling {@link uk.co.real_logic.artio.session.Session#trySend} directly, since only the poller thread may
+     * assign sequence numbers. Worker threads are created using {@link #threadFactory()}.
+     *
+     * @param sessionWorkerThreads the number of worker threads, 0 to invoke callbacks on the poller thread, which is
+     *                             the default.
+     * @return this
+     */
+    public LibraryConfiguration sessionWorkerThreads(final int sessionWorkerThreads)
+    {
+        this.sessionWorkerThreads = sessionWorkerThreads;
+        return this;
+    }
+
+    /**
+     * Sets the capacity in bytes of the queue of callbacks that the poller hands to each session worker. If a worker's
+     * queue is full the poller back-pressures the message, as if the handler had returned
+     * {@link io.aeron.logbuffer.ControlledFragmentHandler.Action#ABORT}.
+     *
+     * @param sessionWorkerQueueCapacity the capacity in bytes, must be a power of two.
+     * @return this
+     * @see #sessionWorkerThreads(int)
+     */
+    public LibraryConfiguration sessionWorkerQueueCapacity(final int sessionWorkerQueueCapacity)
+    {
+        this.sessionWorkerQueueCapacity = sessionWorkerQueueCapacity;
+        return this;
+    }
+
+    /**
+     * Sets the number of messages that can be queued up by a {@link SessionSender} before they are sent by the poller.
+     *
+     * @param sessionSendQueueCapacity the number of messages, must be a power of two.
+     * @return this
+     * @see FixLibrary#sessionSender(uk.co.real_logic.artio.session.Session)
+     */
+    public LibraryConfiguration sessionSendQueueCapacity(final int sessionSendQueueCapacity)
+    {
+        this.sessionSendQueueCapacity = sessionSendQueueCapacity;
+        return this;
+    }
+
+    /**
+     * Route inbound messages of sessions that are owned by other libraries, or by the engine, to this library as
+     * well. The owning library still handles each message, including all session level messages and sequence number
+     * processing, whilst this library receives a read-only copy in its {@link RoutedMessageHandler}. This allows the
+     * processing of a single busy session, for example a drop copy session, to be spread across several library
+     * threads or processes.
+     *
+     * Every library already subscribes to the engine's inbound stream, so routing doesn't cost the engine or the owning
+     * library anything, messages are selected as this library polls them.
+     *
+     * @param routedMessagePredicate selects which messages are routed to this library.
+     * @return this
+     * @see #routedMessageTypes(String...)
+     * @see #routedMessageHandler(RoutedMessageHandler)
+     */
+    public LibraryConfiguration routedMessagePredicate(final RoutedMessagePredicate routedMessagePredicate)
+    {
+        this.routedMessagePredicate = routedMessagePredicate;
+        return this;
+    }
+
+    /**
+     * Route inbound messages of the given message types from sessions owned by other libraries to this library, see
+     * {@link #routedMessagePredicate(RoutedMessagePredicate)}.
+     *
+     * @param messageTypes the fix message type strings that you see in the message, for example "8".
+     * @return this
+     */
+    public LibraryConfiguration routedMessageTypes(final String... messageTypes)
+    {
+        return routedMessagePredicate(RoutedMessagePredicate.messageTypeOf(messageTypes));
+    }
+
+    /**
+     * Sets the handler for messages that are routed to this library, see
+     * {@link #routedMessagePredicate(RoutedMessagePredicate)}.
+     *
+     * @param routedMessageHandler the handler for routed messages.
+     * @return this
+     */
+    public LibraryConfiguration routedMessageHandler(final RoutedMessageHandler routedMessageHandler)
+    {
+        this.routedMessageHandler = routedMessageHandler;
+        return this;
+    }
+
     // ------------------------
     // BEGIN INHERITED SETTERS
     // ------------------------
@@ -306,6 +430,15 @@ public final class LibraryConfiguration extends CommonConfiguration
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public LibraryConfiguration messageTraceSampleInterval(final int messageTraceSampleInterval)
+    {
+        super.messageTraceSampleInterval(messageTraceSampleInterval);
+        return this;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -345,6 +478,33 @@ public final class LibraryConfiguration extends CommonConfiguration
         {
             throw new IllegalArgumentException("You must specify at least one channel to connect to");
         }
+
+        if (sessionWorkerThreads < 0)
+        {
+            throw new IllegalArgumentException(
+                "sessionWorkerThreads must not be negative, but was: " + sessionWorkerThreads);
+        }
+
+        if (sessionWorkerThreads > 0)
+        {
+            if (!BitUtil.isPowerOfTwo(sessionWorkerQueueCapacity))
+            {
+                throw new IllegalArgumentException(
+                    "sessionWorkerQueueCapacity must be a power of two, but was: " + sessionWorkerQueueCapacity);
+            }
+        }
+
+        if (!BitUtil.isPowerOfTwo(sessionSendQueueCapacity))
+        {
+            throw new IllegalArgumentException(
+                "sessionSendQueueCapacity must be a power of two, but was: " + sessionSendQueueCapacity);
+        }
+
+        if ((routedMessagePredicate == null) != (routedMessageHandler == null))
+        {
+            throw new IllegalArgumentException(
+                "routedMessagePredicate and routedMessageHandler must either both be set or both be unset");
+        }
     }
 
     SessionExistsHandler sessionExistsHandler()
@@ -362,6 +522,36 @@ public final class LibraryConfiguration extends CommonConfiguration
         return fixPConnectionAcquiredHandler;
     }
 
+    boolean shareSessionCodecs()
+    {
+        return shareSessionCodecs;
+    }
+
+    int sessionWorkerThreads()
+    {
+        return sessionWorkerThreads;
+    }
+
+    int sessionWorkerQueueCapacity()
+    {
+        return sessionWorkerQueueCapacity;
+    }
+
+    int sessionSendQueueCapacity()
+    {
+        return sessionSendQueueCapacity;
+    }
+
+    RoutedMessagePredicate routedMessagePredicate()
+    {
+        return routedMessagePredicate;
+    }
+
+    RoutedMessageHandler routedMessageHandler()
+    {
+        return routedMessageHandler;
+    }
+
     public List<String> libraryAeronChannels()
     {
         return libraryAeronChannels;
@@ -23,6 +23,7 @@ import io.aeron.exceptions.RegistrationException;
 import io.aeron.logbuffer.ControlledFragmentHandler;
 import io.aeron.logbuffer.ControlledFragmentHandler.Action;
 import io.aeron.logbuffer.Header;
+import org.agrona.CloseHelper;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
 import org.agrona.LangUtil;
@@ -35,6 +36,7 @@ import uk.co.real_logic.artio.builder.SessionHeaderEncoder;
 import uk.co.real_logic.artio.dictionary.FixDictionary;
 import uk.co.real_logic.artio.engine.ConnectedSessionInfo;
 import uk.co.real_logic.artio.engine.RecordingCoordinator;
+import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
 import uk.co.real_logic.artio.fixp.*;
 import uk.co.real_logic.artio.ilink.ILink3Connection;
 import uk.co.real_logic.artio.ilink.ILink3ConnectionConfiguration;
@@ -105,6 +107,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
 
     private static final InternalFixPConnection[] EMPTY_FIXP_CONNECTIONS = new InternalFixPConnection[0];
     private static final InternalSession[] EMPTY_SESSIONS = new InternalSession[0];
+    private static final SessionSender[] EMPTY_SENDERS = new SessionSender[0];
 
     private final Long2ObjectHashMap<WeakReference<InternalSession>> sessionIdToCachedSession =
         new Long2ObjectHashMap<>();
@@ -137,6 +140,8 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     private final SessionIdStrategy sessionIdStrategy;
     private final Timer sessionTimer;
     private final Timer receiveTimer;
+    private final Timer traceReceiveTimer;
+    private final Timer traceHandlerTimer;
     private final SessionExistsHandler sessionExistsHandler;
     private final boolean enginesAreClustered;
     private final ErrorHandler errorHandler;
@@ -223,6 +228,22 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
 
     private final InternalSession.Formatters formatters = new InternalSession.Formatters();
 
+    // Only used when sessions share their codecs and buffers, see LibraryConfiguration.shareSessionCodecs()
+    private final Object2ObjectHashMap<Class<? extends FixDictionary>, SessionParser.Decoders> sharedParserDecoders =
+        new Object2ObjectHashMap<>();
+    private final MutableAsciiBuffer sharedSessionBuffer;
+    private final MutableAsciiBuffer sharedProxyBuffer;
+    private final UtcTimestampEncoder sharedTimestampEncoder;
+
+    // Only used when session callbacks are dispatched to workers, see LibraryConfiguration.sessionWorkerThreads()
+    private final SessionWorkerPool sessionWorkerPool;
+
+    private SessionSender[] sessionSenders = EMPTY_SENDERS;
+
+    // Only used when messages of other libraries' sessions are routed to this one
+    private final RoutedMessagePredicate routedMessagePredicate;
+    private final RoutedMessageHandler routedMessageHandler;
+
     LibraryPoller(
         final LibraryConfiguration configuration,
         final LibraryTimers timers,
@@ -239,6 +260,8 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
 
         this.sessionTimer = timers.sessionTimer();
         this.receiveTimer = timers.receiveTimer();
+        this.traceReceiveTimer = timers.traceReceiveTimer();
+        this.traceHandlerTimer = timers.traceHandlerTimer();
 
         this.configuration = configuration;
         this.sessionIdStrategy = configuration.sessionIdStrategy();
@@ -249,6 +272,25 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         this.errorHandler = errorHandler;
         this.epochFractionClock = EpochFractionClocks.create(
             epochClock, configuration.epochNanoClock(), configuration.sessionEpochFractionFormat());
+
+        if (configuration.shareSessionCodecs())
+        {
+            sharedSessionBuffer = newSessionBuffer();
+            sharedProxyBuffer = newSessionBuffer();
+            sharedTimestampEncoder = DirectSessionProxy.newTimestampEncoder(
+                epochNanoClock, configuration.sessionEpochFractionFormat());
+        }
+        else
+        {
+            sharedSessionBuffer = null;
+            sharedProxyBuffer = null;
+            sharedTimestampEncoder = null;
+        }
+
+        sessionWorkerPool = configuration.sessionWorkerThreads() > 0 ?
+            new SessionWorkerPool(configuration, errorHandler) : null;
+        routedMessagePredicate = configuration.routedMessagePredicate();
+        routedMessageHandler = configuration.routedMessageHandler();
     }
 
     boolean isConnected()
@@ -331,7 +373,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             libraryId,
             sessionId,
             connectionId,
-            sessionBuffer(),
+            newSessionBuffer(),
             outboundPublication,
             sequenceIndex);
     }
@@ -387,6 +429,59 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         sessions = ArrayUtil.remove(sessions, session);
         session.disable();
         cacheSession(session);
+        onSessionRemoved(session);
+    }
+
+    private void onSessionRemoved(final InternalSession session)
+    {
+        final SessionSender[] sessionSenders = this.sessionSenders;
+        for (int i = 0, size = sessionSenders.length; i < size; i++)
+        {
+            final SessionSender sender = sessionSenders[i];
+            if (sender.session() == session)
+            {
+                // Messages that were queued but haven't been sent yet are discarded
+                sender.close();
+                this.sessionSenders = ArrayUtil.remove(sessionSenders, i);
+                break;
+            }
+        }
+
+        if (sessionWorkerPool != null)
+        {
+            sessionWorkerPool.onSessionRemoved(session);
+        }
+    }
+
+    SessionSender sessionSender(final Session session)
+    {
+        final SessionSender[] sessionSenders = this.sessionSenders;
+        for (final SessionSender sender : sessionSenders)
+        {
+            if (sender.session() == session)
+            {
+                return sender;
+            }
+        }
+
+        return newSessionSender(session);
+    }
+
+    private SessionSender newSessionSender(final Session session)
+    {
+        final SessionSender sender = new SessionSender(session, configuration.sessionSendQueueCapacity());
+        sessionSenders = ArrayUtil.add(sessionSenders, sender);
+        return sender;
+    }
+
+    private int drainSessionSenders()
+    {
+        int operations = 0;
+        for (final SessionSender sender : sessionSenders)
+        {
+            operations += sender.drain(errorHandler);
+        }
+        return operations;
     }
 
     private void cacheSession(final InternalSession session)
@@ -619,6 +714,11 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         operations += pollSessions(timeInNs);
         operations += pollPendingInitiatorSessions(timeInNs);
         operations += checkReplies(timeInMs);
+        operations += drainSessionSenders();
+        if (sessionWorkerPool != null)
+        {
+            operations += sessionWorkerPool.drainPendingEvents();
+        }
         return operations;
     }
 
@@ -1225,10 +1325,12 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         final int sequenceIndex,
         final long messageType,
         final long timestamp,
+        final long traceTimestamp,
         final MessageStatus status,
         final int sequenceNumber,
         final Header header,
-        final int metaDataLength)
+        final int metaDataLength,
+        final FramedSessionHeader sessionHeader)
     {
         if (libraryId == this.libraryId)
         {
@@ -1245,10 +1347,27 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
                     sequenceIndex,
                     messageType,
                     timestamp,
+                    traceTimestamp,
                     status,
-                    header.position());
+                    header.position(),
+                    sessionHeader);
             }
         }
+        else if (routedMessagePredicate != null && routedMessagePredicate.test(libraryId, sessionId, messageType))
+        {
+            return routedMessageHandler.onMessage(
+                buffer,
+                offset,
+                length,
+                libraryId,
+                connectionId,
+                sessionId,
+                sequenceIndex,
+                messageType,
+                timestamp,
+                status,
+                header.position());
+        }
 
         return CONTINUE;
     }
@@ -1284,6 +1403,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
                 }
 
                 connectionIdToSession.remove(connectionId);
+                onSessionRemoved(session);
 
                 if (isEngineOwned)
                 {
@@ -1785,6 +1905,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
                     }
                 }
                 session.disable();
+                onSessionRemoved(session);
                 // TODO: Maybe we shouldn't be creating a lot of arrays and batch this up?
                 sessions = ArrayUtil.remove(sessions, i);
                 cacheSession(session);
@@ -2161,19 +2282,41 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             errorHandler, configuration.validateCompIdsOnEveryMessage(), configuration.validateTimeStrictly(),
             messageInfo, sessionIdStrategy);
         parser.sessionKey(compositeKey);
-        parser.fixDictionary(fixDictionary);
+        if (configuration.shareSessionCodecs())
+        {
+            parser.decoders(sharedParserDecoders.computeIfAbsent(
+                fixDictionary.getClass(), (dictionaryType) -> new SessionParser.Decoders(fixDictionary)));
+        }
+        else
+        {
+            parser.fixDictionary(fixDictionary);
+        }
         final SessionSubscriber subscriber = new SessionSubscriber(
             messageInfo,
             parser,
             session,
             receiveTimer,
             sessionTimer,
+            traceReceiveTimer,
+            traceHandlerTimer,
+            epochNanoClock,
             this,
             configuration.replyTimeoutInMs(),
             errorHandler);
         session.isSlowConsumer(sessionAcquiredInfo.isSlow());
         subscriber.reply(reply);
-        subscriber.handler(configuration.sessionAcquireHandler().onSessionAcquired(session, sessionAcquiredInfo));
+        if (sessionWorkerPool == null)
+        {
+            subscriber.handler(configuration.sessionAcquireHandler().onSessionAcquired(session, sessionAcquiredInfo));
+        }
+        else
+        {
+            onSessionRemoved(session);
+            sessionAcquiredInfo.sessionSender(newSessionSender(session));
+            final SessionHandler handler = configuration.sessionAcquireHandler().onSessionAcquired(
+                session, sessionAcquiredInfo);
+            subscriber.handler(sessionWorkerPool.dispatch(session, handler));
+        }
 
         connectionIdToSession.put(connectionId, subscriber);
     }
@@ -2231,6 +2374,11 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     }
 
     private MutableAsciiBuffer sessionBuffer()
+    {
+        return sharedSessionBuffer != null ? sharedSessionBuffer : newSessionBuffer();
+    }
+
+    private MutableAsciiBuffer newSessionBuffer()
     {
         return new MutableAsciiBuffer(new byte[configuration.sessionBufferSize()]);
     }
@@ -2311,7 +2459,22 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
 
     private SessionProxy sessionProxy(final long connectionId)
     {
-        return configuration.sessionProxyFactory().make(
+        final SessionProxyFactory sessionProxyFactory = configuration.sessionProxyFactory();
+        if (sharedProxyBuffer != null && sessionProxyFactory == LibraryConfiguration.DEFAULT_SESSION_PROXY_FACTORY)
+        {
+            return new DirectSessionProxy(
+                sharedProxyBuffer,
+                sharedTimestampEncoder,
+                transport.outboundPublication(),
+                sessionIdStrategy,
+                configuration.sessionCustomisationStrategy(),
+                configuration.epochNanoClock(),
+                connectionId,
+                libraryId,
+                LangUtil::rethrowUnchecked);
+        }
+
+        return sessionProxyFactory.make(
             configuration.sessionBufferSize(),
             transport.outboundPublication(),
             sessionIdStrategy,
@@ -2348,6 +2511,8 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     {
         if (state != CLOSED)
         {
+            CloseHelper.close(sessionWorkerPool);
+
             for (final WeakReference<InternalSession> ref : sessionIdToCachedSession.values())
             {
                 final InternalSession session = ref.get();
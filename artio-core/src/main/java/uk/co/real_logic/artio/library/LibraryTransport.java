@@ -25,6 +25,7 @@ import uk.co.real_logic.artio.FixCounters;
 import uk.co.real_logic.artio.StreamInformation;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.protocol.Streams;
+import uk.co.real_logic.artio.timing.MessageTracer;
 
 import static uk.co.real_logic.artio.LogTag.LIBRARY_CONNECT;
 
@@ -85,6 +86,7 @@ class LibraryTransport
 
         outboundPublication = outboundLibraryStreams.gatewayPublication(
             idleStrategy, outboundDataPublication(aeronChannel));
+        outboundPublication.messageTracer(new MessageTracer(clock, configuration.messageTraceSampleInterval()));
 
         final ExclusivePublication publication = aeron.addExclusivePublication(aeronChannel, inboundLibraryStream);
         StreamInformation.print("inboundPublication", publication, printAeronStreamIdentifiers);
@@ -16,11 +16,17 @@
 package uk.co.real_logic.artio.library;
 
 import uk.co.real_logic.artio.messages.MessageStatus;
+import uk.co.real_logic.artio.timing.MessageTracer;
+
+import static uk.co.real_logic.artio.timing.MessageTracer.NOT_TRACED;
 
 public class OnMessageInfo
 {
     private MessageStatus status;
     private boolean isValid;
+    private long socketReadTimestamp = NOT_TRACED;
+    private long framerPublishTimestamp = NOT_TRACED;
+    private long libraryReceiveTimestamp = NOT_TRACED;
 
     public OnMessageInfo status(final MessageStatus status)
     {
@@ -34,6 +40,13 @@ public class OnMessageInfo
         return this;
     }
 
+    void trace(final long socketReadTimestamp, final long framerPublishTimestamp, final long libraryReceiveTimestamp)
+    {
+        this.socketReadTimestamp = socketReadTimestamp;
+        this.framerPublishTimestamp = framerPublishTimestamp;
+        this.libraryReceiveTimestamp = libraryReceiveTimestamp;
+    }
+
     public MessageStatus status()
     {
         return status;
@@ -43,4 +56,48 @@ public class OnMessageInfo
     {
         return isValid;
     }
+
+    /**
+     * Find out whether the current message was sampled for tracing, see
+     * {@link uk.co.real_logic.artio.CommonConfiguration#messageTraceSampleInterval(int)}.
+     *
+     * @return true if the message was sampled for tracing, false otherwise.
+     */
+    public boolean isTraced()
+    {
+        return libraryReceiveTimestamp != NOT_TRACED;
+    }
+
+    /**
+     * Gets the time that the engine read the current message from its TCP connection.
+     *
+     * @return the time that the message was read in nanoseconds, or {@link MessageTracer#NOT_TRACED} if the
+     * message wasn't traced.
+     */
+    public long socketReadTimestamp()
+    {
+        return socketReadTimestamp;
+    }
+
+    /**
+     * Gets the time that the engine published the current message to the library.
+     *
+     * @return the time that the message was published in nanoseconds, or {@link MessageTracer#NOT_TRACED} if the
+     * message wasn't traced.
+     */
+    public long framerPublishTimestamp()
+    {
+        return framerPublishTimestamp;
+    }
+
+    /**
+     * Gets the time that the library received the current message, before it was passed to the handler.
+     *
+     * @return the time that the message was received in nanoseconds, or {@link MessageTracer#NOT_TRACED} if the
+     * message wasn't traced.
+     */
+    public long libraryReceiveTimestamp()
+    {
+        return libraryReceiveTimestamp;
+    }
 }
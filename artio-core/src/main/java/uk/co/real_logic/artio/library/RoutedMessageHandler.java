@@ -0,0 +1,62 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import org.agrona.DirectBuffer;
+import uk.co.real_logic.artio.messages.MessageStatus;
+
+/**
+ * Receives a read-only copy of the inbound messages of sessions owned by other libraries, or by the engine, that
+ * are selected by the library's {@link RoutedMessagePredicate}. The owning library still processes these messages,
+ * including all session level validation and sequence number handling, so this handler can't send messages on or
+ * otherwise change the state of their session.
+ *
+ * @see LibraryConfiguration#routedMessageHandler(RoutedMessageHandler)
+ */
+@FunctionalInterface
+public interface RoutedMessageHandler
+{
+    /**
+     * Event to indicate that a routed fix message has arrived to process.
+     *
+     * @param buffer the buffer containing the fix message.
+     * @param offset the offset in the buffer where the message starts.
+     * @param length the length of the message within the buffer.
+     * @param libraryId the id of the library that owns the message's session.
+     * @param connectionId the id of the connection that the message was received on.
+     * @param sessionId the id of the session that the message was received on.
+     * @param sequenceIndex the sequence index of this message.
+     * @param messageType the FIX msgType field, encoded as a long.
+     * @param timestampInNs the time of the message in nanoseconds.
+     * @param status the status of the message, messages can be delivered more than once, for example when the
+     *               owning library catches up on a session with {@link MessageStatus#CATCHUP_REPLAY}.
+     * @param position the position in the Aeron stream at the end of the message.
+     * @return an action to indicate the correct back pressure behaviour, aborting only back-pressures this library.
+     */
+    Action onMessage(
+        DirectBuffer buffer,
+        int offset,
+        int length,
+        int libraryId,
+        long connectionId,
+        long sessionId,
+        int sequenceIndex,
+        long messageType,
+        long timestampInNs,
+        MessageStatus status,
+        long position);
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.agrona.collections.LongHashSet;
+import uk.co.real_logic.artio.util.MessageTypeEncoding;
+
+/**
+ * Selects which inbound messages of sessions owned by other libraries, or by the engine, are routed to this library's
+ * {@link RoutedMessageHandler}. Invoked on the library's polling thread for every such message, so it should be cheap.
+ *
+ * @see LibraryConfiguration#routedMessagePredicate(RoutedMessagePredicate)
+ */
+@FunctionalInterface
+public interface RoutedMessagePredicate
+{
+    /**
+     * Decide whether to route a message to this library.
+     *
+     * @param libraryId the id of the library that owns the message's session.
+     * @param sessionId the id of the message's session.
+     * @param messageType the FIX msgType field, encoded as a long, see {@link MessageTypeEncoding}.
+     * @return true to route the message to this library, false otherwise.
+     */
+    boolean test(int libraryId, long sessionId, long messageType);
+
+    default RoutedMessagePredicate and(final RoutedMessagePredicate other)
+    {
+        return (libraryId, sessionId, messageType) ->
+            test(libraryId, sessionId, messageType) && other.test(libraryId, sessionId, messageType);
+    }
+
+    /**
+     * Route messages by the message type of their fix message.
+     *
+     * @param messageTypes the fix message type strings that you see in the message.
+     * @return the resulting predicate.
+     */
+    static RoutedMessagePredicate messageTypeOf(final String... messageTypes)
+    {
+        final LongHashSet packedMessageTypes = new LongHashSet();
+        for (final String messageType : messageTypes)
+        {
+            packedMessageTypes.add(MessageTypeEncoding.packMessageType(messageType));
+        }
+        return (libraryId, sessionId, messageType) -> packedMessageTypes.contains(messageType);
+    }
+
+    /**
+     * Route messages of the given sessions.
+     *
+     * @param sessionIds the ids of the sessions to route.
+     * @return the resulting predicate.
+     */
+    static RoutedMessagePredicate sessionOf(final long... sessionIds)
+    {
+        final LongHashSet routedSessionIds = new LongHashSet();
+        for (final long sessionId : sessionIds)
+        {
+            routedSessionIds.add(sessionId);
+        }
+        return (libraryId, sessionId, messageType) -> routedSessionIds.contains(sessionId);
+    }
+}
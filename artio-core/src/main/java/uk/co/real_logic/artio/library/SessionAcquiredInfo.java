@@ -32,6 +32,7 @@ public class SessionAcquiredInfo
     private MetaDataStatus metaDataStatus;
     private final UnsafeBuffer metaDataBuffer = new UnsafeBuffer();
     private boolean isSlow;
+    private SessionSender sessionSender;
 
     public MetaDataStatus metaDataStatus()
     {
@@ -48,6 +49,22 @@ public class SessionAcquiredInfo
         return isSlow;
     }
 
+    /**
+     * Gets the sender that the session's handler should use to send messages when session callbacks are dispatched to
+     * worker threads. Unlike the other state in this object the sender remains valid after the callback.
+     *
+     * @return the sender for the session, or null if {@link LibraryConfiguration#sessionWorkerThreads(int)} is 0.
+     */
+    public SessionSender sessionSender()
+    {
+        return sessionSender;
+    }
+
+    void sessionSender(final SessionSender sessionSender)
+    {
+        this.sessionSender = sessionSender;
+    }
+
     void wrap(
         final SlowStatus slowStatus,
         final MetaDataStatus metaDataStatus,
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.agrona.ErrorHandler;
+import org.agrona.LangUtil;
+import uk.co.real_logic.artio.Pressure;
+import uk.co.real_logic.artio.builder.Encoder;
+import uk.co.real_logic.artio.session.Session;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToLongFunction;
+
+/**
+ * Sends messages on a session from any thread. Obtained from {@link FixLibrary#sessionSender(Session)}, or from
+ * {@link SessionAcquiredInfo#sessionSender()} when session callbacks are dispatched to worker threads, see
+ * {@link LibraryConfiguration#sessionWorkerThreads(int)}.
+ *
+ * Messages are queued in a bounded, lock-free, multi producer, single consumer ring of pooled encoders. A producer
+ * claims a slot, sets the fields of the slot's encoder and commits it. The library's poller thread sends committed
+ * messages in the order that their slots were claimed, so sequence numbers and sending times are only ever assigned
+ * by the poller when each message is sent. For example:
+ *
+ * <pre>
+ * final long claim = sender.tryClaim();
+ * if (claim != SessionSender.NO_CLAIM)
+ * {
+ *     final NewOrderSingleEncoder newOrderSingle = sender.encoder(claim, NewOrderSingleEncoder.class);
+ *     newOrderSingle.clOrdID(...);
+ *     sender.commit(claim);
+ * }
+ * </pre>
+ *
+ * Every successful claim must be followed by either a {@link #commit(long)} or an {@link #abort(long)}, otherwise
+ * no later messages are sent.
+ */
+public final class SessionSender
+{
+    /**
+     * Returned by {@link #tryClaim()} when the queue is full or the session has been removed from the library.
+     */
+    public static final long NO_CLAIM = -1;
+
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLongArray commits;
+    private final Encoder[] encoders;
+    private final int capacity;
+    private final int mask;
+    private final Session session;
+    private final ToLongFunction<Encoder> sendOperation;
+
+    private volatile boolean closed = false;
+
+    SessionSender(final Session session, final int capacity)
+    {
+        this(session, capacity, session::trySend);
+    }
+
+    SessionSender(final Session session, final int capacity, final ToLongFunction<Encoder> sendOperation)
+    {
+        this.session = session;
+        this.capacity = capacity;
+        this.sendOperation = sendOperation;
+        commits = new AtomicLongArray(capacity);
+        encoders = new Encoder[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Claim the next slot in the queue, safe to call from any thread.
+     *
+     * @return the claim, to be passed to {@link #encoder(long, Class)} and then {@link #commit(long)}, or
+     * {@link #NO_CLAIM} if the queue is full or the session has been removed from this library, in which case the
+     * operation can be retried later.
+     */
+    public long tryClaim()
+    {
+        if (closed)
+        {
+            return NO_CLAIM;
+        }
+
+        long tail;
+        do
+        {
+            tail = this.tail.get();
+            if (tail - head.get() >= capacity)
+            {
+                return NO_CLAIM;
+            }
+        }
+        while (!this.tail.compareAndSet(tail, tail + 1));
+
+        return tail;
+    }
+
+    /**
+     * Gets the encoder of a claimed slot, reset so that none of its fields are set. Header fields that the session
+     * manages, such as the sequence number and sending time, are set when the message is sent.
+     *
+     * @param claim the claim returned by {@link #tryClaim()}.
+     * @param encoderClass the type of message to send.
+     * @param <T> the type of message to send.
+     * @return the encoder to set the fields of the message on, only valid until the claim is committed or aborted.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Encoder> T encoder(final long claim, final Class<T> encoderClass)
+    {
+        final Encoder encoder = slotEncoder((int)claim & mask, encoderClass);
+        encoder.reset();
+        return (T)encoder;
+    }
+
+    /**
+     * Commit a claimed slot so that its message can be sent.
+     *
+     * @param claim the claim returned by {@link #tryClaim()}.
+     */
+    public void commit(final long claim)
+    {
+        commits.lazySet((int)claim & mask, claim + 1);
+    }
+
+    /**
+     * Abort a claimed slot, its message won't be sent.
+     *
+     * @param claim the claim returned by {@link #tryClaim()}.
+     */
+    public void abort(final long claim)
+    {
+        commits.lazySet((int)claim & mask, -(claim + 1));
+    }
+
+    /**
+     * Queue a message to be sent on this session. The encoder's fields are copied, so it can be reused as soon as this
+     * method returns. Prefer {@link #tryClaim()} when setting the fields of a message directly into the queue is
+     * possible, since that avoids the copy.
+     *
+     * @param encoder the encoder of the message to be sent.
+     * @return true if the message was queued, false if the queue is full or the session has been removed from this
+     * library, in which case the operation can be retried later.
+     */
+    public boolean trySend(final Encoder encoder)
+    {
+        final long claim = tryClaim();
+        if (claim == NO_CLAIM)
+        {
+            return false;
+        }
+
+        encoder.copyTo(slotEncoder((int)claim & mask, encoder.getClass()));
+        commit(claim);
+
+        return true;
+    }
+
+    /**
+     * Gets the session that this sender sends messages on.
+     *
+     * @return the session that this sender sends messages on.
+     */
+    public Session session()
+    {
+        return session;
+    }
+
+    // Only called by the producer that holds the claim on the slot
+    private Encoder slotEncoder(final int index, final Class<? extends Encoder> encoderClass)
+    {
+        Encoder encoder = encoders[index];
+        if (encoder == null || encoder.getClass() != encoderClass)
+        {
+            encoder = newEncoder(encoderClass);
+            encoders[index] = encoder;
+        }
+        return encoder;
+    }
+
+    private static Encoder newEncoder(final Class<? extends Encoder> encoderClass)
+    {
+        try
+        {
+            return encoderClass.getDeclaredConstructor().newInstance();
+        }
+        catch (final ReflectiveOperationException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+            return null;
+        }
+    }
+
+    // Poller thread only
+    int drain(final ErrorHandler errorHandler)
+    {
+        final long tail = this.tail.get();
+        long head = this.head.get();
+        int operations = 0;
+
+        while (head < tail)
+        {
+            final int index = (int)head & mask;
+            final long commit = commits.get(index);
+            if (commit == head + 1)
+            {
+                try
+                {
+                    if (Pressure.isBackPressured(sendOperation.applyAsLong(encoders[index])))
+                    {
+                        break;
+                    }
+                }
+                catch (final Throwable t)
+                {
+                    // Drop the message rather than blocking the rest of the session's queue
+                    errorHandler.onError(t);
+                }
+            }
+            else if (commit != -(head + 1))
+            {
+                // Claimed but not yet committed, later messages must wait for it
+                break;
+            }
+
+            head++;
+            operations++;
+        }
+
+        if (operations > 0)
+        {
+            this.head.lazySet(head);
+        }
+
+        return operations;
+    }
+
+    void close()
+    {
+        closed = true;
+    }
+}
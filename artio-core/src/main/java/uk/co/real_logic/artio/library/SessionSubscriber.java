@@ -18,15 +18,18 @@ package uk.co.real_logic.artio.library;
 import io.aeron.logbuffer.ControlledFragmentHandler.Action;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
+import org.agrona.concurrent.EpochNanoClock;
 import uk.co.real_logic.artio.Reply;
 import uk.co.real_logic.artio.messages.DisconnectReason;
 import uk.co.real_logic.artio.messages.MessageStatus;
 import uk.co.real_logic.artio.messages.ReplayMessagesStatus;
 import uk.co.real_logic.artio.messages.ThrottleConfigurationStatus;
+import uk.co.real_logic.artio.protocol.FramedSessionHeader;
 import uk.co.real_logic.artio.session.FixSessionOwner;
 import uk.co.real_logic.artio.session.InternalSession;
 import uk.co.real_logic.artio.session.Session;
 import uk.co.real_logic.artio.session.SessionParser;
+import uk.co.real_logic.artio.timing.MessageTracer;
 import uk.co.real_logic.artio.timing.Timer;
 
 import java.util.function.BooleanSupplier;
@@ -35,6 +38,7 @@ import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
 import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexWriter.NO_REQUIRED_POSITION;
 import static uk.co.real_logic.artio.messages.GatewayError.UNABLE_TO_LOGON;
+import static uk.co.real_logic.artio.timing.MessageTracer.NOT_TRACED;
 
 class SessionSubscriber implements AutoCloseable, FixSessionOwner
 {
@@ -43,6 +47,9 @@ class SessionSubscriber implements AutoCloseable, FixSessionOwner
     private final InternalSession session;
     private final Timer receiveTimer;
     private final Timer sessionTimer;
+    private final Timer traceReceiveTimer;
+    private final Timer traceHandlerTimer;
+    private final EpochNanoClock clock;
     private final LibraryPoller libraryPoller;
     private final long replyTimeoutInMs;
     private final ErrorHandler errorHandler;
@@ -58,6 +65,9 @@ class SessionSubscriber implements AutoCloseable, FixSessionOwner
         final InternalSession session,
         final Timer receiveTimer,
         final Timer sessionTimer,
+        final Timer traceReceiveTimer,
+        final Timer traceHandlerTimer,
+        final EpochNanoClock clock,
         final LibraryPoller libraryPoller,
         final long replyTimeoutInMs,
         final ErrorHandler errorHandler)
@@ -67,6 +77,9 @@ class SessionSubscriber implements AutoCloseable, FixSessionOwner
         this.session = session;
         this.receiveTimer = receiveTimer;
         this.sessionTimer = sessionTimer;
+        this.traceReceiveTimer = traceReceiveTimer;
+        this.traceHandlerTimer = traceHandlerTimer;
+        this.clock = clock;
         this.libraryPoller = libraryPoller;
         this.replyTimeoutInMs = replyTimeoutInMs;
         this.errorHandler = errorHandler;
@@ -81,8 +94,10 @@ class SessionSubscriber implements AutoCloseable, FixSessionOwner
         final int sequenceIndex,
         final long messageType,
         final long timestamp,
+        final long traceTimestamp,
         final MessageStatus status,
-        final long position)
+        final long position,
+        final FramedSessionHeader sessionHeader)
     {
         final long now = receiveTimer.recordSince(timestamp);
 
@@ -91,6 +106,18 @@ class SessionSubscriber implements AutoCloseable, FixSessionOwner
         // this gets set to false by the Session when a problem is detected.
         info.isValid(true);
 
+        final boolean isTraced = traceTimestamp != NOT_TRACED;
+        if (isTraced)
+        {
+            final long libraryReceiveTimestamp = clock.nanoTime();
+            MessageTracer.record(traceReceiveTimer, traceTimestamp, libraryReceiveTimestamp);
+            info.trace(timestamp, traceTimestamp, libraryReceiveTimestamp);
+        }
+        else
+        {
+            info.trace(NOT_TRACED, NOT_TRACED, NOT_TRACED);
+        }
+
         try
         {
             switch (status)
@@ -123,7 +150,7 @@ class SessionSubscriber implements AutoCloseable, FixSessionOwner
                     else
                     {
                         final Action action = parser.onMessage(
-                            buffer, offset, length, messageType, position);
+                            buffer, offset, length, messageType, position, sessionHeader);
                         if (action == ABORT)
                         {
                             return ABORT;
@@ -175,6 +202,11 @@ class SessionSubscriber implements AutoCloseable, FixSessionOwner
         finally
         {
             sessionTimer.recordSince(now);
+
+            if (isTraced)
+            {
+                MessageTracer.record(traceHandlerTimer, info.libraryReceiveTimestamp(), clock.nanoTime());
+            }
         }
     }
 
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.ControlledMessageHandler;
+import org.agrona.concurrent.ManyToOneConcurrentLinkedQueue;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.OneToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+import uk.co.real_logic.artio.messages.DisconnectReason;
+import uk.co.real_logic.artio.messages.MessageStatus;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+/**
+ * Invokes the {@link SessionHandler} callbacks of the sessions that are pinned to it on its own thread.
+ *
+ * The library poller is the only producer, copying each callback into a single producer ring buffer, so the
+ * callbacks of a session are invoked in the order that the poller received them. Callbacks that can't be
+ * back-pressured are held on the poller side whilst the ring buffer is full, and messages and disconnects are
+ * aborted until they have been handed over.
+ */
+class SessionWorker implements Agent
+{
+    private static final int MESSAGE = 1;
+    private static final int DISCONNECT = 2;
+    private static final int TIMEOUT = 3;
+    private static final int SLOW_STATUS = 4;
+    private static final int SESSION_START = 5;
+    private static final int REMOVE = 6;
+
+    private static final int HANDLER_ID_OFFSET = 0;
+    private static final int LIBRARY_ID_OFFSET = HANDLER_ID_OFFSET + SIZE_OF_LONG;
+    private static final int VALUE_OFFSET = LIBRARY_ID_OFFSET + SIZE_OF_INT;
+    private static final int EVENT_LENGTH = VALUE_OFFSET + SIZE_OF_INT;
+
+    private static final int MESSAGE_TYPE_OFFSET = VALUE_OFFSET + SIZE_OF_INT;
+    private static final int TIMESTAMP_OFFSET = MESSAGE_TYPE_OFFSET + SIZE_OF_LONG;
+    private static final int POSITION_OFFSET = TIMESTAMP_OFFSET + SIZE_OF_LONG;
+    private static final int SEQUENCE_INDEX_OFFSET = POSITION_OFFSET + SIZE_OF_LONG;
+    private static final int IS_VALID_OFFSET = SEQUENCE_INDEX_OFFSET + SIZE_OF_INT;
+    private static final int SOCKET_READ_TIMESTAMP_OFFSET = IS_VALID_OFFSET + SIZE_OF_INT;
+    private static final int FRAMER_PUBLISH_TIMESTAMP_OFFSET = SOCKET_READ_TIMESTAMP_OFFSET + SIZE_OF_LONG;
+    private static final int LIBRARY_RECEIVE_TIMESTAMP_OFFSET = FRAMER_PUBLISH_TIMESTAMP_OFFSET + SIZE_OF_LONG;
+    private static final int BODY_OFFSET = LIBRARY_RECEIVE_TIMESTAMP_OFFSET + SIZE_OF_LONG;
+
+    private static final MessageStatus[] MESSAGE_STATUSES = MessageStatus.values();
+    private static final DisconnectReason[] DISCONNECT_REASONS = DisconnectReason.values();
+
+    private final ManyToOneConcurrentLinkedQueue<WorkerSessionHandler> registrations =
+        new ManyToOneConcurrentLinkedQueue<>();
+    private final Long2ObjectHashMap<WorkerSessionHandler> handlerIdToHandler = new Long2ObjectHashMap<>();
+    private final OnMessageInfo messageInfo = new OnMessageInfo();
+    private final UnsafeBuffer bodyBuffer = new UnsafeBuffer(0, 0);
+    private final ControlledMessageHandler callbackHandler = this::onCallback;
+    private final ArrayDeque<PendingEvent> pendingEvents = new ArrayDeque<>();
+
+    private final RingBuffer ringBuffer;
+    private final MutableDirectBuffer ringBufferBuffer;
+    private final ErrorHandler errorHandler;
+    private final String roleName;
+
+    SessionWorker(final int queueCapacity, final ErrorHandler errorHandler, final String roleName)
+    {
+        ringBuffer = new OneToOneRingBuffer(new UnsafeBuffer(
+            ByteBuffer.allocateDirect(queueCapacity + RingBufferDescriptor.TRAILER_LENGTH)));
+        ringBufferBuffer = ringBuffer.buffer();
+        this.errorHandler = errorHandler;
+        this.roleName = roleName;
+    }
+
+    // -----------------------------------------------------------------------
+    //                     BEGIN POLLER THREAD METHODS
+    // -----------------------------------------------------------------------
+
+    void register(final WorkerSessionHandler handler)
+    {
+        registrations.offer(handler);
+    }
+
+    boolean offerMessage(
+        final long handlerId,
+        final DirectBuffer buffer,
+        final int offset,
+        final int length,
+        final int libraryId,
+        final int sequenceIndex,
+        final long messageType,
+        final long timestamp,
+        final long position,
+        final OnMessageInfo messageInfo)
+    {
+        if (!pendingEvents.isEmpty())
+        {
+            return false;
+        }
+
+        final int index = ringBuffer.tryClaim(MESSAGE, BODY_OFFSET + length);
+        if (index <= 0)
+        {
+            return false;
+        }
+
+        final MutableDirectBuffer ringBufferBuffer = this.ringBufferBuffer;
+        ringBufferBuffer.putLong(index + HANDLER_ID_OFFSET, handlerId);
+        ringBufferBuffer.putInt(index + LIBRARY_ID_OFFSET, libraryId);
+        ringBufferBuffer.putInt(index + VALUE_OFFSET, messageInfo.status().ordinal());
+        ringBufferBuffer.putLong(index + MESSAGE_TYPE_OFFSET, messageType);
+        ringBufferBuffer.putLong(index + TIMESTAMP_OFFSET, timestamp);
+        ringBufferBuffer.putLong(index + POSITION_OFFSET, position);
+        ringBufferBuffer.putInt(index + SEQUENCE_INDEX_OFFSET, sequenceIndex);
+        ringBufferBuffer.putInt(index + IS_VALID_OFFSET, messageInfo.isValid() ? 1 : 0);
+        ringBufferBuffer.putLong(index + SOCKET_READ_TIMESTAMP_OFFSET, messageInfo.socketReadTimestamp());
+        ringBufferBuffer.putLong(index + FRAMER_PUBLISH_TIMESTAMP_OFFSET, messageInfo.framerPublishTimestamp());
+        ringBufferBuffer.putLong(index + LIBRARY_RECEIVE_TIMESTAMP_OFFSET, messageInfo.libraryReceiveTimestamp());
+        ringBufferBuffer.putBytes(index + BODY_OFFSET, buffer, offset, length);
+        ringBuffer.commit(index);
+
+        return true;
+    }
+
+    boolean offerDisconnect(final long handlerId, final int libraryId, final DisconnectReason reason)
+    {
+        return pendingEvents.isEmpty() && offerEvent(DISCONNECT, handlerId, libraryId, reason.ordinal());
+    }
+
+    void enqueueTimeout(final long handlerId, final int libraryId)
+    {
+        enqueueEvent(TIMEOUT, handlerId, libraryId, 0);
+    }
+
+    void enqueueSlowStatus(final long handlerId, final int libraryId, final boolean hasBecomeSlow)
+    {
+        enqueueEvent(SLOW_STATUS, handlerId, libraryId, hasBecomeSlow ? 1 : 0);
+    }
+
+    void enqueueSessionStart(final long handlerId)
+    {
+        enqueueEvent(SESSION_START, handlerId, 0, 0);
+    }
+
+    void enqueueRemove(final long handlerId)
+    {
+        enqueueEvent(REMOVE, handlerId, 0, 0);
+    }
+
+    int drainPendingEvents()
+    {
+        final ArrayDeque<PendingEvent> pendingEvents = this.pendingEvents;
+        int drained = 0;
+        PendingEvent event;
+        while ((event = pendingEvents.peek()) != null &&
+            offerEvent(event.type, event.handlerId, event.libraryId, event.value))
+        {
+            pendingEvents.poll();
+            drained++;
+        }
+
+        return drained;
+    }
+
+
+    private void enqueueEvent(final int type, final long handlerId, final int libraryId, final int value)
+    {
+        if (!pendingEvents.isEmpty() || !offerEvent(type, handlerId, libraryId, value))
+        {
+            pendingEvents.offer(new PendingEvent(type, handlerId, libraryId, value));
+        }
+    }
+
+    private boolean offerEvent(final int type, final long handlerId, final int libraryId, final int value)
+    {
+        final int index = ringBuffer.tryClaim(type, EVENT_LENGTH);
+        if (index <= 0)
+        {
+            return false;
+        }
+
+        final MutableDirectBuffer ringBufferBuffer = this.ringBufferBuffer;
+        ringBufferBuffer.putLong(index + HANDLER_ID_OFFSET, handlerId);
+        ringBufferBuffer.putInt(index + LIBRARY_ID_OFFSET, libraryId);
+        ringBufferBuffer.putInt(index + VALUE_OFFSET, value);
+        ringBuffer.commit(index);
+
+        return true;
+    }
+
+    // -----------------------------------------------------------------------
+    //                     END POLLER THREAD METHODS
+    // -----------------------------------------------------------------------
+
+    public int doWork()
+    {
+        return ringBuffer.controlledRead(callbackHandler);
+    }
+
+    private ControlledMessageHandler.Action onCallback(
+        final int msgTypeId, final MutableDirectBuffer buffer, final int index, final int length)
+    {
+        final long handlerId = buffer.getLong(index + HANDLER_ID_OFFSET);
+        final WorkerSessionHandler handler = lookupHandler(handlerId);
+        if (handler == null)
+        {
+            errorHandler.onError(new IllegalStateException("Unknown session handler: " + handlerId));
+            return ControlledMessageHandler.Action.CONTINUE;
+        }
+
+        final SessionHandler delegate = handler.delegate();
+        final int libraryId = buffer.getInt(index + LIBRARY_ID_OFFSET);
+        final int value = buffer.getInt(index + VALUE_OFFSET);
+        try
+        {
+            switch (msgTypeId)
+            {
+                case MESSAGE:
+                {
+                    final int bodyLength = length - BODY_OFFSET;
+                    bodyBuffer.wrap(buffer, index + BODY_OFFSET, bodyLength);
+                    messageInfo.status(MESSAGE_STATUSES[value]);
+                    messageInfo.isValid(buffer.getInt(index + IS_VALID_OFFSET) == 1);
+                    messageInfo.trace(
+                        buffer.getLong(index + SOCKET_READ_TIMESTAMP_OFFSET),
+                        buffer.getLong(index + FRAMER_PUBLISH_TIMESTAMP_OFFSET),
+                        buffer.getLong(index + LIBRARY_RECEIVE_TIMESTAMP_OFFSET));
+
+                    final Action action = delegate.onMessage(
+                        bodyBuffer,
+                        0,
+                        bodyLength,
+                        libraryId,
+                        handler.session(),
+                        buffer.getInt(index + SEQUENCE_INDEX_OFFSET),
+                        buffer.getLong(index + MESSAGE_TYPE_OFFSET),
+                        buffer.getLong(index + TIMESTAMP_OFFSET),
+                        buffer.getLong(index + POSITION_OFFSET),
+                        messageInfo);
+
+                    return action == ABORT ? ControlledMessageHandler.Action.ABORT :
+                        ControlledMessageHandler.Action.CONTINUE;
+                }
+
+                case DISCONNECT:
+                {
+                    final Action action = delegate.onDisconnect(
+                        libraryId, handler.session(), DISCONNECT_REASONS[value]);
+
+                    return action == ABORT ? ControlledMessageHandler.Action.ABORT :
+                        ControlledMessageHandler.Action.CONTINUE;
+                }
+
+                case TIMEOUT:
+                    delegate.onTimeout(libraryId, handler.session());
+                    return ControlledMessageHandler.Action.CONTINUE;
+
+                case SLOW_STATUS:
+                    delegate.onSlowStatus(libraryId, handler.session(), value == 1);
+                    return ControlledMessageHandler.Action.CONTINUE;
+
+                case SESSION_START:
+                    delegate.onSessionStart(handler.session());
+                    return ControlledMessageHandler.Action.CONTINUE;
+
+                case REMOVE:
+                    handlerIdToHandler.remove(handlerId);
+                    return ControlledMessageHandler.Action.CONTINUE;
+
+                default:
+                    return ControlledMessageHandler.Action.CONTINUE;
+            }
+        }
+        catch (final Throwable t)
+        {
+            // Don't retry a callback that has thrown, or the worker would be stuck on it
+            errorHandler.onError(t);
+            return ControlledMessageHandler.Action.CONTINUE;
+        }
+    }
+
+    private WorkerSessionHandler lookupHandler(final long handlerId)
+    {
+        WorkerSessionHandler handler = handlerIdToHandler.get(handlerId);
+        if (handler == null)
+        {
+            // Handlers are registered before their first callback is committed to the ring buffer
+            WorkerSessionHandler registration;
+            while ((registration = registrations.poll()) != null)
+            {
+                handlerIdToHandler.put(registration.handlerId(), registration);
+            }
+
+            handler = handlerIdToHandler.get(handlerId);
+        }
+
+        return handler;
+    }
+
+    public String roleName()
+    {
+        return roleName;
+    }
+
+    private static final class PendingEvent
+    {
+        private final int type;
+        private final long handlerId;
+        private final int libraryId;
+        private final int value;
+
+        PendingEvent(final int type, final long handlerId, final int libraryId, final int value)
+        {
+            this.type = type;
+            this.handlerId = handlerId;
+            this.libraryId = libraryId;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.agrona.CloseHelper;
+import org.agrona.ErrorHandler;
+import org.agrona.collections.ArrayUtil;
+import org.agrona.concurrent.AgentRunner;
+import uk.co.real_logic.artio.session.Session;
+
+import static org.agrona.concurrent.AgentRunner.startOnThread;
+import static uk.co.real_logic.artio.CommonConfiguration.backoffIdleStrategy;
+
+/**
+ * The session workers of a library, see {@link LibraryConfiguration#sessionWorkerThreads(int)}. Apart from
+ * {@link #close()} only used on the library's poller thread.
+ */
+class SessionWorkerPool implements AutoCloseable
+{
+    private static final WorkerSessionHandler[] EMPTY_HANDLERS = new WorkerSessionHandler[0];
+
+    private final SessionWorker[] workers;
+    private final AgentRunner[] runners;
+
+    private WorkerSessionHandler[] handlers = EMPTY_HANDLERS;
+    private long nextHandlerId = 1;
+
+    SessionWorkerPool(final LibraryConfiguration configuration, final ErrorHandler errorHandler)
+    {
+        final int threads = configuration.sessionWorkerThreads();
+        workers = new SessionWorker[threads];
+        runners = new AgentRunner[threads];
+        for (int i = 0; i < threads; i++)
+        {
+            final SessionWorker worker = new SessionWorker(
+                configuration.sessionWorkerQueueCapacity(), errorHandler, "session-worker-" + i);
+            final AgentRunner runner = new AgentRunner(backoffIdleStrategy(), errorHandler, null, worker);
+            workers[i] = worker;
+            runners[i] = runner;
+            startOnThread(runner, configuration.threadFactory());
+        }
+    }
+
+    /**
+     * Pin a session to a worker, all the callbacks of the returned handler are invoked on that worker.
+     *
+     * @param session the session to pin.
+     * @param handler the handler that the application has provided for the session.
+     * @return the handler to install on the poller thread.
+     */
+    SessionHandler dispatch(final Session session, final SessionHandler handler)
+    {
+        final SessionWorker worker = workers[(int)((session.id() & Long.MAX_VALUE) % workers.length)];
+        final WorkerSessionHandler workerHandler = new WorkerSessionHandler(
+            nextHandlerId++, session, handler, worker);
+        worker.register(workerHandler);
+        handlers = ArrayUtil.add(handlers, workerHandler);
+
+        return workerHandler;
+    }
+
+    void onSessionRemoved(final Session session)
+    {
+        final WorkerSessionHandler[] handlers = this.handlers;
+        for (int i = 0, size = handlers.length; i < size; i++)
+        {
+            final WorkerSessionHandler handler = handlers[i];
+            if (handler.session() == session)
+            {
+                handler.worker().enqueueRemove(handler.handlerId());
+                this.handlers = ArrayUtil.remove(handlers, i);
+                return;
+            }
+        }
+    }
+
+    int drainPendingEvents()
+    {
+        int drained = 0;
+        for (final SessionWorker worker : workers)
+        {
+            drained += worker.drainPendingEvents();
+        }
+
+        return drained;
+    }
+
+    public void close()
+    {
+        CloseHelper.closeAll(runners);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import org.agrona.DirectBuffer;
+import uk.co.real_logic.artio.messages.DisconnectReason;
+import uk.co.real_logic.artio.session.Session;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+
+/**
+ * Installed as the session's handler on the poller thread, hands each callback over to the session's worker. Callbacks
+ * that can be back-pressured are aborted when the worker's queue is full, the others are queued on the poller side
+ * until there's space.
+ */
+class WorkerSessionHandler implements SessionHandler
+{
+    private final long handlerId;
+    private final Session session;
+    private final SessionHandler delegate;
+    private final SessionWorker worker;
+
+    WorkerSessionHandler(
+        final long handlerId,
+        final Session session,
+        final SessionHandler delegate,
+        final SessionWorker worker)
+    {
+        this.handlerId = handlerId;
+        this.session = session;
+        this.delegate = delegate;
+        this.worker = worker;
+    }
+
+    long handlerId()
+    {
+        return handlerId;
+    }
+
+    Session session()
+    {
+        return session;
+    }
+
+    SessionHandler delegate()
+    {
+        return delegate;
+    }
+
+    SessionWorker worker()
+    {
+        return worker;
+    }
+
+    public Action onMessage(
+        final DirectBuffer buffer,
+        final int offset,
+        final int length,
+        final int libraryId,
+        final Session session,
+        final int sequenceIndex,
+        final long messageType,
+        final long timestampInNs,
+        final long position,
+        final OnMessageInfo messageInfo)
+    {
+        return worker.offerMessage(
+            handlerId,
+            buffer,
+            offset,
+            length,
+            libraryId,
+            sequenceIndex,
+            messageType,
+            timestampInNs,
+            position,
+            messageInfo) ? CONTINUE : ABORT;
+    }
+
+    public void onTimeout(final int libraryId, final Session session)
+    {
+        worker.enqueueTimeout(handlerId, libraryId);
+    }
+
+    public void onSlowStatus(final int libraryId, final Session session, final boolean hasBecomeSlow)
+    {
+        worker.enqueueSlowStatus(handlerId, libraryId, hasBecomeSlow);
+    }
+
+    public Action onDisconnect(final int libraryId, final Session session, final DisconnectReason reason)
+    {
+        return worker.offerDisconnect(handlerId, libraryId, reason) ? CONTINUE : ABORT;
+    }
+
+    public void onSessionStart(final Session session)
+    {
+        worker.enqueueSessionStart(handlerId);
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.protocol;
+
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+import uk.co.real_logic.artio.util.AsciiBuffer;
+
+import static uk.co.real_logic.artio.dictionary.SessionConstants.START_OF_HEADER;
+
+/**
+ * The session header fields of an inbound FIX message that are needed to validate it: MsgSeqNum, PossDupFlag,
+ * PossResend, SendingTime and OrigSendingTime. The framer locates these whilst it frames a message and writes
+ * them into the <code>FixMessage</code> frame so that the library's session logic can validate the message without
+ * decoding its whole header.
+ *
+ * Offsets of the timestamp fields are relative to the start of the FIX message. If the framer couldn't locate the
+ * header fields, for example because the message is malformed, then {@link #hasMsgSeqNum()} is false and the header
+ * should be decoded as normal.
+ */
+public final class FramedSessionHeader
+{
+    public static final int MISSING_MSG_SEQ_NUM = FixMessageEncoder.msgSeqNumNullValue();
+
+    static final short POSS_DUP_FLAG = 1;
+    static final short POSS_RESEND_FLAG = 2;
+
+    private static final int MSG_SEQ_NUM = 34;
+    private static final int POSS_DUP = 43;
+    private static final int POSS_RESEND = 97;
+    private static final int SENDING_TIME = 52;
+    private static final int ORIG_SENDING_TIME = 122;
+
+    private static final int NO_MSG_SEQ_NUM = 0;
+    private static final int MAX_NATURAL_DIGITS = 9;
+    private static final int MAX_TIMESTAMP_LENGTH = 0xFF;
+
+    private int msgSeqNum = MISSING_MSG_SEQ_NUM;
+    private short flags;
+    private int sendingTimeOffset;
+    private int sendingTimeLength;
+    private int origSendingTimeOffset;
+    private int origSendingTimeLength;
+
+    public void reset()
+    {
+        msgSeqNum = MISSING_MSG_SEQ_NUM;
+        flags = 0;
+        sendingTimeOffset = 0;
+        sendingTimeLength = 0;
+        origSendingTimeOffset = 0;
+        origSendingTimeLength = 0;
+    }
+
+    /**
+     * Locate the session header fields of a FIX message by scanning the tags of its standard header. The message is
+     * assumed to have been framed, ie its body length and checksum are valid.
+     *
+     * @param buffer the buffer containing the message.
+     * @param offset the offset of the start of the message.
+     * @param length the length of the message.
+     * @return true if the MsgSeqNum and SendingTime were found and all the fields were well formed, false otherwise.
+     */
+    public boolean scan(final AsciiBuffer buffer, final int offset, final int length)
+    {
+        reset();
+
+        final int end = offset + length;
+        int tagStart = offset;
+        while (tagStart < end)
+        {
+            final int equalsIndex = buffer.scan(tagStart, end, (byte)'=');
+            if (equalsIndex == AsciiBuffer.UNKNOWN_INDEX || !isNatural(buffer, tagStart, equalsIndex - tagStart))
+            {
+                return invalid();
+            }
+            final int tag = buffer.getNatural(tagStart, equalsIndex);
+
+            final int valueStart = equalsIndex + 1;
+            final int valueEnd = buffer.scan(valueStart, end, START_OF_HEADER);
+            if (valueEnd == AsciiBuffer.UNKNOWN_INDEX || valueEnd == valueStart)
+            {
+                return invalid();
+            }
+            final int valueLength = valueEnd - valueStart;
+
+            switch (tag)
+            {
+                case MSG_SEQ_NUM:
+                    if (msgSeqNum != MISSING_MSG_SEQ_NUM || !isNatural(buffer, valueStart, valueLength))
+                    {
+                        return invalid();
+                    }
+                    msgSeqNum = buffer.getNatural(valueStart, valueEnd);
+                    if (msgSeqNum == NO_MSG_SEQ_NUM)
+                    {
+                        return invalid();
+                    }
+                    break;
+
+                case POSS_DUP:
+                    if (!scanFlag(buffer, valueStart, valueLength, POSS_DUP_FLAG))
+                    {
+                        return invalid();
+                    }
+                    break;
+
+                case POSS_RESEND:
+                    if (!scanFlag(buffer, valueStart, valueLength, POSS_RESEND_FLAG))
+                    {
+                        return invalid();
+                    }
+                    break;
+
+                case SENDING_TIME:
+                    if (sendingTimeLength != 0 || valueLength > MAX_TIMESTAMP_LENGTH)
+                    {
+                        return invalid();
+                    }
+                    sendingTimeOffset = valueStart - offset;
+                    sendingTimeLength = valueLength;
+                    break;
+
+                case ORIG_SENDING_TIME:
+                    if (origSendingTimeLength != 0 || valueLength > MAX_TIMESTAMP_LENGTH)
+                    {
+                        return invalid();
+                    }
+                    origSendingTimeOffset = valueStart - offset;
+                    origSendingTimeLength = valueLength;
+                    break;
+
+                default:
+                    if (!isStandardHeaderTag(tag))
+                    {
+                        return endOfHeader();
+                    }
+            }
+
+            tagStart = valueEnd + 1;
+        }
+
+        return endOfHeader();
+    }
+
+    public void encode(final FixMessageEncoder messageFrame)
+    {
+        messageFrame
+            .msgSeqNum(msgSeqNum)
+            .sessionHeaderFlags(flags)
+            .sendingTimeOffset(sendingTimeOffset)
+            .sendingTimeLength((short)sendingTimeLength)
+            .origSendingTimeOffset(origSendingTimeOffset)
+            .origSendingTimeLength((short)origSendingTimeLength);
+    }
+
+    public static void encodeMissing(final FixMessageEncoder messageFrame)
+    {
+        messageFrame
+            .msgSeqNum(MISSING_MSG_SEQ_NUM)
+            .sessionHeaderFlags((short)0)
+            .sendingTimeOffset(0)
+            .sendingTimeLength((short)0)
+            .origSendingTimeOffset(0)
+            .origSendingTimeLength((short)0);
+    }
+
+    public void decode(final FixMessageDecoder messageFrame)
+    {
+        // Frames written before the fields existed decode them as null values, and writers that don't set the fields
+        // leave them as 0, which is never a valid MsgSeqNum.
+        msgSeqNum = messageFrame.msgSeqNum();
+        if (msgSeqNum == MISSING_MSG_SEQ_NUM || msgSeqNum == NO_MSG_SEQ_NUM)
+        {
+            reset();
+        }
+        else
+        {
+            flags = messageFrame.sessionHeaderFlags();
+            sendingTimeOffset = messageFrame.sendingTimeOffset();
+            sendingTimeLength = messageFrame.sendingTimeLength();
+            origSendingTimeOffset = messageFrame.origSendingTimeOffset();
+            origSendingTimeLength = messageFrame.origSendingTimeLength();
+        }
+    }
+
+    public boolean hasMsgSeqNum()
+    {
+        return msgSeqNum != MISSING_MSG_SEQ_NUM;
+    }
+
+    public int msgSeqNum()
+    {
+        return msgSeqNum;
+    }
+
+    public boolean possDup()
+    {
+        return (flags & POSS_DUP_FLAG) != 0;
+    }
+
+    public boolean possResend()
+    {
+        return (flags & POSS_RESEND_FLAG) != 0;
+    }
+
+    public int sendingTimeOffset()
+    {
+        return sendingTimeOffset;
+    }
+
+    public int sendingTimeLength()
+    {
+        return sendingTimeLength;
+    }
+
+    public boolean hasOrigSendingTime()
+    {
+        return origSendingTimeLength != 0;
+    }
+
+    public int origSendingTimeOffset()
+    {
+        return origSendingTimeOffset;
+    }
+
+    public int origSendingTimeLength()
+    {
+        return origSendingTimeLength;
+    }
+
+    private boolean endOfHeader()
+    {
+        if (msgSeqNum == MISSING_MSG_SEQ_NUM || sendingTimeLength == 0)
+        {
+            return invalid();
+        }
+
+        return true;
+    }
+
+    private boolean invalid()
+    {
+        reset();
+        return false;
+    }
+
+    private boolean scanFlag(final AsciiBuffer buffer, final int offset, final int length, final short flag)
+    {
+        if (length != 1 || (flags & flag) != 0)
+        {
+            return false;
+        }
+
+        final byte value = buffer.getByte(offset);
+        if (value == 'Y')
+        {
+            flags |= flag;
+            return true;
+        }
+
+        return value == 'N';
+    }
+
+    private static boolean isNatural(final AsciiBuffer buffer, final int offset, final int length)
+    {
+        if (length == 0 || length > MAX_NATURAL_DIGITS)
+        {
+            return false;
+        }
+
+        for (int i = offset, end = offset + length; i < end; i++)
+        {
+            final byte value = buffer.getByte(i);
+            if (value < '0' || value > '9')
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // The standard header tags of FIX 4.0 to FIXT 1.1, header fields must precede the body of a message
+    private static boolean isStandardHeaderTag(final int tag)
+    {
+        switch (tag)
+        {
+            case 8:
+            case 9:
+            case 35:
+            case 49:
+            case 50:
+            case 56:
+            case 57:
+            case 90:
+            case 91:
+            case 115:
+            case 116:
+            case 128:
+            case 129:
+            case 142:
+            case 143:
+            case 144:
+            case 145:
+            case 212:
+            case 213:
+            case 347:
+            case 369:
+            case 627:
+            case 628:
+            case 629:
+            case 630:
+            case 1128:
+            case 1129:
+            case 1156:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+}
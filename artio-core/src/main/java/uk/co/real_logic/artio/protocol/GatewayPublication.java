@@ -32,6 +32,7 @@ import uk.co.real_logic.artio.engine.SessionInfo;
 import uk.co.real_logic.artio.messages.*;
 import uk.co.real_logic.artio.messages.ControlNotificationEncoder.DisconnectedSessionsEncoder;
 import uk.co.real_logic.artio.messages.ControlNotificationEncoder.SessionsEncoder;
+import uk.co.real_logic.artio.timing.MessageTracer;
 import uk.co.real_logic.artio.util.CharFormatter;
 
 import java.util.List;
@@ -47,6 +48,8 @@ import static uk.co.real_logic.artio.LogTag.*;
 import static uk.co.real_logic.artio.messages.ErrorDecoder.messageHeaderLength;
 import static uk.co.real_logic.artio.messages.ErrorEncoder.BLOCK_LENGTH;
 import static uk.co.real_logic.artio.messages.FixMessageEncoder.metaDataHeaderLength;
+import static uk.co.real_logic.artio.timing.MessageTracer.NOT_TRACED;
+import static uk.co.real_logic.artio.timing.MessageTracer.NO_TRACING;
 
 /**
  * A proxy for publishing messages fix related messages
@@ -181,6 +184,8 @@ public class GatewayPublication extends ClaimablePublication
     private final EpochNanoClock clock;
     private final int maxPayloadLength;
 
+    private MessageTracer messageTracer;
+
     public GatewayPublication(
         final ExclusivePublication dataPublication,
         final AtomicCounter fails,
@@ -191,6 +196,18 @@ public class GatewayPublication extends ClaimablePublication
         super(maxClaimAttempts, idleStrategy, fails, dataPublication);
         this.clock = clock;
         this.maxPayloadLength = dataPublication.maxPayloadLength();
+        this.messageTracer = new MessageTracer(clock, NO_TRACING);
+    }
+
+    /**
+     * Sample the messages that are saved with the current time as their timestamp for latency tracing, using that
+     * timestamp as their trace timestamp.
+     *
+     * @param messageTracer the tracer that samples messages.
+     */
+    public void messageTracer(final MessageTracer messageTracer)
+    {
+        this.messageTracer = messageTracer;
     }
 
     public long saveMessage(
@@ -216,7 +233,8 @@ public class GatewayPublication extends ClaimablePublication
             connectionId,
             status,
             sequenceNumber,
-            clock.nanoTime());
+            null,
+            0);
     }
 
     public long saveMessage(
@@ -233,6 +251,7 @@ public class GatewayPublication extends ClaimablePublication
         final DirectBuffer metaDataBuffer,
         final int metaDataUpdateOffset)
     {
+        final long timestamp = clock.nanoTime();
         return saveMessage(
             srcBuffer,
             srcOffset,
@@ -244,9 +263,11 @@ public class GatewayPublication extends ClaimablePublication
             connectionId,
             status,
             sequenceNumber,
-            clock.nanoTime(),
+            timestamp,
+            messageTracer.sample() ? timestamp : NOT_TRACED,
             metaDataBuffer,
-            metaDataUpdateOffset);
+            metaDataUpdateOffset,
+            null);
     }
 
     public long saveMessage(
@@ -292,6 +313,74 @@ public class GatewayPublication extends ClaimablePublication
         final long timestamp,
         final DirectBuffer srcMetaDataBuffer,
         final int metaDataUpdateOffset)
+    {
+        return saveMessage(
+            srcBuffer,
+            srcOffset,
+            srcLength,
+            libraryId,
+            messageType,
+            sessionId,
+            sequenceIndex,
+            connectionId,
+            status,
+            sequenceNumber,
+            timestamp,
+            NOT_TRACED,
+            srcMetaDataBuffer,
+            metaDataUpdateOffset,
+            null);
+    }
+
+    public long saveMessage(
+        final DirectBuffer srcBuffer,
+        final int srcOffset,
+        final int srcLength,
+        final int libraryId,
+        final long messageType,
+        final long sessionId,
+        final int sequenceIndex,
+        final long connectionId,
+        final MessageStatus status,
+        final int sequenceNumber,
+        final long timestamp,
+        final long traceTimestamp,
+        final FramedSessionHeader sessionHeader)
+    {
+        return saveMessage(
+            srcBuffer,
+            srcOffset,
+            srcLength,
+            libraryId,
+            messageType,
+            sessionId,
+            sequenceIndex,
+            connectionId,
+            status,
+            sequenceNumber,
+            timestamp,
+            traceTimestamp,
+            null,
+            0,
+            sessionHeader);
+    }
+
+    public long saveMessage(
+        final DirectBuffer srcBuffer,
+        final int srcOffset,
+        final int srcLength,
+        final int libraryId,
+        final long messageType,
+        final long sessionId,
+        final int sequenceIndex,
+        final long connectionId,
+        final MessageStatus status,
+        final int sequenceNumber,
+        final long timestamp,
+        final long traceTimestamp,
+        final DirectBuffer srcMetaDataBuffer,
+        final int metaDataUpdateOffset,
+        final FramedSessionHeader sessionHeader)
     {
         final int maxPayloadLength = this.maxPayloadLength;
         final DirectBuffer metaDataBuffer = srcMetaDataBuffer == null ? NO_METADATA : srcMetaDataBuffer;
@@ -354,6 +443,18 @@ public class GatewayPublication extends ClaimablePublication
             .status(status)
             .sequenceNumber(sequenceNumber)
             .metaDataUpdateOffset(metaDataUpdateOffset)
+            .traceTimestamp(traceTimestamp);
+
+        if (sessionHeader == null)
+        {
+            FramedSessionHeader.encodeMissing(fixMessage);
+        }
+        else
+        {
+            sessionHeader.encode(fixMessage);
+        }
+
+        fixMessage
             .putMetaData(metaDataBuffer, 0, metaDataLength)
             .putBody(srcBuffer, srcFragmentOffset, srcFragmentLength);
 
@@ -33,10 +33,12 @@ public interface ProtocolHandler
         int sequenceIndex,
         long messageType,
         long timestamp,
+        long traceTimestamp,
         MessageStatus status,
         int sequenceNumber,
         Header header,
-        int metaDataLength);
+        int metaDataLength,
+        FramedSessionHeader sessionHeader);
 
     Action onDisconnect(int libraryId, long connectionId, DisconnectReason reason);
 
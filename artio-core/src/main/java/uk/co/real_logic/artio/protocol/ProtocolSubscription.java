@@ -37,6 +37,7 @@ public final class ProtocolSubscription implements ControlledFragmentHandler
     private final DisconnectDecoder disconnect = new DisconnectDecoder();
     private final FixMessageDecoder messageFrame = new FixMessageDecoder();
     private final FixPMessageDecoder iLinkMessage = new FixPMessageDecoder();
+    private final FramedSessionHeader sessionHeader = new FramedSessionHeader();
 
     private final ProtocolHandler protocolHandler;
     private final Action defaultAction;
@@ -141,6 +142,7 @@ public final class ProtocolSubscription implements ControlledFragmentHandler
 
         final int messageLength = messageFrame.bodyLength();
         final long messageType = MessageTypeExtractor.getMessageType(messageFrame);
+        sessionHeader.decode(messageFrame);
         return protocolHandler.onMessage(
             buffer,
             offset + FRAME_SIZE + metaDataLength,
@@ -151,9 +153,11 @@ public final class ProtocolSubscription implements ControlledFragmentHandler
             messageFrame.sequenceIndex(),
             messageType,
             messageFrame.timestamp(),
+            messageFrame.traceTimestamp(),
             messageFrame.status(),
             messageFrame.sequenceNumber(),
             header,
-            metaDataLength);
+            metaDataLength,
+            sessionHeader);
     }
 }
@@ -119,6 +119,43 @@ public class DirectSessionProxy implements SessionProxy
         final int libraryId,
         final ErrorHandler errorHandler,
         final EpochFractionFormat epochFractionPrecision)
+    {
+        this(
+            new MutableAsciiBuffer(new byte[sessionBufferSize]),
+            newTimestampEncoder(clock, epochFractionPrecision),
+            gatewayPublication,
+            sessionIdStrategy,
+            customisationStrategy,
+            clock,
+            connectionId,
+            libraryId,
+            errorHandler);
+    }
+
+    /**
+     * Creates a proxy that encodes into the given buffer and timestamp encoder. These only hold state whilst a
+     * message is being sent, so they can be shared between proxies that are used from the same thread.
+     *
+     * @param buffer the buffer to encode messages into.
+     * @param timestampEncoder the encoder used for the SendingTime field.
+     * @param gatewayPublication the publication to send messages with.
+     * @param sessionIdStrategy the strategy used to setup session headers.
+     * @param customisationStrategy the customisation strategy for session headers.
+     * @param clock the clock used for the SendingTime field.
+     * @param connectionId the connection id of the session.
+     * @param libraryId the id of the library that owns the session.
+     * @param errorHandler the handler for errors whilst sending messages.
+     */
+    public DirectSessionProxy(
+        final MutableAsciiBuffer buffer,
+        final UtcTimestampEncoder timestampEncoder,
+        final GatewayPublication gatewayPublication,
+        final SessionIdStrategy sessionIdStrategy,
+        final SessionCustomisationStrategy customisationStrategy,
+        final EpochNanoClock clock,
+        final long connectionId,
+        final int libraryId,
+        final ErrorHandler errorHandler)
     {
         this.gatewayPublication = gatewayPublication;
         this.sessionIdStrategy = sessionIdStrategy;
@@ -126,11 +163,18 @@ public class DirectSessionProxy implements SessionProxy
         this.clock = clock;
         this.connectionId = connectionId;
         this.libraryId = libraryId;
-        this.buffer = new MutableAsciiBuffer(new byte[sessionBufferSize]);
+        this.buffer = buffer;
         this.errorHandler = errorHandler;
+        this.timestampEncoder = timestampEncoder;
         lowSequenceNumber = new AsciiFormatter("MsgSeqNum too low, expecting %s but received %s");
-        timestampEncoder = new UtcTimestampEncoder(epochFractionPrecision);
+    }
+
+    public static UtcTimestampEncoder newTimestampEncoder(
+        final EpochNanoClock clock, final EpochFractionFormat epochFractionPrecision)
+    {
+        final UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder(epochFractionPrecision);
         timestampEncoder.initialise(clock.nanoTime(), TimeUnit.NANOSECONDS);
+        return timestampEncoder;
     }
 
     public void fixDictionary(final FixDictionary dictionary)
@@ -115,6 +115,11 @@ public class InternalSession extends Session implements AutoCloseable
         return super.poll(timeInNs);
     }
 
+    public long nextPollDeadlineInNs()
+    {
+        return super.nextPollDeadlineInNs();
+    }
+
     public void disable()
     {
         super.disable();
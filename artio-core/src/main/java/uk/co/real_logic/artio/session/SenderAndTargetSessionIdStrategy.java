@@ -91,6 +91,11 @@ class SenderAndTargetSessionIdStrategy implements SessionIdStrategy
         headerEncoder.targetCompID(checkMissing(composite.remoteCompID));
     }
 
+    public boolean setsUpOnlyIdentityFields()
+    {
+        return true;
+    }
+
     public int save(final CompositeKey compositeKey, final MutableDirectBuffer buffer, final int offset)
     {
         requireNonNull(compositeKey, "compositeKey");
@@ -93,6 +93,11 @@ class SenderTargetAndSubSessionIdStrategy implements SessionIdStrategy
         headerEncoder.targetCompID(checkMissing(composite.remoteCompID));
     }
 
+    public boolean setsUpOnlyIdentityFields()
+    {
+        return true;
+    }
+
     public int save(final CompositeKey compositeKey, final MutableDirectBuffer buffer, final int offset)
     {
         final String localCompID = compositeKey.localCompId();
@@ -95,6 +95,7 @@ public class Session
     static final long LIBRARY_DISCONNECTED = NO_OPERATION + 1;
     private static final int INITIAL_SEQUENCE_NUMBER = 1;
     public static final long NO_REPLAY_CORRELATION_ID = 0;
+    public static final long NO_POLL_DEADLINE = Long.MAX_VALUE;
 
     /**
      * The proportion of the maximum heartbeat interval before you send your heartbeat
@@ -136,6 +137,8 @@ public class Session
     private boolean initiatorResetSeqNum;
 
     private CompositeKey sessionKey;
+    private byte[] headerTemplate;
+    private int headerTemplateLength;
     private SessionState state;
     private String beginString;
     private AtomicCounter receivedMsgSeqNo;
@@ -639,9 +642,17 @@ public class Session
             header.lastMsgSeqNumProcessed(lastMsgSeqNumProcessed);
         }
 
-        if (!header.hasSenderCompID())
+        if (headerTemplateLength > 0 && header.supportsHeaderTemplate() && !hasHeaderTemplateFields(header))
         {
-            sessionIdStrategy.setupSession(sessionKey, header);
+            header.headerTemplate(headerTemplate, headerTemplateLength);
+        }
+        else
+        {
+            clearHeaderTemplate(header);
+            if (!header.hasSenderCompID())
+            {
+                sessionIdStrategy.setupSession(sessionKey, header);
+            }
         }
 
         customisationStrategy.configureHeader(header, id);
@@ -649,6 +660,22 @@ public class Session
         return sentSeqNum;
     }
 
+    // Any identity field that's been set explicitly would be encoded a second time by the template
+    private static boolean hasHeaderTemplateFields(final SessionHeaderEncoder header)
+    {
+        return header.hasSenderCompID() || header.hasSenderSubID() || header.hasSenderLocationID() ||
+            header.hasTargetCompID() || header.hasTargetSubID() || header.hasTargetLocationID();
+    }
+
+    private static void clearHeaderTemplate(final SessionHeaderEncoder header)
+    {
+        // Stops a template spliced in by a previous send duplicating explicitly set identity fields
+        if (header.supportsHeaderTemplate())
+        {
+            header.headerTemplate(null, 0);
+        }
+    }
+
     /**
      * Tries to send a message on this session. This send method returns after having attempted to write the message
      * into an in memory log buffer. If the return value returned is {@link Publication#BACK_PRESSURED} or
@@ -659,6 +686,9 @@ public class Session
      * sent to a counter-party, they are just stored into the archive. When a session with persistent sequence numbers
      * reconnects the counter-party can read the archived messages by sending a resend request.
      *
+     * This method must be called on the library's polling thread. To send messages from other threads use
+     * {@link uk.co.real_logic.artio.library.FixLibrary#sessionSender(Session)}.
+     *
      * @param encoder the encoder of the message to be sent
      * @return the position in the stream that corresponds to the end of this message or a negative
      * number indicating an error status.
@@ -1707,6 +1737,7 @@ public class Session
         id(sessionId);
         this.sessionKey = sessionKey;
         proxy.setupSession(sessionId, sessionKey);
+        renderHeaderTemplate();
 
         if (sessionWriterRef != null)
         {
@@ -2440,6 +2471,45 @@ public class Session
         }
     }
 
+    /**
+     * Gets the earliest time, in nanoseconds, at which {@link #poll(long)} next has some work to do on this session,
+     * assuming that no messages are received and no operations are invoked on it in the meantime.
+     *
+     * @return the next deadline, a time in the past if it should be polled immediately or
+     * {@link #NO_POLL_DEADLINE} if it has no time based work at all.
+     */
+    long nextPollDeadlineInNs()
+    {
+        final short state = state().value();
+
+        if (connectionType == ConnectionType.INITIATOR && state == SessionState.CONNECTED.value() && id() != UNKNOWN)
+        {
+            return 0;
+        }
+
+        switch (state)
+        {
+            case DISCONNECTING_VALUE:
+            case LOGGING_OUT_VALUE:
+            case LOGGING_OUT_AND_DISCONNECTING_VALUE:
+                return 0;
+
+            case AWAITING_LOGOUT_VALUE:
+                return awaitingLogoutTimeoutInNs;
+
+            case DISCONNECTED_VALUE:
+            case DISABLED_VALUE:
+            case AWAITING_ASYNC_PROXY_LOGOUT_VALUE:
+                return NO_POLL_DEADLINE;
+
+            case ACTIVE_VALUE:
+                return Math.min(nextRequiredHeartbeatTimeInNs, nextRequiredInboundMessageTimeInNs);
+
+            default:
+                return nextRequiredInboundMessageTimeInNs;
+        }
+    }
+
     private int initiatorPoll()
     {
         int actions = 0;
@@ -2616,6 +2686,52 @@ public class Session
         this.fixDictionary = fixDictionary;
         proxy.fixDictionary(fixDictionary);
         this.beginString = fixDictionary.beginString();
+        renderHeaderTemplate();
+    }
+
+    // The session identity fields are constant once a session has been setup, so render them into the header once
+    // rather than on every message sent. Header customisation could set these fields as well, so disables this.
+    private void renderHeaderTemplate()
+    {
+        headerTemplateLength = 0;
+        if (sessionKey == null || fixDictionary == null || !sessionIdStrategy.setsUpOnlyIdentityFields() ||
+            !(customisationStrategy instanceof NoSessionCustomisationStrategy))
+        {
+            return;
+        }
+
+        final SessionHeaderEncoder header = fixDictionary.makeHeaderEncoder();
+        if (!header.supportsHeaderTemplate())
+        {
+            return;
+        }
+
+        sessionIdStrategy.setupSession(sessionKey, header);
+        final MutableAsciiBuffer templateBuffer = new MutableAsciiBuffer(new byte[headerTemplateCapacity(sessionKey)]);
+        final int length = header.encodeHeaderTemplate(templateBuffer, 0);
+
+        // A new array as encoders hold onto the template of the previous send
+        final byte[] headerTemplate = new byte[length];
+        templateBuffer.getBytes(0, headerTemplate);
+        this.headerTemplate = headerTemplate;
+        headerTemplateLength = length;
+    }
+
+    private static int headerTemplateCapacity(final CompositeKey sessionKey)
+    {
+        return headerTemplateFieldCapacity(sessionKey.localCompId()) +
+            headerTemplateFieldCapacity(sessionKey.localSubId()) +
+            headerTemplateFieldCapacity(sessionKey.localLocationId()) +
+            headerTemplateFieldCapacity(sessionKey.remoteCompId()) +
+            headerTemplateFieldCapacity(sessionKey.remoteSubId()) +
+            headerTemplateFieldCapacity(sessionKey.remoteLocationId());
+    }
+
+    private static int headerTemplateFieldCapacity(final String value)
+    {
+        // A tag of up to 3 digits, '=', the value, which could be replaced with MISSING_COMP_ID, and a separator
+        final int valueLength = value == null ? 0 : value.length();
+        return 5 + Math.max(valueLength, SessionIdStrategy.MISSING_COMP_ID.length);
     }
 
     void connectionId(final long connectionId)
@@ -94,6 +94,18 @@ public interface SessionIdStrategy
      */
     void setupSession(CompositeKey compositeKey, SessionHeaderEncoder headerEncoder);
 
+    /**
+     * Check whether {@link #setupSession(CompositeKey, SessionHeaderEncoder)} only sets the session identity fields of
+     * the header: SenderCompID, TargetCompID and their sub and location ids. If it does then a session renders these
+     * fields once into a header template rather than setting them up on every message that it sends.
+     *
+     * @return true if only session identity fields are setup, false otherwise.
+     */
+    default boolean setsUpOnlyIdentityFields()
+    {
+        return false;
+    }
+
     /**
      * Saves the given composite key to a buffer.
      *
@@ -29,7 +29,9 @@ import uk.co.real_logic.artio.fields.UtcTimestampDecoder;
 import uk.co.real_logic.artio.library.OnMessageInfo;
 import uk.co.real_logic.artio.messages.CancelOnDisconnectOption;
 import uk.co.real_logic.artio.messages.SessionState;
+import uk.co.real_logic.artio.protocol.FramedSessionHeader;
 import uk.co.real_logic.artio.util.AsciiBuffer;
+import uk.co.real_logic.artio.util.MessageTypeEncoding;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 import uk.co.real_logic.artio.validation.MessageValidationStrategy;
 
@@ -47,8 +49,13 @@ import static uk.co.real_logic.artio.session.Session.UNKNOWN;
 
 public class SessionParser
 {
+    private static final int BEGIN_STRING_VALUE_OFFSET = 2;
+    private static final int MAX_UNPACKED_MSG_TYPE_LENGTH = 2;
+
     private final AsciiBuffer asciiBuffer = new MutableAsciiBuffer();
     private final UtcTimestampDecoder timestampDecoder;
+    private final byte[] unpackedMsgType = new byte[MAX_UNPACKED_MSG_TYPE_LENGTH];
+    private final char[] msgType = new char[MAX_UNPACKED_MSG_TYPE_LENGTH];
 
     private AbstractLogonDecoder logon;
     private AbstractLogoutDecoder logout;
@@ -60,6 +67,8 @@ public class SessionParser
     private AbstractHeartbeatDecoder heartbeat;
 
     private final boolean validateCompIdsOnEveryMessage;
+    private final boolean validateTimeStrictly;
+    private final boolean validatesHeader;
     private final OnMessageInfo messageInfo;
     private final SessionIdStrategy sessionIdStrategy;
 
@@ -81,21 +90,56 @@ public class SessionParser
         this.validationStrategy = validationStrategy;
         this.errorHandler = errorHandler;
         this.validateCompIdsOnEveryMessage = validateCompIdsOnEveryMessage;
+        this.validateTimeStrictly = validateTimeStrictly;
+        this.validatesHeader = validateCompIdsOnEveryMessage || validationStrategy.validatesHeader();
         this.messageInfo = messageInfo;
         this.sessionIdStrategy = sessionIdStrategy;
         this.timestampDecoder = new UtcTimestampDecoder(validateTimeStrictly);
     }
 
+    /**
+     * The decoders used to parse session level messages. They only hold state whilst a message is being parsed,
+     * so parsers for different sessions of the same dictionary on a single thread can share one instance.
+     */
+    public static final class Decoders
+    {
+        final AbstractLogonDecoder logon;
+        final AbstractLogoutDecoder logout;
+        final AbstractRejectDecoder reject;
+        final AbstractTestRequestDecoder testRequest;
+        final SessionHeaderDecoder header;
+        final AbstractSequenceResetDecoder sequenceReset;
+        final AbstractResendRequestDecoder resendRequest;
+        final AbstractHeartbeatDecoder heartbeat;
+
+        public Decoders(final FixDictionary fixDictionary)
+        {
+            logon = fixDictionary.makeLogonDecoder();
+            logout = fixDictionary.makeLogoutDecoder();
+            reject = fixDictionary.makeRejectDecoder();
+            testRequest = fixDictionary.makeTestRequestDecoder();
+            header = fixDictionary.makeHeaderDecoder();
+            sequenceReset = fixDictionary.makeSequenceResetDecoder();
+            heartbeat = fixDictionary.makeHeartbeatDecoder();
+            resendRequest = fixDictionary.makeResendRequestDecoder();
+        }
+    }
+
     public void fixDictionary(final FixDictionary fixDictionary)
     {
-        logon = fixDictionary.makeLogonDecoder();
-        logout = fixDictionary.makeLogoutDecoder();
-        reject = fixDictionary.makeRejectDecoder();
-        testRequest = fixDictionary.makeTestRequestDecoder();
-        header = fixDictionary.makeHeaderDecoder();
-        sequenceReset = fixDictionary.makeSequenceResetDecoder();
-        heartbeat = fixDictionary.makeHeartbeatDecoder();
-        resendRequest = fixDictionary.makeResendRequestDecoder();
+        decoders(new Decoders(fixDictionary));
+    }
+
+    public void decoders(final Decoders decoders)
+    {
+        logon = decoders.logon;
+        logout = decoders.logout;
+        reject = decoders.reject;
+        testRequest = decoders.testRequest;
+        header = decoders.header;
+        sequenceReset = decoders.sequenceReset;
+        heartbeat = decoders.heartbeat;
+        resendRequest = decoders.resendRequest;
     }
 
     public static String username(final AbstractLogonDecoder logon)
@@ -126,6 +170,29 @@ public class SessionParser
         final int length,
         final long messageType,
         final long position)
+    {
+        return onMessage(buffer, offset, length, messageType, position, null);
+    }
+
+    /**
+     * Parse and validate a message that was received from the counter-party.
+     *
+     * @param buffer the buffer containing the message.
+     * @param offset the offset of the message within the buffer.
+     * @param length the length of the message.
+     * @param messageType the packed message type of the message.
+     * @param position the position of the message in the inbound stream.
+     * @param sessionHeader the session header fields located by the framer, or null if they weren't located, in which
+     *                      case the header is decoded.
+     * @return the action that the subscription should take.
+     */
+    public Action onMessage(
+        final DirectBuffer buffer,
+        final int offset,
+        final int length,
+        final long messageType,
+        final long position,
+        final FramedSessionHeader sessionHeader)
     {
         asciiBuffer.wrap(buffer);
 
@@ -163,7 +230,7 @@ public class SessionParser
             }
             else
             {
-                action = onAnyOtherMessage(offset, length, position);
+                action = onAnyOtherMessage(offset, length, messageType, position, sessionHeader);
             }
 
             // Consider admin messages processed when they've been received by the session logic
@@ -318,8 +385,24 @@ public class SessionParser
         }
     }
 
-    private Action onAnyOtherMessage(final int offset, final int length, final long position)
+    private Action onAnyOtherMessage(
+        final int offset,
+        final int length,
+        final long messageType,
+        final long position,
+        final FramedSessionHeader sessionHeader)
     {
+        if (sessionHeader != null && sessionHeader.hasMsgSeqNum() && !validatesHeader)
+        {
+            final int msgTypeLength = unpackMsgType(messageType);
+            if (msgTypeLength != 0 &&
+                (!CODEC_VALIDATION_ENABLED || isValidMsgType(msgType, msgTypeLength)) &&
+                hasSessionBeginString(offset, length))
+            {
+                return onFramedMessage(offset, msgTypeLength, sessionHeader, position);
+            }
+        }
+
         final SessionHeaderDecoder header = this.header;
         header.reset();
         header.decode(asciiBuffer, offset, length);
@@ -362,6 +445,92 @@ public class SessionParser
             position);
     }
 
+    // The framer has located the session header fields, and nothing else in the header needs validating
+    private Action onFramedMessage(
+        final int offset, final int msgTypeLength, final FramedSessionHeader sessionHeader, final long position)
+    {
+        final long sendingTime = decodeTimestampInMs(
+            offset + sessionHeader.sendingTimeOffset(), sessionHeader.sendingTimeLength(), SENDING_TIME);
+        long origSendingTime = UNKNOWN;
+        if (sessionHeader.hasOrigSendingTime())
+        {
+            origSendingTime = decodeTimestampInMs(
+                offset + sessionHeader.origSendingTimeOffset(),
+                sessionHeader.origSendingTimeLength(),
+                ORIG_SENDING_TIME);
+        }
+        final boolean possDup = sessionHeader.possDup();
+        return session.onMessage(
+            sessionHeader.msgSeqNum(),
+            msgType,
+            msgTypeLength,
+            sendingTime,
+            origSendingTime,
+            possDup || sessionHeader.possResend(),
+            possDup,
+            position);
+    }
+
+    private long decodeTimestampInMs(final int offset, final int length, final int refTagId)
+    {
+        try
+        {
+            return CODEC_VALIDATION_ENABLED ?
+                UtcTimestampDecoder.decode(asciiBuffer, offset, length, validateTimeStrictly) :
+                MISSING_LONG;
+        }
+        catch (final Exception e)
+        {
+            throw new MalformedTagFormatException(refTagId, e);
+        }
+    }
+
+    // returns 0 if the message type can't be unpacked into the msgType field
+    private int unpackMsgType(final long messageType)
+    {
+        if ((messageType >>> (Byte.SIZE * MAX_UNPACKED_MSG_TYPE_LENGTH)) != 0)
+        {
+            return 0;
+        }
+
+        final int msgTypeLength = MessageTypeEncoding.unpackMessageType(messageType, unpackedMsgType);
+        for (int i = 0; i < msgTypeLength; i++)
+        {
+            msgType[i] = (char)unpackedMsgType[i];
+        }
+        return msgTypeLength;
+    }
+
+    private boolean hasSessionBeginString(final int offset, final int length)
+    {
+        final String beginString = session.beginString();
+        if (beginString == null)
+        {
+            return false;
+        }
+
+        final AsciiBuffer asciiBuffer = this.asciiBuffer;
+        final int beginStringLength = beginString.length();
+        final int valueOffset = offset + BEGIN_STRING_VALUE_OFFSET;
+        if (BEGIN_STRING_VALUE_OFFSET + beginStringLength >= length ||
+            asciiBuffer.getByte(offset) != '8' ||
+            asciiBuffer.getByte(offset + 1) != '=' ||
+            asciiBuffer.getByte(valueOffset + beginStringLength) != START_OF_HEADER)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < beginStringLength; i++)
+        {
+            if (asciiBuffer.getByte(valueOffset + i) != beginString.charAt(i))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     private long origSendingTimeInMs(final SessionHeaderDecoder header)
     {
         if (header.hasOrigSendingTime())
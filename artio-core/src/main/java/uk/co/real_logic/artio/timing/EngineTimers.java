@@ -25,13 +25,17 @@ public class EngineTimers
 {
     private final Timer outboundTimer;
     private final Timer sendTimer;
+    private final Timer tracePublishTimer;
+    private final Timer traceWriteTimer;
     private final List<Timer> timers;
 
     public EngineTimers(final EpochNanoClock clock, final AtomicCounter negativeTimestamps)
     {
         outboundTimer = new Timer(clock, "Outbound", 1, negativeTimestamps);
         sendTimer = new Timer(clock, "Send", 2, negativeTimestamps);
-        timers = Arrays.asList(outboundTimer, sendTimer);
+        tracePublishTimer = new Timer(clock, "TraceSocketReadToFramerPublish", 3, negativeTimestamps);
+        traceWriteTimer = new Timer(clock, "TraceOutboundClaimToSocketWrite", 4, negativeTimestamps);
+        timers = Arrays.asList(outboundTimer, sendTimer, tracePublishTimer, traceWriteTimer);
     }
 
     public Timer outboundTimer()
@@ -44,6 +48,16 @@ public class EngineTimers
         return sendTimer;
     }
 
+    public Timer tracePublishTimer()
+    {
+        return tracePublishTimer;
+    }
+
+    public Timer traceWriteTimer()
+    {
+        return traceWriteTimer;
+    }
+
     public List<Timer> all()
     {
         return timers;
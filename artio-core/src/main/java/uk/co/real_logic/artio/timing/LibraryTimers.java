@@ -25,13 +25,17 @@ public class LibraryTimers
 {
     private final Timer sessionTimer;
     private final Timer receiveTimer;
+    private final Timer traceReceiveTimer;
+    private final Timer traceHandlerTimer;
     private final List<Timer> timers;
 
     public LibraryTimers(final EpochNanoClock clock, final AtomicCounter negativeTimestamps)
     {
         sessionTimer = new Timer(clock, "Session", -1, negativeTimestamps);
         receiveTimer = new Timer(clock, "Receive", -2, negativeTimestamps);
-        timers = Arrays.asList(sessionTimer, receiveTimer);
+        traceReceiveTimer = new Timer(clock, "TraceFramerPublishToLibraryReceive", -3, negativeTimestamps);
+        traceHandlerTimer = new Timer(clock, "TraceLibraryReceiveToHandlerReturn", -4, negativeTimestamps);
+        timers = Arrays.asList(sessionTimer, receiveTimer, traceReceiveTimer, traceHandlerTimer);
     }
 
     public Timer sessionTimer()
@@ -44,6 +48,16 @@ public class LibraryTimers
         return receiveTimer;
     }
 
+    public Timer traceReceiveTimer()
+    {
+        return traceReceiveTimer;
+    }
+
+    public Timer traceHandlerTimer()
+    {
+        return traceHandlerTimer;
+    }
+
     public List<Timer> all()
     {
         return timers;
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.timing;
+
+import org.agrona.BitUtil;
+import org.agrona.concurrent.EpochNanoClock;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+
+/**
+ * Samples the messages whose progress through the engine and library is traced. A sampled message carries a trace
+ * timestamp in its <code>FixMessage</code> frame from the stage that published it, and each later stage records the
+ * time since the previous one into a {@link Timer}.
+ *
+ * Deciding whether to sample a message is a counter increment and mask, so that tracing can be left enabled in
+ * production. Not thread safe, each publishing thread should have its own instance.
+ */
+public final class MessageTracer
+{
+    public static final long NOT_TRACED = FixMessageEncoder.traceTimestampNullValue();
+    public static final int NO_TRACING = 0;
+
+    private final EpochNanoClock clock;
+    private final boolean enabled;
+    private final int sampleMask;
+
+    private int count;
+
+    /**
+     * Create the tracer.
+     *
+     * @param clock the clock used to stamp messages, this should be comparable between the engine and libraries.
+     * @param sampleInterval one in every sampleInterval messages is traced, this must be a power of two, or
+     *                       {@link #NO_TRACING} in order to disable tracing.
+     */
+    public MessageTracer(final EpochNanoClock clock, final int sampleInterval)
+    {
+        if (sampleInterval != NO_TRACING && !BitUtil.isPowerOfTwo(sampleInterval))
+        {
+            throw new IllegalArgumentException(
+                "sampleInterval must be a power of two or NO_TRACING, but was: " + sampleInterval);
+        }
+
+        this.clock = clock;
+        this.enabled = sampleInterval != NO_TRACING;
+        this.sampleMask = sampleInterval - 1;
+    }
+
+    /**
+     * Decide whether the next message that's published should be traced.
+     *
+     * @return true if the message should be traced, false otherwise.
+     */
+    public boolean sample()
+    {
+        return enabled && (++count & sampleMask) == 0;
+    }
+
+    public long nanoTime()
+    {
+        return clock.nanoTime();
+    }
+
+    public boolean enabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Record the time between two stages of a traced message.
+     *
+     * @param timer the timer of the later stage.
+     * @param previousStageTimestamp the time that the message left the previous stage.
+     * @param timestamp the time that the message reached the later stage.
+     */
+    public static void record(final Timer timer, final long previousStageTimestamp, final long timestamp)
+    {
+        timer.recordValue(timestamp - previousStageTimestamp);
+    }
+}
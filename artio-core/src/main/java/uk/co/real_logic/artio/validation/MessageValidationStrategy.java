@@ -63,6 +63,17 @@ public interface MessageValidationStrategy
      */
     int rejectReason();
 
+    /**
+     * Returns whether this strategy ever rejects a message. If it doesn't, and comp ids aren't validated on every
+     * message, then the session logic can validate messages without decoding their header.
+     *
+     * @return true if this strategy validates the header, false if it accepts every message.
+     */
+    default boolean validatesHeader()
+    {
+        return true;
+    }
+
     /**
      * Compose two message validation strategies together to form a new message validation strategy where you
      * need to pass both strategies for a message to be valid.
@@ -31,6 +31,11 @@ class NoMessageValidationStrategy implements MessageValidationStrategy
         return true;
     }
 
+    public boolean validatesHeader()
+    {
+        return false;
+    }
+
     public int invalidTagId()
     {
         return notSupported();
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.concurrent.CachedEpochClock;
+import org.agrona.concurrent.CachedNanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.agrona.concurrent.status.CountersReader.COUNTER_LENGTH;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static uk.co.real_logic.artio.AdaptiveIdleStrategy.*;
+
+public class AdaptiveIdleStrategyTest
+{
+    private static final long SPIN_WINDOW_IN_NS = 1_000;
+    private static final long YIELD_WINDOW_IN_NS = 10_000;
+    private static final long MIN_PARK_PERIOD_IN_NS = 1;
+    private static final long MAX_PARK_PERIOD_IN_NS = 8;
+
+    private final CachedNanoClock nanoClock = new CachedNanoClock();
+    private final CachedEpochClock epochClock = new CachedEpochClock();
+    private final UnsafeBuffer countersBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(2 * COUNTER_LENGTH));
+    private final AtomicCounter stateCounter = new AtomicCounter(countersBuffer, 0);
+    private final AtomicCounter parksCounter = new AtomicCounter(countersBuffer, 1);
+
+    private boolean scheduleActive;
+    private AdaptiveIdleStrategy idleStrategy;
+
+    @Before
+    public void setUp()
+    {
+        idleStrategy = new AdaptiveIdleStrategy(
+            SPIN_WINDOW_IN_NS,
+            YIELD_WINDOW_IN_NS,
+            MIN_PARK_PERIOD_IN_NS,
+            MAX_PARK_PERIOD_IN_NS,
+            timeInMs -> scheduleActive,
+            nanoClock,
+            epochClock);
+        idleStrategy.counters(stateCounter, parksCounter);
+    }
+
+    @Test
+    public void shouldSpinWhilstWorkIsBeingDone()
+    {
+        for (int i = 0; i < 10; i++)
+        {
+            idleStrategy.idle(1);
+            nanoClock.advance(YIELD_WINDOW_IN_NS);
+        }
+
+        assertState(SPINNING);
+        assertEquals(0, parksCounter.get());
+    }
+
+    @Test
+    public void shouldBackOffFromSpinningToYieldingToParking()
+    {
+        idleStrategy.idle(0);
+        nanoClock.advance(SPIN_WINDOW_IN_NS - 1);
+        idleStrategy.idle(0);
+        assertState(SPINNING);
+
+        nanoClock.advance(1);
+        idleStrategy.idle(0);
+        assertState(YIELDING);
+
+        nanoClock.advance(YIELD_WINDOW_IN_NS);
+        idleStrategy.idle(0);
+        idleStrategy.idle(0);
+        assertState(PARKING);
+        assertEquals(2, parksCounter.get());
+    }
+
+    @Test
+    public void shouldSpinAgainWhenWorkIsDone()
+    {
+        idleUntilParking();
+
+        idleStrategy.idle(1);
+        assertState(SPINNING);
+
+        idleStrategy.idle(0);
+        assertState(SPINNING);
+    }
+
+    @Test
+    public void shouldSpinAgainWhenReset()
+    {
+        idleUntilParking();
+
+        idleStrategy.reset();
+        idleStrategy.idle();
+        assertState(SPINNING);
+    }
+
+    @Test
+    public void shouldYieldRatherThanParkWhilstScheduleIsActive()
+    {
+        scheduleActive = true;
+
+        idleStrategy.idle(0);
+        nanoClock.advance(YIELD_WINDOW_IN_NS * 10);
+        idleStrategy.idle(0);
+
+        assertState(YIELDING);
+        assertEquals(0, parksCounter.get());
+    }
+
+    @Test
+    public void shouldParkOnceScheduleIsNoLongerActive()
+    {
+        scheduleActive = true;
+        idleStrategy.idle(0);
+        nanoClock.advance(YIELD_WINDOW_IN_NS);
+        idleStrategy.idle(0);
+        assertState(YIELDING);
+
+        scheduleActive = false;
+        nanoClock.advance(1_000_000_000L);
+        idleStrategy.idle(0);
+        assertState(PARKING);
+    }
+
+    @Test
+    public void shouldBeActiveDuringScheduledDaysAndTimes()
+    {
+        final Schedule schedule = Schedule.between(
+            ZoneOffset.UTC, DayOfWeek.MONDAY, DayOfWeek.FRIDAY, LocalTime.of(8, 0), LocalTime.of(17, 0));
+
+        // 2022-05-16 is a Monday
+        assertTrue(schedule.isActive(timeInMs(16, 8, 0)));
+        assertTrue(schedule.isActive(timeInMs(20, 16, 59)));
+        assertFalse(schedule.isActive(timeInMs(16, 7, 59)));
+        assertFalse(schedule.isActive(timeInMs(16, 17, 0)));
+        assertFalse(schedule.isActive(timeInMs(21, 12, 0)));
+    }
+
+    @Test
+    public void shouldBeActiveOvernightWhenEndTimeIsBeforeStartTime()
+    {
+        final Schedule schedule = Schedule.between(
+            ZoneOffset.UTC, DayOfWeek.MONDAY, DayOfWeek.SUNDAY, LocalTime.of(22, 0), LocalTime.of(6, 0));
+
+        assertTrue(schedule.isActive(timeInMs(16, 23, 0)));
+        assertTrue(schedule.isActive(timeInMs(17, 5, 59)));
+        assertFalse(schedule.isActive(timeInMs(17, 6, 0)));
+        assertFalse(schedule.isActive(timeInMs(17, 21, 59)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldValidateWindows()
+    {
+        new AdaptiveIdleStrategy(
+            YIELD_WINDOW_IN_NS,
+            SPIN_WINDOW_IN_NS,
+            MIN_PARK_PERIOD_IN_NS,
+            MAX_PARK_PERIOD_IN_NS,
+            Schedule.NONE,
+            nanoClock,
+            epochClock);
+    }
+
+    private void idleUntilParking()
+    {
+        idleStrategy.idle(0);
+        nanoClock.advance(YIELD_WINDOW_IN_NS);
+        idleStrategy.idle(0);
+        assertState(PARKING);
+    }
+
+    private void assertState(final int state)
+    {
+        assertEquals(state, idleStrategy.state());
+        assertEquals(state, stateCounter.get());
+    }
+
+    private static long timeInMs(final int dayOfMonth, final int hour, final int minute)
+    {
+        return ZonedDateTime.of(2022, 5, dayOfMonth, hour, minute, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+    }
+}
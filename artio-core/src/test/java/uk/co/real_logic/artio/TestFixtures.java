@@ -22,13 +22,18 @@ import io.aeron.driver.MediaDriver;
 import org.agrona.IoUtil;
 import org.agrona.concurrent.YieldingIdleStrategy;
 
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.BindException;
 import java.net.InetSocketAddress;
 import java.nio.channels.AlreadyBoundException;
 import java.nio.channels.DatagramChannel;
 import java.nio.channels.ServerSocketChannel;
+import java.security.KeyStore;
 import java.util.Arrays;
 
 import static io.aeron.driver.ThreadingMode.SHARED;
@@ -44,6 +49,11 @@ public final class TestFixtures
     public static final int MESSAGE_BUFFER_SIZE_IN_BYTES = 15000;
     public static final int TERM_BUFFER_LENGTH = 4 * 1024 * 1024;
 
+    private static final String TEST_KEYSTORE = "/tls/test-keystore.p12";
+    // Its certificate is only valid for 127.0.0.1, not localhost
+    public static final String IP_ONLY_TEST_KEYSTORE = "/tls/ip-only-keystore.p12";
+    private static final char[] TEST_KEYSTORE_PASSWORD = "artio-test".toCharArray();
+
     private static int port = LOW_PORT;
 
     public static synchronized int unusedPort()
@@ -156,6 +166,46 @@ public final class TestFixtures
         return aeronDirectoryName;
     }
 
+    /**
+     * Creates a context that uses a self-signed certificate for both its key and its trust material, so that it can
+     * be used on both ends of a TLS connection.
+     *
+     * @return the context.
+     * @throws Exception if the test keystore can't be loaded.
+     */
+    public static SSLContext testSslContext() throws Exception
+    {
+        return testSslContext(TEST_KEYSTORE);
+    }
+
+    /**
+     * Creates a context that uses the self-signed certificate of the given keystore for both its key and its trust
+     * material.
+     *
+     * @param keystore the classpath resource of the keystore.
+     * @return the context.
+     * @throws Exception if the keystore can't be loaded.
+     */
+    public static SSLContext testSslContext(final String keystore) throws Exception
+    {
+        final KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = TestFixtures.class.getResourceAsStream(keystore))
+        {
+            keyStore.load(in, TEST_KEYSTORE_PASSWORD);
+        }
+
+        final KeyManagerFactory keyManagerFactory =
+            KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keyStore, TEST_KEYSTORE_PASSWORD);
+        final TrustManagerFactory trustManagerFactory =
+            TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(keyStore);
+
+        final SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagerFactory.getKeyManagers(), trustManagerFactory.getTrustManagers(), null);
+        return sslContext;
+    }
+
     public static String largeTestReqId()
     {
         final char[] testReqIDChars = new char[MESSAGE_BUFFER_SIZE_IN_BYTES - 100];
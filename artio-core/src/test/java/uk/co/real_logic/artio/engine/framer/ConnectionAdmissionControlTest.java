@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.NO_ADMISSION_LIMIT;
+import static uk.co.real_logic.artio.engine.framer.ConnectionAdmissionControl.UNLIMITED_ACCEPTS;
+
+public class ConnectionAdmissionControlTest
+{
+    private static final String ADDRESS = "/127.0.0.1:40001";
+    private static final String OTHER_PORT_ADDRESS = "/127.0.0.1:40002";
+    private static final String OTHER_ADDRESS = "/127.0.0.2:40001";
+
+    private long timeInMs = 1_000;
+
+    @Test
+    public void shouldBeDisabledByDefault()
+    {
+        final ConnectionAdmissionControl admissionControl = new ConnectionAdmissionControl(
+            NO_ADMISSION_LIMIT, NO_ADMISSION_LIMIT, 1, NO_ADMISSION_LIMIT);
+
+        assertFalse(admissionControl.enabled());
+        assertFalse(admissionControl.limitsAccepts());
+        assertEquals(UNLIMITED_ACCEPTS, admissionControl.acceptLimit(timeInMs, 1_000));
+        assertTrue(admissionControl.onAccept(ADDRESS, timeInMs));
+    }
+
+    @Test
+    public void shouldLimitAcceptRate()
+    {
+        final ConnectionAdmissionControl admissionControl = new ConnectionAdmissionControl(
+            10, NO_ADMISSION_LIMIT, 1, NO_ADMISSION_LIMIT);
+
+        assertTrue(admissionControl.enabled());
+        assertTrue(admissionControl.limitsAccepts());
+        assertEquals(10, admissionControl.acceptLimit(timeInMs, 0));
+
+        acceptAll(admissionControl, 10);
+        assertEquals(0, admissionControl.acceptLimit(timeInMs, 0));
+
+        timeInMs += 100;
+        assertEquals(1, admissionControl.acceptLimit(timeInMs, 0));
+
+        timeInMs += 10_000;
+        assertEquals(10, admissionControl.acceptLimit(timeInMs, 0));
+    }
+
+    @Test
+    public void shouldLimitPendingLogons()
+    {
+        final ConnectionAdmissionControl admissionControl = new ConnectionAdmissionControl(
+            NO_ADMISSION_LIMIT, NO_ADMISSION_LIMIT, 1, 5);
+
+        assertTrue(admissionControl.limitsAccepts());
+        assertEquals(5, admissionControl.acceptLimit(timeInMs, 0));
+        assertEquals(2, admissionControl.acceptLimit(timeInMs, 3));
+        assertEquals(0, admissionControl.acceptLimit(timeInMs, 5));
+        assertEquals(0, admissionControl.acceptLimit(timeInMs, 7));
+    }
+
+    @Test
+    public void shouldRejectAddressOverItsRate()
+    {
+        final ConnectionAdmissionControl admissionControl = new ConnectionAdmissionControl(
+            NO_ADMISSION_LIMIT, 1, 2, NO_ADMISSION_LIMIT);
+
+        assertFalse(admissionControl.limitsAccepts());
+        assertTrue(admissionControl.onAccept(ADDRESS, timeInMs));
+        assertTrue(admissionControl.onAccept(OTHER_PORT_ADDRESS, timeInMs));
+        assertFalse(admissionControl.onAccept(ADDRESS, timeInMs));
+
+        assertTrue("Other addresses have their own limit", admissionControl.onAccept(OTHER_ADDRESS, timeInMs));
+
+        timeInMs += 1_000;
+        assertTrue(admissionControl.onAccept(ADDRESS, timeInMs));
+        assertFalse(admissionControl.onAccept(ADDRESS, timeInMs));
+    }
+
+    @Test
+    public void shouldExtractHostFromRemoteAddress()
+    {
+        assertEquals("127.0.0.1", ConnectionAdmissionControl.host(ADDRESS));
+        assertEquals("127.0.0.1", ConnectionAdmissionControl.host("localhost/127.0.0.1:40001"));
+        assertEquals("[0:0:0:0:0:0:0:1]", ConnectionAdmissionControl.host("/[0:0:0:0:0:0:0:1]:40001"));
+    }
+
+    private void acceptAll(final ConnectionAdmissionControl admissionControl, final int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            assertTrue(admissionControl.onAccept(ADDRESS, timeInMs));
+        }
+    }
+}
@@ -171,6 +171,7 @@ public class FramerTest
             mockClock,
             mock(Timer.class),
             mock(Timer.class),
+            mock(Timer.class),
             engineConfiguration,
             mock(Subscription.class),
             mock(AdminReplyPublication.class),
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.ErrorHandler;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.messages.ConnectionType;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.session.Session.NO_POLL_DEADLINE;
+
+public class GatewaySessionsTest
+{
+    private static final long START_TIME_IN_MS = 1_000;
+
+    private final FakeEpochClock epochClock = new FakeEpochClock();
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final GatewaySession session = mock(GatewaySession.class, withSettings()
+        .useConstructor(1L, 2L, "address", ConnectionType.ACCEPTOR, 1_000L, null)
+        .defaultAnswer(CALLS_REAL_METHODS));
+
+    private GatewaySessions gatewaySessions;
+
+    @Before
+    public void setUp()
+    {
+        epochClock.advanceMilliSeconds(START_TIME_IN_MS);
+        gatewaySessions = new GatewaySessions(epochClock, null, null, errorHandler, null, null)
+        {
+            protected void setLastSequenceResetTime(final GatewaySession gatewaySession)
+            {
+            }
+        };
+
+        doReturn(0).when(session).poll(anyLong(), anyLong());
+        doReturn(NO_POLL_DEADLINE).when(session).nextPollDeadlineInMs(anyLong(), anyLong());
+    }
+
+    @Test
+    public void shouldPollSessionAtItsDeadline()
+    {
+        doReturn(START_TIME_IN_MS + 5).when(session).nextPollDeadlineInMs(anyLong(), anyLong());
+        gatewaySessions.track(session);
+
+        pollSessions(START_TIME_IN_MS);
+        verify(session, times(1)).poll(anyLong(), anyLong());
+
+        pollSessions(START_TIME_IN_MS + 4);
+        verify(session, times(1)).poll(anyLong(), anyLong());
+
+        pollSessions(START_TIME_IN_MS + 5);
+        verify(session, times(2)).poll(anyLong(), anyLong());
+        verifyNoInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldPollSessionAtDeadlineAfterFramerHasBeenBusy()
+    {
+        doReturn(START_TIME_IN_MS + 300).when(session).nextPollDeadlineInMs(anyLong(), anyLong());
+        gatewaySessions.track(session);
+        pollSessions(START_TIME_IN_MS);
+
+        pollSessions(START_TIME_IN_MS + 299);
+        verify(session, times(1)).poll(anyLong(), anyLong());
+
+        pollSessions(START_TIME_IN_MS + 300);
+        verify(session, times(2)).poll(anyLong(), anyLong());
+    }
+
+    @Test
+    public void shouldNotPollIdleSessionWithoutDeadline()
+    {
+        gatewaySessions.track(session);
+        pollSessions(START_TIME_IN_MS);
+
+        pollSessions(START_TIME_IN_MS + 10_000);
+        verify(session, times(1)).poll(anyLong(), anyLong());
+    }
+
+    @Test
+    public void shouldPollSessionWhenRequestedBeforeItsDeadline()
+    {
+        doReturn(START_TIME_IN_MS + 5).when(session).nextPollDeadlineInMs(anyLong(), anyLong());
+        gatewaySessions.track(session);
+        pollSessions(START_TIME_IN_MS);
+
+        gatewaySessions.requestPoll(session);
+        pollSessions(START_TIME_IN_MS + 1);
+        verify(session, times(2)).poll(anyLong(), anyLong());
+
+        // The deadline timer was cancelled when the poll was requested and rescheduled afterwards
+        pollSessions(START_TIME_IN_MS + 5);
+        verify(session, times(3)).poll(anyLong(), anyLong());
+        verifyNoInteractions(errorHandler);
+    }
+
+    private void pollSessions(final long timeInMs)
+    {
+        gatewaySessions.pollSessions(timeInMs, MILLISECONDS.toNanos(timeInMs));
+    }
+}
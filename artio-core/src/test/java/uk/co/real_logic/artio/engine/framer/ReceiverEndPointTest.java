@@ -31,10 +31,13 @@ import uk.co.real_logic.artio.engine.FixEngine;
 import uk.co.real_logic.artio.messages.DisconnectReason;
 import uk.co.real_logic.artio.messages.MessageStatus;
 import uk.co.real_logic.artio.messages.SessionState;
+import uk.co.real_logic.artio.protocol.FramedSessionHeader;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.session.CompositeKey;
 import uk.co.real_logic.artio.session.InternalSession;
 import uk.co.real_logic.artio.session.SessionIdStrategy;
+import uk.co.real_logic.artio.timing.MessageTracer;
+import uk.co.real_logic.artio.timing.Timer;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -51,6 +54,7 @@ import static uk.co.real_logic.artio.messages.DisconnectReason.DUPLICATE_SESSION
 import static uk.co.real_logic.artio.messages.DisconnectReason.REMOTE_DISCONNECT;
 import static uk.co.real_logic.artio.messages.MessageStatus.*;
 import static uk.co.real_logic.artio.session.Session.UNKNOWN;
+import static uk.co.real_logic.artio.timing.MessageTracer.NO_TRACING;
 import static uk.co.real_logic.artio.util.TestMessages.*;
 
 public class ReceiverEndPointTest
@@ -155,7 +159,9 @@ public class ReceiverEndPointTest
             new AcceptorFixDictionaryLookup(FixDictionary.of(FixDictionary.findDefault()), new HashMap<>()),
             new FixReceiverEndPoint.FixReceiverEndPointFormatters(),
             NO_THROTTLE_WINDOW,
-            NO_THROTTLE_WINDOW);
+            NO_THROTTLE_WINDOW,
+            new MessageTracer(mockClock, NO_TRACING),
+            mock(Timer.class));
         endPoint.gatewaySession(gatewaySession);
     }
 
@@ -498,6 +504,23 @@ public class ReceiverEndPointTest
                 anyInt(),
                 anyLong()))
             .thenReturn(BACK_PRESSURED, POSITION);
+
+        when(publication
+            .saveMessage(
+                anyBuffer(),
+                anyInt(),
+                anyInt(),
+                anyInt(),
+                anyLong(),
+                anyLong(),
+                anyInt(),
+                anyLong(),
+                any(),
+                anyInt(),
+                anyLong(),
+                anyLong(),
+                any(FramedSessionHeader.class)))
+            .thenReturn(BACK_PRESSURED, POSITION);
     }
 
     private DirectBuffer anyBuffer()
@@ -569,7 +592,7 @@ public class ReceiverEndPointTest
         return verify(publication, times(numberOfMessages)).saveMessage(
             anyBuffer(), eq(0), eq(msgLen), eq(LIBRARY_ID),
             eq(messageType), eq(SESSION_ID), anyInt(), eq(CONNECTION_ID),
-            eq(status), eq(0), eq(TIMESTAMP));
+            eq(status), eq(0), eq(TIMESTAMP), anyLong(), any());
     }
 
     private void savesTwoFramedMessages(final int firstMessageSaveAttempts)
@@ -586,7 +609,9 @@ public class ReceiverEndPointTest
             eq(CONNECTION_ID),
             eq(OK),
             eq(0),
-            eq(TIMESTAMP));
+            eq(TIMESTAMP),
+            anyLong(),
+            any());
 
         inOrder.verify(publication, times(1)).saveMessage(
             anyBuffer(),
@@ -599,7 +624,9 @@ public class ReceiverEndPointTest
             eq(CONNECTION_ID),
             eq(OK),
             eq(0),
-            eq(TIMESTAMP));
+            eq(TIMESTAMP),
+            anyLong(),
+            any());
 
         inOrder.verifyNoMoreInteractions();
     }
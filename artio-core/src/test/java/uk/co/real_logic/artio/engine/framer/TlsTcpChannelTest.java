@@ -0,0 +1,224 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.CloseHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLHandshakeException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.*;
+import static uk.co.real_logic.artio.TestFixtures.IP_ONLY_TEST_KEYSTORE;
+import static uk.co.real_logic.artio.TestFixtures.testSslContext;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_INITIATOR_ENDPOINT_IDENTIFICATION_ALGORITHM;
+
+public class TlsTcpChannelTest
+{
+    private static final int MAX_ATTEMPTS = 10_000;
+
+    private ServerSocketChannel serverSocketChannel;
+    private TlsTcpChannel client;
+    private TlsTcpChannel server;
+    private DefaultTcpChannelSupplier initiatorSupplier;
+    private TlsTcpChannel initiated;
+    private TlsTcpChannel accepted;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        final SSLContext sslContext = testSslContext();
+        final TlsBufferPool bufferPool = new TlsBufferPool(sslContext);
+
+        serverSocketChannel = ServerSocketChannel.open();
+        serverSocketChannel.bind(new InetSocketAddress("localhost", 0));
+
+        final SocketChannel clientChannel = SocketChannel.open(serverSocketChannel.getLocalAddress());
+        final SocketChannel serverChannel = serverSocketChannel.accept();
+        clientChannel.configureBlocking(false);
+        serverChannel.configureBlocking(false);
+
+        final SSLEngine clientEngine = sslContext.createSSLEngine("localhost", 0);
+        clientEngine.setUseClientMode(true);
+        final SSLEngine serverEngine = sslContext.createSSLEngine();
+        serverEngine.setUseClientMode(false);
+
+        client = new TlsTcpChannel(clientChannel, clientEngine, bufferPool);
+        server = new TlsTcpChannel(serverChannel, serverEngine, bufferPool);
+    }
+
+    @After
+    public void tearDown()
+    {
+        CloseHelper.closeAll(initiated, accepted, initiatorSupplier, client, server, serverSocketChannel);
+    }
+
+    @Test
+    public void shouldBackPressureWritesUntilHandshakeCompletes() throws IOException
+    {
+        final ByteBuffer message = ByteBuffer.wrap("8=FIX.4.4\0019=5\00135=A\001".getBytes(US_ASCII));
+
+        assertEquals(0, client.write(message));
+
+        final byte[] received = exchange(client, message, server, message.remaining(), 64 * 1024);
+        assertArrayEquals(message.array(), received);
+    }
+
+    @Test
+    public void shouldTransferDataLargerThanTheReadBuffer() throws IOException
+    {
+        final byte[] data = new byte[100_000];
+        for (int i = 0; i < data.length; i++)
+        {
+            data[i] = (byte)('A' + i % 26);
+        }
+
+        final byte[] received = exchange(client, ByteBuffer.wrap(data), server, data.length, 1024);
+        assertArrayEquals(data, received);
+    }
+
+    @Test
+    public void shouldReportDisconnectWhenPeerCloses() throws IOException
+    {
+        exchange(server, ByteBuffer.wrap("hello".getBytes(US_ASCII)), client, 5, 1024);
+
+        client.close();
+
+        final ByteBuffer dst = ByteBuffer.allocate(1024);
+        int read = 0;
+        for (int i = 0; i < MAX_ATTEMPTS && read >= 0; i++)
+        {
+            read = server.read(dst);
+        }
+        assertEquals(-1, read);
+    }
+
+    @Test
+    public void shouldFailInitiatorHandshakeWhenCertificateIsNotForTheConfiguredHost() throws Exception
+    {
+        // localhost resolves to 127.0.0.1, which the certificate is valid for, but the host isn't checked as resolved
+        initiate(DEFAULT_INITIATOR_ENDPOINT_IDENTIFICATION_ALGORITHM);
+
+        final ByteBuffer message = ByteBuffer.wrap("8=FIX.4.4\0019=5\00135=A\001".getBytes(US_ASCII));
+        final ByteBuffer dst = ByteBuffer.allocate(1024);
+        for (int i = 0; i < MAX_ATTEMPTS; i++)
+        {
+            try
+            {
+                assertEquals(0, initiated.write(message));
+                assertEquals(0, initiated.read(dst));
+            }
+            catch (final SSLHandshakeException e)
+            {
+                return;
+            }
+
+            assertEquals(0, accepted.read(dst));
+        }
+
+        fail("Handshake didn't fail");
+    }
+
+    @Test
+    public void shouldAllowInitiatorHostCheckToBeDisabled() throws Exception
+    {
+        initiate(null);
+
+        final ByteBuffer message = ByteBuffer.wrap("8=FIX.4.4\0019=5\00135=A\001".getBytes(US_ASCII));
+        final byte[] received = exchange(initiated, message, accepted, message.remaining(), 1024);
+        assertArrayEquals(message.array(), received);
+    }
+
+    private void initiate(final String endpointIdentificationAlgorithm) throws Exception
+    {
+        final SSLContext sslContext = testSslContext(IP_ONLY_TEST_KEYSTORE);
+        final EngineConfiguration configuration = new EngineConfiguration()
+            .initiatorSslContext(sslContext)
+            .initiatorEndpointIdentificationAlgorithm(endpointIdentificationAlgorithm);
+        initiatorSupplier = new DefaultTcpChannelSupplier(configuration);
+
+        final int port = ((InetSocketAddress)serverSocketChannel.getLocalAddress()).getPort();
+        final TcpChannel[] initiatedChannel = new TcpChannel[1];
+        initiatorSupplier.open(new InetSocketAddress("localhost", port), (channel, exception) ->
+        {
+            assertNull(exception);
+            initiatedChannel[0] = channel;
+        });
+
+        final SocketChannel acceptedChannel = serverSocketChannel.accept();
+        acceptedChannel.configureBlocking(false);
+        final SSLEngine acceptorEngine = sslContext.createSSLEngine();
+        acceptorEngine.setUseClientMode(false);
+        accepted = new TlsTcpChannel(acceptedChannel, acceptorEngine, new TlsBufferPool(sslContext));
+
+        for (int i = 0; i < MAX_ATTEMPTS && initiatedChannel[0] == null; i++)
+        {
+            initiatorSupplier.pollSelector(0, (timeInMs, channel) -> fail("Unexpected accepted channel"));
+        }
+        assertNotNull("Connect didn't finish", initiatedChannel[0]);
+        initiated = (TlsTcpChannel)initiatedChannel[0];
+    }
+
+    private byte[] exchange(
+        final TlsTcpChannel sender,
+        final ByteBuffer src,
+        final TlsTcpChannel receiver,
+        final int length,
+        final int readBufferSize) throws IOException
+    {
+        final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        final ByteBuffer dst = ByteBuffer.allocateDirect(readBufferSize);
+        final ByteBuffer senderDst = ByteBuffer.allocate(readBufferSize);
+
+        for (int i = 0; i < MAX_ATTEMPTS && received.size() < length; i++)
+        {
+            if (src.hasRemaining())
+            {
+                sender.write(src);
+            }
+            else
+            {
+                sender.flush();
+            }
+
+            assertThat(receiver.read(dst), greaterThan(-1));
+            dst.flip();
+            final byte[] bytes = new byte[dst.remaining()];
+            dst.get(bytes);
+            received.write(bytes, 0, bytes.length);
+            dst.clear();
+
+            // Drives the sender's side of the handshake
+            assertEquals(0, sender.read(senderDst));
+        }
+
+        assertFalse(receiver.hasBufferedInput());
+        return received.toByteArray();
+    }
+}
@@ -29,6 +29,7 @@ import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
 import uk.co.real_logic.artio.messages.FixMessageEncoder;
 import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
 import uk.co.real_logic.artio.messages.MessageStatus;
+import uk.co.real_logic.artio.protocol.FramedSessionHeader;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
@@ -168,7 +169,11 @@ public class AbstractLogTest
             .status(MessageStatus.OK)
             .sequenceIndex(sequenceIndex)
             .libraryId(LIBRARY_ID)
-            .messageType(messageType)
+            .messageType(messageType);
+
+        FramedSessionHeader.encodeMissing(messageFrame);
+
+        messageFrame
             .putMetaData(new byte[0], 0, 0)
             .putBody(asciiBuffer, 0, logEntryLength);
 
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.Aeron;
+import io.aeron.CommonContext;
+import io.aeron.ExclusivePublication;
+import io.aeron.Subscription;
+import io.aeron.archive.ArchivingMediaDriver;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.archive.codecs.SourceLocation;
+import org.agrona.BitUtil;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.NoOpIdleStrategy;
+import org.agrona.concurrent.OffsetEpochNanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.YieldingIdleStrategy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.CommonConfiguration;
+import uk.co.real_logic.artio.TestFixtures;
+import uk.co.real_logic.artio.dictionary.generation.Exceptions;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.engine.ReplayIndexFilter;
+import uk.co.real_logic.artio.engine.SequenceNumberExtractor;
+import uk.co.real_logic.artio.messages.FixPProtocolType;
+import uk.co.real_logic.artio.session.Session;
+
+import java.io.File;
+
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.LogTag.REPLAY;
+import static uk.co.real_logic.artio.TestFixtures.cleanupMediaDriver;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.*;
+
+public class ColdArchiveReplayTest extends AbstractLogTest
+{
+    private static final String CHANNEL = CommonContext.IPC_CHANNEL;
+    private static final String COLD_ARCHIVE_DIR = "cold-archive-replay-test";
+    // Segments are the length of a term, so the cold archiver moves whole terms
+    private static final int TERM_LENGTH = 64 * 1024;
+    // Keeps the sequence numbers the same length so that every message has the same frame length
+    private static final int FIRST_SEQUENCE_NUMBER = 1000;
+
+    private final UnsafeBuffer replayPositionBuffer =
+        new UnsafeBuffer(new byte[EngineConfiguration.DEFAULT_REPLAY_POSITION_BUFFER_SIZE]);
+    private final ReplayIndexTest.FakeMessageHandler fakeHandler = new ReplayIndexTest.FakeMessageHandler();
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+
+    private ArchivingMediaDriver mediaDriver;
+    private AeronArchive aeronArchive;
+    private ExclusivePublication publication;
+    private Subscription subscription;
+    private ReplayIndex replayIndex;
+    private ReplayQuery query;
+    private ColdArchiver coldArchiver;
+    private ColdArchiveReader coldArchiveReader;
+    private String testReqId;
+
+    @Before
+    public void setUp()
+    {
+        IoUtil.delete(new File(COLD_ARCHIVE_DIR), true);
+        IoUtil.delete(new File(DEFAULT_LOG_FILE_DIR), false);
+
+        mediaDriver = TestFixtures.launchMediaDriver(TERM_LENGTH);
+        aeronArchive = AeronArchive.connect();
+        aeronArchive.startRecording(CHANNEL, STREAM_ID, SourceLocation.LOCAL);
+
+        final Aeron aeron = aeronArchive.context().aeron();
+        publication = aeron.addExclusivePublication(CHANNEL, STREAM_ID);
+        subscription = aeron.addSubscription(CHANNEL, STREAM_ID);
+
+        replayIndex = new ReplayIndex(
+            new SequenceNumberExtractor(),
+            DEFAULT_LOG_FILE_DIR,
+            STREAM_ID,
+            DEFAULT_REPLAY_INDEX_RECORD_CAPACITY,
+            DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY,
+            newIndexStore(),
+            replayPositionBuffer,
+            errorHandler,
+            new RecordingIdLookup(new YieldingIdleStrategy(), aeron.countersReader()),
+            new Long2LongHashMap(Session.UNKNOWN),
+            FixPProtocolType.ILINK_3,
+            mock(SequenceNumberIndexReader.class),
+            DEFAULT_TIME_INDEX_FLUSH_INTERVAL_IN_NS,
+            true,
+            DEFAULT_INDEX_CHECKSUM_ENABLED,
+            new ReplayEvictionHandler(errorHandler),
+            ReplayIndexFilter.INDEX_ALL);
+        query = new ReplayQuery(
+            newIndexStore(),
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            new NoOpIdleStrategy(),
+            aeronArchive,
+            errorHandler,
+            DEFAULT_ARCHIVE_REPLAY_STREAM,
+            DEFAULT_REPLAY_INDEX_RECORD_CAPACITY,
+            DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY,
+            COLD_ARCHIVE_DIR);
+        coldArchiver = new ColdArchiver(
+            aeronArchive,
+            errorHandler,
+            new OffsetEpochNanoClock(),
+            CHANNEL,
+            new int[]{ STREAM_ID },
+            DEFAULT_ARCHIVE_REPLAY_STREAM,
+            COLD_ARCHIVE_DIR,
+            TERM_LENGTH,
+            0,
+            "");
+        coldArchiveReader = new ColdArchiveReader(COLD_ARCHIVE_DIR);
+
+        testReqId = testReqIdWithPaddedTerms();
+    }
+
+    @After
+    public void tearDown()
+    {
+        Exceptions.closeAll(coldArchiveReader, coldArchiver::onClose, query, replayIndex, aeronArchive);
+        cleanupMediaDriver(mediaDriver);
+        IoUtil.delete(new File(COLD_ARCHIVE_DIR), true);
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldReplayRangeSpanningColdAndAeronArchive()
+    {
+        int sequenceNumber = FIRST_SEQUENCE_NUMBER;
+        while (publication.position() < 3 * TERM_LENGTH)
+        {
+            indexExampleMessage(sequenceNumber++);
+        }
+        final int lastSequenceNumber = sequenceNumber - 1;
+
+        final long recordingId = recordingId();
+        final long purgePosition = 2 * TERM_LENGTH;
+        while (aeronArchive.getStartPosition(recordingId) < purgePosition)
+        {
+            coldArchiver.doWork();
+        }
+
+        // The padding at the end of the last purged term isn't in the cold archive
+        final long coldStopPosition = coldArchiveReader.stopPosition(recordingId);
+        assertThat(coldStopPosition, greaterThan(0L));
+        assertThat(coldStopPosition, lessThan(aeronArchive.getStartPosition(recordingId)));
+
+        final int messages = lastSequenceNumber - FIRST_SEQUENCE_NUMBER + 1;
+        assertEquals(messages, query(FIRST_SEQUENCE_NUMBER, lastSequenceNumber));
+        assertEquals(messages, fakeHandler.times());
+        verifyNoInteractions(errorHandler);
+    }
+
+    // A frame length that's an odd number of alignments doesn't divide the term length, so every term ends in padding
+    private String testReqIdWithPaddedTerms()
+    {
+        String testReqId = "";
+        while (true)
+        {
+            testReqId += "x";
+            bufferContainsExampleMessage(true, SESSION_ID, FIRST_SEQUENCE_NUMBER, SEQUENCE_INDEX, testReqId);
+            final int alignments = BitUtil.align(HEADER_LENGTH + logEntryLength + PREFIX_LENGTH, FRAME_ALIGNMENT) /
+                FRAME_ALIGNMENT;
+            if (alignments > 1 && alignments % 2 == 1)
+            {
+                return testReqId;
+            }
+        }
+    }
+
+    private void indexExampleMessage(final int sequenceNumber)
+    {
+        bufferContainsExampleMessage(true, SESSION_ID, sequenceNumber, SEQUENCE_INDEX, testReqId);
+
+        while (publication.offer(buffer, START, logEntryLength + PREFIX_LENGTH) <= 0)
+        {
+            Thread.yield();
+        }
+
+        while (subscription.poll(replayIndex, 1) == 0)
+        {
+            Thread.yield();
+        }
+    }
+
+    private long recordingId()
+    {
+        final long[] recordingId = new long[1];
+        aeronArchive.listRecordings(0, 1,
+            (controlSessionId, correlationId, id,
+            startTimestamp, stopTimestamp, startPosition, stopPosition, initialTermId, segmentFileLength,
+            termBufferLength, mtuLength, sessionId, streamId, strippedChannel, originalChannel, sourceIdentity) ->
+            recordingId[0] = id);
+        return recordingId[0];
+    }
+
+    private int query(final int beginSequenceNumber, final int endSequenceNumber)
+    {
+        final ReplayOperation operation = query.query(
+            SESSION_ID,
+            beginSequenceNumber,
+            SEQUENCE_INDEX,
+            endSequenceNumber,
+            SEQUENCE_INDEX,
+            REPLAY,
+            new FixMessageTracker(REPLAY, fakeHandler, SESSION_ID));
+
+        final IdleStrategy idleStrategy = CommonConfiguration.backoffIdleStrategy();
+        while (!operation.pollReplay())
+        {
+            idleStrategy.idle();
+        }
+
+        return operation.replayedMessages();
+    }
+
+    private ReplayIndexStore newIndexStore()
+    {
+        return new FileReplayIndexStore(
+            DEFAULT_LOG_FILE_DIR,
+            STREAM_ID,
+            DEFAULT_REPLAY_INDEX_RECORD_CAPACITY,
+            DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY,
+            LoggerUtil::map,
+            LoggerUtil::mapExistingFile,
+            errorHandler);
+    }
+}
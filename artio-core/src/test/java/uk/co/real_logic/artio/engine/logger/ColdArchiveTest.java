@@ -0,0 +1,211 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.dictionary.generation.Exceptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static io.aeron.protocol.DataHeaderFlyweight.*;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static uk.co.real_logic.artio.engine.logger.ColdArchiveDescriptor.ENTRY_LENGTH;
+import static uk.co.real_logic.artio.engine.logger.ColdArchiveDescriptor.indexFile;
+
+public class ColdArchiveTest
+{
+    private static final String COLD_ARCHIVE_DIR = "cold-archive-test";
+    private static final long RECORDING_ID = 1;
+    private static final int BLOCK_LENGTH = 256;
+    private static final int MESSAGES = 40;
+    private static final long START_POSITION = 1024;
+
+    private final List<String> bodies = new ArrayList<>();
+    private final List<Long> positions = new ArrayList<>();
+    private final List<Byte> flags = new ArrayList<>();
+    private final ControlledFragmentHandler collector = (buffer, offset, length, header) ->
+    {
+        bodies.add(buffer.getStringWithoutLengthAscii(offset, length));
+        positions.add(header.position());
+        flags.add(header.flags());
+        return CONTINUE;
+    };
+
+    private ColdArchiveReader reader;
+
+    @Before
+    public void setUp()
+    {
+        IoUtil.delete(new File(COLD_ARCHIVE_DIR), true);
+        IoUtil.ensureDirectoryExists(new File(COLD_ARCHIVE_DIR), COLD_ARCHIVE_DIR);
+        reader = new ColdArchiveReader(COLD_ARCHIVE_DIR);
+    }
+
+    @After
+    public void tearDown()
+    {
+        Exceptions.closeAll(reader);
+        IoUtil.delete(new File(COLD_ARCHIVE_DIR), true);
+    }
+
+    @Test
+    public void shouldReadBackFragmentsWithTheirPositionsAndFlags() throws IOException
+    {
+        final long stopPosition = write(START_POSITION, MESSAGES);
+
+        assertEquals(START_POSITION, reader.startPosition(RECORDING_ID));
+        assertEquals(stopPosition, reader.stopPosition(RECORDING_ID));
+
+        assertEquals(stopPosition, reader.read(RECORDING_ID, START_POSITION, stopPosition, collector, MESSAGES));
+
+        assertEquals(MESSAGES, bodies.size());
+        long position = START_POSITION;
+        for (int i = 0; i < MESSAGES; i++)
+        {
+            assertEquals(body(i), bodies.get(i));
+            assertEquals(flags(i), (byte)flags.get(i));
+            position = ColdArchiveDescriptor.nextPosition(position, body(i).length());
+            assertEquals(position, (long)positions.get(i));
+        }
+    }
+
+    @Test
+    public void shouldReadRangeFromTheMiddleOfTheArchive() throws IOException
+    {
+        write(START_POSITION, MESSAGES);
+
+        final long fromPosition = positionOf(10);
+        final long toPosition = positionOf(30);
+        assertEquals(toPosition, reader.read(RECORDING_ID, fromPosition, toPosition, collector, MESSAGES));
+
+        assertEquals(20, bodies.size());
+        assertEquals(body(10), bodies.get(0));
+        assertEquals(body(29), bodies.get(19));
+    }
+
+    @Test
+    public void shouldResumeFromAbortedFragmentAndFragmentLimit() throws IOException
+    {
+        final long stopPosition = write(START_POSITION, MESSAGES);
+
+        final int[] calls = {0};
+        final ControlledFragmentHandler abortOnce = (buffer, offset, length, header) ->
+        {
+            if (calls[0]++ == 5)
+            {
+                return ABORT;
+            }
+            return collector.onFragment(buffer, offset, length, header);
+        };
+
+        long position = reader.read(RECORDING_ID, START_POSITION, stopPosition, abortOnce, MESSAGES);
+        assertEquals(positionOf(5), position);
+        assertEquals(5, bodies.size());
+
+        position = reader.read(RECORDING_ID, position, stopPosition, abortOnce, 7);
+        assertEquals(positionOf(12), position);
+
+        position = reader.read(RECORDING_ID, position, stopPosition, abortOnce, MESSAGES);
+        assertEquals(stopPosition, position);
+        assertEquals(MESSAGES, bodies.size());
+        for (int i = 0; i < MESSAGES; i++)
+        {
+            assertEquals(body(i), bodies.get(i));
+        }
+    }
+
+    @Test
+    public void shouldContinueArchiveAfterIncompleteIndexEntry() throws IOException
+    {
+        final long firstStopPosition = write(START_POSITION, MESSAGES / 2);
+        final File indexFile = indexFile(COLD_ARCHIVE_DIR, RECORDING_ID);
+        try (RandomAccessFile file = new RandomAccessFile(indexFile, "rw"))
+        {
+            file.setLength(file.length() + ENTRY_LENGTH / 2);
+        }
+
+        final long stopPosition = write(firstStopPosition, MESSAGES / 2);
+
+        assertEquals(0, indexFile.length() % ENTRY_LENGTH);
+        assertEquals(stopPosition, reader.read(RECORDING_ID, START_POSITION, stopPosition, collector, MESSAGES));
+        assertEquals(MESSAGES, bodies.size());
+    }
+
+    @Test
+    public void shouldHaveNoPositionsForUnknownRecording()
+    {
+        assertEquals(NULL_POSITION, reader.startPosition(RECORDING_ID));
+        assertEquals(NULL_POSITION, reader.stopPosition(RECORDING_ID));
+        assertEquals(START_POSITION + 64, reader.read(RECORDING_ID, START_POSITION, START_POSITION + 64, collector, 1));
+    }
+
+    private long write(final long startPosition, final int messages) throws IOException
+    {
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[128]);
+        try (ColdArchiveWriter writer = new ColdArchiveWriter(
+            COLD_ARCHIVE_DIR, RECORDING_ID, BLOCK_LENGTH, Deflater.DEFAULT_COMPRESSION))
+        {
+            final int firstMessage = startPosition == START_POSITION ? 0 : MESSAGES - messages;
+            long position = startPosition;
+            for (int i = firstMessage; i < firstMessage + messages; i++)
+            {
+                final String body = body(i);
+                final int length = buffer.putStringWithoutLengthAscii(0, body);
+                writer.append(position, flags(i), buffer, 0, length);
+                position = ColdArchiveDescriptor.nextPosition(position, length);
+            }
+            writer.flush();
+
+            assertEquals(position, writer.stopPosition());
+            return position;
+        }
+    }
+
+    private static long positionOf(final int message)
+    {
+        long position = START_POSITION;
+        for (int i = 0; i < message; i++)
+        {
+            position = ColdArchiveDescriptor.nextPosition(position, body(i).length());
+        }
+        return position;
+    }
+
+    private static String body(final int message)
+    {
+        return new String(new byte[message % 7], US_ASCII).replace('\0', 'x') + "8=FIX.4.4|35=D|11=" + message;
+    }
+
+    private static byte flags(final int message)
+    {
+        // pairs of fragments
+        return (byte)(message % 2 == 0 ? BEGIN_FLAG : END_FLAG);
+    }
+}
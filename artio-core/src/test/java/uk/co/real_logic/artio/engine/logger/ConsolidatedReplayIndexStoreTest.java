@@ -0,0 +1,196 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.IoUtil;
+import org.agrona.collections.LongHashSet;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Objects;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.*;
+
+public class ConsolidatedReplayIndexStoreTest
+{
+    private static final int STREAM_ID = 1;
+    private static final int INDEX_FILE_CAPACITY = 64;
+    private static final int INDEX_SEGMENT_CAPACITY = 16;
+    private static final int SEGMENT_SIZE = ReplayIndexDescriptor.capacityToBytesInt(INDEX_SEGMENT_CAPACITY);
+    private static final int STORE_FILE_SIZE = SEGMENT_SIZE * 8;
+    private static final int HEADER_MARKER_OFFSET = ReplayIndexDescriptor.HEADER_FILE_SIZE - 1;
+
+    private final File logFileDir = new File(IoUtil.tmpDirName(), "consolidated-replay-index-test");
+
+    private ConsolidatedReplayIndexStore writer;
+    private ConsolidatedReplayIndexStore reader;
+
+    @Before
+    public void setUp()
+    {
+        IoUtil.delete(logFileDir, true);
+        writer = newStore();
+        reader = newStore();
+    }
+
+    @After
+    public void tearDown()
+    {
+        writer.close();
+        reader.close();
+        IoUtil.delete(logFileDir, true);
+    }
+
+    @Test
+    public void shouldStoreManySessionsInAFewFiles()
+    {
+        final int sessionCount = 100;
+        for (long sessionId = 1; sessionId <= sessionCount; sessionId++)
+        {
+            writeSession(sessionId);
+        }
+
+        for (long sessionId = 1; sessionId <= sessionCount; sessionId++)
+        {
+            assertSessionRead(sessionId);
+        }
+
+        // One directory chunk and enough store files for one extent per session
+        final int extentsPerStoreFile = STORE_FILE_SIZE / SEGMENT_SIZE;
+        final int storeFiles = (sessionCount + extentsPerStoreFile - 1) / extentsPerStoreFile;
+        assertEquals(1 + storeFiles, Objects.requireNonNull(logFileDir.list()).length);
+        assertEquals(sessionCount, reader.sessionIds().size());
+    }
+
+    @Test
+    public void shouldNotReturnSegmentsThatHaveNotBeenWritten()
+    {
+        writeSession(1);
+
+        assertNotNull(reader.mapExistingSegment(1, 0));
+        assertNull(reader.mapExistingSegment(1, 1));
+    }
+
+    @Test
+    public void shouldReuseZeroedExtentsOfDeletedSessions()
+    {
+        writeSession(1);
+        writeSession(2);
+
+        writer.delete(1);
+        assertFalse(writer.exists(1));
+        assertFalse(reader.exists(1));
+
+        writer.mapHeader(3);
+        final UnsafeBuffer reusedSegment = writer.mapSegment(3, 0);
+        for (int i = 0; i < SEGMENT_SIZE; i += 8)
+        {
+            assertEquals(0L, reusedSegment.getLong(i));
+        }
+
+        assertSessionRead(2);
+        assertThat(reader.sessionIds(), containsInAnyOrder(2L, 3L));
+    }
+
+    @Test
+    public void shouldChangeGenerationOfReaderViewsWhenSessionIsDeleted()
+    {
+        writeSession(1);
+
+        final UnsafeBuffer headerBuffer = reader.mapExistingHeader(1);
+        final long generation = reader.generation(headerBuffer);
+
+        writer.delete(1);
+        // Reuses the deleted session's entry and extent
+        writeSession(2);
+
+        assertNotEquals(generation, reader.generation(headerBuffer));
+        assertSessionRead(2);
+    }
+
+    @Test
+    public void shouldFindSessionsAddedOrReplacedAfterALookup()
+    {
+        assertFalse(reader.exists(1));
+
+        writeSession(1);
+        assertTrue(reader.exists(1));
+        assertSessionRead(1);
+
+        writer.delete(1);
+        writeSession(2);
+
+        assertFalse(reader.exists(1));
+        assertSessionRead(2);
+        assertThat(reader.sessionIds(), containsInAnyOrder(2L));
+    }
+
+    @Test
+    public void shouldRecoverAllocationsAfterRestart()
+    {
+        writeSession(1);
+        writeSession(2);
+        writer.delete(1);
+
+        writer.close();
+        writer = newStore();
+
+        assertTrue(writer.exists(2));
+        writeSession(3);
+        writeSession(4);
+
+        assertSessionRead(2);
+        assertSessionRead(3);
+        assertSessionRead(4);
+
+        final ConsolidatedReplayIndexStore newReader = newStore();
+        final LongHashSet sessionIds = newReader.sessionIds();
+        newReader.close();
+        assertThat(sessionIds, containsInAnyOrder(2L, 3L, 4L));
+    }
+
+    private void writeSession(final long sessionId)
+    {
+        final UnsafeBuffer headerBuffer = writer.mapHeader(sessionId);
+        headerBuffer.putByte(HEADER_MARKER_OFFSET, (byte)sessionId);
+
+        final UnsafeBuffer segmentBuffer = writer.mapSegment(sessionId, 0);
+        assertEquals(SEGMENT_SIZE, segmentBuffer.capacity());
+        segmentBuffer.putLong(0, sessionId);
+        segmentBuffer.putLong(SEGMENT_SIZE - 8, sessionId);
+    }
+
+    private void assertSessionRead(final long sessionId)
+    {
+        final UnsafeBuffer headerBuffer = reader.mapExistingHeader(sessionId);
+        assertEquals((byte)sessionId, headerBuffer.getByte(HEADER_MARKER_OFFSET));
+
+        final UnsafeBuffer segmentBuffer = reader.mapExistingSegment(sessionId, 0);
+        assertEquals(sessionId, segmentBuffer.getLong(0));
+        assertEquals(sessionId, segmentBuffer.getLong(SEGMENT_SIZE - 8));
+    }
+
+    private ConsolidatedReplayIndexStore newStore()
+    {
+        return new ConsolidatedReplayIndexStore(
+            logFileDir.getAbsolutePath(), STREAM_ID, INDEX_FILE_CAPACITY, INDEX_SEGMENT_CAPACITY, STORE_FILE_SIZE);
+    }
+}
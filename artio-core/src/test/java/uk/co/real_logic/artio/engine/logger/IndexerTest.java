@@ -0,0 +1,254 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.Aeron;
+import io.aeron.ExclusivePublication;
+import io.aeron.Subscription;
+import io.aeron.archive.ArchivingMediaDriver;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.archive.client.ArchiveException;
+import io.aeron.archive.codecs.SourceLocation;
+import io.aeron.archive.status.RecordingPos;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.collections.LongArrayList;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.CountersReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import uk.co.real_logic.artio.engine.CompletionPosition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static io.aeron.CommonContext.IPC_CHANNEL;
+import static org.agrona.concurrent.status.CountersReader.NULL_COUNTER_ID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.TestFixtures.cleanupMediaDriver;
+import static uk.co.real_logic.artio.TestFixtures.launchMediaDriver;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_ARCHIVE_REPLAY_STREAM;
+
+public class IndexerTest
+{
+    private static final int RECORDED_STREAM_ID = 1000;
+    private static final int MESSAGES_PER_RECORDING = 100;
+    private static final int MESSAGE_LENGTH = 64;
+
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+
+    private ArchivingMediaDriver mediaDriver;
+    private AeronArchive aeronArchive;
+
+    @Before
+    public void setUp()
+    {
+        mediaDriver = launchMediaDriver();
+        aeronArchive = AeronArchive.connect();
+    }
+
+    @After
+    public void tearDown()
+    {
+        aeronArchive.close();
+        cleanupMediaDriver(mediaDriver);
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldOnlyCatchEachIndexUpFromItsOwnPosition()
+    {
+        final LongArrayList positions = new LongArrayList();
+        final long recordingId = record(RECORDED_STREAM_ID, positions);
+
+        final int replayIndexedMessages = MESSAGES_PER_RECORDING / 2;
+        final int sequenceNumberIndexedMessages = MESSAGES_PER_RECORDING / 4;
+        final RecordingIndex replayIndex = new RecordingIndex()
+            .indexedUpTo(recordingId, positions.getLong(replayIndexedMessages - 1));
+        final RecordingIndex sequenceNumberIndex = new RecordingIndex()
+            .indexedUpTo(recordingId, positions.getLong(sequenceNumberIndexedMessages - 1));
+
+        catchIndexUp(replayIndex, sequenceNumberIndex);
+
+        assertEquals(positions.subList(replayIndexedMessages, MESSAGES_PER_RECORDING),
+            replayIndex.caughtUpPositions(recordingId));
+        assertEquals(positions.subList(sequenceNumberIndexedMessages, MESSAGES_PER_RECORDING),
+            sequenceNumberIndex.caughtUpPositions(recordingId));
+        verifyNoInteractions(errorHandler);
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldCatchUpMoreRecordingsThanCanBeReplayedConcurrently()
+    {
+        final RecordingIndex index = new RecordingIndex();
+        final List<LongArrayList> recordingPositions = new ArrayList<>();
+        final long[] recordingIds = new long[Indexer.MAX_CONCURRENT_CATCHUP_REPLAYS + 2];
+        for (int i = 0; i < recordingIds.length; i++)
+        {
+            final LongArrayList positions = new LongArrayList();
+            recordingIds[i] = record(RECORDED_STREAM_ID + i, positions);
+            recordingPositions.add(positions);
+            index.indexedUpTo(recordingIds[i], 0);
+        }
+
+        catchIndexUp(index);
+
+        for (int i = 0; i < recordingIds.length; i++)
+        {
+            assertEquals(recordingPositions.get(i), index.caughtUpPositions(recordingIds[i]));
+        }
+        verifyNoInteractions(errorHandler);
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldReportRecordingsLeftUnindexedWhenInFlightReplaysAreAbandoned()
+    {
+        final long firstRecordingId = 1;
+        final long secondRecordingId = 2;
+        final long stopPosition = 1024;
+        final RecordingIndex index = new RecordingIndex()
+            .indexedUpTo(firstRecordingId, 0)
+            .indexedUpTo(secondRecordingId, 0);
+
+        // Replays never arrive, so the archive's error is the only way out of the catchup
+        final AeronArchive failingArchive = mock(AeronArchive.class);
+        final AeronArchive.Context context = mock(AeronArchive.Context.class);
+        final Aeron aeron = mock(Aeron.class);
+        final ArchiveException archiveError = new ArchiveException("replay failed");
+        when(failingArchive.context()).thenReturn(context);
+        when(context.aeron()).thenReturn(aeron);
+        when(aeron.addSubscription(IPC_CHANNEL, DEFAULT_ARCHIVE_REPLAY_STREAM)).thenReturn(mock(Subscription.class));
+        when(failingArchive.getStopPosition(anyLong())).thenReturn(stopPosition);
+        when(failingArchive.startReplay(firstRecordingId, 0, stopPosition, IPC_CHANNEL, DEFAULT_ARCHIVE_REPLAY_STREAM))
+            .thenReturn(11L);
+        when(failingArchive.startReplay(secondRecordingId, 0, stopPosition, IPC_CHANNEL, DEFAULT_ARCHIVE_REPLAY_STREAM))
+            .thenReturn(12L);
+        doThrow(archiveError).when(failingArchive).checkForErrorResponse();
+
+        new Indexer(Collections.singletonList(index), null, "", new CompletionPosition(), DEFAULT_ARCHIVE_REPLAY_STREAM)
+            .catchIndexUp(failingArchive, errorHandler);
+
+        verify(failingArchive).stopReplay(11L);
+        verify(failingArchive).stopReplay(12L);
+
+        final ArgumentCaptor<Throwable> error = ArgumentCaptor.forClass(Throwable.class);
+        verify(errorHandler).onError(error.capture());
+        assertThat(error.getValue(), instanceOf(IllegalStateException.class));
+        assertThat(error.getValue().getMessage(), containsString(firstRecordingId + " @ 0"));
+        assertThat(error.getValue().getMessage(), containsString(secondRecordingId + " @ 0"));
+        assertSame(archiveError, error.getValue().getCause());
+    }
+
+    private void catchIndexUp(final Index... indices)
+    {
+        final Indexer indexer = new Indexer(
+            Arrays.asList(indices), null, "", new CompletionPosition(), DEFAULT_ARCHIVE_REPLAY_STREAM);
+        indexer.catchIndexUp(aeronArchive, errorHandler);
+    }
+
+    // Records messages on a stream and stops the recording, so that it has a stop position to be caught up to
+    private long record(final int streamId, final LongArrayList positions)
+    {
+        final Aeron aeron = aeronArchive.context().aeron();
+        aeronArchive.startRecording(IPC_CHANNEL, streamId, SourceLocation.LOCAL);
+        try (ExclusivePublication publication = aeron.addExclusivePublication(IPC_CHANNEL, streamId))
+        {
+            final CountersReader counters = aeron.countersReader();
+            int counterId;
+            while (NULL_COUNTER_ID == (counterId = RecordingPos.findCounterIdBySession(
+                counters, publication.sessionId())))
+            {
+                Thread.yield();
+            }
+            final long recordingId = RecordingPos.getRecordingId(counters, counterId);
+
+            final UnsafeBuffer buffer = new UnsafeBuffer(new byte[MESSAGE_LENGTH]);
+            for (int i = 0; i < MESSAGES_PER_RECORDING; i++)
+            {
+                buffer.putInt(0, i);
+                long position;
+                while ((position = publication.offer(buffer)) < 0)
+                {
+                    Thread.yield();
+                }
+                positions.addLong(position);
+            }
+
+            while (counters.getCounterValue(counterId) < publication.position())
+            {
+                Thread.yield();
+            }
+
+            aeronArchive.stopRecording(IPC_CHANNEL, streamId);
+            return recordingId;
+        }
+    }
+
+    private static final class RecordingIndex implements Index
+    {
+        private final Long2LongHashMap recordingIdToIndexedPosition = new Long2LongHashMap(Long.MIN_VALUE);
+        private final List<long[]> caughtUp = new ArrayList<>();
+
+        RecordingIndex indexedUpTo(final long recordingId, final long position)
+        {
+            recordingIdToIndexedPosition.put(recordingId, position);
+            return this;
+        }
+
+        LongArrayList caughtUpPositions(final long recordingId)
+        {
+            final LongArrayList positions = new LongArrayList();
+            for (final long[] recordingIdAndPosition : caughtUp)
+            {
+                if (recordingIdAndPosition[0] == recordingId)
+                {
+                    positions.addLong(recordingIdAndPosition[1]);
+                }
+            }
+            return positions;
+        }
+
+        public void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+        {
+        }
+
+        public void onCatchup(
+            final DirectBuffer buffer, final int offset, final int length, final Header header, final long recordingId)
+        {
+            caughtUp.add(new long[]{ recordingId, header.position() });
+        }
+
+        public void readLastPosition(final IndexedPositionConsumer consumer)
+        {
+            recordingIdToIndexedPosition.forEach((recordingId, position) ->
+                consumer.accept(0, recordingId, position));
+        }
+
+        public void close()
+        {
+        }
+    }
+}
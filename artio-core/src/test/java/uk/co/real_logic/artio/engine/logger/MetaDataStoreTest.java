@@ -0,0 +1,242 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.CloseHelper;
+import org.agrona.IoUtil;
+import org.agrona.collections.Int2IntHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.*;
+import static uk.co.real_logic.artio.engine.logger.MetaDataStoreWriter.COMPACTION_MIN_FREE_BYTES;
+import static uk.co.real_logic.artio.engine.logger.MetaDataStoreWriter.INITIAL_FILE_LENGTH;
+import static uk.co.real_logic.artio.engine.logger.MetaDataStoreWriter.slotCapacity;
+import static uk.co.real_logic.artio.engine.logger.MetaDataStoreWriter.slotLength;
+import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexDescriptor.*;
+
+public class MetaDataStoreTest
+{
+    private static final int RECORD_OFFSET = 64;
+
+    private final File dir = new File(IoUtil.tmpDirName(), "metadata-store-test");
+    private final File location = new File(dir, "metadata");
+    private final File legacyLocation = new File(dir, "metadata-v1");
+    private final UnsafeBuffer readBuffer = new UnsafeBuffer(0, 0);
+
+    private MetaDataStoreWriter writer;
+    private MetaDataStoreReader reader;
+
+    @Before
+    public void setUp()
+    {
+        IoUtil.delete(dir, true);
+        IoUtil.ensureDirectoryExists(dir, "metadata-store-test");
+        writer = newWriter();
+        reader = new MetaDataStoreReader(location);
+    }
+
+    @After
+    public void tearDown()
+    {
+        CloseHelper.closeAll(writer, reader);
+        IoUtil.delete(dir, true);
+    }
+
+    @Test
+    public void shouldReadWrittenValue() throws IOException
+    {
+        final int position = writer.allocate(RECORD_OFFSET, value(3, 1), 3);
+
+        assertValue(position, value(3, 1));
+    }
+
+    @Test
+    public void shouldUpdateValueInPlaceWhilstItFitsItsSlot() throws IOException
+    {
+        final int position = writer.allocate(RECORD_OFFSET, value(3, 1), 3);
+        final int capacity = slotCapacity(3);
+
+        assertTrue(writer.fits(position, capacity));
+        assertFalse(writer.fits(position, capacity + 1));
+
+        writer.update(position, value(5, 2), 3, 2);
+
+        assertValue(position, new byte[]{ 1, 1, 1, 2, 2 });
+    }
+
+    @Test
+    public void shouldOnlyReuseFreedSlotsOnceTheyAreReleased() throws IOException
+    {
+        final int position = writer.allocate(RECORD_OFFSET, value(3, 1), 3);
+        writer.free(position);
+
+        final int otherPosition = writer.allocate(RECORD_OFFSET + 1, value(3, 2), 3);
+        assertNotEquals(position, otherPosition);
+        assertValue(position, value(3, 1));
+
+        writer.releasePendingSlots();
+
+        assertEquals(position, writer.allocate(RECORD_OFFSET + 2, value(4, 3), 4));
+        assertValue(position, value(4, 3));
+    }
+
+    @Test
+    public void shouldNotReadSlotLeftMidWrite() throws IOException
+    {
+        final int position = writer.allocate(RECORD_OFFSET, value(3, 1), 3);
+        writer.force();
+
+        try (RandomAccessFile file = new RandomAccessFile(location, "rw"))
+        {
+            file.seek(position + META_DATA_SLOT_SEQUENCE_OFFSET);
+            file.writeLong(Long.reverseBytes(1));
+        }
+
+        for (int i = 0; i < 3; i++)
+        {
+            assertFalse(reader.read(position, readBuffer));
+        }
+    }
+
+    @Test
+    public void shouldGrowFileAndLetReaderRemap() throws IOException
+    {
+        final int length = INITIAL_FILE_LENGTH / 4;
+        int position = 0;
+        for (int i = 0; i < 8; i++)
+        {
+            position = writer.allocate(RECORD_OFFSET + i, value(length, i), length);
+        }
+
+        assertTrue(location.length() > INITIAL_FILE_LENGTH);
+        assertValue(position, value(length, 7));
+    }
+
+    @Test
+    public void shouldCompactSlotsFromTheEndOfTheFile() throws IOException
+    {
+        final int length = 1024;
+        final int count = 4 * COMPACTION_MIN_FREE_BYTES / slotLength(slotCapacity(length));
+        final Int2IntHashMap recordOffsetToPosition = new Int2IntHashMap(NO_META_DATA);
+        for (int i = 0; i < count; i++)
+        {
+            recordOffsetToPosition.put(i, writer.allocate(i, value(length, i), length));
+        }
+
+        // Free all but the last slot
+        for (int i = 0; i < count - 1; i++)
+        {
+            writer.free(recordOffsetToPosition.remove(i));
+        }
+        writer.releasePendingSlots();
+
+        final int lastRecordOffset = count - 1;
+        final int lastPosition = recordOffsetToPosition.get(lastRecordOffset);
+        assertTrue(writer.compact(recordOffsetToPosition::put) > 0);
+
+        final int movedPosition = recordOffsetToPosition.get(lastRecordOffset);
+        assertTrue(movedPosition < lastPosition);
+        assertValue(movedPosition, value(length, lastRecordOffset));
+
+        // Once the index is flushed the old slot is free and can be trimmed off the end of the file
+        writer.releasePendingSlots();
+        while (writer.compact(recordOffsetToPosition::put) > 0)
+        {
+            writer.releasePendingSlots();
+        }
+
+        assertTrue(writer.endOfSlots() <= lastPosition);
+        assertTrue(writer.freeBytes() < COMPACTION_MIN_FREE_BYTES);
+    }
+
+    @Test
+    public void shouldRecoverFreeSlotsOnRestart() throws IOException
+    {
+        final int livePosition = writer.allocate(RECORD_OFFSET, value(3, 1), 3);
+        final int freePosition = writer.allocate(RECORD_OFFSET + 1, value(3, 2), 3);
+        writer.force();
+        CloseHelper.closeAll(writer, reader);
+
+        writer = newWriter();
+        reader = new MetaDataStoreReader(location);
+        writer.onLiveSlot(livePosition, RECORD_OFFSET);
+        writer.recoverFreeSlots();
+
+        assertValue(livePosition, value(3, 1));
+        assertEquals(freePosition, writer.allocate(RECORD_OFFSET + 2, value(3, 3), 3));
+    }
+
+    @Test
+    public void shouldImportLegacyFile() throws IOException
+    {
+        CloseHelper.closeAll(writer, reader);
+        IoUtil.delete(location, false);
+
+        final int legacyPosition = LEGACY_META_DATA_FILE_HEADER_LENGTH;
+        try (RandomAccessFile legacyFile = new RandomAccessFile(location, "rw"))
+        {
+            legacyFile.writeLong(META_DATA_MAGIC_NUMBER);
+            legacyFile.writeInt(LEGACY_META_DATA_FILE_VERSION);
+            legacyFile.writeInt(3);
+            legacyFile.write(value(3, 1));
+        }
+
+        writer = newWriter();
+        reader = new MetaDataStoreReader(location);
+        assertTrue(legacyLocation.exists());
+        assertTrue(writer.isLegacyPosition(legacyPosition));
+        writer.recoverFreeSlots();
+
+        final int position = writer.importLegacySlot(legacyPosition, RECORD_OFFSET);
+        assertFalse(writer.isLegacyPosition(position));
+        assertValue(position, value(3, 1));
+
+        writer.deleteLegacyFile();
+        assertFalse(legacyLocation.exists());
+    }
+
+    private MetaDataStoreWriter newWriter()
+    {
+        return new MetaDataStoreWriter(location, legacyLocation);
+    }
+
+    private void assertValue(final int position, final byte[] expected)
+    {
+        while (!reader.read(position, readBuffer))
+        {
+            // Retry after remapping
+        }
+
+        assertArrayEquals(expected, readBuffer.byteArray());
+    }
+
+    private static byte[] value(final int length, final int fill)
+    {
+        final byte[] value = new byte[length];
+        for (int i = 0; i < length; i++)
+        {
+            value[i] = (byte)fill;
+        }
+        return value;
+    }
+}
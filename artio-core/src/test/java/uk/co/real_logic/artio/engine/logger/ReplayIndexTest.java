@@ -38,7 +38,9 @@ import org.mockito.Mockito;
 import uk.co.real_logic.artio.CommonConfiguration;
 import uk.co.real_logic.artio.TestFixtures;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
+import uk.co.real_logic.artio.decoder.ExampleMessageDecoder;
 import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.engine.ReplayIndexFilter;
 import uk.co.real_logic.artio.engine.SequenceNumberExtractor;
 import uk.co.real_logic.artio.messages.FixPProtocolType;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
@@ -46,6 +48,7 @@ import uk.co.real_logic.artio.session.Session;
 
 import java.io.File;
 import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.stream.IntStream;
 
 import static io.aeron.Aeron.NULL_VALUE;
@@ -81,6 +84,7 @@ public class ReplayIndexTest extends AbstractLogTest
     });
 
     private ReplayIndex replayIndex;
+    private ReplayIndexFilter replayIndexFilter = ReplayIndexFilter.INDEX_ALL;
 
     private final UnsafeBuffer replayPositionBuffer =
         new UnsafeBuffer(new byte[EngineConfiguration.DEFAULT_REPLAY_POSITION_BUFFER_SIZE]);
@@ -105,7 +109,7 @@ public class ReplayIndexTest extends AbstractLogTest
             STREAM_ID,
             DEFAULT_REPLAY_INDEX_RECORD_CAPACITY,
             DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY,
-            newBufferFactory,
+            newIndexStore(STREAM_ID),
             replayPositionBuffer,
             errorHandler,
             recordingIdLookup,
@@ -115,7 +119,20 @@ public class ReplayIndexTest extends AbstractLogTest
             DEFAULT_TIME_INDEX_FLUSH_INTERVAL_IN_NS,
             true,
             DEFAULT_INDEX_CHECKSUM_ENABLED,
-            new ReplayEvictionHandler(errorHandler));
+            new ReplayEvictionHandler(errorHandler),
+            replayIndexFilter);
+    }
+
+    private ReplayIndexStore newIndexStore(final int streamId)
+    {
+        return new FileReplayIndexStore(
+            DEFAULT_LOG_FILE_DIR,
+            streamId,
+            DEFAULT_REPLAY_INDEX_RECORD_CAPACITY,
+            DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY,
+            newBufferFactory,
+            existingBufferFactory,
+            errorHandler);
     }
 
     private Aeron aeron()
@@ -144,17 +161,16 @@ public class ReplayIndexTest extends AbstractLogTest
 
         newReplayIndex();
         query = new ReplayQuery(
-            DEFAULT_LOG_FILE_DIR,
+            newIndexStore(DEFAULT_OUTBOUND_LIBRARY_STREAM),
             DEFAULT_LOGGER_CACHE_NUM_SETS,
             DEFAULT_LOGGER_CACHE_SET_SIZE,
-            existingBufferFactory,
-            DEFAULT_OUTBOUND_LIBRARY_STREAM,
             new NoOpIdleStrategy(),
             aeronArchive,
             errorHandler,
             DEFAULT_ARCHIVE_REPLAY_STREAM,
             DEFAULT_REPLAY_INDEX_RECORD_CAPACITY,
-            DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY);
+            DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY,
+            null);
     }
 
     @After
@@ -248,6 +264,31 @@ public class ReplayIndexTest extends AbstractLogTest
         verifyMessagesRead(2);
     }
 
+    @Test(timeout = 20_000L)
+    public void shouldNotIndexExcludedSessions()
+    {
+        final LongHashSet excludedSessionIds = new LongHashSet();
+        excludedSessionIds.add(SESSION_ID_2);
+        restartWithFilter(ReplayIndexFilter.excludeSessions(excludedSessionIds));
+
+        indexExampleMessage(SESSION_ID, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+        indexExampleMessage(SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+
+        assertEquals(0, query(SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX, SEQUENCE_NUMBER, SEQUENCE_INDEX));
+        assertEquals(1, query(SESSION_ID, SEQUENCE_NUMBER, SEQUENCE_INDEX, SEQUENCE_NUMBER, SEQUENCE_INDEX));
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldNotIndexExcludedMessageTypes()
+    {
+        restartWithFilter(ReplayIndexFilter.excludeMessageTypes(
+            Collections.singleton(ExampleMessageDecoder.MESSAGE_TYPE_AS_STRING)));
+
+        indexExampleMessage();
+
+        assertEquals(0, query());
+    }
+
     @Test(timeout = 20_000L)
     public void shouldNotReturnLogEntriesWithOutOfRangeSequenceNumbers()
     {
@@ -394,6 +435,13 @@ public class ReplayIndexTest extends AbstractLogTest
             DEFAULT_INBOUND_MAX_CLAIM_ATTEMPTS);
     }
 
+    private void restartWithFilter(final ReplayIndexFilter replayIndexFilter)
+    {
+        replayIndex.close();
+        this.replayIndexFilter = replayIndexFilter;
+        newReplayIndex();
+    }
+
     private long indexExampleMessage()
     {
         return indexExampleMessage(SESSION_ID, SEQUENCE_NUMBER, SEQUENCE_INDEX);
@@ -46,6 +46,7 @@ import uk.co.real_logic.artio.engine.SenderSequenceNumbers;
 import uk.co.real_logic.artio.fields.EpochFractionFormat;
 import uk.co.real_logic.artio.fields.RejectReason;
 import uk.co.real_logic.artio.fields.UtcTimestampDecoder;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
 import uk.co.real_logic.artio.messages.FixPProtocolType;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.messages.ReplayCompleteDecoder;
@@ -57,6 +58,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.*;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static java.nio.charset.StandardCharsets.US_ASCII;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
@@ -116,7 +118,12 @@ public class ReplayerTest extends AbstractLogTest
 
         setReplayedMessages(1);
 
-        replayer = new Replayer(
+        replayer = newReplayer(mock(EngineConfiguration.class));
+    }
+
+    private Replayer newReplayer(final EngineConfiguration configuration)
+    {
+        return new Replayer(
             replayQuery,
             publication,
             claim,
@@ -138,7 +145,7 @@ public class ReplayerTest extends AbstractLogTest
             DEFAULT_MAX_CONCURRENT_SESSION_REPLAYS,
             clock,
             FixPProtocolType.ILINK_3,
-            mock(EngineConfiguration.class));
+            configuration);
     }
 
     private void setReplayedMessages(final int replayedMessages)
@@ -467,6 +474,43 @@ public class ReplayerTest extends AbstractLogTest
         verifyIllegalStateException();
     }
 
+    @Test
+    public void shouldGapFillMessagesFilteredOutOfTheReplayIndexWithoutError()
+    {
+        useReplayIndexFilter();
+        final int endSeqNo = endSeqNoForTwoMessages();
+
+        final int offset = setupCapturingClaim();
+        setReplayedMessages(0);
+
+        final long result = bufferHasResendRequest(endSeqNo);
+        onRequestResendMessage(result, endSeqNo);
+
+        replayer.doWork();
+
+        assertSentGapFill(SEQUENCE_NUMBER, endSeqNo + 1, offset, times(2));
+        verify(errorHandler, never()).onError(any());
+    }
+
+    @Test
+    public void shouldReportCountMismatchThatFilteringDoesNotExplain()
+    {
+        useReplayIndexFilter();
+        final int endSeqNo = endSeqNoForTwoMessages();
+
+        final int offset = setupCapturingClaim();
+        // The index has records for both messages, but neither is replayed
+        setReplayedMessages(2);
+
+        final long result = bufferHasResendRequest(endSeqNo);
+        onRequestResendMessage(result, endSeqNo);
+
+        replayer.doWork();
+
+        assertSentGapFill(SEQUENCE_NUMBER, endSeqNo + 1, offset, times(2));
+        verifyIllegalStateException();
+    }
+
     @Test
     public void shouldGapFillMissingMessagesWhenBackPressured()
     {
@@ -586,6 +630,34 @@ public class ReplayerTest extends AbstractLogTest
         });
     }
 
+    @Test
+    public void shouldPublishMessagesArchivedWithAnOlderSchemaVersion()
+    {
+        onReplay(END_SEQ_NO, inv ->
+        {
+            bufferContainsExampleMessage(false);
+            final int oldBlockLength = FixMessageEncoder.msgSeqNumEncodingOffset();
+            final int srcLength = downgradeMessageFrame(oldBlockLength);
+            setupCapturingClaim();
+
+            onFragment(srcLength);
+
+            assertHasResentWithPossDupFlag(claimedLength, times(1));
+
+            final int afterOffset = this.offset + 1;
+            assertThat(resultAsciiBuffer,
+                sequenceEqualsAscii("8=FIX.4.4\0019=86\001", afterOffset));
+            assertEndsWithValidChecksum(afterOffset);
+
+            final int frameBodyLengthOffset = offset() + MessageHeaderDecoder.ENCODED_LENGTH + oldBlockLength +
+                metaDataHeaderLength();
+            assertEquals(claimedLength - (afterOffset - offset()),
+                resultBuffer.getInt(frameBodyLengthOffset, LITTLE_ENDIAN));
+
+            return true;
+        });
+    }
+
     @After
     public void shouldHaveNoMoreErrors()
     {
@@ -669,6 +741,13 @@ public class ReplayerTest extends AbstractLogTest
         return messageTracker.getValue();
     }
 
+    private void useReplayIndexFilter()
+    {
+        final EngineConfiguration configuration = mock(EngineConfiguration.class);
+        when(configuration.replayIndexFilter()).thenReturn((sessionId, messageType) -> false);
+        replayer = newReplayer(configuration);
+    }
+
     private void verifyIllegalStateException()
     {
         verify(errorHandler).onError(any(IllegalStateException.class));
@@ -809,6 +888,26 @@ public class ReplayerTest extends AbstractLogTest
         bufferContainsMessage(SESSION_ID, SEQUENCE_NUMBER, asciiBuffer, MESSAGE_TYPE);
     }
 
+    // Rewrites the message frame in the buffer as though it had been archived before the FixMessage block grew
+    private int downgradeMessageFrame(final int oldBlockLength)
+    {
+        final int srcLength = fragmentLength();
+        final int blockOffset = START + MessageHeaderDecoder.ENCODED_LENGTH;
+        final int removedLength = FixMessageEncoder.BLOCK_LENGTH - oldBlockLength;
+        final int varDataOffset = blockOffset + FixMessageEncoder.BLOCK_LENGTH;
+        final byte[] varData = new byte[endPosition() - varDataOffset];
+        buffer.getBytes(varDataOffset, varData);
+        buffer.putBytes(blockOffset + oldBlockLength, varData);
+
+        header
+            .wrap(buffer, START)
+            .blockLength(oldBlockLength)
+            .version(FixMessageEncoder.msgSeqNumSinceVersion() - 1);
+
+        offset -= removedLength;
+        return srcLength - removedLength;
+    }
+
     private void verifyPublicationOnlyPayloadQueried()
     {
         verify(publication).maxPayloadLength();
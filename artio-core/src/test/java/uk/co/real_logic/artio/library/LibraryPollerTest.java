@@ -16,6 +16,7 @@
 package uk.co.real_logic.artio.library;
 
 import io.aeron.Subscription;
+import io.aeron.logbuffer.Header;
 import org.agrona.LangUtil;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
@@ -35,17 +36,22 @@ import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.session.InternalSession;
 import uk.co.real_logic.artio.session.Session;
 import uk.co.real_logic.artio.timing.LibraryTimers;
+import uk.co.real_logic.artio.timing.MessageTracer;
+import uk.co.real_logic.artio.util.MessageTypeEncoding;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static io.aeron.CommonContext.IPC_CHANNEL;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_REPLY_TIMEOUT_IN_MS;
 import static uk.co.real_logic.artio.LivenessDetector.SEND_INTERVAL_FRACTION;
+import static uk.co.real_logic.artio.Timing.assertEventuallyTrue;
 import static uk.co.real_logic.artio.library.SessionConfiguration.*;
 import static uk.co.real_logic.artio.messages.ConnectionType.ACCEPTOR;
 import static uk.co.real_logic.artio.messages.InitialAcceptedSessionOwner.ENGINE;
@@ -68,6 +74,9 @@ public class LibraryPollerTest
     private static final String LEADER_CHANNEL = "2";
     private static final List<String> CLUSTER_CHANNELS = asList(FIRST_CHANNEL, LEADER_CHANNEL, "3");
     private static final int SEQUENCE_INDEX = 0;
+    private static final int OTHER_LIBRARY_ID = 6;
+    private static final long EXECUTION_REPORT = MessageTypeEncoding.packMessageType("8");
+    private static final long HEARTBEAT = MessageTypeEncoding.packMessageType("0");
 
     private final ArgumentCaptor<Session> session = ArgumentCaptor.forClass(Session.class);
     private final LibraryConnectHandler connectHandler = mock(LibraryConnectHandler.class);
@@ -80,6 +89,11 @@ public class LibraryPollerTest
     private final FixLibrary fixLibrary = mock(FixLibrary.class);
     private final String address = "localhost:1234";
     private final FakeEpochClock clock = new FakeEpochClock();
+    private final RoutedMessageHandler routedMessageHandler = mock(RoutedMessageHandler.class);
+    private final UnsafeBuffer messageBuffer = new UnsafeBuffer(new byte[64]);
+
+    private RoutedMessagePredicate routedMessagePredicate;
+    private int sessionWorkerThreads;
 
     private LibraryPoller library;
 
@@ -121,6 +135,61 @@ public class LibraryPollerTest
         verify(sessionHandler).onTimeout(libraryId(), firstSession);
     }
 
+    @Test
+    public void shouldNotifyClientOfSessionTimeoutsOnSessionWorker()
+    {
+        sessionWorkerThreads = 1;
+        final AtomicReference<Thread> callbackThread = new AtomicReference<>();
+        doAnswer(inv ->
+        {
+            callbackThread.set(Thread.currentThread());
+            return null;
+        }).when(sessionHandler).onTimeout(anyInt(), any());
+        connectToSingleEngine();
+
+        try
+        {
+            manageConnection(CONNECTION_ID, SESSION_ID);
+
+            // The session is removed straight after it times out, the worker must still invoke the callback
+            library.onControlNotification(libraryId(), ENGINE, noSessionIds());
+
+            assertEventuallyTrue("Timeout callback not invoked", () -> callbackThread.get() != null);
+            verify(sessionHandler).onTimeout(libraryId(), session.getValue());
+            assertNotSame(Thread.currentThread(), callbackThread.get());
+        }
+        finally
+        {
+            library.close();
+        }
+    }
+
+    @Test
+    public void shouldRouteSelectedMessagesOfOtherLibrariesSessions()
+    {
+        routedMessagePredicate = RoutedMessagePredicate.messageTypeOf("8");
+        connectToSingleEngine();
+
+        receiveMessage(OTHER_LIBRARY_ID, EXECUTION_REPORT);
+        receiveMessage(OTHER_LIBRARY_ID, HEARTBEAT);
+
+        verify(routedMessageHandler).onMessage(
+            messageBuffer, 0, messageBuffer.capacity(), OTHER_LIBRARY_ID, CONNECTION_ID, SESSION_ID,
+            SEQUENCE_INDEX, EXECUTION_REPORT, 0L, MessageStatus.OK, 0L);
+        verifyNoMoreInteractions(routedMessageHandler);
+    }
+
+    @Test
+    public void shouldNotRouteMessagesOfOwnSessions()
+    {
+        routedMessagePredicate = RoutedMessagePredicate.messageTypeOf("8");
+        connectToSingleEngine();
+
+        receiveMessage(libraryId(), EXECUTION_REPORT);
+
+        verifyNoInteractions(routedMessageHandler);
+    }
+
     @Test
     public void shouldDisconnectSingleEngineAfterTimeout()
     {
@@ -306,6 +375,26 @@ public class LibraryPollerTest
         assertTrue("Failed to connect", library.isConnected());
     }
 
+    private void receiveMessage(final int libraryId, final long messageType)
+    {
+        library.onMessage(
+            messageBuffer,
+            0,
+            messageBuffer.capacity(),
+            libraryId,
+            CONNECTION_ID,
+            SESSION_ID,
+            SEQUENCE_INDEX,
+            messageType,
+            0L,
+            MessageTracer.NOT_TRACED,
+            MessageStatus.OK,
+            1,
+            mock(Header.class),
+            0,
+            null);
+    }
+
     private void receiveOneApplicationHeartbeat()
     {
         whenPolled()
@@ -329,11 +418,17 @@ public class LibraryPollerTest
 
     private void newLibraryPoller(final List<String> libraryAeronChannels)
     {
+        final LibraryConfiguration configuration = new LibraryConfiguration()
+            .libraryAeronChannels(libraryAeronChannels)
+            .sessionAcquireHandler(sessionAcquireHandler)
+            .libraryConnectHandler(connectHandler)
+            .routedMessagePredicate(routedMessagePredicate)
+            .routedMessageHandler(routedMessagePredicate == null ? null : routedMessageHandler)
+            .sessionWorkerThreads(sessionWorkerThreads);
+        configuration.threadFactory(Thread::new);
+
         library = new LibraryPoller(
-            new LibraryConfiguration()
-                .libraryAeronChannels(libraryAeronChannels)
-                .sessionAcquireHandler(sessionAcquireHandler)
-                .libraryConnectHandler(connectHandler),
+            configuration,
             new LibraryTimers(clock::time, mock(AtomicCounter.class)),
             counters,
             transport,
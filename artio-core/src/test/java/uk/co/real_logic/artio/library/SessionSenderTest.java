@@ -0,0 +1,153 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.agrona.ErrorHandler;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import uk.co.real_logic.artio.builder.Encoder;
+import uk.co.real_logic.artio.builder.TestRequestEncoder;
+import uk.co.real_logic.artio.session.Session;
+
+import java.util.List;
+
+import static io.aeron.Publication.BACK_PRESSURED;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class SessionSenderTest
+{
+    private static final int CAPACITY = 2;
+
+    private final Session session = mock(Session.class);
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final TestRequestEncoder testRequest = new TestRequestEncoder();
+    private final SessionSender sender = new SessionSender(session, CAPACITY);
+
+    @Test
+    public void shouldSendCopiesOfQueuedMessagesInOrder()
+    {
+        when(session.trySend(any(Encoder.class))).thenReturn(1L);
+
+        assertTrue(sender.trySend(testRequest.testReqID("first")));
+        assertTrue(sender.trySend(testRequest.testReqID("second")));
+
+        assertEquals(2, sender.drain(errorHandler));
+
+        final ArgumentCaptor<Encoder> encoders = ArgumentCaptor.forClass(Encoder.class);
+        verify(session, times(2)).trySend(encoders.capture());
+        final List<Encoder> sent = encoders.getAllValues();
+        assertNotSame(testRequest, sent.get(0));
+        assertThat(sent.get(0).toString(), containsString("first"));
+        assertThat(sent.get(1).toString(), containsString("second"));
+        verifyNoInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldRetryBackPressuredMessage()
+    {
+        when(session.trySend(any(Encoder.class))).thenReturn(BACK_PRESSURED, 1L);
+
+        assertTrue(sender.trySend(testRequest.testReqID("first")));
+
+        assertEquals(0, sender.drain(errorHandler));
+        assertEquals(1, sender.drain(errorHandler));
+        assertEquals(0, sender.drain(errorHandler));
+
+        verify(session, times(2)).trySend(any(Encoder.class));
+    }
+
+    @Test
+    public void shouldRejectMessagesWhenFull()
+    {
+        when(session.trySend(any(Encoder.class))).thenReturn(1L);
+
+        assertTrue(sender.trySend(testRequest.testReqID("first")));
+        assertTrue(sender.trySend(testRequest.testReqID("second")));
+        assertFalse(sender.trySend(testRequest.testReqID("third")));
+
+        assertEquals(2, sender.drain(errorHandler));
+
+        assertTrue(sender.trySend(testRequest.testReqID("third")));
+    }
+
+    @Test
+    public void shouldRejectMessagesWhenClosed()
+    {
+        sender.close();
+
+        assertFalse(sender.trySend(testRequest.testReqID("first")));
+        assertEquals(0, sender.drain(errorHandler));
+    }
+
+    @Test
+    public void shouldSendClaimedMessagesInClaimOrder()
+    {
+        when(session.trySend(any(Encoder.class))).thenReturn(1L);
+
+        final long firstClaim = sender.tryClaim();
+        final long secondClaim = sender.tryClaim();
+        sender.encoder(secondClaim, TestRequestEncoder.class).testReqID("second");
+        sender.commit(secondClaim);
+
+        assertEquals(0, sender.drain(errorHandler));
+        verify(session, never()).trySend(any(Encoder.class));
+
+        sender.encoder(firstClaim, TestRequestEncoder.class).testReqID("first");
+        sender.commit(firstClaim);
+
+        assertEquals(2, sender.drain(errorHandler));
+
+        final ArgumentCaptor<Encoder> encoders = ArgumentCaptor.forClass(Encoder.class);
+        verify(session, times(2)).trySend(encoders.capture());
+        assertThat(encoders.getAllValues().get(0).toString(), containsString("first"));
+        assertThat(encoders.getAllValues().get(1).toString(), containsString("second"));
+    }
+
+    @Test
+    public void shouldSkipAbortedClaims()
+    {
+        when(session.trySend(any(Encoder.class))).thenReturn(1L);
+
+        final long abortedClaim = sender.tryClaim();
+        final long claim = sender.tryClaim();
+        assertEquals(SessionSender.NO_CLAIM, sender.tryClaim());
+
+        sender.abort(abortedClaim);
+        sender.encoder(claim, TestRequestEncoder.class).testReqID("first");
+        sender.commit(claim);
+
+        assertEquals(2, sender.drain(errorHandler));
+        verify(session, times(1)).trySend(any(Encoder.class));
+        assertNotEquals(SessionSender.NO_CLAIM, sender.tryClaim());
+    }
+
+    @Test
+    public void shouldReportAndSkipMessagesThatFailToSend()
+    {
+        final IllegalStateException exception = new IllegalStateException();
+        when(session.trySend(any(Encoder.class))).thenThrow(exception).thenReturn(1L);
+
+        assertTrue(sender.trySend(testRequest.testReqID("first")));
+        assertTrue(sender.trySend(testRequest.testReqID("second")));
+
+        assertEquals(2, sender.drain(errorHandler));
+        verify(errorHandler).onError(exception);
+    }
+}
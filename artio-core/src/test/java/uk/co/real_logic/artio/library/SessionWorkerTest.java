@@ -0,0 +1,223 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import uk.co.real_logic.artio.messages.DisconnectReason;
+import uk.co.real_logic.artio.messages.MessageStatus;
+import uk.co.real_logic.artio.session.Session;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class SessionWorkerTest
+{
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final int LIBRARY_ID = 2;
+    private static final int SEQUENCE_INDEX = 1;
+    private static final long MESSAGE_TYPE = 'D';
+    private static final long TIMESTAMP = 3;
+    private static final long POSITION = 4;
+
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final SessionHandler delegate = mock(SessionHandler.class);
+    private final Session session = mock(Session.class);
+    // Sized so that a whole number of messages fills the queue
+    private final UnsafeBuffer messageBuffer = new UnsafeBuffer(new byte[48]);
+    private final OnMessageInfo messageInfo = new OnMessageInfo().status(MessageStatus.OK).isValid(true);
+    private final SessionWorker worker = new SessionWorker(QUEUE_CAPACITY, errorHandler, "session-worker");
+    private final WorkerSessionHandler handler = new WorkerSessionHandler(1, session, delegate, worker);
+
+    @Before
+    public void setUp()
+    {
+        worker.register(handler);
+        when(delegate.onMessage(any(), anyInt(), anyInt(), anyInt(), any(), anyInt(), anyLong(), anyLong(),
+            anyLong(), any())).thenReturn(CONTINUE);
+        when(delegate.onDisconnect(anyInt(), any(), any())).thenReturn(CONTINUE);
+    }
+
+    @Test
+    public void shouldInvokeCallbacksInOrderOnWorker()
+    {
+        assertEquals(CONTINUE, onMessage());
+        handler.onTimeout(LIBRARY_ID, session);
+        handler.onSlowStatus(LIBRARY_ID, session, true);
+        assertEquals(CONTINUE, handler.onDisconnect(LIBRARY_ID, session, DisconnectReason.REMOTE_DISCONNECT));
+        verifyNoInteractions(delegate);
+
+        assertEquals(4, worker.doWork());
+
+        final InOrder inOrder = inOrder(delegate);
+        inOrder.verify(delegate).onMessage(
+            any(DirectBuffer.class), eq(0), eq(messageBuffer.capacity()), eq(LIBRARY_ID), eq(session),
+            eq(SEQUENCE_INDEX), eq(MESSAGE_TYPE), eq(TIMESTAMP), eq(POSITION), any(OnMessageInfo.class));
+        inOrder.verify(delegate).onTimeout(LIBRARY_ID, session);
+        inOrder.verify(delegate).onSlowStatus(LIBRARY_ID, session, true);
+        inOrder.verify(delegate).onDisconnect(LIBRARY_ID, session, DisconnectReason.REMOTE_DISCONNECT);
+        verifyNoInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldCopyMessageInfoToWorker()
+    {
+        messageInfo.trace(5, 6, 7);
+        onMessage();
+
+        worker.doWork();
+
+        final ArgumentCaptor<OnMessageInfo> workerMessageInfo = ArgumentCaptor.forClass(OnMessageInfo.class);
+        verify(delegate).onMessage(any(), anyInt(), anyInt(), anyInt(), any(), anyInt(), anyLong(), anyLong(),
+            anyLong(), workerMessageInfo.capture());
+        final OnMessageInfo info = workerMessageInfo.getValue();
+        assertNotSame(messageInfo, info);
+        assertEquals(MessageStatus.OK, info.status());
+        assertTrue(info.isValid());
+        assertEquals(5, info.socketReadTimestamp());
+        assertEquals(6, info.framerPublishTimestamp());
+        assertEquals(7, info.libraryReceiveTimestamp());
+    }
+
+    @Test
+    public void shouldRetryMessageWhenHandlerAborts()
+    {
+        when(delegate.onMessage(any(), anyInt(), anyInt(), anyInt(), any(), anyInt(), anyLong(), anyLong(),
+            anyLong(), any())).thenReturn(ABORT, CONTINUE);
+        onMessage();
+
+        assertEquals(0, worker.doWork());
+        assertEquals(1, worker.doWork());
+        assertEquals(0, worker.doWork());
+
+        verify(delegate, times(2)).onMessage(any(), anyInt(), anyInt(), anyInt(), any(), anyInt(), anyLong(),
+            anyLong(), anyLong(), any());
+    }
+
+    @Test
+    public void shouldAbortMessagesWhenQueueIsFull()
+    {
+        final int queuedMessages = fillQueue();
+
+        assertEquals(ABORT, handler.onDisconnect(LIBRARY_ID, session, DisconnectReason.REMOTE_DISCONNECT));
+
+        assertEquals(queuedMessages, worker.doWork());
+        assertEquals(CONTINUE, onMessage());
+    }
+
+    @Test
+    public void shouldQueueEventsOnPollerWhilstFullAndKeepThemInOrder()
+    {
+        final int queuedMessages = fillQueue();
+
+        // Doesn't block the poller thread
+        handler.onTimeout(LIBRARY_ID, session);
+
+        assertEquals(queuedMessages, worker.doWork());
+        verify(delegate, never()).onTimeout(anyInt(), any());
+
+        // Messages can't overtake the queued event
+        assertEquals(ABORT, onMessage());
+
+        assertEquals(1, worker.drainPendingEvents());
+        assertEquals(CONTINUE, onMessage());
+        assertEquals(2, worker.doWork());
+
+        final InOrder inOrder = inOrder(delegate);
+        inOrder.verify(delegate, times(queuedMessages)).onMessage(any(), anyInt(), anyInt(), anyInt(), any(),
+            anyInt(), anyLong(), anyLong(), anyLong(), any());
+        inOrder.verify(delegate).onTimeout(LIBRARY_ID, session);
+        inOrder.verify(delegate).onMessage(any(), anyInt(), anyInt(), anyInt(), any(), anyInt(), anyLong(),
+            anyLong(), anyLong(), any());
+    }
+
+    @Test
+    public void shouldNotInvokeCallbacksOfRemovedHandler()
+    {
+        onMessage();
+        worker.enqueueRemove(handler.handlerId());
+        handler.onTimeout(LIBRARY_ID, session);
+
+        worker.doWork();
+
+        verify(delegate).onMessage(any(), anyInt(), anyInt(), anyInt(), any(), anyInt(), anyLong(), anyLong(),
+            anyLong(), any());
+        verify(delegate, never()).onTimeout(anyInt(), any());
+        verify(errorHandler).onError(any(IllegalStateException.class));
+    }
+
+    @Test
+    public void shouldPinSessionsToWorkersById()
+    {
+        final LibraryConfiguration configuration = new LibraryConfiguration()
+            .sessionWorkerThreads(2)
+            .sessionWorkerQueueCapacity(QUEUE_CAPACITY);
+        configuration.threadFactory(Thread::new);
+
+        try (SessionWorkerPool pool = new SessionWorkerPool(configuration, errorHandler))
+        {
+            final WorkerSessionHandler first = (WorkerSessionHandler)pool.dispatch(session(1), delegate);
+            final WorkerSessionHandler second = (WorkerSessionHandler)pool.dispatch(session(2), delegate);
+            final WorkerSessionHandler third = (WorkerSessionHandler)pool.dispatch(session(3), delegate);
+
+            assertNotSame(first.worker(), second.worker());
+            assertSame(first.worker(), third.worker());
+            assertNotEquals(first.handlerId(), third.handlerId());
+        }
+    }
+
+    private static Session session(final long sessionId)
+    {
+        final Session session = mock(Session.class);
+        when(session.id()).thenReturn(sessionId);
+        return session;
+    }
+
+    private int fillQueue()
+    {
+        int queuedMessages = 0;
+        while (onMessage() == CONTINUE)
+        {
+            queuedMessages++;
+        }
+
+        return queuedMessages;
+    }
+
+    private Action onMessage()
+    {
+        return handler.onMessage(
+            messageBuffer,
+            0,
+            messageBuffer.capacity(),
+            LIBRARY_ID,
+            session,
+            SEQUENCE_INDEX,
+            MESSAGE_TYPE,
+            TIMESTAMP,
+            POSITION,
+            messageInfo);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.protocol;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.*;
+
+public class FramedSessionHeaderTest
+{
+    private static final String SENDING_TIME = "20090323-15:40:29.000";
+    private static final String ORIG_SENDING_TIME = "20090323-15:40:28";
+
+    private final FramedSessionHeader sessionHeader = new FramedSessionHeader();
+
+    @Test
+    public void shouldLocateSessionHeaderFields()
+    {
+        final String message = "8=FIX.4.4\0019=0\00135=D\00149=abc\00134=12\00197=Y\00152=" + SENDING_TIME +
+            "\00156=das\001122=" + ORIG_SENDING_TIME + "\00111=A\00143=Y\00110=000\001";
+
+        assertTrue(scan(message));
+
+        assertEquals(12, sessionHeader.msgSeqNum());
+        assertFalse("PossDupFlag is in the body so shouldn't be read", sessionHeader.possDup());
+        assertTrue(sessionHeader.possResend());
+        assertEquals(message.indexOf(SENDING_TIME), sessionHeader.sendingTimeOffset());
+        assertEquals(SENDING_TIME.length(), sessionHeader.sendingTimeLength());
+        assertTrue(sessionHeader.hasOrigSendingTime());
+        assertEquals(message.indexOf(ORIG_SENDING_TIME), sessionHeader.origSendingTimeOffset());
+        assertEquals(ORIG_SENDING_TIME.length(), sessionHeader.origSendingTimeLength());
+    }
+
+    @Test
+    public void shouldNotLocateFieldsWithoutMsgSeqNum()
+    {
+        assertFalse(scan("8=FIX.4.4\0019=0\00135=D\00152=" + SENDING_TIME + "\00111=A\00110=000\001"));
+        assertFalse(sessionHeader.hasMsgSeqNum());
+    }
+
+    @Test
+    public void shouldNotLocateFieldsWithMalformedMsgSeqNum()
+    {
+        assertFalse(scan("8=FIX.4.4\0019=0\00135=D\00134=1a\00152=" + SENDING_TIME + "\00110=000\001"));
+        assertFalse(sessionHeader.hasMsgSeqNum());
+    }
+
+    @Test
+    public void shouldNotLocateFieldsWithDuplicateMsgSeqNum()
+    {
+        assertFalse(scan("8=FIX.4.4\0019=0\00135=D\00134=1\00134=2\00152=" + SENDING_TIME + "\00110=000\001"));
+        assertFalse(sessionHeader.hasMsgSeqNum());
+    }
+
+    @Test
+    public void shouldNotLocateFieldsWithZeroMsgSeqNum()
+    {
+        assertFalse(scan("8=FIX.4.4\0019=0\00135=D\00134=0\00152=" + SENDING_TIME + "\00110=000\001"));
+        assertFalse(sessionHeader.hasMsgSeqNum());
+    }
+
+    @Test
+    public void shouldDecodeFieldsAsMissingWhenTheFrameWriterDidNotSetThem()
+    {
+        final UnsafeBuffer frameBuffer = new UnsafeBuffer(new byte[FixMessageEncoder.BLOCK_LENGTH]);
+        new FixMessageEncoder().wrap(frameBuffer, 0).sequenceNumber(7);
+
+        final FramedSessionHeader decoded = new FramedSessionHeader();
+        decoded.decode(new FixMessageDecoder().wrap(
+            frameBuffer, 0, FixMessageDecoder.BLOCK_LENGTH, FixMessageDecoder.SCHEMA_VERSION));
+
+        assertFalse(decoded.hasMsgSeqNum());
+    }
+
+    @Test
+    public void shouldEncodeAndDecodeLocatedFields()
+    {
+        assertTrue(scan("8=FIX.4.4\0019=0\00135=D\00134=7\00143=Y\00152=" + SENDING_TIME + "\00110=000\001"));
+
+        final UnsafeBuffer frameBuffer = new UnsafeBuffer(new byte[FixMessageEncoder.BLOCK_LENGTH]);
+        final FixMessageEncoder encoder = new FixMessageEncoder().wrap(frameBuffer, 0);
+        sessionHeader.encode(encoder);
+
+        final FramedSessionHeader decoded = new FramedSessionHeader();
+        decoded.decode(new FixMessageDecoder().wrap(
+            frameBuffer, 0, FixMessageDecoder.BLOCK_LENGTH, FixMessageDecoder.SCHEMA_VERSION));
+
+        assertEquals(7, decoded.msgSeqNum());
+        assertTrue(decoded.possDup());
+        assertFalse(decoded.possResend());
+        assertEquals(sessionHeader.sendingTimeOffset(), decoded.sendingTimeOffset());
+        assertEquals(sessionHeader.sendingTimeLength(), decoded.sendingTimeLength());
+        assertFalse(decoded.hasOrigSendingTime());
+
+        FramedSessionHeader.encodeMissing(encoder);
+        decoded.decode(new FixMessageDecoder().wrap(
+            frameBuffer, 0, FixMessageDecoder.BLOCK_LENGTH, FixMessageDecoder.SCHEMA_VERSION));
+        assertFalse(decoded.hasMsgSeqNum());
+    }
+
+    private boolean scan(final String message)
+    {
+        final byte[] bytes = message.getBytes(US_ASCII);
+        return sessionHeader.scan(new MutableAsciiBuffer(bytes), 0, bytes.length);
+    }
+}
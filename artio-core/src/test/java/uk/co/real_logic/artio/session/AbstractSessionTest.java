@@ -1087,6 +1087,30 @@ public abstract class AbstractSessionTest
         assertNotEquals(timeAsString1, timeAsString2); // make sure time has moved forward
     }
 
+    @Test
+    public void shouldNotDuplicateExplicitlySetIdentityFieldsWhenSessionHasHeaderTemplate()
+    {
+        idStrategy = SessionIdStrategy.senderTargetAndSub();
+        givenActive();
+        session().setupSession(
+            SESSION_ID, idStrategy.onInitiateLogon("sender", "senderSub", null, "target", null, null), null);
+
+        testRequest.reset();
+        testRequest.testReqID("testReqID");
+        testRequest.header().senderSubID("senderSub");
+        session().trySend(testRequest);
+        final String explicitMessage = getSentMessage();
+        assertEquals(explicitMessage, 1, occurrencesOf("\00150=", explicitMessage));
+        assertEquals(explicitMessage, 1, occurrencesOf("\00149=sender\001", explicitMessage));
+
+        testRequest.reset();
+        testRequest.testReqID("testReqID");
+        session().trySend(testRequest);
+        final String templatedMessage = getSentMessage();
+        assertEquals(templatedMessage, 1, occurrencesOf("\00150=senderSub\001", templatedMessage));
+        assertEquals(templatedMessage, 1, occurrencesOf("\00149=sender\001", templatedMessage));
+    }
+
     @Test
     public void shouldTakeForcedHeartbeatConfigurationIntoAccount()
     {
@@ -1161,6 +1185,11 @@ public abstract class AbstractSessionTest
         return buffer.getAscii(offsetCaptor.getValue(), lengthCaptor.getValue());
     }
 
+    private static int occurrencesOf(final String field, final String message)
+    {
+        return message.split(field, -1).length - 1;
+    }
+
     private void verifySetsSequenceNumbersToTwo(final int sequenceIndex)
     {
         verifySetsSentSequenceNumbersToTwo(sequenceIndex);
@@ -24,10 +24,13 @@ import uk.co.real_logic.artio.dictionary.FixDictionary;
 import uk.co.real_logic.artio.fields.RejectReason;
 import uk.co.real_logic.artio.library.OnMessageInfo;
 import uk.co.real_logic.artio.messages.SessionState;
+import uk.co.real_logic.artio.protocol.FramedSessionHeader;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 import uk.co.real_logic.artio.validation.AuthenticationStrategy;
 import uk.co.real_logic.artio.validation.MessageValidationStrategy;
 
 import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 import static uk.co.real_logic.artio.Constants.TARGET_COMP_ID;
 import static uk.co.real_logic.artio.dictionary.generation.CodecUtil.MISSING_INT;
@@ -99,6 +102,74 @@ public class SessionParserTest
         verify(mockSession, never()).onInvalidMessageType(anyInt(), any(), anyInt(), eq(POSITION));
     }
 
+    @Test
+    public void shouldValidateFromFramedSessionHeaderWithoutDecodingHeader()
+    {
+        final SessionParser parser = new SessionParser(
+            mockSession, MessageValidationStrategy.none(), LangUtil::rethrowUnchecked,
+            false, true, messageInfo, null);
+        parser.fixDictionary(FixDictionary.of(FixDictionary.findDefault()));
+        when(mockSession.beginString()).thenReturn("FIX.4.4");
+
+        final UnsafeBuffer buffer = bufferOf(
+            "8=FIX.4.4\0019=71\00135=D\00134=3\00143=Y\00149=abc\00152=20090323-15:40:29.000\00156=das\001" +
+            "122=20090323-15:40:28.000\00111=A\00110=000\001");
+        final FramedSessionHeader sessionHeader = new FramedSessionHeader();
+        assertTrue(sessionHeader.scan(new MutableAsciiBuffer(buffer), 0, buffer.capacity()));
+
+        parser.onMessage(buffer, 0, buffer.capacity(), 'D', POSITION, sessionHeader);
+
+        verify(mockSession).onMessage(
+            eq(3), any(), eq(1), eq(1237822829000L), eq(1237822828000L), eq(true), eq(true), eq(POSITION));
+        verify(mockSession, never()).onBeginString(any(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    public void shouldDecodeHeaderWhenBeginStringDiffersFromFramedSessionHeader()
+    {
+        final SessionParser parser = new SessionParser(
+            mockSession, MessageValidationStrategy.none(), LangUtil::rethrowUnchecked,
+            false, true, messageInfo, null);
+        parser.fixDictionary(FixDictionary.of(FixDictionary.findDefault()));
+        when(mockSession.beginString()).thenReturn("FIX.4.2");
+
+        final UnsafeBuffer buffer = bufferOf(
+            "8=FIX.4.4\00135=D\00134=3\00149=abc\00152=20090323-15:40:29.000\00156=das\001");
+        final FramedSessionHeader sessionHeader = new FramedSessionHeader();
+        assertTrue(sessionHeader.scan(new MutableAsciiBuffer(buffer), 0, buffer.capacity()));
+
+        parser.onMessage(buffer, 0, buffer.capacity(), 'D', POSITION, sessionHeader);
+
+        verify(mockSession).onBeginString(any(), anyInt(), eq(false));
+    }
+
+    @Test
+    public void shouldParseMessagesForDifferentSessionsWithSharedDecoders()
+    {
+        final Session otherSession = mock(Session.class);
+        when(otherSession.onBeginString(any(), anyInt(), anyBoolean())).thenReturn(true);
+        final SessionParser otherParser = new SessionParser(
+            otherSession, validationStrategy, LangUtil::rethrowUnchecked,
+            false, true, messageInfo, null);
+        final SessionParser.Decoders decoders = new SessionParser.Decoders(
+            FixDictionary.of(FixDictionary.findDefault()));
+        parser.decoders(decoders);
+        otherParser.decoders(decoders);
+
+        final UnsafeBuffer buffer = bufferOf(
+            "8=FIX.4.4\00135=B\00134=2\00149=abc\00152=00000101-00:00:00.000\00156=das\001");
+        final UnsafeBuffer otherBuffer = bufferOf(
+            "8=FIX.4.4\00135=B\00134=7\00149=abc\00152=00000101-00:00:00.000\00156=das\001");
+
+        parser.onMessage(buffer, 0, buffer.capacity(), 'B', POSITION);
+        otherParser.onMessage(otherBuffer, 0, otherBuffer.capacity(), 'B', POSITION);
+
+        verify(mockSession).onMessage(
+            eq(2), any(), anyInt(), anyLong(), anyLong(), eq(false), eq(false), eq(POSITION));
+        verify(otherSession).onMessage(
+            eq(7), any(), anyInt(), anyLong(), anyLong(), eq(false), eq(false), eq(POSITION));
+    }
+
     private UnsafeBuffer bufferOf(final String str)
     {
         return new UnsafeBuffer(str.getBytes(US_ASCII));
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.timing;
+
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static uk.co.real_logic.artio.timing.MessageTracer.NO_TRACING;
+
+public class MessageTracerTest
+{
+    private final EpochNanoClock clock = mock(EpochNanoClock.class);
+
+    @Test
+    public void shouldSampleOneInEveryInterval()
+    {
+        final MessageTracer tracer = new MessageTracer(clock, 4);
+
+        int sampled = 0;
+        for (int i = 0; i < 16; i++)
+        {
+            if (tracer.sample())
+            {
+                sampled++;
+            }
+        }
+
+        assertTrue(tracer.enabled());
+        assertEquals(4, sampled);
+    }
+
+    @Test
+    public void shouldNotSampleWhenTracingDisabled()
+    {
+        final MessageTracer tracer = new MessageTracer(clock, NO_TRACING);
+
+        for (int i = 0; i < 16; i++)
+        {
+            assertFalse(tracer.sample());
+        }
+
+        assertFalse(tracer.enabled());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectSampleIntervalThatIsNotAPowerOfTwo()
+    {
+        new MessageTracer(clock, 3);
+    }
+
+    @Test
+    public void shouldRecordTimeBetweenStages()
+    {
+        final AtomicCounter negativeTimestamps = mock(AtomicCounter.class);
+        final Timer timer = new Timer(clock, "abc", 1, negativeTimestamps);
+
+        MessageTracer.record(timer, 100, 150);
+        verifyNoInteractions(negativeTimestamps);
+
+        MessageTracer.record(timer, 150, 100);
+        verify(negativeTimestamps).increment();
+
+        assertEquals(1, timer.getTimings().getTotalCount());
+    }
+}
@@ -885,6 +885,41 @@ public class ILink3SystemTest
         terminateAndDisconnect();
     }
 
+    @Test
+    public void shouldPipelineLargeRetransmitRequests() throws IOException
+    {
+        launch(true);
+        connectToTestServer(connectionConfiguration().maxOutstandingRetransmitRequests(2));
+        establishConnection();
+
+        testServer.canSkip(Sequence506Decoder.TEMPLATE_ID);
+        testServer.writeExecutionReportStatus(7500, false);
+
+        // The second request is sent before the first has been filled
+        final long firstRequestTimestamp = testServer.readRetransmitRequest(1, 2500);
+        final long secondRequestTimestamp = testServer.readRetransmitRequest(2501, 2500);
+
+        testServer.writeRetransmission(firstRequestTimestamp, 1, 2500);
+        writeExecutionReports(1, 2500);
+
+        // Filling the first request delivers its messages and sends the third whilst the second is being filled
+        final long thirdRequestTimestamp = testServer.readRetransmitRequest(5001, 2499);
+        assertThat(handler.messageIds(), hasSize(2500));
+        assertEquals(5000, connection.retransmitFillSeqNo());
+
+        testServer.writeRetransmission(secondRequestTimestamp, 2501, 2500);
+        writeExecutionReports(2501, 2500);
+
+        testServer.writeRetransmission(thirdRequestTimestamp, 5001, 2499);
+        writeExecutionReports(5001, 2499);
+
+        agreeRetransmitFillSeqNo(NOT_AWAITING_RETRANSMIT);
+        agreeRecvSeqNo(7501);
+        assertThat(handler.messageIds(), hasSize(7500));
+
+        terminateAndDisconnect();
+    }
+
     @Test
     public void shouldNotStallUponARetransmitReject() throws IOException
     {
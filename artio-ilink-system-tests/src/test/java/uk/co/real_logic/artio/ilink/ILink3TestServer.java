@@ -582,6 +582,11 @@ public class ILink3TestServer
         writeRetransitReject(requestTimestamp);
     }
 
+    public void writeRetransmission(final long requestTimestamp, final long fromSeqNo, final int msgCount)
+    {
+        writeRetransmission(RetransmitRequest508Decoder.lastUUIDNullValue(), requestTimestamp, fromSeqNo, msgCount);
+    }
+
     private void writeRetransmission(
         final long lastUUID, final long requestTimestamp, final long fromSeqNo, final int msgCount)
     {
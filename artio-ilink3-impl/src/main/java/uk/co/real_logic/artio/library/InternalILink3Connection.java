@@ -150,6 +150,8 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
 
     private final NotAppliedResponse response = new NotAppliedResponse();
     private final Deque<RetransmitRequest> retransmitRequests = new ArrayDeque<>();
+    // Requests that have been sent after the one currently being filled, in the order that they were sent
+    private final Deque<RetransmitRequest> outstandingRetransmitRequests = new ArrayDeque<>();
     private final CharFormatter unknownMessage = new CharFormatter(
         "Unknown Message,templateId=%s,blockLength=%s,version=%s,seqNum=%s,possRetrans=%s%n");
     private final CharFormatter checkSeqNum = new CharFormatter("Checking msgSeqNum=%s,nextRecvSeqNo=%s%n");
@@ -182,6 +184,9 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
     private long retransmitContiguousSeqNo = NOT_AWAITING_RETRANSMIT;
     private long retransmitMaxSeqNo = NOT_AWAITING_RETRANSMIT;
     private long nextRetransmitSeqNo = NOT_AWAITING_RETRANSMIT;
+    // The request timestamp of the retransmit request currently being filled, which CME echoes in a reject
+    private long retransmitRequestTimestamp = NOT_AWAITING_RETRANSMIT;
+    private long lastRetransmitRequestTimestamp;
 
     private long resendTimeInMs;
     private boolean backpressuredNotApplied = false;
@@ -315,13 +320,14 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
         }
 
         onAttemptedToSendMessage();
-        final long requestTimestamp = requestTimestampInNs();
+        final long requestTimestamp = retransmitRequestTimestampInNs();
         final long thisUuid = this.uuid;
         final long lastUuid = lookupRetransmitLastUuid(uuid, thisUuid);
         final long position = proxy.sendRetransmitRequest(thisUuid, lastUuid, requestTimestamp, fromSeqNo, msgCount);
         if (!Pressure.isBackPressured(position))
         {
             retransmitFillTimeoutInNs(requestTimestamp);
+            retransmitRequestTimestamp = requestTimestamp;
             retransmitUuid = uuid;
             nextRetransmitSeqNo = fromSeqNo;
             retransmitFillSeqNo = fromSeqNo + msgCount - 1;
@@ -1278,7 +1284,7 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
 
         if (retransmitFillSeqNo == NOT_AWAITING_RETRANSMIT)
         {
-            final long requestTimestamp = requestTimestampInNs();
+            final long requestTimestamp = retransmitRequestTimestampInNs();
             final long position = sendRetransmitRequest(lastUuid, fromSeqNo, msgCount, requestTimestamp);
             if (!Pressure.isBackPressured(position))
             {
@@ -1287,7 +1293,9 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
                 retransmitUuid(lastUuid);
                 nextRetransmitSeqNo = fromSeqNo;
                 retransmitFillTimeoutInNs(requestTimestamp);
+                retransmitRequestTimestamp = requestTimestamp;
                 retransmitFillSeqNo = fromSeqNo + msgCount - 1;
+                sendOutstandingRetransmitRequests();
                 return CONTINUE;
             }
             else
@@ -1300,6 +1308,7 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
             addRetransmitRequest(lastUuid, fromSeqNo, msgCount);
             addRemainingRetransmitRequests(lastUuid, fromSeqNo, msgCount, totalMsgCount);
             nextRecvSeqNoForCurrentUuid(newNextRecvSeqNo, lastUuid);
+            sendOutstandingRetransmitRequests();
 
             return CONTINUE;
         }
@@ -1323,6 +1332,25 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
     {
         processRetransmitQueue();
 
+        final RetransmitRequest outstandingRequest = outstandingRetransmitRequests.pollFirst();
+        if (outstandingRequest != null)
+        {
+            // The next request has already been sent and CME fills requests in order, so just start tracking it
+            final long lastUuid = outstandingRequest.lastUuid;
+            final long fromSeqNo = outstandingRequest.fromSeqNo;
+            final int msgCount = outstandingRequest.msgCount;
+            logRetransmitFilledNext(lastUuid, fromSeqNo, msgCount);
+            // Times out from when the request was sent, not from when the earlier requests were filled
+            retransmitFillTimeoutInNs(outstandingRequest.requestTimestamp);
+            retransmitRequestTimestamp = outstandingRequest.requestTimestamp;
+            retransmitUuid(lastUuid);
+            nextRetransmitSeqNo = fromSeqNo;
+            retransmitFillSeqNo = fromSeqNo + msgCount - 1;
+            sendOutstandingRetransmitRequests();
+
+            return CONTINUE;
+        }
+
         final RetransmitRequest retransmitRequest = retransmitRequests.peekFirst();
         if (retransmitRequest == null)
         {
@@ -1336,34 +1364,27 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
             nextRetransmitSeqNo = NOT_AWAITING_RETRANSMIT;
             retransmitFillSeqNo = NOT_AWAITING_RETRANSMIT;
             retransmitFillTimeoutInMs = NOT_AWAITING_RETRANSMIT;
+            retransmitRequestTimestamp = NOT_AWAITING_RETRANSMIT;
         }
         else
         {
             final long lastUuid = retransmitRequest.lastUuid;
             final long fromSeqNo = retransmitRequest.fromSeqNo;
             final int msgCount = retransmitRequest.msgCount;
-            final long requestTimestamp = requestTimestampInNs();
+            final long requestTimestamp = retransmitRequestTimestampInNs();
             final long position = sendRetransmitRequest(
                 lastUuid, fromSeqNo, msgCount, requestTimestamp);
 
             if (!Pressure.isBackPressured(position))
             {
-                if (DebugLogger.isEnabled(FIXP_SESSION))
-                {
-                    retransmitFilledNext
-                        .clear()
-                        .with(uuid)
-                        .with(lastUuid)
-                        .with(retransmitFillSeqNo)
-                        .with(fromSeqNo)
-                        .with(msgCount);
-                    DebugLogger.log(FIXP_SESSION, retransmitFilledNext);
-                }
+                logRetransmitFilledNext(lastUuid, fromSeqNo, msgCount);
                 retransmitRequests.pollFirst();
                 retransmitFillTimeoutInNs(requestTimestamp);
+                retransmitRequestTimestamp = requestTimestamp;
                 retransmitUuid(lastUuid);
                 nextRetransmitSeqNo = fromSeqNo;
                 retransmitFillSeqNo = fromSeqNo + msgCount - 1;
+                sendOutstandingRetransmitRequests();
 
                 return CONTINUE;
             }
@@ -1376,6 +1397,64 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
         return CONTINUE;
     }
 
+    private void logRetransmitFilledNext(final long lastUuid, final long fromSeqNo, final int msgCount)
+    {
+        if (DebugLogger.isEnabled(FIXP_SESSION))
+        {
+            retransmitFilledNext
+                .clear()
+                .with(uuid)
+                .with(lastUuid)
+                .with(retransmitFillSeqNo)
+                .with(fromSeqNo)
+                .with(msgCount);
+            DebugLogger.log(FIXP_SESSION, retransmitFilledNext);
+        }
+    }
+
+    // Sends queued retransmit requests ahead of the current one being filled, up to the configured limit. If this
+    // is back-pressured the remaining requests stay queued and are retried when the current request is filled.
+    private void sendOutstandingRetransmitRequests()
+    {
+        final int maxOutstandingRetransmitRequests = configuration.maxOutstandingRetransmitRequests();
+        final Deque<RetransmitRequest> retransmitRequests = this.retransmitRequests;
+        final Deque<RetransmitRequest> outstandingRetransmitRequests = this.outstandingRetransmitRequests;
+
+        // The request currently being filled counts towards the limit
+        while (outstandingRetransmitRequests.size() + 1 < maxOutstandingRetransmitRequests)
+        {
+            final RetransmitRequest retransmitRequest = retransmitRequests.peekFirst();
+            if (retransmitRequest == null)
+            {
+                return;
+            }
+
+            final long requestTimestamp = retransmitRequestTimestampInNs();
+            final long position = sendRetransmitRequest(
+                retransmitRequest.lastUuid,
+                retransmitRequest.fromSeqNo,
+                retransmitRequest.msgCount,
+                requestTimestamp);
+            if (Pressure.isBackPressured(position))
+            {
+                return;
+            }
+
+            retransmitRequests.pollFirst();
+            retransmitRequest.requestTimestamp = requestTimestamp;
+            outstandingRetransmitRequests.offerLast(retransmitRequest);
+        }
+    }
+
+    // Pipelined requests are sent within the same duty cycle, so each one gets a distinct timestamp in order for a
+    // reject to be matched to the request that it answers.
+    private long retransmitRequestTimestampInNs()
+    {
+        final long requestTimestamp = Math.max(requestTimestampInNs(), lastRetransmitRequestTimestamp + 1);
+        lastRetransmitRequestTimestamp = requestTimestamp;
+        return requestTimestamp;
+    }
+
     private void retransmitFillTimeoutInNs(final long requestTimestampInNs)
     {
         retransmitFillTimeoutInMs = NANOSECONDS.toMillis(requestTimestampInNs) +
@@ -1388,7 +1467,7 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
         {
             processInOrderRetransmitQueue();
         }
-        else if (retransmitRequests.isEmpty())
+        else if (retransmitRequests.isEmpty() && outstandingRetransmitRequests.isEmpty())
         {
             processOutOfOrderRetransmitQueue();
         }
@@ -1569,6 +1648,8 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
         final long lastUuid;
         final long fromSeqNo;
         int msgCount;
+        // Set once the request has been sent ahead of the one being filled
+        long requestTimestamp = NOT_AWAITING_RETRANSMIT;
 
         RetransmitRequest(final long lastUuid, final long fromSeqNo, final int msgCount)
         {
@@ -1583,6 +1664,7 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
                 "lastUuid=" + lastUuid +
                 ", fromSeqNo=" + fromSeqNo +
                 ", msgCount=" + msgCount +
+                ", requestTimestamp=" + requestTimestamp +
                 '}';
         }
     }
@@ -1625,9 +1707,32 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
             return ABORT;
         }
 
+        if (requestTimestamp != retransmitRequestTimestamp && removeOutstandingRetransmitRequest(requestTimestamp))
+        {
+            // A request sent ahead of the current one was rejected, its messages aren't requested again as the
+            // handler has been notified. The current request carries on being filled.
+            sendOutstandingRetransmitRequests();
+            return CONTINUE;
+        }
+
         return onRetransmitFilled();
     }
 
+    private boolean removeOutstandingRetransmitRequest(final long requestTimestamp)
+    {
+        final Iterator<RetransmitRequest> it = outstandingRetransmitRequests.iterator();
+        while (it.hasNext())
+        {
+            if (it.next().requestTimestamp == requestTimestamp)
+            {
+                it.remove();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     protected void onOfflineReconnect(final long connectionId, final FixPContext context)
     {
         Ilink3Protocol.unsupported();
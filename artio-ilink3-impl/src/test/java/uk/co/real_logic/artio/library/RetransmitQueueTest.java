@@ -24,6 +24,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import uk.co.real_logic.artio.fixp.FixPMessageDissector;
 import uk.co.real_logic.artio.fixp.SimpleOpenFramingHeader;
 import uk.co.real_logic.artio.ilink.ILink3Connection;
@@ -44,6 +45,7 @@ import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 import static uk.co.real_logic.artio.fixp.SimpleOpenFramingHeader.SOFH_LENGTH;
 import static uk.co.real_logic.artio.ilink.ILink3Connection.NOT_AWAITING_RETRANSMIT;
+import static uk.co.real_logic.artio.ilink.ILink3ConnectionConfiguration.DEFAULT_MAX_OUTSTANDING_RETRANSMIT_REQUESTS;
 import static uk.co.real_logic.artio.ilink.ILink3ConnectionConfiguration.DEFAULT_RETRANSMIT_TIMEOUT_IN_MS;
 
 public class RetransmitQueueTest
@@ -77,6 +79,11 @@ public class RetransmitQueueTest
 
     @Before
     public void setUp()
+    {
+        connection = newConnection(DEFAULT_MAX_OUTSTANDING_RETRANSMIT_REQUESTS);
+    }
+
+    private InternalILink3Connection newConnection(final int maxOutstandingRetransmitRequests)
     {
         final ILink3ConnectionConfiguration config = new ILink3ConnectionConfiguration.Builder()
             .host("localhost")
@@ -88,9 +95,10 @@ public class RetransmitQueueTest
             .port(123)
             .reEstablishLastConnection(true)
             .maxRetransmitQueueSizeInBytes(MAX_RETRANSMIT_QUEUE_SIZE)
+            .maxOutstandingRetransmitRequests(maxOutstandingRetransmitRequests)
             .build();
 
-        connection = new InternalILink3Connection(
+        return new InternalILink3Connection(
             config,
             CONNECTION_ID,
             mock(InitiateILink3ConnectionReply.class),
@@ -233,6 +241,57 @@ public class RetransmitQueueTest
         assertSeqNos(2512, NOT_AWAITING_RETRANSMIT);
     }
 
+    @Test
+    public void shouldOnlyDropTheRejectedRequestWhenAPipelinedRequestIsRejected()
+    {
+        connection = newConnection(2);
+        givenEstablished();
+
+        onExecutionReport(7502, false);
+        assertSeqNos(7503, 2501);
+        final long firstRequestTimestamp = verifyRetransmitRequestTimestamp(2L, 2500);
+        final long secondRequestTimestamp = verifyRetransmitRequestTimestamp(2502L, 2500);
+        assertNotEquals(firstRequestTimestamp, secondRequestTimestamp);
+
+        assertEquals(CONTINUE, connection.onRetransmitReject(
+            "Rejected", UUID, lastUUIDNullValue(), secondRequestTimestamp, 0));
+
+        // The first request carries on being filled and the third is sent in place of the rejected one
+        assertSeqNos(7503, 2501);
+        verifyRetransmitRequest(5002L, 2500);
+
+        onExecutionReports(2, 2501);
+        assertSeqNos(7503, 7501);
+
+        onExecutionReports(5002, 7501);
+        assertSeqNos(7503, NOT_AWAITING_RETRANSMIT);
+        assertSequenceNumbers(contains(LongStream.concat(
+            LongStream.rangeClosed(2, 2501), LongStream.rangeClosed(5002, 7502)).boxed().toArray(Long[]::new)));
+    }
+
+    @Test
+    public void shouldTimeOutPipelinedRequestFromWhenItWasSent()
+    {
+        connection = newConnection(2);
+        givenEstablished();
+
+        final long sentTimeInMs = NANOSECONDS.toMillis(nanoTime);
+        onExecutionReport(5002, false);
+        verifyRetransmitRequest(2L, 2500);
+        verifyRetransmitRequest(2502L, 2500);
+
+        nanoTime += MILLISECONDS.toNanos(DEFAULT_RETRANSMIT_TIMEOUT_IN_MS / 2);
+        onExecutionReports(2, 2501);
+        assertSeqNos(5003, 5001);
+
+        connection.poll(sentTimeInMs + DEFAULT_RETRANSMIT_TIMEOUT_IN_MS + 1);
+        assertTrue("Wrong retransmitTimedOut", handler.retransmitTimedOut());
+        handler.resetRetransmitTimedOut();
+
+        onExecutionReports(2502, 5001);
+        assertSeqNos(5003, NOT_AWAITING_RETRANSMIT);
+    }
+
     @Ignore
     @Test
     public void shouldNotifyWhenTimeoutBreached()
@@ -459,6 +518,14 @@ public class RetransmitQueueTest
         verify(proxy).sendRetransmitRequest(eq(UUID), eq(lastUuid), anyLong(), eq(fromSeqNo), eq(msgCount));
     }
 
+    private long verifyRetransmitRequestTimestamp(final long fromSeqNo, final int msgCount)
+    {
+        final ArgumentCaptor<Long> requestTimestamp = ArgumentCaptor.forClass(Long.class);
+        verify(proxy).sendRetransmitRequest(
+            eq(UUID), eq(lastUUIDNullValue()), requestTimestamp.capture(), eq(fromSeqNo), eq(msgCount));
+        return requestTimestamp.getValue();
+    }
+
     private void assertSeqNos(final long nextRecvSeqNo, final long retransmitFillSeqNo)
     {
         assertEquals("wrong nextRecvSeqNo", nextRecvSeqNo, connection.nextRecvSeqNo());
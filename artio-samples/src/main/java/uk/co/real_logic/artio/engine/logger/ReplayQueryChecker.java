@@ -34,18 +34,25 @@ public final class ReplayQueryChecker
         final int requiredStreamId = Integer.parseInt(args[2]);
         final int endSequenceNumber = Integer.parseInt(args[3]);
 
-        final ReplayQuery query = new ReplayQuery(
+        final FileReplayIndexStore indexStore = new FileReplayIndexStore(
             logFileDir,
+            requiredStreamId,
+            DEFAULT_REPLAY_INDEX_RECORD_CAPACITY,
+            DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY,
+            LoggerUtil::map,
+            LoggerUtil::mapExistingFile,
+            Throwable::printStackTrace);
+        final ReplayQuery query = new ReplayQuery(
+            indexStore,
             DEFAULT_LOGGER_CACHE_NUM_SETS,
             DEFAULT_LOGGER_CACHE_SET_SIZE,
-            LoggerUtil::mapExistingFile,
-            requiredStreamId,
             CommonConfiguration.backoffIdleStrategy(),
             null,
             Throwable::printStackTrace,
             -1,
             DEFAULT_REPLAY_INDEX_RECORD_CAPACITY,
-            DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY);
+            DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY,
+            null);
 
         query.query(
             sessionId,
@@ -16,12 +16,14 @@
 package uk.co.real_logic.artio;
 
 import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.fields.DecimalFloat;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import java.util.concurrent.TimeUnit;
 
 /**
- * Benchmark for the {@link uk.co.real_logic.artio.util.MutableAsciiBuffer#putFloatAscii(int, long, int)} method.
+ * Benchmark for the {@link uk.co.real_logic.artio.util.MutableAsciiBuffer#putFloatAscii(int, long, int)} method and
+ * decoding the same values with {@link MutableAsciiBuffer#getFloat(DecimalFloat, int, int)}.
  */
 @Fork(1)
 @BenchmarkMode(Mode.AverageTime)
@@ -37,6 +39,15 @@ public class DecimalFloatEncoderBenchmark
     private int scale;
 
     private final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[64]);
+    private final MutableAsciiBuffer encodedBuffer = new MutableAsciiBuffer(new byte[64]);
+    private final DecimalFloat decodedValue = new DecimalFloat();
+    private int encodedLength;
+
+    @Setup
+    public void setup()
+    {
+        encodedLength = encodedBuffer.putFloatAscii(0, value, scale);
+    }
 
     /**
      * Benchmark  {@link uk.co.real_logic.artio.util.MutableAsciiBuffer#putFloatAscii(int, long, int)}  method
@@ -48,4 +59,15 @@ public class DecimalFloatEncoderBenchmark
     {
         return buffer.putFloatAscii(0, value, scale);
     }
+
+    /**
+     * Benchmark {@link MutableAsciiBuffer#getFloat(DecimalFloat, int, int)} method
+     *
+     * @return the decoded value.
+     */
+    @Benchmark
+    public DecimalFloat decode()
+    {
+        return encodedBuffer.getFloat(decodedValue, 0, encodedLength);
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.real_logic.artio.builder.ExecutionReportEncoder;
+import uk.co.real_logic.artio.builder.HeaderEncoder;
+import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Compares encoding an ExecutionReport whose session identity header fields are setup on every send with splicing
+ * in a header template that has been rendered once, as a session does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class HeaderTemplateEncoderBenchmark
+{
+    @Param({"false", "true"})
+    boolean useHeaderTemplate;
+
+    private final UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder();
+    private final ExecutionReportEncoder executionReport = new ExecutionReportEncoder();
+    private final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[8 * 1024]);
+
+    // deliberately not static/final
+    private final int sequenceNumber = 10;
+    private final char[] senderCompId = "ABC_DEFG01".toCharArray();
+    private final char[] senderSubId = "DESK_1".toCharArray();
+    private final char[] targetCompId = "CCG".toCharArray();
+
+    private byte[] headerTemplate;
+    private int headerTemplateLength;
+
+    @Setup
+    public void setup()
+    {
+        final HeaderEncoder templateHeader = new HeaderEncoder()
+            .senderCompID(senderCompId)
+            .senderSubID(senderSubId)
+            .targetCompID(targetCompId);
+        final MutableAsciiBuffer templateBuffer = new MutableAsciiBuffer(new byte[128]);
+        headerTemplateLength = templateHeader.encodeHeaderTemplate(templateBuffer, 0);
+        headerTemplate = new byte[headerTemplateLength];
+        templateBuffer.getBytes(0, headerTemplate);
+
+        executionReport
+            .orderID("ORD-0000000001".getBytes(US_ASCII))
+            .execID("EXEC-0000000001".getBytes(US_ASCII))
+            .execType(ExecType.FILL)
+            .ordStatus(OrdStatus.FILLED)
+            .side(Side.BUY)
+            .transactTime(timestampEncoder.buffer(), timestampEncoder.encode(System.currentTimeMillis()));
+        executionReport.instrument().symbol("MSFT".getBytes(US_ASCII));
+    }
+
+    @Benchmark
+    public void encodeExecutionReport(final Blackhole bh)
+    {
+        final UtcTimestampEncoder timestampEncoder = this.timestampEncoder;
+        final HeaderEncoder header = executionReport.header();
+
+        header
+            .msgSeqNum(sequenceNumber)
+            .sendingTime(timestampEncoder.buffer(), timestampEncoder.encode(System.currentTimeMillis()));
+
+        if (useHeaderTemplate)
+        {
+            header.headerTemplate(headerTemplate, headerTemplateLength);
+        }
+        else
+        {
+            header
+                .senderCompID(senderCompId)
+                .senderSubID(senderSubId)
+                .targetCompID(targetCompId);
+        }
+
+        bh.consume(executionReport.encode(buffer, 0));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.hints.ThreadHints;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the latency of handing a message to an agent thread and getting its response, with busy spinning, backoff
+ * and adaptive idle strategies on the agent thread. The gap between messages varies the load: with no gap the agent is
+ * always busy, with a 100us gap it's busy but has short idle periods, as during trading hours, and with a 10ms gap
+ * it's quiet enough for the adaptive strategy to stop spinning.
+ *
+ * The gap is waited out before each invocation, so only the round trip is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IdleStrategyBenchmark
+{
+    @Param({"busy_spin", "backoff", "adaptive"})
+    String idleStrategy;
+
+    @Param({"0", "100000", "10000000"})
+    long gapInNs;
+
+    private final AtomicLong request = new AtomicLong();
+    private final AtomicLong response = new AtomicLong();
+
+    private Thread agent;
+    private volatile boolean running;
+    private long sequence;
+
+    @Setup
+    public void setup()
+    {
+        final IdleStrategy idleStrategy = newIdleStrategy();
+        running = true;
+        agent = new Thread(() ->
+        {
+            long lastRequest = 0;
+            while (running)
+            {
+                final long request = this.request.get();
+                if (request != lastRequest)
+                {
+                    lastRequest = request;
+                    response.lazySet(request);
+                    idleStrategy.idle(1);
+                }
+                else
+                {
+                    idleStrategy.idle(0);
+                }
+            }
+        }, "idle-strategy-benchmark-agent");
+        agent.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException
+    {
+        running = false;
+        agent.join();
+    }
+
+    @Setup(Level.Invocation)
+    public void waitForGap()
+    {
+        final long deadlineInNs = System.nanoTime() + gapInNs;
+        while (System.nanoTime() < deadlineInNs)
+        {
+            ThreadHints.onSpinWait();
+        }
+    }
+
+    @Benchmark
+    public long roundTrip()
+    {
+        final long sequence = ++this.sequence;
+        request.lazySet(sequence);
+        while (response.get() != sequence)
+        {
+            ThreadHints.onSpinWait();
+        }
+        return sequence;
+    }
+
+    private IdleStrategy newIdleStrategy()
+    {
+        switch (idleStrategy)
+        {
+            case "busy_spin":
+                return new BusySpinIdleStrategy();
+
+            case "backoff":
+                return CommonConfiguration.backoffIdleStrategy();
+
+            default:
+                return new AdaptiveIdleStrategy();
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
 import uk.co.real_logic.artio.dictionary.LongDictionary;
 import uk.co.real_logic.artio.otf.OtfParser;
+import uk.co.real_logic.artio.otf.OtfTagExtractor;
 
 import java.util.concurrent.TimeUnit;
 
@@ -37,6 +38,7 @@ public class OtfParserBenchmark
     private OtfParser blackholeParser;
     private OtfParser noBlackholeParser;
     private OtfParser inlinableParser;
+    private OtfTagExtractor tagExtractor;
 
     @Setup
     public void setup(final Blackhole bh)
@@ -44,6 +46,8 @@ public class OtfParserBenchmark
         blackholeParser = new OtfParser(new OtfBlackHoleAcceptor(bh), new LongDictionary());
         noBlackholeParser = new OtfParser(new OtfNoBlackHoleAcceptor(), new LongDictionary());
         inlinableParser = new OtfParser(new OtfInlineableAcceptor(), new LongDictionary());
+        // MsgType, MsgSeqNum and SenderCompID, the fields that routing and sequence number extraction use
+        tagExtractor = new OtfTagExtractor(35, 34, 49);
     }
 
     @Benchmark
@@ -63,4 +67,10 @@ public class OtfParserBenchmark
     {
         inlinableParser.onMessage(buffer, 0, buffer.capacity());
     }
+
+    @Benchmark
+    public boolean newOrderSingleExtractTags()
+    {
+        return tagExtractor.extract(buffer, 0, buffer.capacity());
+    }
 }
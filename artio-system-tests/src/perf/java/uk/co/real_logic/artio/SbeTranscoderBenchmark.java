@@ -0,0 +1,92 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.real_logic.artio.perf.decoder.NewOrderSingleDecoder;
+import uk.co.real_logic.artio.perf.sbe.NewOrderSingleEncoder;
+import uk.co.real_logic.artio.perf.sbe.NewOrderSingleTranscoder;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a few fields of a NewOrderSingle from its FIX encoding with reading them from its SBE
+ * transcoding, and measures the cost of transcoding itself.
+ *
+ * The transcoders are generated from the session dictionary for the perf source set only, in the
+ * <code>uk.co.real_logic.artio.perf</code> package.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SbeTranscoderBenchmark
+{
+    // Deliberately not static/final
+    private final MutableAsciiBuffer fixBuffer = new MutableAsciiBuffer(TestData.NEW_ORDER_SINGLE.byteArray());
+    private final UnsafeBuffer sbeBuffer = new UnsafeBuffer(new byte[1024]);
+
+    private final NewOrderSingleDecoder fixDecoder = new NewOrderSingleDecoder();
+    private final NewOrderSingleTranscoder transcoder = new NewOrderSingleTranscoder();
+    private final NewOrderSingleEncoder sbeEncoder = new NewOrderSingleEncoder();
+    private final uk.co.real_logic.artio.perf.sbe.NewOrderSingleDecoder sbeDecoder =
+        new uk.co.real_logic.artio.perf.sbe.NewOrderSingleDecoder();
+
+    @Setup
+    public void setup()
+    {
+        fixDecoder.decode(fixBuffer, 0, fixBuffer.capacity());
+        transcoder.toSbe(fixDecoder, sbeEncoder.wrap(sbeBuffer, 0));
+    }
+
+    @Benchmark
+    public void decodeFix(final Blackhole bh)
+    {
+        final NewOrderSingleDecoder fixDecoder = this.fixDecoder;
+        fixDecoder.reset();
+        fixDecoder.decode(fixBuffer, 0, fixBuffer.capacity());
+
+        bh.consume(fixDecoder.side());
+        bh.consume(fixDecoder.ordType());
+        bh.consume(fixDecoder.orderQty().value());
+    }
+
+    @Benchmark
+    public int transcodeToSbe()
+    {
+        final NewOrderSingleDecoder fixDecoder = this.fixDecoder;
+        fixDecoder.reset();
+        fixDecoder.decode(fixBuffer, 0, fixBuffer.capacity());
+
+        return transcoder.toSbe(fixDecoder, sbeEncoder.wrap(sbeBuffer, 0));
+    }
+
+    @Benchmark
+    public void decodeSbe(final Blackhole bh)
+    {
+        final uk.co.real_logic.artio.perf.sbe.NewOrderSingleDecoder sbeDecoder = this.sbeDecoder;
+        sbeDecoder.wrap(sbeBuffer, 0, NewOrderSingleEncoder.BLOCK_LENGTH, NewOrderSingleEncoder.SCHEMA_VERSION);
+
+        bh.consume(sbeDecoder.side());
+        bh.consume(sbeDecoder.ordType());
+        bh.consume(sbeDecoder.orderQty().mantissa());
+    }
+}
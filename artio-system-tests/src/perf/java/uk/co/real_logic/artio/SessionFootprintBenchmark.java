@@ -0,0 +1,130 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.LangUtil;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.OffsetEpochNanoClock;
+import uk.co.real_logic.artio.dictionary.FixDictionary;
+import uk.co.real_logic.artio.fields.EpochFractionFormat;
+import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.session.DirectSessionProxy;
+import uk.co.real_logic.artio.session.SessionCustomisationStrategy;
+import uk.co.real_logic.artio.session.SessionIdStrategy;
+import uk.co.real_logic.artio.session.SessionParser;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+import uk.co.real_logic.artio.validation.MessageValidationStrategy;
+
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_SESSION_BUFFER_SIZE;
+
+/**
+ * Measures the heap retained by the per session parsing and encoding state of a library, with and without
+ * {@link uk.co.real_logic.artio.library.LibraryConfiguration#shareSessionCodecs(boolean)}. Run with a large heap,
+ * eg: -Xmx8g.
+ */
+public final class SessionFootprintBenchmark
+{
+    private static final int[] SESSION_COUNTS = { 1_000, 10_000, 50_000 };
+
+    private static final FixDictionary FIX_DICTIONARY = FixDictionary.of(FixDictionary.findDefault());
+    private static final EpochNanoClock CLOCK = new OffsetEpochNanoClock();
+    private static final SessionIdStrategy SESSION_ID_STRATEGY = SessionIdStrategy.senderAndTarget();
+
+    public static void main(final String[] args)
+    {
+        for (final int sessionCount : SESSION_COUNTS)
+        {
+            final long ownedBytes = measure(sessionCount, false);
+            final long sharedBytes = measure(sessionCount, true);
+
+            System.out.printf(
+                "sessions = %,d, owned = %,d KB (%,d B/session), shared = %,d KB (%,d B/session)%n",
+                sessionCount,
+                ownedBytes / 1024,
+                ownedBytes / sessionCount,
+                sharedBytes / 1024,
+                sharedBytes / sessionCount);
+        }
+    }
+
+    private static long measure(final int sessionCount, final boolean shared)
+    {
+        final long before = usedMemory();
+
+        final Object[] sessionState = new Object[sessionCount * 3];
+        final SessionParser.Decoders sharedDecoders = new SessionParser.Decoders(FIX_DICTIONARY);
+        final MutableAsciiBuffer sharedSessionBuffer = newSessionBuffer();
+        final MutableAsciiBuffer sharedProxyBuffer = newSessionBuffer();
+        final UtcTimestampEncoder sharedTimestampEncoder = DirectSessionProxy.newTimestampEncoder(
+            CLOCK, EpochFractionFormat.MILLISECONDS);
+
+        for (int i = 0; i < sessionCount; i++)
+        {
+            final SessionParser parser = new SessionParser(
+                null, MessageValidationStrategy.none(), LangUtil::rethrowUnchecked, false, true, null,
+                SESSION_ID_STRATEGY);
+            final DirectSessionProxy proxy;
+            final MutableAsciiBuffer sessionBuffer;
+
+            if (shared)
+            {
+                parser.decoders(sharedDecoders);
+                proxy = new DirectSessionProxy(
+                    sharedProxyBuffer, sharedTimestampEncoder, null, SESSION_ID_STRATEGY,
+                    SessionCustomisationStrategy.none(), CLOCK, i, 1, LangUtil::rethrowUnchecked);
+                sessionBuffer = sharedSessionBuffer;
+            }
+            else
+            {
+                parser.fixDictionary(FIX_DICTIONARY);
+                proxy = new DirectSessionProxy(
+                    DEFAULT_SESSION_BUFFER_SIZE, null, SESSION_ID_STRATEGY, SessionCustomisationStrategy.none(),
+                    CLOCK, i, 1, LangUtil::rethrowUnchecked, EpochFractionFormat.MILLISECONDS);
+                sessionBuffer = newSessionBuffer();
+            }
+            proxy.fixDictionary(FIX_DICTIONARY);
+
+            sessionState[i * 3] = parser;
+            sessionState[i * 3 + 1] = proxy;
+            sessionState[i * 3 + 2] = sessionBuffer;
+        }
+
+        final long used = usedMemory() - before;
+        // Keep the session state reachable until it has been measured.
+        if (sessionState[sessionState.length - 1] == null)
+        {
+            throw new IllegalStateException();
+        }
+
+        return used;
+    }
+
+    private static MutableAsciiBuffer newSessionBuffer()
+    {
+        return new MutableAsciiBuffer(new byte[DEFAULT_SESSION_BUFFER_SIZE]);
+    }
+
+    private static long usedMemory()
+    {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
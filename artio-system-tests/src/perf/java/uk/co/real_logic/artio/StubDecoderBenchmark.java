@@ -20,11 +20,17 @@ import org.openjdk.jmh.infra.Blackhole;
 import uk.co.real_logic.artio.builder.Validation;
 import uk.co.real_logic.artio.decoder.HeaderDecoder;
 import uk.co.real_logic.artio.decoder.LogonDecoder;
+import uk.co.real_logic.artio.fixt.decoder.MsgTypeGrpDecoder;
 import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Also measures decoding a FIXT Logon with a large NoMsgTypes group. Compare runs against the FIXT codecs generated
+ * with and without <code>-Dfix.codecs.lazy_group_decoding=true</code> to see the cost of decoding group entries that
+ * are never read.
+ */
 @State(Scope.Benchmark)
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
@@ -35,6 +41,9 @@ public class StubDecoderBenchmark
 {
     private final LogonDecoder logonDecoder = new LogonDecoder();
     private final AsciiBuffer buffer = new MutableAsciiBuffer(TestData.LOGON);
+    private final uk.co.real_logic.artio.fixt.decoder.LogonDecoder largeGroupLogonDecoder =
+        new uk.co.real_logic.artio.fixt.decoder.LogonDecoder();
+    private final AsciiBuffer largeGroupBuffer = new MutableAsciiBuffer(TestData.FIXT_LOGON_WITH_LARGE_GROUP);
 
     @Setup
     public void setup()
@@ -78,4 +87,41 @@ public class StubDecoderBenchmark
         bh.consume(logonDecoder.username());
     }
 
+    // The FIXT Logon is mostly optional fields, so this shows the cost of resetting a wide decoder
+    @Benchmark
+    public void resetFixtLogon(final Blackhole bh)
+    {
+        largeGroupLogonDecoder.reset();
+
+        bh.consume(largeGroupLogonDecoder);
+    }
+
+    @Benchmark
+    public void decodeLargeGroupReadingHeaderFields(final Blackhole bh)
+    {
+        final uk.co.real_logic.artio.fixt.decoder.LogonDecoder decoder = largeGroupLogonDecoder;
+        decoder.reset();
+
+        bh.consume(decoder.decode(largeGroupBuffer, 0, largeGroupBuffer.capacity()));
+
+        bh.consume(decoder.header().msgSeqNum());
+        bh.consume(decoder.username());
+    }
+
+    @Benchmark
+    public void decodeLargeGroupReadingAllEntries(final Blackhole bh)
+    {
+        final uk.co.real_logic.artio.fixt.decoder.LogonDecoder decoder = largeGroupLogonDecoder;
+        decoder.reset();
+
+        bh.consume(decoder.decode(largeGroupBuffer, 0, largeGroupBuffer.capacity()));
+
+        bh.consume(decoder.header().msgSeqNum());
+        MsgTypeGrpDecoder.MsgTypesGroupDecoder entry = decoder.msgTypesGroup();
+        while (entry != null)
+        {
+            bh.consume(entry.refMsgTypeLength());
+            entry = entry.next();
+        }
+    }
 }
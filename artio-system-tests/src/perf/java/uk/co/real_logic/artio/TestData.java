@@ -31,4 +31,22 @@ public final class TestData
         ("8=FIX.4.4\0019=0103\00135=A\00149=ABC_DEFG01\00156=CCG\00134=10\001" +
         "52=20150514-15:57:31.336\00198=0\001108=10\001383=512\001553=username" +
         "\001554=password\00110=243\001").getBytes(StandardCharsets.US_ASCII));
+
+    public static final int LARGE_GROUP_ENTRIES = 200;
+
+    public static final UnsafeBuffer FIXT_LOGON_WITH_LARGE_GROUP = new UnsafeBuffer(
+        fixtLogonWithMsgTypes(LARGE_GROUP_ENTRIES).getBytes(StandardCharsets.US_ASCII));
+
+    private static String fixtLogonWithMsgTypes(final int entries)
+    {
+        final StringBuilder builder = new StringBuilder(
+            "8=FIXT.1.1\0019=0000\00135=A\00149=ABC_DEFG01\00156=CCG\00134=10\001" +
+            "52=20150514-15:57:31.336\00198=0\001108=10\001384=").append(entries).append('\001');
+        for (int i = 0; i < entries; i++)
+        {
+            builder.append("372=D\001385=R\001");
+        }
+
+        return builder.append("553=username\001554=password\0011137=9\00110=000\001").toString();
+    }
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.CloseHelper;
+import org.openjdk.jmh.annotations.*;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.security.KeyStore;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Round trip of a FIX message over loopback through plain and TLS terminating {@link TcpChannel}s, using a
+ * self-signed certificate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TcpChannelBenchmark
+{
+    private static final String KEYSTORE = "/tls/benchmark-keystore.p12";
+    private static final char[] PASSWORD = "artio-test".toCharArray();
+    private static final byte[] MESSAGE = ("8=FIX.4.4\0019=0079\00135=D\00149=INIT\00156=ACC\00134=2\001" +
+        "52=20220101-00:00:00.000\00111=1\00155=MSFT\00154=1\00160=20220101-00:00:00.000\00140=1\00110=123\001")
+        .getBytes(US_ASCII);
+
+    @Param({"plain", "tls"})
+    String transport;
+
+    private ServerSocketChannel serverSocketChannel;
+    private TcpChannel client;
+    private TcpChannel server;
+    private final ByteBuffer message = ByteBuffer.allocateDirect(MESSAGE.length);
+    private final ByteBuffer clientReadBuffer = ByteBuffer.allocateDirect(64 * 1024);
+    private final ByteBuffer serverReadBuffer = ByteBuffer.allocateDirect(64 * 1024);
+
+    @Setup
+    public void setup() throws Exception
+    {
+        message.put(MESSAGE).flip();
+
+        serverSocketChannel = ServerSocketChannel.open();
+        serverSocketChannel.bind(new InetSocketAddress("localhost", 0));
+
+        final SocketChannel clientChannel = SocketChannel.open(serverSocketChannel.getLocalAddress());
+        final SocketChannel serverChannel = serverSocketChannel.accept();
+        clientChannel.configureBlocking(false);
+        serverChannel.configureBlocking(false);
+
+        if ("tls".equals(transport))
+        {
+            final SSLContext sslContext = newSslContext();
+            final TlsBufferPool bufferPool = new TlsBufferPool(sslContext);
+            final SSLEngine clientEngine = sslContext.createSSLEngine("localhost", 0);
+            clientEngine.setUseClientMode(true);
+            final SSLEngine serverEngine = sslContext.createSSLEngine();
+            serverEngine.setUseClientMode(false);
+
+            client = new TlsTcpChannel(clientChannel, clientEngine, bufferPool);
+            server = new TlsTcpChannel(serverChannel, serverEngine, bufferPool);
+        }
+        else
+        {
+            client = new TcpChannel(clientChannel);
+            server = new TcpChannel(serverChannel);
+        }
+
+        // Completes the handshake
+        roundTrip();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        CloseHelper.closeAll(client, server, serverSocketChannel);
+    }
+
+    @Benchmark
+    public int roundTrip() throws IOException
+    {
+        transfer(client, server, serverReadBuffer);
+        return transfer(server, client, clientReadBuffer);
+    }
+
+    private int transfer(final TcpChannel sender, final TcpChannel receiver, final ByteBuffer readBuffer)
+        throws IOException
+    {
+        final ByteBuffer message = this.message;
+        final int length = message.remaining();
+        int received = 0;
+        while (received < length)
+        {
+            if (message.hasRemaining())
+            {
+                sender.write(message);
+            }
+            else
+            {
+                sender.flush();
+            }
+
+            received += receiver.read(readBuffer);
+            readBuffer.clear();
+
+            if (received < length)
+            {
+                // drives the sender's side of the handshake
+                sender.read(readBuffer);
+            }
+        }
+        message.rewind();
+        return received;
+    }
+
+    private static SSLContext newSslContext() throws Exception
+    {
+        final KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = TcpChannelBenchmark.class.getResourceAsStream(KEYSTORE))
+        {
+            keyStore.load(in, PASSWORD);
+        }
+
+        final KeyManagerFactory keyManagerFactory =
+            KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keyStore, PASSWORD);
+        final TrustManagerFactory trustManagerFactory =
+            TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(keyStore);
+
+        final SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagerFactory.getKeyManagers(), trustManagerFactory.getTrustManagers(), null);
+        return sslContext;
+    }
+}
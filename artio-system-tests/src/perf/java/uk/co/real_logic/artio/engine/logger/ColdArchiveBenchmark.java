@@ -0,0 +1,162 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static io.aeron.protocol.DataHeaderFlyweight.UNFRAGMENTED;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Measures the throughput of moving execution reports into the cold archive and of scanning them back out, in
+ * messages per second.
+ *
+ * The compression ratio of each block length is printed at the end of each trial, since JMH doesn't measure it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@OperationsPerInvocation(ColdArchiveBenchmark.MESSAGES)
+public class ColdArchiveBenchmark
+{
+    static final int MESSAGES = 100_000;
+
+    private static final long SCANNED_RECORDING_ID = 0;
+    private static final long START_POSITION = 0;
+
+    @Param({"65536", "262144", "1048576"})
+    int blockLength;
+
+    private UnsafeBuffer[] messages;
+    private File coldArchiveDir;
+    private ColdArchiveReader reader;
+    private long scannedStopPosition;
+    private long archivedRecordingId = SCANNED_RECORDING_ID;
+    private long uncompressedBytes;
+    private long compressedBytes;
+    private long scannedLength;
+
+    private final ControlledFragmentHandler scanHandler = (buffer, offset, length, header) ->
+    {
+        scannedLength += length;
+        return CONTINUE;
+    };
+
+    @Setup
+    public void setup() throws IOException
+    {
+        coldArchiveDir = Files.createTempDirectory("cold-archive-benchmark").toFile();
+
+        messages = new UnsafeBuffer[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++)
+        {
+            messages[i] = new UnsafeBuffer(executionReport(i).getBytes(US_ASCII));
+        }
+
+        scannedStopPosition = archive(SCANNED_RECORDING_ID);
+        reader = new ColdArchiveReader(coldArchiveDir.getAbsolutePath());
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        System.out.printf("%nblockLength=%d, uncompressed=%dB, compressed=%dB, ratio=%.2f%n",
+            blockLength,
+            uncompressedBytes,
+            compressedBytes,
+            (double)uncompressedBytes / compressedBytes);
+
+        reader.close();
+        IoUtil.delete(coldArchiveDir, true);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteArchivedRecordings()
+    {
+        for (long recordingId = SCANNED_RECORDING_ID + 1; recordingId <= archivedRecordingId; recordingId++)
+        {
+            IoUtil.delete(ColdArchiveDescriptor.blocksFile(coldArchiveDir.getAbsolutePath(), recordingId), true);
+            IoUtil.delete(ColdArchiveDescriptor.indexFile(coldArchiveDir.getAbsolutePath(), recordingId), true);
+        }
+    }
+
+    @Benchmark
+    public long archive() throws IOException
+    {
+        return archive(++archivedRecordingId);
+    }
+
+    @Benchmark
+    public long scan()
+    {
+        scannedLength = 0;
+        long position = START_POSITION;
+        while (position < scannedStopPosition)
+        {
+            position = reader.read(SCANNED_RECORDING_ID, position, scannedStopPosition, scanHandler, MESSAGES);
+        }
+        return scannedLength;
+    }
+
+    private long archive(final long recordingId) throws IOException
+    {
+        try (ColdArchiveWriter writer = new ColdArchiveWriter(
+            coldArchiveDir.getAbsolutePath(), recordingId, blockLength, Deflater.DEFAULT_COMPRESSION))
+        {
+            long position = START_POSITION;
+            for (final UnsafeBuffer message : messages)
+            {
+                final int length = message.capacity();
+                writer.append(position, (byte)UNFRAGMENTED, message, 0, length);
+                position = ColdArchiveDescriptor.nextPosition(position, length);
+            }
+            writer.flush();
+
+            uncompressedBytes = writer.uncompressedBytes();
+            compressedBytes = writer.compressedBytes();
+            return writer.stopPosition();
+        }
+    }
+
+    // Varies the fields that differ between consecutive messages on a real session.
+    private static String executionReport(final int sequenceNumber)
+    {
+        final int millis = sequenceNumber * 7;
+        final String sendingTime = String.format("20220517-%02d:%02d:%02d.%03d",
+            9 + millis / 3_600_000, (millis / 60_000) % 60, (millis / 1000) % 60, millis % 1000);
+        final String body = "35=8\00149=CCG\00156=ABC_DEFG01\00134=" + sequenceNumber + "\001" +
+            "52=" + sendingTime + "\00137=ORD" + (sequenceNumber * 31) + "\00111=NF " + sequenceNumber + "/05172022" +
+            "\00117=EXEC" + sequenceNumber + "\001150=F\00139=" + (sequenceNumber % 3 == 0 ? "2" : "1") +
+            "\00155=CVS\00154=1\00138=100\00132=" + (1 + sequenceNumber % 100) + "\00131=" +
+            (100 + sequenceNumber % 50) + "." + (sequenceNumber % 100) + "\00114=" + (1 + sequenceNumber % 100) +
+            "\001151=" + (99 - sequenceNumber % 100) + "\0016=" + (100 + sequenceNumber % 50) + ".5\001" +
+            "60=" + sendingTime + "\001";
+        return "8=FIX.4.4\0019=" + body.length() + "\001" + body + "10=000\001";
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.Aeron;
+import io.aeron.Publication;
+import io.aeron.archive.Archive;
+import io.aeron.archive.ArchivingMediaDriver;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.archive.codecs.SourceLocation;
+import io.aeron.archive.status.RecordingPos;
+import io.aeron.driver.MediaDriver;
+import io.aeron.logbuffer.Header;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.CountersReader;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.engine.CompletionPosition;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.CommonContext.IPC_CHANNEL;
+import static org.agrona.concurrent.status.CountersReader.NULL_COUNTER_ID;
+
+/**
+ * Measures how long the indexer takes to catch up a set of indices that have indexed nothing against a number of
+ * recordings, as happens when an engine starts after its index files were lost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class IndexCatchupBenchmark
+{
+    private static final int RECORDED_STREAM_ID = 1000;
+    private static final int REPLAY_STREAM_ID = 2000;
+    private static final int MESSAGES_PER_RECORDING = 100_000;
+    private static final int MESSAGE_LENGTH = 128;
+    private static final int INDEX_COUNT = 3;
+
+    @Param({"1", "4", "16"})
+    int recordings;
+
+    private File baseDir;
+    private ArchivingMediaDriver mediaDriver;
+    private AeronArchive aeronArchive;
+    private final List<CountingIndex> indices = new ArrayList<>();
+    private final List<Long> recordingIds = new ArrayList<>();
+    private Indexer indexer;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        baseDir = Files.createTempDirectory("index-catchup-benchmark").toFile();
+
+        final MediaDriver.Context context = new MediaDriver.Context()
+            .aeronDirectoryName(new File(baseDir, "aeron").getAbsolutePath())
+            .dirDeleteOnStart(true);
+
+        final Archive.Context archiveCtx = new Archive.Context()
+            .aeronDirectoryName(context.aeronDirectoryName())
+            .archiveDir(new File(baseDir, "archive"))
+            .deleteArchiveOnStart(true);
+        archiveCtx.segmentFileLength(context.ipcTermBufferLength());
+
+        mediaDriver = ArchivingMediaDriver.launch(context, archiveCtx);
+        aeronArchive = AeronArchive.connect(new AeronArchive.Context()
+            .aeronDirectoryName(context.aeronDirectoryName()));
+
+        for (int i = 0; i < recordings; i++)
+        {
+            recordingIds.add(record(RECORDED_STREAM_ID + i));
+        }
+
+        for (int i = 0; i < INDEX_COUNT; i++)
+        {
+            indices.add(new CountingIndex());
+        }
+
+        indexer = new Indexer(
+            new ArrayList<>(indices), null, "benchmark", new CompletionPosition(), REPLAY_STREAM_ID);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        CloseHelper.closeAll(aeronArchive, mediaDriver);
+        IoUtil.delete(baseDir, true);
+    }
+
+    @Benchmark
+    public long catchIndexUp()
+    {
+        indexer.catchIndexUp(aeronArchive, Throwable::printStackTrace);
+
+        long bytes = 0;
+        for (final CountingIndex index : indices)
+        {
+            bytes += index.bytes;
+            index.bytes = 0;
+        }
+        return bytes;
+    }
+
+    private long record(final int streamId)
+    {
+        final Aeron aeron = aeronArchive.context().aeron();
+        aeronArchive.startRecording(IPC_CHANNEL, streamId, SourceLocation.LOCAL);
+        try (Publication publication = aeron.addExclusivePublication(IPC_CHANNEL, streamId))
+        {
+            final CountersReader counters = aeron.countersReader();
+            int counterId;
+            while (NULL_COUNTER_ID == (counterId = RecordingPos.findCounterIdBySession(
+                counters, publication.sessionId())))
+            {
+                Thread.yield();
+            }
+            final long recordingId = RecordingPos.getRecordingId(counters, counterId);
+
+            final UnsafeBuffer buffer = new UnsafeBuffer(new byte[MESSAGE_LENGTH]);
+            for (int i = 0; i < MESSAGES_PER_RECORDING; i++)
+            {
+                buffer.putInt(0, i);
+                while (publication.offer(buffer) < 0)
+                {
+                    Thread.yield();
+                }
+            }
+
+            while (counters.getCounterValue(counterId) < publication.position())
+            {
+                Thread.yield();
+            }
+
+            aeronArchive.stopRecording(IPC_CHANNEL, streamId);
+            return recordingId;
+        }
+    }
+
+    private final class CountingIndex implements Index
+    {
+        long bytes;
+
+        public void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+        {
+        }
+
+        public void onCatchup(
+            final DirectBuffer buffer, final int offset, final int length, final Header header, final long recordingId)
+        {
+            bytes += length;
+        }
+
+        public void readLastPosition(final IndexedPositionConsumer consumer)
+        {
+            for (final Long recordingId : recordingIds)
+            {
+                consumer.accept(0, recordingId, 0);
+            }
+        }
+
+        public void close()
+        {
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.IoUtil;
+import org.agrona.collections.LongHashSet;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the startup cost of the file per session and consolidated replay index layouts: opening the index and
+ * reading the first record of every session, as {@link ReplayQuery#queryStartPositions} does when the engine starts.
+ *
+ * The resident set size and number of memory mappings whilst every session is mapped are printed at the end of each
+ * trial, since JMH doesn't measure them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReplayIndexStoreBenchmark
+{
+    private static final int STREAM_ID = 1;
+    private static final int INDEX_FILE_CAPACITY = 4096;
+    private static final int INDEX_SEGMENT_CAPACITY = 1024;
+    private static final int STORE_FILE_SIZE = 256 * 1024 * 1024;
+
+    @Param({"file", "consolidated"})
+    String layout;
+
+    @Param({"1000", "10000"})
+    int sessions;
+
+    private File logFileDir;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        logFileDir = Files.createTempDirectory("replay-index-benchmark").toFile();
+
+        final ReplayIndexStore writer = newStore();
+        for (long sessionId = 1; sessionId <= sessions; sessionId++)
+        {
+            final UnsafeBuffer headerBuffer = writer.mapHeader(sessionId);
+            final UnsafeBuffer segmentBuffer = writer.mapSegment(sessionId, 0);
+            segmentBuffer.putLong(0, sessionId);
+
+            final UnsafeBuffer[] segmentBuffers = {segmentBuffer};
+            writer.unmap(headerBuffer, segmentBuffers);
+        }
+        writer.close();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        final long rssBefore = residentSetSizeInKb();
+        final int mappingsBefore = mappingCount();
+
+        final ReplayIndexStore reader = newStore();
+        final LongHashSet sessionIds = reader.sessionIds();
+        final UnsafeBuffer[] headerBuffers = new UnsafeBuffer[sessionIds.size()];
+        final UnsafeBuffer[][] segmentBuffers = new UnsafeBuffer[sessionIds.size()][];
+        readFirstRecords(reader, sessionIds, headerBuffers, segmentBuffers);
+
+        System.out.printf("%nlayout=%s, sessions=%d, files=%d, mappings=+%d, rss=+%dKB%n",
+            layout,
+            sessions,
+            logFileDir.list().length,
+            mappingCount() - mappingsBefore,
+            residentSetSizeInKb() - rssBefore);
+
+        for (int i = 0; i < headerBuffers.length; i++)
+        {
+            reader.unmap(headerBuffers[i], segmentBuffers[i]);
+        }
+        reader.close();
+
+        IoUtil.delete(logFileDir, true);
+    }
+
+    @Benchmark
+    public long openAndReadFirstRecords()
+    {
+        final ReplayIndexStore reader = newStore();
+        final LongHashSet sessionIds = reader.sessionIds();
+        final UnsafeBuffer[] headerBuffers = new UnsafeBuffer[sessionIds.size()];
+        final UnsafeBuffer[][] segmentBuffers = new UnsafeBuffer[sessionIds.size()][];
+
+        final long sum = readFirstRecords(reader, sessionIds, headerBuffers, segmentBuffers);
+
+        for (int i = 0; i < headerBuffers.length; i++)
+        {
+            reader.unmap(headerBuffers[i], segmentBuffers[i]);
+        }
+        reader.close();
+
+        return sum;
+    }
+
+    private static long readFirstRecords(
+        final ReplayIndexStore reader,
+        final LongHashSet sessionIds,
+        final UnsafeBuffer[] headerBuffers,
+        final UnsafeBuffer[][] segmentBuffers)
+    {
+        long sum = 0;
+        int i = 0;
+        final LongHashSet.LongIterator it = sessionIds.iterator();
+        while (it.hasNext())
+        {
+            final long sessionId = it.nextValue();
+            final UnsafeBuffer headerBuffer = reader.mapExistingHeader(sessionId);
+            final UnsafeBuffer segmentBuffer = reader.mapExistingSegment(sessionId, 0);
+
+            sum += ReplayIndexDescriptor.beginChangeVolatile(headerBuffer) + segmentBuffer.getLong(0);
+
+            headerBuffers[i] = headerBuffer;
+            segmentBuffers[i] = new UnsafeBuffer[] {segmentBuffer};
+            i++;
+        }
+        return sum;
+    }
+
+    private ReplayIndexStore newStore()
+    {
+        final String logFileDir = this.logFileDir.getAbsolutePath();
+        if ("consolidated".equals(layout))
+        {
+            return new ConsolidatedReplayIndexStore(
+                logFileDir, STREAM_ID, INDEX_FILE_CAPACITY, INDEX_SEGMENT_CAPACITY, STORE_FILE_SIZE);
+        }
+
+        return new FileReplayIndexStore(
+            logFileDir,
+            STREAM_ID,
+            INDEX_FILE_CAPACITY,
+            INDEX_SEGMENT_CAPACITY,
+            LoggerUtil::map,
+            LoggerUtil::mapExistingFile,
+            Throwable::printStackTrace);
+    }
+
+    private static long residentSetSizeInKb() throws IOException
+    {
+        final List<String> lines = Files.readAllLines(Paths.get("/proc/self/status"));
+        for (final String line : lines)
+        {
+            if (line.startsWith("VmRSS:"))
+            {
+                return Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        }
+        return 0;
+    }
+
+    private static int mappingCount() throws IOException
+    {
+        return Files.readAllLines(Paths.get("/proc/self/maps")).size();
+    }
+}
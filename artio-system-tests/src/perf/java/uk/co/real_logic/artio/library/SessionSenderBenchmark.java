@@ -0,0 +1,182 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.OrdType;
+import uk.co.real_logic.artio.Side;
+import uk.co.real_logic.artio.builder.Encoder;
+import uk.co.real_logic.artio.builder.NewOrderSingleEncoder;
+import uk.co.real_logic.artio.fields.DecimalFloat;
+import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost to producer threads of sending NewOrderSingle messages through a {@link SessionSender} with 1, 4
+ * and 16 concurrent producers. A background thread stands in for the library's poller, draining the queue and
+ * encoding each message with its header fields set, as <code>Session.trySend()</code> would.
+ *
+ * The claim benchmarks set the fields directly on the queue's encoders, the copy benchmarks set them on a producer
+ * owned encoder that's then copied into the queue, which is the cost of handing messages to the poller through an
+ * application's own queue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SessionSenderBenchmark
+{
+    @Param({"1024"})
+    int capacity;
+
+    private SessionSender sender;
+    private Thread poller;
+    private volatile boolean running;
+
+    @State(Scope.Thread)
+    public static class Producer
+    {
+        final NewOrderSingleEncoder newOrderSingle = new NewOrderSingleEncoder();
+        final UtcTimestampEncoder transactTime = new UtcTimestampEncoder();
+        final DecimalFloat price = new DecimalFloat(100);
+        final DecimalFloat orderQty = new DecimalFloat(2);
+        final byte[] clOrdId = "ORD-0000000001".getBytes();
+        long claimFailures;
+    }
+
+    @Setup
+    public void setup()
+    {
+        final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[8 * 1024]);
+        final UtcTimestampEncoder sendingTime = new UtcTimestampEncoder();
+        final int[] msgSeqNum = {0};
+
+        sender = new SessionSender(null, capacity, (encoder) ->
+        {
+            encoder.header()
+                .senderCompID("initiator")
+                .targetCompID("acceptor")
+                .msgSeqNum(++msgSeqNum[0])
+                .sendingTime(sendingTime.buffer(), sendingTime.encode(System.currentTimeMillis()));
+
+            return Encoder.length(encoder.encode(buffer, 0));
+        });
+
+        running = true;
+        poller = new Thread(() ->
+        {
+            while (running)
+            {
+                sender.drain(Throwable::printStackTrace);
+            }
+        }, "session-sender-benchmark-poller");
+        poller.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException
+    {
+        running = false;
+        poller.join();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long claim1(final Producer producer)
+    {
+        return claim(producer);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long claim4(final Producer producer)
+    {
+        return claim(producer);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long claim16(final Producer producer)
+    {
+        return claim(producer);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long copy1(final Producer producer)
+    {
+        return copy(producer);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long copy4(final Producer producer)
+    {
+        return copy(producer);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long copy16(final Producer producer)
+    {
+        return copy(producer);
+    }
+
+    private long claim(final Producer producer)
+    {
+        final SessionSender sender = this.sender;
+        long claim;
+        while ((claim = sender.tryClaim()) == SessionSender.NO_CLAIM)
+        {
+            producer.claimFailures++;
+        }
+
+        populate(sender.encoder(claim, NewOrderSingleEncoder.class), producer);
+        sender.commit(claim);
+
+        return claim;
+    }
+
+    private long copy(final Producer producer)
+    {
+        final SessionSender sender = this.sender;
+        final NewOrderSingleEncoder newOrderSingle = producer.newOrderSingle;
+        populate(newOrderSingle, producer);
+        while (!sender.trySend(newOrderSingle))
+        {
+            producer.claimFailures++;
+        }
+
+        return producer.claimFailures;
+    }
+
+    private static void populate(final NewOrderSingleEncoder newOrderSingle, final Producer producer)
+    {
+        final UtcTimestampEncoder transactTime = producer.transactTime;
+        newOrderSingle
+            .clOrdID(producer.clOrdId, producer.clOrdId.length)
+            .side(Side.BUY)
+            .ordType(OrdType.MARKET)
+            .price(producer.price)
+            .transactTime(transactTime.buffer(), transactTime.encode(System.currentTimeMillis()));
+        newOrderSingle.instrument().symbol("MSFT");
+        newOrderSingle.orderQtyData().orderQty(producer.orderQty);
+    }
+}
@@ -0,0 +1,477 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.load_generator;
+
+import io.aeron.archive.Archive;
+import io.aeron.archive.ArchiveThreadingMode;
+import io.aeron.archive.ArchivingMediaDriver;
+import io.aeron.driver.MediaDriver;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.OffsetEpochNanoClock;
+import org.agrona.concurrent.SystemEpochClock;
+import uk.co.real_logic.artio.Reply;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.engine.FixEngine;
+import uk.co.real_logic.artio.library.FixLibrary;
+import uk.co.real_logic.artio.library.LibraryConfiguration;
+import uk.co.real_logic.artio.library.SessionConfiguration;
+import uk.co.real_logic.artio.load_generator.LoadRecorder.MessageKind;
+import uk.co.real_logic.artio.session.Session;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static io.aeron.archive.client.AeronArchive.Configuration.CONTROL_CHANNEL_PROP_NAME;
+import static io.aeron.archive.client.AeronArchive.Configuration.CONTROL_RESPONSE_CHANNEL_PROP_NAME;
+import static io.aeron.driver.ThreadingMode.SHARED;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.*;
+
+/**
+ * Drives many simulated initiator sessions through a {@link FixLibrary} against an acceptor, such as the
+ * {@link uk.co.real_logic.artio.system_benchmarks.FixBenchmarkServer}, following a {@link LoadScenario}.
+ *
+ * Usage: <code>LoadGenerator [scenario.properties]</code>. The sessions are initiated in batches, after which messages
+ * are sent open-loop at the scenario's rate, with periodic bursts, resend storms and reconnects if configured.
+ * Latencies are recorded after the warmup period by the {@link LoadRecorder}.
+ */
+public final class LoadGenerator
+{
+    private static final String AERON_DIRECTORY_NAME = "/dev/shm/load-generator";
+    private static final String AERON_ARCHIVE_DIRECTORY_NAME = "load-generator-archive";
+    private static final String RECORDING_EVENTS_CHANNEL = "aeron:udp?endpoint=localhost:9031";
+    private static final int FRAGMENT_LIMIT = 10;
+    private static final long HOUSEKEEPING_INTERVAL_IN_NS = MILLISECONDS.toNanos(1);
+    private static final long DRAIN_PERIOD_IN_NS = SECONDS.toNanos(1);
+
+    private final LoadScenario scenario;
+    private final LoadRecorder recorder;
+    private final EpochNanoClock nanoClock;
+    private final EpochClock epochClock = SystemEpochClock.INSTANCE;
+    private final SimulatedSession[] sessions;
+    private final Map<String, SimulatedSession> compIdToSession = new HashMap<>();
+    private final SplittableRandom random;
+    private final int totalWeight;
+    private final long sendIntervalInNs;
+
+    private FixLibrary library;
+    private int pendingInitiates;
+    private int nextSessionIndex;
+    private int nextResendStormIndex;
+    private int nextReconnectIndex;
+
+    private long startTimeInNs;
+    private long messagesSent;
+    private long nextBurstTimeInNs;
+    private long burstIntendedSendTimeInNs;
+    private int burstMessagesRemaining;
+    private long nextResendStormTimeInNs;
+    private long nextReconnectTimeInNs;
+    private long nextReportTimeInNs;
+    private long nextHousekeepingTimeInNs;
+
+    public static void main(final String[] args)
+    {
+        final LoadScenario scenario = LoadScenario.load(args.length > 0 ? args[0] : null);
+        System.out.println(scenario);
+
+        System.setProperty(CONTROL_CHANNEL_PROP_NAME, "aeron:udp?endpoint=localhost:9011");
+        System.setProperty(CONTROL_RESPONSE_CHANNEL_PROP_NAME, "aeron:udp?endpoint=localhost:9021");
+
+        final MediaDriver.Context context = new MediaDriver.Context()
+            .threadingMode(SHARED)
+            .dirDeleteOnStart(true)
+            .aeronDirectoryName(AERON_DIRECTORY_NAME);
+
+        final Archive.Context archiveContext = new Archive.Context()
+            .threadingMode(ArchiveThreadingMode.SHARED)
+            .deleteArchiveOnStart(true)
+            .aeronDirectoryName(AERON_DIRECTORY_NAME)
+            .recordingEventsChannel(RECORDING_EVENTS_CHANNEL)
+            .archiveDirectoryName(AERON_ARCHIVE_DIRECTORY_NAME);
+
+        final EpochNanoClock nanoClock = new OffsetEpochNanoClock();
+
+        try (ArchivingMediaDriver driver = ArchivingMediaDriver.launch(context, archiveContext);
+            FixEngine engine = FixEngine.launch(engineConfiguration(nanoClock));
+            LoadRecorder recorder = new LoadRecorder(scenario))
+        {
+            new LoadGenerator(scenario, recorder, nanoClock).run();
+        }
+    }
+
+    LoadGenerator(final LoadScenario scenario, final LoadRecorder recorder, final EpochNanoClock nanoClock)
+    {
+        this.scenario = scenario;
+        this.recorder = recorder;
+        this.nanoClock = nanoClock;
+
+        random = new SplittableRandom(scenario.seed());
+        totalWeight = scenario.newOrderSingleWeight() + scenario.testRequestWeight();
+        sendIntervalInNs = SECONDS.toNanos(1) / scenario.ratePerSecond();
+
+        sessions = new SimulatedSession[scenario.sessions()];
+        for (int i = 0; i < sessions.length; i++)
+        {
+            final SimulatedSession session = new SimulatedSession(INITIATOR_ID + i, recorder, nanoClock);
+            sessions[i] = session;
+            compIdToSession.put(session.senderCompId(), session);
+        }
+    }
+
+    void run()
+    {
+        final IdleStrategy idleStrategy = idleStrategy();
+        try (FixLibrary library = FixLibrary.connect(libraryConfiguration()))
+        {
+            this.library = library;
+            awaitLibraryConnect(idleStrategy);
+            connectSessions(idleStrategy);
+            applyLoad(idleStrategy);
+            drain(idleStrategy);
+
+            recorder.printSummary(System.out, epochClock.time());
+            System.out.printf("%d replayed messages received%n", replayedMessages());
+        }
+    }
+
+    private void awaitLibraryConnect(final IdleStrategy idleStrategy)
+    {
+        while (!library.isConnected())
+        {
+            idleStrategy.idle(library.poll(FRAGMENT_LIMIT));
+        }
+    }
+
+    private void connectSessions(final IdleStrategy idleStrategy)
+    {
+        final long startTimeInMs = epochClock.time();
+        while (activeSessions() < sessions.length)
+        {
+            idleStrategy.idle(library.poll(FRAGMENT_LIMIT) + initiateSessions());
+        }
+
+        System.out.printf("Connected %d sessions in %d ms%n", sessions.length, epochClock.time() - startTimeInMs);
+    }
+
+    private void applyLoad(final IdleStrategy idleStrategy)
+    {
+        final long timeInNs = nanoClock.nanoTime();
+        final long warmupEndTimeInNs = timeInNs + SECONDS.toNanos(scenario.warmupInS());
+        final long endTimeInNs = warmupEndTimeInNs + SECONDS.toNanos(scenario.durationInS());
+
+        startTimeInNs = timeInNs;
+        nextBurstTimeInNs = scheduleFrom(timeInNs, MILLISECONDS.toNanos(scenario.burstIntervalInMs()));
+        nextResendStormTimeInNs = scheduleFrom(timeInNs, SECONDS.toNanos(scenario.resendStormIntervalInS()));
+        nextReconnectTimeInNs = scheduleFrom(timeInNs, SECONDS.toNanos(scenario.reconnectIntervalInS()));
+        nextHousekeepingTimeInNs = timeInNs;
+
+        while (true)
+        {
+            final long nowInNs = nanoClock.nanoTime();
+            if (nowInNs >= endTimeInNs)
+            {
+                return;
+            }
+
+            if (!recorder.isRecording() && nowInNs >= warmupEndTimeInNs)
+            {
+                recorder.startRecording(epochClock.time(), nowInNs);
+                nextReportTimeInNs = nowInNs + MILLISECONDS.toNanos(scenario.reportIntervalInMs());
+            }
+
+            int workCount = library.poll(FRAGMENT_LIMIT);
+            workCount += sendDueMessages(nowInNs);
+
+            if (nowInNs >= nextHousekeepingTimeInNs)
+            {
+                nextHousekeepingTimeInNs = nowInNs + HOUSEKEEPING_INTERVAL_IN_NS;
+                workCount += initiateSessions();
+                workCount += onScenarioEvents(nowInNs);
+            }
+
+            idleStrategy.idle(workCount);
+        }
+    }
+
+    private int sendDueMessages(final long nowInNs)
+    {
+        int sent = 0;
+
+        if (nowInNs >= nextBurstTimeInNs)
+        {
+            burstIntendedSendTimeInNs = nextBurstTimeInNs;
+            burstMessagesRemaining += scenario.burstSize();
+            nextBurstTimeInNs += MILLISECONDS.toNanos(scenario.burstIntervalInMs());
+        }
+
+        while (burstMessagesRemaining > 0)
+        {
+            if (!trySendNext(burstIntendedSendTimeInNs, nowInNs))
+            {
+                return sent;
+            }
+
+            burstMessagesRemaining--;
+            sent++;
+        }
+
+        while (true)
+        {
+            // Computed from the start time rather than accumulated, so rounding doesn't drift the schedule
+            final long intendedSendTimeInNs = startTimeInNs + messagesSent * sendIntervalInNs;
+            if (intendedSendTimeInNs > nowInNs)
+            {
+                return sent;
+            }
+
+            if (!trySendNext(intendedSendTimeInNs, nowInNs))
+            {
+                return sent;
+            }
+
+            messagesSent++;
+            sent++;
+        }
+    }
+
+    private boolean trySendNext(final long intendedSendTimeInNs, final long nowInNs)
+    {
+        final SimulatedSession session = nextActiveSession();
+        if (session == null)
+        {
+            recorder.onSendBehindSchedule();
+            return false;
+        }
+
+        final MessageKind kind = random.nextInt(totalWeight) < scenario.newOrderSingleWeight() ?
+            MessageKind.NEW_ORDER_SINGLE : MessageKind.TEST_REQUEST;
+        if (session.trySend(kind, intendedSendTimeInNs, nanoClock.nanoTime()))
+        {
+            return true;
+        }
+
+        // The message is still owed, it's retried on the next duty cycle with its original intended send time
+        recorder.onSendBehindSchedule();
+        return false;
+    }
+
+    private SimulatedSession nextActiveSession()
+    {
+        final SimulatedSession[] sessions = this.sessions;
+        final int length = sessions.length;
+        for (int i = 0; i < length; i++)
+        {
+            final SimulatedSession session = sessions[nextSessionIndex];
+            nextSessionIndex = (nextSessionIndex + 1) % length;
+            if (session.isActive())
+            {
+                return session;
+            }
+        }
+
+        return null;
+    }
+
+    private int onScenarioEvents(final long nowInNs)
+    {
+        int workCount = 0;
+
+        if (nowInNs >= nextResendStormTimeInNs)
+        {
+            nextResendStormTimeInNs += SECONDS.toNanos(scenario.resendStormIntervalInS());
+            workCount += resendStorm();
+        }
+
+        if (nowInNs >= nextReconnectTimeInNs)
+        {
+            nextReconnectTimeInNs += SECONDS.toNanos(scenario.reconnectIntervalInS());
+            workCount += reconnect();
+        }
+
+        if (recorder.isRecording() && nowInNs >= nextReportTimeInNs)
+        {
+            nextReportTimeInNs += MILLISECONDS.toNanos(scenario.reportIntervalInMs());
+            recorder.endInterval(epochClock.time(), nowInNs);
+            workCount++;
+        }
+
+        return workCount;
+    }
+
+    private int resendStorm()
+    {
+        int requested = 0;
+        final int depth = scenario.resendStormDepth();
+        for (int i = 0; i < scenario.resendStormSessions(); i++)
+        {
+            final SimulatedSession session = sessions[nextResendStormIndex];
+            nextResendStormIndex = (nextResendStormIndex + 1) % sessions.length;
+            if (session.isActive() && session.trySendResendRequest(depth))
+            {
+                requested++;
+            }
+        }
+
+        return requested;
+    }
+
+    private int reconnect()
+    {
+        int disconnected = 0;
+        for (int i = 0; i < scenario.reconnectSessions(); i++)
+        {
+            final SimulatedSession session = sessions[nextReconnectIndex];
+            nextReconnectIndex = (nextReconnectIndex + 1) % sessions.length;
+            // Re-initiated by initiateSessions() once the disconnect has been processed
+            if (session.isActive() && session.logoutAndDisconnect() > 0)
+            {
+                disconnected++;
+            }
+        }
+
+        return disconnected;
+    }
+
+    private int initiateSessions()
+    {
+        int workCount = 0;
+
+        for (final SimulatedSession session : sessions)
+        {
+            final Reply<Session> reply = session.initiateReply();
+            if (reply != null && !reply.isExecuting())
+            {
+                if (reply.hasErrored())
+                {
+                    System.err.printf("Failed to initiate %s: %s%n", session.senderCompId(), reply.error());
+                }
+                else if (reply.hasTimedOut())
+                {
+                    System.err.printf("Timed out initiating %s%n", session.senderCompId());
+                }
+
+                session.onInitiateComplete();
+                pendingInitiates--;
+                workCount++;
+            }
+        }
+
+        final int initiateBatchSize = scenario.initiateBatchSize();
+        for (int i = 0; i < sessions.length && pendingInitiates < initiateBatchSize; i++)
+        {
+            final SimulatedSession session = sessions[i];
+            if (session.needsInitiate())
+            {
+                session.onInitiate(library.initiate(SessionConfiguration.builder()
+                    .address(scenario.host(), scenario.port())
+                    .senderCompId(session.senderCompId())
+                    .targetCompId(ACCEPTOR_ID)
+                    .credentials(session.senderCompId(), VALID_PASSWORD)
+                    .resetSeqNum(true)
+                    .build()));
+                pendingInitiates++;
+                workCount++;
+            }
+        }
+
+        return workCount;
+    }
+
+    private void drain(final IdleStrategy idleStrategy)
+    {
+        final long endTimeInNs = nanoClock.nanoTime() + DRAIN_PERIOD_IN_NS;
+        long nowInNs;
+        while ((nowInNs = nanoClock.nanoTime()) < endTimeInNs)
+        {
+            idleStrategy.idle(library.poll(FRAGMENT_LIMIT));
+        }
+
+        recorder.endInterval(epochClock.time(), nowInNs);
+    }
+
+    private int activeSessions()
+    {
+        int active = 0;
+        for (final SimulatedSession session : sessions)
+        {
+            if (session.isActive())
+            {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    private long replayedMessages()
+    {
+        long replayedMessages = 0;
+        for (final SimulatedSession session : sessions)
+        {
+            replayedMessages += session.replayedMessages();
+        }
+        return replayedMessages;
+    }
+
+    private static long scheduleFrom(final long timeInNs, final long intervalInNs)
+    {
+        return intervalInNs > 0 ? timeInNs + intervalInNs : Long.MAX_VALUE;
+    }
+
+    private static EngineConfiguration engineConfiguration(final EpochNanoClock epochNanoClock)
+    {
+        final EngineConfiguration configuration = new EngineConfiguration();
+        configuration.printAeronStreamIdentifiers(true);
+
+        configuration.aeronContext().aeronDirectoryName(AERON_DIRECTORY_NAME);
+        configuration.aeronArchiveContext()
+            .aeronDirectoryName(AERON_DIRECTORY_NAME)
+            .recordingEventsChannel(RECORDING_EVENTS_CHANNEL);
+
+        return configuration
+            .epochNanoClock(epochNanoClock)
+            .libraryAeronChannel(AERON_CHANNEL)
+            .deleteLogFileDirOnStart(true)
+            .logFileDir("load-generator-logs")
+            .logInboundMessages(LOG_INBOUND_MESSAGES)
+            .logOutboundMessages(LOG_OUTBOUND_MESSAGES)
+            .framerIdleStrategy(idleStrategy());
+    }
+
+    private LibraryConfiguration libraryConfiguration()
+    {
+        final LibraryConfiguration configuration = new LibraryConfiguration();
+        configuration.printAeronStreamIdentifiers(true);
+        configuration.aeronContext().aeronDirectoryName(AERON_DIRECTORY_NAME);
+
+        return configuration
+            .epochNanoClock(nanoClock)
+            .defaultHeartbeatIntervalInS(scenario.heartbeatIntervalInS())
+            .libraryAeronChannels(singletonList(AERON_CHANNEL))
+            .sessionAcquireHandler((session, acquiredInfo) ->
+            {
+                final SimulatedSession simulatedSession = compIdToSession.get(
+                    session.compositeKey().localCompId());
+                simulatedSession.onAcquired(session);
+                return simulatedSession;
+            });
+    }
+}
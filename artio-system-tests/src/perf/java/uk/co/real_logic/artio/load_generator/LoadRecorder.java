@@ -0,0 +1,220 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.load_generator;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.agrona.LangUtil;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+
+/**
+ * Records the round trip latencies of the load generator's messages into HdrHistograms.
+ *
+ * Latency is measured from a message's intended send time, so it includes any time that the message spent waiting to
+ * be sent, avoiding coordinated omission. Service time is measured from when the message was actually sent. Each
+ * reporting interval is written to an HdrHistogram interval log, tagged with the message kind and measurement, and
+ * summarised as a row of a CSV file that <code>bench/latencies.p</code> can plot.
+ *
+ * Only used on the load generator's thread.
+ */
+final class LoadRecorder implements AutoCloseable
+{
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    enum MessageKind
+    {
+        NEW_ORDER_SINGLE("NewOrderSingle"),
+        TEST_REQUEST("TestRequest");
+
+        private final String tag;
+
+        MessageKind(final String tag)
+        {
+            this.tag = tag;
+        }
+    }
+
+    private final Histogram[] intervalLatencies = newHistograms();
+    private final Histogram[] intervalServiceTimes = newHistograms();
+    private final Histogram[] totalLatencies = newHistograms();
+    private final Histogram[] totalServiceTimes = newHistograms();
+    private final Histogram intervalLatency = new Histogram(SIGNIFICANT_DIGITS);
+    private final Histogram intervalServiceTime = new Histogram(SIGNIFICANT_DIGITS);
+
+    private final double reportPercentile;
+    private final HistogramLogWriter logWriter;
+    private final PrintStream csv;
+
+    private boolean recording = false;
+    private long startTimeInMs;
+    private long startTimeInNs;
+    private long intervalStartTimeInMs;
+    private long sendsBehindSchedule;
+    private long unmatchedReplies;
+
+    LoadRecorder(final LoadScenario scenario)
+    {
+        reportPercentile = scenario.reportPercentile();
+
+        HistogramLogWriter logWriter = null;
+        PrintStream csv = null;
+        try
+        {
+            logWriter = new HistogramLogWriter(scenario.histogramLogFile());
+            csv = new PrintStream(scenario.latencyCsvFile());
+        }
+        catch (final FileNotFoundException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+        this.logWriter = logWriter;
+        this.csv = csv;
+    }
+
+    private static Histogram[] newHistograms()
+    {
+        final MessageKind[] kinds = MessageKind.values();
+        final Histogram[] histograms = new Histogram[kinds.length];
+        for (int i = 0; i < kinds.length; i++)
+        {
+            histograms[i] = new Histogram(SIGNIFICANT_DIGITS);
+        }
+        return histograms;
+    }
+
+    void startRecording(final long timeInMs, final long timeInNs)
+    {
+        recording = true;
+        startTimeInMs = timeInMs;
+        startTimeInNs = timeInNs;
+        intervalStartTimeInMs = timeInMs;
+
+        logWriter.outputLogFormatVersion();
+        logWriter.outputStartTime(timeInMs);
+        logWriter.setBaseTime(timeInMs);
+        logWriter.outputLegend();
+
+        csv.println("Time, Latency, Service Time");
+    }
+
+    boolean isRecording()
+    {
+        return recording;
+    }
+
+    void onReply(
+        final MessageKind kind, final long intendedSendTimeInNs, final long sendTimeInNs, final long timeInNs)
+    {
+        if (!recording || intendedSendTimeInNs < startTimeInNs)
+        {
+            return;
+        }
+
+        final long latencyInNs = timeInNs - intendedSendTimeInNs;
+        final long serviceTimeInNs = timeInNs - sendTimeInNs;
+        if (latencyInNs < 0 || serviceTimeInNs < 0)
+        {
+            unmatchedReplies++;
+            return;
+        }
+
+        intervalLatencies[kind.ordinal()].recordValue(latencyInNs);
+        intervalServiceTimes[kind.ordinal()].recordValue(serviceTimeInNs);
+    }
+
+    void onUnmatchedReply()
+    {
+        if (recording)
+        {
+            unmatchedReplies++;
+        }
+    }
+
+    void onSendBehindSchedule()
+    {
+        if (recording)
+        {
+            sendsBehindSchedule++;
+        }
+    }
+
+    void endInterval(final long timeInMs, final long timeInNs)
+    {
+        if (!recording)
+        {
+            return;
+        }
+
+        intervalLatency.reset();
+        intervalServiceTime.reset();
+
+        for (final MessageKind kind : MessageKind.values())
+        {
+            final int index = kind.ordinal();
+            final Histogram latency = intervalLatencies[index];
+            final Histogram serviceTime = intervalServiceTimes[index];
+
+            writeInterval(latency, kind.tag + "-latency", timeInMs);
+            writeInterval(serviceTime, kind.tag + "-service-time", timeInMs);
+
+            intervalLatency.add(latency);
+            intervalServiceTime.add(serviceTime);
+            totalLatencies[index].add(latency);
+            totalServiceTimes[index].add(serviceTime);
+
+            latency.reset();
+            serviceTime.reset();
+        }
+
+        csv.println((timeInNs - startTimeInNs) + ", " +
+            intervalLatency.getValueAtPercentile(reportPercentile) + ", " +
+            intervalServiceTime.getValueAtPercentile(reportPercentile));
+
+        intervalStartTimeInMs = timeInMs;
+    }
+
+    private void writeInterval(final Histogram histogram, final String tag, final long timeInMs)
+    {
+        histogram.setStartTimeStamp(intervalStartTimeInMs);
+        histogram.setEndTimeStamp(timeInMs);
+        histogram.setTag(tag);
+        logWriter.outputIntervalHistogram(histogram);
+    }
+
+    void printSummary(final PrintStream out, final long timeInMs)
+    {
+        out.printf("Recorded for %d ms, %d sends behind schedule, %d unmatched replies%n",
+            timeInMs - startTimeInMs, sendsBehindSchedule, unmatchedReplies);
+
+        for (final MessageKind kind : MessageKind.values())
+        {
+            final int index = kind.ordinal();
+            out.printf("%n%s latency from intended send time (us):%n", kind.tag);
+            totalLatencies[index].outputPercentileDistribution(out, NANOS_PER_MICRO);
+            out.printf("%n%s service time from actual send time (us):%n", kind.tag);
+            totalServiceTimes[index].outputPercentileDistribution(out, NANOS_PER_MICRO);
+        }
+    }
+
+    public void close()
+    {
+        logWriter.close();
+        csv.close();
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.load_generator;
+
+import org.agrona.LangUtil;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.PORT;
+
+/**
+ * The declarative description of the load that the {@link LoadGenerator} applies. A scenario is read from a
+ * properties file, any property can be overridden by a system property of the same name prefixed with
+ * <code>fix.load.</code>, for example <code>-Dfix.load.sessions=5000</code>.
+ *
+ * Messages are sent open-loop: every message has an intended send time that's derived from the rate and burst
+ * settings, rather than from when the previous message's reply arrived, and latencies are measured from that intended
+ * send time. See <code>bench/load-scenario.properties</code> for an annotated example.
+ */
+final class LoadScenario
+{
+    private static final String SYSTEM_PROPERTY_PREFIX = "fix.load.";
+
+    private final String host;
+    private final int port;
+    private final int sessions;
+    private final int initiateBatchSize;
+    private final int heartbeatIntervalInS;
+    private final long warmupInS;
+    private final long durationInS;
+    private final int ratePerSecond;
+    private final int newOrderSingleWeight;
+    private final int testRequestWeight;
+    private final long burstIntervalInMs;
+    private final int burstSize;
+    private final long resendStormIntervalInS;
+    private final int resendStormSessions;
+    private final int resendStormDepth;
+    private final long reconnectIntervalInS;
+    private final int reconnectSessions;
+    private final long seed;
+    private final long reportIntervalInMs;
+    private final double reportPercentile;
+    private final String histogramLogFile;
+    private final String latencyCsvFile;
+
+    static LoadScenario load(final String path)
+    {
+        final Properties properties = new Properties();
+        if (path != null)
+        {
+            try (InputStream in = new FileInputStream(path))
+            {
+                properties.load(in);
+            }
+            catch (final IOException e)
+            {
+                LangUtil.rethrowUnchecked(e);
+            }
+        }
+
+        return new LoadScenario(properties);
+    }
+
+    private LoadScenario(final Properties properties)
+    {
+        host = get(properties, "host", "localhost");
+        port = getInt(properties, "port", PORT);
+        sessions = getInt(properties, "sessions", 1_000);
+        initiateBatchSize = getInt(properties, "initiateBatchSize", 100);
+        heartbeatIntervalInS = getInt(properties, "heartbeatIntervalInS", 10);
+        warmupInS = getLong(properties, "warmupInS", 10);
+        durationInS = getLong(properties, "durationInS", 60);
+        ratePerSecond = getInt(properties, "ratePerSecond", 10_000);
+        newOrderSingleWeight = getInt(properties, "mix.newOrderSingle", 9);
+        testRequestWeight = getInt(properties, "mix.testRequest", 1);
+        burstIntervalInMs = getLong(properties, "burst.intervalInMs", 0);
+        burstSize = getInt(properties, "burst.size", 0);
+        resendStormIntervalInS = getLong(properties, "resendStorm.intervalInS", 0);
+        resendStormSessions = getInt(properties, "resendStorm.sessions", 0);
+        resendStormDepth = getInt(properties, "resendStorm.depth", 100);
+        reconnectIntervalInS = getLong(properties, "reconnect.intervalInS", 0);
+        reconnectSessions = getInt(properties, "reconnect.sessions", 0);
+        seed = getLong(properties, "seed", 42);
+        reportIntervalInMs = getLong(properties, "report.intervalInMs", 1_000);
+        reportPercentile = Double.parseDouble(get(properties, "report.percentile", "99.0"));
+        histogramLogFile = get(properties, "report.histogramLogFile", "load-histograms.hlog");
+        latencyCsvFile = get(properties, "report.latencyCsvFile", "latencies.csv");
+
+        validate();
+    }
+
+    private void validate()
+    {
+        if (sessions <= 0 || initiateBatchSize <= 0)
+        {
+            throw new IllegalArgumentException("sessions and initiateBatchSize must be positive");
+        }
+
+        if (ratePerSecond <= 0)
+        {
+            throw new IllegalArgumentException("ratePerSecond must be positive, but was: " + ratePerSecond);
+        }
+
+        if (newOrderSingleWeight < 0 || testRequestWeight < 0 || newOrderSingleWeight + testRequestWeight == 0)
+        {
+            throw new IllegalArgumentException("The message mix weights must be non-negative and not all zero");
+        }
+
+        if (resendStormSessions > sessions || reconnectSessions > sessions)
+        {
+            throw new IllegalArgumentException(
+                "resendStorm.sessions and reconnect.sessions can't be greater than sessions");
+        }
+    }
+
+    private static String get(final Properties properties, final String name, final String defaultValue)
+    {
+        return System.getProperty(SYSTEM_PROPERTY_PREFIX + name, properties.getProperty(name, defaultValue));
+    }
+
+    private static int getInt(final Properties properties, final String name, final int defaultValue)
+    {
+        return Integer.parseInt(get(properties, name, String.valueOf(defaultValue)).trim());
+    }
+
+    private static long getLong(final Properties properties, final String name, final long defaultValue)
+    {
+        return Long.parseLong(get(properties, name, String.valueOf(defaultValue)).trim());
+    }
+
+    String host()
+    {
+        return host;
+    }
+
+    int port()
+    {
+        return port;
+    }
+
+    int sessions()
+    {
+        return sessions;
+    }
+
+    int initiateBatchSize()
+    {
+        return initiateBatchSize;
+    }
+
+    int heartbeatIntervalInS()
+    {
+        return heartbeatIntervalInS;
+    }
+
+    long warmupInS()
+    {
+        return warmupInS;
+    }
+
+    long durationInS()
+    {
+        return durationInS;
+    }
+
+    int ratePerSecond()
+    {
+        return ratePerSecond;
+    }
+
+    int newOrderSingleWeight()
+    {
+        return newOrderSingleWeight;
+    }
+
+    int testRequestWeight()
+    {
+        return testRequestWeight;
+    }
+
+    long burstIntervalInMs()
+    {
+        return burstIntervalInMs;
+    }
+
+    int burstSize()
+    {
+        return burstSize;
+    }
+
+    long resendStormIntervalInS()
+    {
+        return resendStormIntervalInS;
+    }
+
+    int resendStormSessions()
+    {
+        return resendStormSessions;
+    }
+
+    int resendStormDepth()
+    {
+        return resendStormDepth;
+    }
+
+    long reconnectIntervalInS()
+    {
+        return reconnectIntervalInS;
+    }
+
+    int reconnectSessions()
+    {
+        return reconnectSessions;
+    }
+
+    long seed()
+    {
+        return seed;
+    }
+
+    long reportIntervalInMs()
+    {
+        return reportIntervalInMs;
+    }
+
+    double reportPercentile()
+    {
+        return reportPercentile;
+    }
+
+    String histogramLogFile()
+    {
+        return histogramLogFile;
+    }
+
+    String latencyCsvFile()
+    {
+        return latencyCsvFile;
+    }
+
+    public String toString()
+    {
+        return "LoadScenario{" +
+            "host='" + host + '\'' +
+            ", port=" + port +
+            ", sessions=" + sessions +
+            ", initiateBatchSize=" + initiateBatchSize +
+            ", heartbeatIntervalInS=" + heartbeatIntervalInS +
+            ", warmupInS=" + warmupInS +
+            ", durationInS=" + durationInS +
+            ", ratePerSecond=" + ratePerSecond +
+            ", newOrderSingleWeight=" + newOrderSingleWeight +
+            ", testRequestWeight=" + testRequestWeight +
+            ", burstIntervalInMs=" + burstIntervalInMs +
+            ", burstSize=" + burstSize +
+            ", resendStormIntervalInS=" + resendStormIntervalInS +
+            ", resendStormSessions=" + resendStormSessions +
+            ", resendStormDepth=" + resendStormDepth +
+            ", reconnectIntervalInS=" + reconnectIntervalInS +
+            ", reconnectSessions=" + reconnectSessions +
+            ", seed=" + seed +
+            '}';
+    }
+}
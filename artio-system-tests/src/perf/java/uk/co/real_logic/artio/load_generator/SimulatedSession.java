@@ -0,0 +1,293 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.load_generator;
+
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import org.agrona.AsciiSequenceView;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.OrdType;
+import uk.co.real_logic.artio.Pressure;
+import uk.co.real_logic.artio.Reply;
+import uk.co.real_logic.artio.Side;
+import uk.co.real_logic.artio.builder.NewOrderSingleEncoder;
+import uk.co.real_logic.artio.builder.ResendRequestEncoder;
+import uk.co.real_logic.artio.builder.TestRequestEncoder;
+import uk.co.real_logic.artio.decoder.ExecutionReportDecoder;
+import uk.co.real_logic.artio.decoder.HeartbeatDecoder;
+import uk.co.real_logic.artio.decoder.SessionHeaderDecoder;
+import uk.co.real_logic.artio.fields.DecimalFloat;
+import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.library.OnMessageInfo;
+import uk.co.real_logic.artio.library.SessionHandler;
+import uk.co.real_logic.artio.load_generator.LoadRecorder.MessageKind;
+import uk.co.real_logic.artio.messages.DisconnectReason;
+import uk.co.real_logic.artio.session.Session;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+
+/**
+ * One of the load generator's initiator sessions.
+ *
+ * The intended send time of each message and how late it was actually sent are encoded into its ClOrdID or TestReqID,
+ * as <code>intendedSendTimeInNs-lagInNs</code>, and echoed back in the OrderID of the execution report or the
+ * TestReqID of the heartbeat, so that no per message state needs to be kept in order to measure round trips.
+ */
+final class SimulatedSession implements SessionHandler
+{
+    private static final int SIZE_OF_ASCII_LONG = String.valueOf(Long.MAX_VALUE).length();
+    private static final byte SEPARATOR = '-';
+
+    private final byte[] idBytes = new byte[SIZE_OF_ASCII_LONG * 2 + 1];
+    private final UnsafeBuffer idBuffer = new UnsafeBuffer(idBytes);
+    private final MutableAsciiBuffer asciiBuffer = new MutableAsciiBuffer();
+    private final AsciiSequenceView idView = new AsciiSequenceView();
+
+    private final NewOrderSingleEncoder newOrderSingle = new NewOrderSingleEncoder();
+    private final TestRequestEncoder testRequest = new TestRequestEncoder();
+    private final ResendRequestEncoder resendRequest = new ResendRequestEncoder();
+    private final ExecutionReportDecoder executionReport = new ExecutionReportDecoder();
+    private final HeartbeatDecoder heartbeat = new HeartbeatDecoder();
+    private final UtcTimestampEncoder transactTime = new UtcTimestampEncoder();
+    private final DecimalFloat price = new DecimalFloat(100);
+    private final DecimalFloat orderQty = new DecimalFloat(2);
+
+    private final String senderCompId;
+    private final LoadRecorder recorder;
+    private final EpochNanoClock clock;
+
+    private Session session;
+    private Reply<Session> initiateReply;
+    private boolean connected = false;
+    private long replayedMessages;
+
+    SimulatedSession(final String senderCompId, final LoadRecorder recorder, final EpochNanoClock clock)
+    {
+        this.senderCompId = senderCompId;
+        this.recorder = recorder;
+        this.clock = clock;
+
+        newOrderSingle
+            .side(Side.BUY)
+            .ordType(OrdType.MARKET)
+            .price(price);
+        newOrderSingle.instrument().symbol("MSFT");
+        newOrderSingle.orderQtyData().orderQty(orderQty);
+    }
+
+    String senderCompId()
+    {
+        return senderCompId;
+    }
+
+    void onInitiate(final Reply<Session> initiateReply)
+    {
+        this.initiateReply = initiateReply;
+    }
+
+    Reply<Session> initiateReply()
+    {
+        return initiateReply;
+    }
+
+    void onInitiateComplete()
+    {
+        initiateReply = null;
+    }
+
+    void onAcquired(final Session session)
+    {
+        this.session = session;
+        connected = true;
+    }
+
+    boolean isActive()
+    {
+        return connected && session.isActive();
+    }
+
+    /**
+     * Find out whether this session needs to be initiated, either because it hasn't connected yet or because it has
+     * since been disconnected.
+     *
+     * @return true if this session needs to be initiated.
+     */
+    boolean needsInitiate()
+    {
+        return !connected && initiateReply == null;
+    }
+
+    long replayedMessages()
+    {
+        return replayedMessages;
+    }
+
+    boolean trySend(final MessageKind kind, final long intendedSendTimeInNs, final long timeInNs)
+    {
+        final int idLength = encodeId(intendedSendTimeInNs, timeInNs - intendedSendTimeInNs);
+
+        final long position;
+        switch (kind)
+        {
+            case NEW_ORDER_SINGLE:
+                final int transactTimeLength = transactTime.encode(System.currentTimeMillis());
+                newOrderSingle
+                    .clOrdID(idBytes, idLength)
+                    .transactTime(transactTime.buffer(), transactTimeLength);
+                position = session.trySend(newOrderSingle);
+                break;
+
+            case TEST_REQUEST:
+                testRequest.testReqID(idBytes, idLength);
+                position = session.trySend(testRequest);
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unknown message kind: " + kind);
+        }
+
+        return !Pressure.isBackPressured(position);
+    }
+
+    /**
+     * Ask the counter-party to resend the last <code>depth</code> messages that it sent.
+     *
+     * @param depth the number of messages to request.
+     * @return true if the request was sent, false if back-pressured.
+     */
+    boolean trySendResendRequest(final int depth)
+    {
+        final int lastReceivedMsgSeqNum = session.lastReceivedMsgSeqNum();
+        resendRequest
+            .beginSeqNo(Math.max(1, lastReceivedMsgSeqNum - depth + 1))
+            .endSeqNo(lastReceivedMsgSeqNum);
+
+        return !Pressure.isBackPressured(session.trySend(resendRequest));
+    }
+
+    long logoutAndDisconnect()
+    {
+        return session.logoutAndDisconnect();
+    }
+
+    private int encodeId(final long intendedSendTimeInNs, final long lagInNs)
+    {
+        final UnsafeBuffer idBuffer = this.idBuffer;
+        int length = idBuffer.putLongAscii(0, intendedSendTimeInNs);
+        idBuffer.putByte(length, SEPARATOR);
+        length++;
+        length += idBuffer.putLongAscii(length, lagInNs);
+        return length;
+    }
+
+    public Action onMessage(
+        final DirectBuffer buffer,
+        final int offset,
+        final int length,
+        final int libraryId,
+        final Session session,
+        final int sequenceIndex,
+        final long messageType,
+        final long timestamp,
+        final long position,
+        final OnMessageInfo messageInfo)
+    {
+        if (messageType == ExecutionReportDecoder.MESSAGE_TYPE)
+        {
+            final long timeInNs = clock.nanoTime();
+            asciiBuffer.wrap(buffer);
+            executionReport.decode(asciiBuffer, offset, length);
+            if (isReplay(executionReport.header()))
+            {
+                replayedMessages++;
+            }
+            else
+            {
+                executionReport.orderID(idView);
+                onReply(MessageKind.NEW_ORDER_SINGLE, timeInNs);
+            }
+        }
+        else if (messageType == HeartbeatDecoder.MESSAGE_TYPE)
+        {
+            final long timeInNs = clock.nanoTime();
+            asciiBuffer.wrap(buffer);
+            heartbeat.decode(asciiBuffer, offset, length);
+            if (heartbeat.hasTestReqID() && !isReplay(heartbeat.header()))
+            {
+                heartbeat.testReqID(idView);
+                onReply(MessageKind.TEST_REQUEST, timeInNs);
+            }
+        }
+
+        return CONTINUE;
+    }
+
+    private static boolean isReplay(final SessionHeaderDecoder header)
+    {
+        return header.hasPossDupFlag() && header.possDupFlag();
+    }
+
+    private void onReply(final MessageKind kind, final long timeInNs)
+    {
+        final DirectBuffer buffer = idView.buffer();
+        final int offset = idView.offset();
+        final int length = idView.length();
+
+        int separatorIndex = -1;
+        for (int i = 0; i < length; i++)
+        {
+            if (buffer.getByte(offset + i) == SEPARATOR)
+            {
+                separatorIndex = i;
+                break;
+            }
+        }
+
+        if (separatorIndex <= 0 || separatorIndex == length - 1)
+        {
+            // Not one of ours, for example the session's own test requests
+            recorder.onUnmatchedReply();
+            return;
+        }
+
+        final long intendedSendTimeInNs = buffer.parseLongAscii(offset, separatorIndex);
+        final long lagInNs = buffer.parseLongAscii(
+            offset + separatorIndex + 1, length - separatorIndex - 1);
+        recorder.onReply(kind, intendedSendTimeInNs, intendedSendTimeInNs + lagInNs, timeInNs);
+    }
+
+    public void onTimeout(final int libraryId, final Session session)
+    {
+    }
+
+    public void onSlowStatus(final int libraryId, final Session session, final boolean hasBecomeSlow)
+    {
+        System.out.printf("%s %s%n", senderCompId, hasBecomeSlow ? "became slow" : "became not slow");
+    }
+
+    public Action onDisconnect(final int libraryId, final Session session, final DisconnectReason reason)
+    {
+        connected = false;
+
+        return CONTINUE;
+    }
+
+    public void onSessionStart(final Session session)
+    {
+    }
+}
@@ -15,9 +15,11 @@
  */
 package uk.co.real_logic.artio.system_benchmarks;
 
+import org.agrona.concurrent.BusySpinIdleStrategy;
 import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.NoOpIdleStrategy;
 import org.agrona.concurrent.YieldingIdleStrategy;
+import uk.co.real_logic.artio.AdaptiveIdleStrategy;
 
 import java.util.concurrent.TimeUnit;
 
@@ -42,10 +44,12 @@ public final class BenchmarkConfiguration
     public static final int NUMBER_OF_SESSIONS = Integer.getInteger("fix.benchmark.num_sessions", 25);
     public static final long LOGOUT_LINGER_TIMEOUT_IN_MS = Long.getLong(
         "fix.benchmark.logout_linger_timeout", TimeUnit.SECONDS.toMillis(2));
+    public static final long IDLE_PERIOD_IN_S = Long.getLong("fix.benchmark.idle_period_s", 0);
+    public static final long CPU_REPORT_INTERVAL_IN_S = Long.getLong("fix.benchmark.cpu_report_interval_s", 0);
     public static final String VALID_PASSWORD = "password";
     public static final char[] VALID_PASSWORD_CHARS = VALID_PASSWORD.toCharArray();
 
-    static IdleStrategy idleStrategy()
+    public static IdleStrategy idleStrategy()
     {
         final String strategyName = System.getProperty("fix.benchmark.engine_idle", "");
         switch (strategyName)
@@ -56,6 +60,12 @@ public final class BenchmarkConfiguration
             case "yield":
                 return new YieldingIdleStrategy();
 
+            case "busy_spin":
+                return new BusySpinIdleStrategy();
+
+            case "adaptive":
+                return new AdaptiveIdleStrategy();
+
             default:
             case "backoff":
                 return backoffIdleStrategy();
@@ -31,6 +31,9 @@ import uk.co.real_logic.artio.library.LibraryConnectHandler;
 import uk.co.real_logic.artio.validation.AuthenticationProxy;
 import uk.co.real_logic.artio.validation.AuthenticationStrategy;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -51,6 +54,10 @@ public final class FixBenchmarkServer
         {
             final IdleStrategy idleStrategy = idleStrategy();
             System.out.printf("Using %s idle strategy%n", idleStrategy.getClass().getSimpleName());
+            if (CPU_REPORT_INTERVAL_IN_S > 0)
+            {
+                startFramerCpuReporting();
+            }
             while (true)
             {
                 final boolean notConnected = !library.isConnected();
@@ -70,6 +77,38 @@ public final class FixBenchmarkServer
         }
     }
 
+    // Prints the share of a core that the Framer thread used over each interval, eg: whilst the
+    // ManyConnectionsBenchmarkClient holds connections idle.
+    private static void startFramerCpuReporting()
+    {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        final long intervalInNs = TimeUnit.SECONDS.toNanos(CPU_REPORT_INTERVAL_IN_S);
+        final long[] lastCpuTimeInNs = {-1};
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            final Thread thread = new Thread(runnable, "framer-cpu-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        executor.scheduleAtFixedRate(() ->
+        {
+            for (final ThreadInfo info : threadMXBean.getThreadInfo(threadMXBean.getAllThreadIds()))
+            {
+                if (info != null && info.getThreadName().endsWith("Framer"))
+                {
+                    final long cpuTimeInNs = threadMXBean.getThreadCpuTime(info.getThreadId());
+                    if (lastCpuTimeInNs[0] >= 0)
+                    {
+                        System.out.printf("Framer CPU usage: %.2f%%%n",
+                            100.0 * (cpuTimeInNs - lastCpuTimeInNs[0]) / intervalInNs);
+                    }
+                    lastCpuTimeInNs[0] = cpuTimeInNs;
+                }
+            }
+        }, intervalInNs, intervalInNs, TimeUnit.NANOSECONDS);
+    }
+
     private static ArchivingMediaDriver newMediaDriver()
     {
         final MediaDriver.Context context = new MediaDriver.Context()
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.system_benchmarks;
+
+import org.HdrHistogram.Histogram;
+import org.agrona.LangUtil;
+import uk.co.real_logic.artio.builder.HeaderEncoder;
+import uk.co.real_logic.artio.builder.LogonEncoder;
+import uk.co.real_logic.artio.builder.TestRequestEncoder;
+import uk.co.real_logic.artio.timing.HistogramLogReader;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.*;
+
+/**
+ * Measures the round trip latency of test requests on an established session whilst
+ * <code>fix.benchmark.storm_connections</code> other counter-parties connect and logon at once.
+ *
+ * Run the {@link FixBenchmarkServer} with and without the engine's admission control properties, eg:
+ * <code>fix.core.accept_rate_per_second</code> and <code>fix.core.max_pending_logons</code>, to compare how well the
+ * established session is shielded from the storm.
+ */
+public final class LogonStormBenchmarkClient extends AbstractBenchmarkClient
+{
+    public static final int STORM_CONNECTIONS = Integer.getInteger("fix.benchmark.storm_connections", 5_000);
+
+    public static void main(final String[] args) throws IOException
+    {
+        new LogonStormBenchmarkClient().runBenchmark();
+    }
+
+    public void runBenchmark() throws IOException
+    {
+        try (SocketChannel socketChannel = open())
+        {
+            write(socketChannel, encodeLogon(this, INITIATOR_ID));
+            read(socketChannel);
+
+            final TestRequestEncoder testRequest = setupTestRequest();
+            final HeaderEncoder header = testRequest.header();
+            final Histogram histogram = new Histogram(3);
+
+            int seqNum = 2;
+            for (int i = 0; i < WARMUP_MESSAGES; i++)
+            {
+                exchangeMessage(socketChannel, testRequest, header, seqNum++, histogram);
+            }
+            System.out.println("Warmup Complete");
+
+            parkAfterWarmup();
+            histogram.reset();
+
+            final LogonStorm logonStorm = new LogonStorm();
+            final Thread stormThread = new Thread(logonStorm, "logon-storm");
+            stormThread.start();
+
+            for (int i = 0; i < MESSAGES_EXCHANGED; i++)
+            {
+                exchangeMessage(socketChannel, testRequest, header, seqNum++, histogram);
+            }
+
+            HistogramLogReader.prettyPrint(
+                System.currentTimeMillis(), histogram, "Established Session During Logon Storm in Micros", 1000);
+
+            join(stormThread);
+        }
+    }
+
+    private void exchangeMessage(
+        final SocketChannel socketChannel,
+        final TestRequestEncoder testRequest,
+        final HeaderEncoder header,
+        final int seqNum,
+        final Histogram histogram)
+        throws IOException
+    {
+        final long result = encode(testRequest, header, seqNum);
+
+        final long sendingTime = System.nanoTime();
+        write(socketChannel, result);
+
+        read(socketChannel);
+        histogram.recordValue(System.nanoTime() - sendingTime);
+    }
+
+    private static long encodeLogon(final AbstractBenchmarkClient client, final String initiatorId)
+    {
+        final LogonEncoder logon = new LogonEncoder();
+        logon.heartBtInt(10).password(VALID_PASSWORD_CHARS);
+        client.setupHeader(initiatorId, logon.header()).msgSeqNum(1);
+        client.timestampEncoder.encode(System.currentTimeMillis());
+
+        return logon.encode(client.writeFlyweight, 0);
+    }
+
+    private static void join(final Thread thread)
+    {
+        try
+        {
+            thread.join();
+        }
+        catch (final InterruptedException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+    }
+
+    // Has its own buffers since it runs alongside the established session's thread.
+    private static final class LogonStorm extends AbstractBenchmarkClient implements Runnable
+    {
+        public void run()
+        {
+            final List<SocketChannel> socketChannels = new ArrayList<>(STORM_CONNECTIONS);
+            try
+            {
+                final long startTimeInNs = System.nanoTime();
+                for (int i = 0; i < STORM_CONNECTIONS; i++)
+                {
+                    final SocketChannel socketChannel = open();
+                    socketChannels.add(socketChannel);
+                    write(socketChannel, encodeLogon(this, INITIATOR_ID + i));
+                }
+
+                // Each connection's logon has been handled once it gets a reply, whether that's a logon or not.
+                int pendingReplies = STORM_CONNECTIONS;
+                final boolean[] replied = new boolean[STORM_CONNECTIONS];
+                while (pendingReplies > 0)
+                {
+                    for (int i = 0; i < STORM_CONNECTIONS; i++)
+                    {
+                        if (!replied[i])
+                        {
+                            readBuffer.clear();
+                            if (socketChannels.get(i).read(readBuffer) != 0)
+                            {
+                                replied[i] = true;
+                                pendingReplies--;
+                            }
+                        }
+                    }
+                }
+
+                System.out.printf("Logon storm of %d connections handled in %d ms%n",
+                    STORM_CONNECTIONS, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeInNs));
+            }
+            catch (final IOException ex)
+            {
+                ex.printStackTrace();
+            }
+            finally
+            {
+                for (final SocketChannel socketChannel : socketChannels)
+                {
+                    try
+                    {
+                        socketChannel.close();
+                    }
+                    catch (final IOException ex)
+                    {
+                        ex.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+}
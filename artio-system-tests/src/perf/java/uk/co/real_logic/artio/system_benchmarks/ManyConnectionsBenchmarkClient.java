@@ -19,9 +19,22 @@ import uk.co.real_logic.artio.builder.TestRequestEncoder;
 
 import java.io.IOException;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.IDLE_PERIOD_IN_S;
 import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.INITIATOR_ID;
 
+/**
+ * Connects {@link #NUMBER_OF_CLIENTS} sessions one after another.
+ *
+ * If <code>fix.benchmark.idle_period_s</code> is set then the connections are all held open and idle for that period
+ * once they have logged on, rather than being closed straight away. Run the {@link FixBenchmarkServer} with
+ * <code>fix.benchmark.cpu_report_interval_s</code> set in order to see what the idle connections cost its Framer
+ * thread.
+ */
 public final class ManyConnectionsBenchmarkClient extends AbstractBenchmarkClient
 {
     public static void main(final String[] args) throws IOException
@@ -31,8 +44,17 @@ public final class ManyConnectionsBenchmarkClient extends AbstractBenchmarkClien
 
     public static final int NUMBER_OF_CLIENTS = 10_000;
 
+    // Long enough that no heartbeats or test requests need to be sent during the idle period.
+    private static final int IDLE_HEARTBEAT_INTERVAL_IN_S = (int)Math.max(10, IDLE_PERIOD_IN_S * 2);
+
     public void runBenchmark() throws IOException
     {
+        if (IDLE_PERIOD_IN_S > 0)
+        {
+            runIdleBenchmark();
+            return;
+        }
+
         for (int i = 0; i < NUMBER_OF_CLIENTS; i++)
         {
             final String initiatorId = INITIATOR_ID + i;
@@ -56,4 +78,30 @@ public final class ManyConnectionsBenchmarkClient extends AbstractBenchmarkClien
             System.out.printf("Finished Client: %d%n", i + 1);
         }
     }
+
+    private void runIdleBenchmark() throws IOException
+    {
+        final List<SocketChannel> socketChannels = new ArrayList<>(NUMBER_OF_CLIENTS);
+        try
+        {
+            for (int i = 0; i < NUMBER_OF_CLIENTS; i++)
+            {
+                final SocketChannel socketChannel = open();
+                socketChannels.add(socketChannel);
+                logon(socketChannel, INITIATOR_ID + i, IDLE_HEARTBEAT_INTERVAL_IN_S);
+            }
+
+            System.out.printf("Logged on %d clients, idling for %d s%n", NUMBER_OF_CLIENTS, IDLE_PERIOD_IN_S);
+            final long startTimeInMs = System.currentTimeMillis();
+            LockSupport.parkNanos(SECONDS.toNanos(IDLE_PERIOD_IN_S));
+            System.out.printf("Finished idling after %d ms%n", System.currentTimeMillis() - startTimeInMs);
+        }
+        finally
+        {
+            for (final SocketChannel socketChannel : socketChannels)
+            {
+                socketChannel.close();
+            }
+        }
+    }
 }
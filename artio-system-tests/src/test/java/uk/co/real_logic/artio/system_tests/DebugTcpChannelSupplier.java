@@ -40,9 +40,10 @@ public class DebugTcpChannelSupplier extends DefaultTcpChannelSupplier
         super(configuration);
     }
 
-    protected synchronized TcpChannel newTcpChannel(final SocketChannel channel) throws IOException
+    protected synchronized TcpChannel newTcpChannel(final SocketChannel channel, final boolean initiator)
+        throws IOException
     {
-        final TcpChannel tcpChannel = new TcpChannel(channel);
+        final TcpChannel tcpChannel = super.newTcpChannel(channel, initiator);
         channels.add(tcpChannel);
         return tcpChannel;
     }
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.system_tests;
+
+import io.aeron.archive.Archive;
+import io.aeron.archive.ArchivingMediaDriver;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.driver.MediaDriver;
+import org.agrona.CloseHelper;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.CloseChecker;
+import uk.co.real_logic.artio.ErrorHandlerFactory;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.engine.FixEngine;
+import uk.co.real_logic.artio.engine.SessionInfo;
+import uk.co.real_logic.artio.engine.StandbyEngine;
+import uk.co.real_logic.artio.Reply;
+import uk.co.real_logic.artio.library.LibraryConfiguration;
+import uk.co.real_logic.artio.messages.MetaDataStatus;
+import uk.co.real_logic.artio.session.Session;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+import static uk.co.real_logic.artio.TestFixtures.cleanupMediaDriver;
+import static uk.co.real_logic.artio.TestFixtures.launchMediaDriver;
+import static uk.co.real_logic.artio.TestFixtures.mediaDriverContext;
+import static uk.co.real_logic.artio.TestFixtures.TERM_BUFFER_LENGTH;
+import static uk.co.real_logic.artio.Timing.assertEventuallyTrue;
+import static uk.co.real_logic.artio.library.SessionConfiguration.AUTOMATIC_INITIAL_SEQUENCE_NUMBER;
+import static uk.co.real_logic.artio.system_tests.SystemTestUtil.*;
+import static uk.co.real_logic.artio.validation.SessionPersistenceStrategy.alwaysPersistent;
+
+public class StandbyEngineSystemTest extends AbstractGatewayToGatewaySystemTest
+{
+    private static final String STANDBY_LOGS = "standby-logs";
+    private static final String PRIMARY_ARCHIVE_CONTROL_CHANNEL = "aeron:udp?endpoint=localhost:8010";
+    private static final String STANDBY_ARCHIVE_CONTROL_CHANNEL = "aeron:udp?endpoint=localhost:8011";
+    private static final long PRIMARY_DOWN_TIME_IN_MS = 5_000;
+
+    private final File standbyDir = new File(IoUtil.tmpDirName(), "artio-standby");
+    private final List<Throwable> standbyErrors = new CopyOnWriteArrayList<>();
+
+    private ArchivingMediaDriver standbyMediaDriver;
+    private StandbyEngine standbyEngine;
+    private FixEngine promotedEngine;
+
+    @Before
+    public void launch()
+    {
+        mediaDriver = launchMediaDriver();
+        standbyMediaDriver = launchStandbyMediaDriver();
+
+        final EngineConfiguration acceptingConfig = acceptingConfig(port, ACCEPTOR_ID, INITIATOR_ID, nanoClock)
+            .deleteLogFileDirOnStart(true);
+        acceptingConfig.sessionPersistenceStrategy(alwaysPersistent());
+        acceptingEngine = FixEngine.launch(acceptingConfig);
+        initiatingEngine = launchInitiatingEngine(libraryAeronPort, nanoClock);
+
+        final LibraryConfiguration acceptingLibraryConfig = acceptingLibraryConfig(acceptingHandler, nanoClock);
+        acceptingLibrary = connect(acceptingLibraryConfig);
+        initiatingLibrary = newInitiatingLibrary(libraryAeronPort, initiatingHandler, nanoClock);
+        testSystem = new TestSystem(acceptingLibrary, initiatingLibrary);
+
+        final AeronArchive.Context primaryArchiveContext = new AeronArchive.Context()
+            .controlRequestChannel(PRIMARY_ARCHIVE_CONTROL_CHANNEL);
+        final EngineConfiguration standbyConfig = standbyConfig().deleteLogFileDirOnStart(true);
+        standbyConfig.errorHandlerFactory(errorBuffer ->
+        {
+            final ErrorHandler errorHandler = ErrorHandlerFactory.saveDistinctErrors().make(errorBuffer);
+            return throwable ->
+            {
+                standbyErrors.add(throwable);
+                errorHandler.onError(throwable);
+            };
+        });
+        standbyEngine = StandbyEngine.launch(standbyConfig, primaryArchiveContext);
+    }
+
+    @After
+    public void closeStandby()
+    {
+        // A library connected to the promoted engine uses the standby's media driver
+        closeAcceptingLibrary();
+        acceptingLibrary = null;
+        CloseHelper.closeAll(promotedEngine, standbyEngine);
+        cleanupMediaDriver(standbyMediaDriver);
+    }
+
+    @Test(timeout = TEST_TIMEOUT_IN_MS)
+    public void shouldIndexPrimaryRecordingsAndPromote()
+    {
+        connectSessions();
+        acquireAcceptingSession();
+        messagesCanBeExchanged();
+
+        final long sessionId = acceptingSession.id();
+        awaitStandbyIndexed(sessionId);
+        assertEquals(1, standbyEngine.allSessions().size());
+
+        closeAcceptingLibrary();
+        closeAcceptingEngine();
+
+        promotedEngine = standbyEngine.promote(standbyConfig());
+
+        final List<SessionInfo> sessions = promotedEngine.allSessions();
+        assertEquals(1, sessions.size());
+        final SessionInfo sessionInfo = sessions.get(0);
+        assertEquals(sessionId, sessionInfo.sessionId());
+        assertEquals(acceptingSession.compositeKey(), sessionInfo.sessionKey());
+    }
+
+    @Test(timeout = TEST_TIMEOUT_IN_MS)
+    public void shouldReplicateMetaDataAndContinueSequenceNumbersAfterPromotion()
+    {
+        connectPersistentSessions();
+        acquireAcceptingSession();
+        messagesCanBeExchanged();
+
+        final long sessionId = acceptingSession.id();
+        final UnsafeBuffer writeBuffer = new UnsafeBuffer(new byte[SIZE_OF_INT]);
+        writeBuffer.putInt(0, META_DATA_VALUE);
+        assertEquals(MetaDataStatus.OK, writeMetaData(writeBuffer, sessionId).resultIfPresent());
+
+        logoutInitiatingSession();
+        assertSessionsDisconnected();
+
+        final int lastReceivedSequenceNumber = acceptingSession.lastReceivedMsgSeqNum();
+        final int lastSentSequenceNumber = acceptingSession.lastSentMsgSeqNum();
+        awaitStandbyIndexed(sessionId);
+
+        closeAcceptingLibrary();
+        closeAcceptingEngine();
+
+        promotedEngine = standbyEngine.promote(standbyConfig());
+
+        final LibraryConfiguration libraryConfig = acceptingLibraryConfig(acceptingHandler, nanoClock);
+        libraryConfig.aeronContext().aeronDirectoryName(standbyMediaDriver.mediaDriver().aeronDirectoryName());
+        acceptingLibrary = testSystem.add(connect(libraryConfig));
+        acceptingHandler.clearSessionExistsInfos();
+
+        connectPersistentSessions();
+        acquireAcceptingSession();
+        assertEquals(sessionId, acceptingSession.id());
+        assertSequenceFromInitToAcceptAt(lastReceivedSequenceNumber + 1, lastSentSequenceNumber + 1);
+
+        final FakeMetadataHandler handler = readMetaData(sessionId);
+        assertEquals(MetaDataStatus.OK, handler.status());
+        assertEquals(META_DATA_VALUE, handler.buffer().getInt(0));
+    }
+
+    @Test(timeout = TEST_TIMEOUT_IN_MS)
+    public void shouldKeepRunningWhilstThePrimaryIsDown() throws InterruptedException
+    {
+        connectSessions();
+        acquireAcceptingSession();
+        messagesCanBeExchanged();
+
+        final long sessionId = acceptingSession.id();
+        awaitStandbyIndexed(sessionId);
+
+        closePrimary();
+
+        // Long enough for several attempts to discover recordings at the standby's initial interval
+        Thread.sleep(PRIMARY_DOWN_TIME_IN_MS);
+        final long discoveryErrors = standbyErrors.stream()
+            .filter(error -> Arrays.stream(error.getStackTrace())
+            .anyMatch(frame -> frame.getMethodName().equals("discoverRecordings")))
+            .count();
+        assertThat(discoveryErrors, lessThanOrEqualTo(1L));
+
+        promotedEngine = standbyEngine.promote(standbyConfig());
+        assertEquals(1, promotedEngine.allSessions().size());
+    }
+
+    private void closePrimary()
+    {
+        closeAcceptingLibrary();
+        acceptingLibrary = null;
+        testSystem.remove(initiatingLibrary);
+        CloseHelper.close(initiatingLibrary);
+        initiatingLibrary = null;
+        closeInitiatingEngine();
+        closeAcceptingEngine();
+        cleanupMediaDriver(mediaDriver);
+        mediaDriver = null;
+    }
+
+    private void connectPersistentSessions()
+    {
+        final Reply<Session> reply = connectPersistentSessions(
+            AUTOMATIC_INITIAL_SEQUENCE_NUMBER, AUTOMATIC_INITIAL_SEQUENCE_NUMBER, false);
+        initiatingSession = completeConnectSessions(reply);
+    }
+
+    private void awaitStandbyIndexed(final long sessionId)
+    {
+        final int lastReceivedSequenceNumber = acceptingSession.lastReceivedMsgSeqNum();
+        final int lastSentSequenceNumber = acceptingSession.lastSentMsgSeqNum();
+
+        assertEventuallyTrue("Standby failed to index the primary's recordings", () ->
+            standbyEngine.lastReceivedSequenceNumber(sessionId) == lastReceivedSequenceNumber &&
+            standbyEngine.lastSentSequenceNumber(sessionId) == lastSentSequenceNumber);
+    }
+
+    private EngineConfiguration standbyConfig()
+    {
+        final EngineConfiguration configuration = acceptingConfig(
+            port, ACCEPTOR_ID, INITIATOR_ID, STANDBY_LOGS, nanoClock)
+            .monitoringFile(acceptorMonitoringFile("standbyCounters"));
+        configuration.sessionPersistenceStrategy(alwaysPersistent());
+        configuration.aeronContext().aeronDirectoryName(standbyMediaDriver.mediaDriver().aeronDirectoryName());
+        configuration.aeronArchiveContext().controlRequestChannel(STANDBY_ARCHIVE_CONTROL_CHANNEL);
+        return configuration;
+    }
+
+    private ArchivingMediaDriver launchStandbyMediaDriver()
+    {
+        final MediaDriver.Context context = mediaDriverContext(TERM_BUFFER_LENGTH, true)
+            .aeronDirectoryName(new File(standbyDir, "aeron").getAbsolutePath());
+        final Archive.Context archiveContext = new Archive.Context()
+            .deleteArchiveOnStart(true)
+            .segmentFileLength(context.ipcTermBufferLength())
+            .archiveDir(new File(standbyDir, "archive"))
+            .controlChannel(STANDBY_ARCHIVE_CONTROL_CHANNEL)
+            .recordingEventsEnabled(false);
+
+        final ArchivingMediaDriver standbyMediaDriver = ArchivingMediaDriver.launch(context, archiveContext);
+        CloseChecker.onOpen(context.aeronDirectoryName(), standbyMediaDriver);
+        return standbyMediaDriver;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015-2022 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.system_tests;
+
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.MonitoringAgentFactory;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.engine.FixEngine;
+
+import javax.net.ssl.SSLContext;
+
+import static uk.co.real_logic.artio.TestFixtures.*;
+import static uk.co.real_logic.artio.system_tests.SystemTestUtil.*;
+
+public class TlsSystemTest extends AbstractGatewayToGatewaySystemTest
+{
+    @Before
+    public void launch() throws Exception
+    {
+        final SSLContext sslContext = testSslContext();
+
+        mediaDriver = launchMediaDriver(mediaDriverContext(TERM_BUFFER_LENGTH, true));
+
+        final EngineConfiguration acceptingConfig = acceptingConfig(port, ACCEPTOR_ID, INITIATOR_ID, nanoClock)
+            .deleteLogFileDirOnStart(true)
+            .acceptorSslContext(sslContext);
+        acceptingConfig.monitoringAgentFactory(MonitoringAgentFactory.none());
+        acceptingEngine = FixEngine.launch(acceptingConfig);
+
+        final EngineConfiguration initiatingConfig = initiatingConfig(libraryAeronPort, nanoClock)
+            .deleteLogFileDirOnStart(true)
+            .initiatorSslContext(sslContext);
+        initiatingConfig.monitoringAgentFactory(MonitoringAgentFactory.none());
+        initiatingEngine = FixEngine.launch(initiatingConfig);
+
+        acceptingLibrary = connect(acceptingLibraryConfig(acceptingHandler, nanoClock));
+        initiatingLibrary = connect(initiatingLibraryConfig(libraryAeronPort, initiatingHandler, nanoClock));
+        testSystem = new TestSystem(acceptingLibrary, initiatingLibrary);
+
+        connectSessions();
+    }
+
+    @Test(timeout = TEST_TIMEOUT_IN_MS)
+    public void messagesCanBeExchangedOverTls()
+    {
+        acquireAcceptingSession();
+
+        messagesCanBeExchanged();
+        acceptingMessagesCanBeExchanged();
+
+        assertSequenceIndicesAre(0);
+    }
+
+    @Test(timeout = TEST_TIMEOUT_IN_MS)
+    public void messagesLargerThanTheReceiveBufferSpaceCanBeExchangedOverTls()
+    {
+        acquireAcceptingSession();
+
+        // Spans TLS records and leaves partial records spilled over between reads
+        for (int i = 0; i < 3; i++)
+        {
+            messagesCanBeExchanged(initiatingSession, initiatingOtfAcceptor, largeTestReqId());
+            messagesCanBeExchanged(acceptingSession, acceptingOtfAcceptor, largeTestReqId());
+            clearMessages();
+        }
+
+        messagesCanBeExchanged();
+    }
+}
@@ -0,0 +1,12 @@
+#!/bin/sh
+
+set -eu
+
+java \
+  -verbose:gc \
+  -XX:+PrintGCDetails \
+  -cp artio-system-tests-*-benchmarks.jar \
+  -Dfix.codecs.no_validation=true \
+  -Dfix.benchmark.engine_idle=noop \
+  uk.co.real_logic.artio.load_generator.LoadGenerator \
+  load-scenario.properties